@@ -53,9 +53,9 @@ public class ByteBufferDecoder extends AbstractDataBufferDecoder<ByteBuffer> {
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
 		int byteCount = dataBuffer.readableByteCount();
-		ByteBuffer copy = ByteBuffer.allocate(byteCount);
-		copy.put(dataBuffer.asByteBuffer());
-		copy.flip();
+		byte[] bytes = new byte[byteCount];
+		dataBuffer.read(bytes);
+		ByteBuffer copy = ByteBuffer.wrap(bytes);
 		DataBufferUtils.release(dataBuffer);
 		if (logger.isDebugEnabled()) {
 			logger.debug(Hints.getLogPrefix(hints) + "Read " + byteCount + " bytes");
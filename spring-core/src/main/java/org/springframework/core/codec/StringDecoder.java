@@ -16,23 +16,26 @@
 
 package org.springframework.core.codec;
 
-import java.nio.CharBuffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.CompositeDataBuffer;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -40,10 +43,12 @@ import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 
 /**
- * Decode from a data buffer stream to a {@code String} stream. Before decoding, this decoder
- * realigns the incoming data buffers so that each buffer ends with a newline.
- * This is to make sure that multibyte characters are decoded properly, and do not cross buffer
- * boundaries. The default delimiters ({@code \n}, {@code \r\n})can be customized.
+ * Decode from a data buffer stream to a {@code String} stream, with one {@code String}
+ * per line. The incoming data buffers are split on delimiters in a single pass, and each
+ * line is decoded only once complete, from a slice of the buffer it is contained in, or
+ * from the joined buffers it spans. This is to make sure that multibyte characters are
+ * decoded properly, even if they cross buffer boundaries. The default delimiters
+ * ({@code \n}, {@code \r\n}) can be customized.
  *
  * <p>Partially inspired by Netty's {@code DelimiterBasedFrameDecoder}.
  *
@@ -56,8 +61,6 @@ import org.springframework.util.MimeTypeUtils;
  */
 public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 
-	private static final DataBuffer END_FRAME = new DefaultDataBufferFactory().wrap(new byte[0]);
-
 	/**
 	 * The default charset to use, i.e. "UTF-8".
 	 */
@@ -73,9 +76,13 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 
 	private final boolean stripDelimiter;
 
+	private final ConcurrentMap<Charset, byte[][]> delimitersCache = new ConcurrentHashMap<>();
+
+
 	private StringDecoder(List<String> delimiters, boolean stripDelimiter, MimeType... mimeTypes) {
 		super(mimeTypes);
 		Assert.notEmpty(delimiters, "'delimiters' must not be empty");
+		Assert.isTrue(delimiters.stream().noneMatch(String::isEmpty), "'delimiters' must not contain empty delimiters");
 		this.delimiters = new ArrayList<>(delimiters);
 		this.stripDelimiter = stripDelimiter;
 	}
@@ -91,112 +98,22 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 	public Flux<String> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		List<byte[]> delimiterBytes = getDelimiterBytes(mimeType);
+		byte[][] delimiterBytes = getDelimiterBytes(mimeType);
 
-		Flux<DataBuffer> inputFlux = Flux.from(inputStream)
-				.flatMap(dataBuffer -> splitOnDelimiter(dataBuffer, delimiterBytes))
-				.bufferUntil(StringDecoder::isEndFrame)
-				.flatMap(StringDecoder::joinUntilEndFrame);
+		Flux<DataBuffer> inputFlux = Flux.defer(() -> {
+			LineSplitter splitter = new LineSplitter(delimiterBytes, this.stripDelimiter);
+			return Flux.from(inputStream)
+					.flatMapIterable(splitter::split)
+					.concatWith(Mono.defer(splitter::complete))
+					.doFinally(signalType -> splitter.release());
+		});
 		return super.decode(inputFlux, elementType, mimeType, hints);
 	}
 
-	private List<byte[]> getDelimiterBytes(@Nullable MimeType mimeType) {
-		Charset charset = getCharset(mimeType);
-		return this.delimiters.stream()
+	private byte[][] getDelimiterBytes(@Nullable MimeType mimeType) {
+		return this.delimitersCache.computeIfAbsent(getCharset(mimeType), charset -> this.delimiters.stream()
 				.map(s -> s.getBytes(charset))
-				.collect(Collectors.toList());
-	}
-
-	/**
-	 * Splits the given data buffer on delimiter boundaries. The returned Flux contains a
-	 * {@link #END_FRAME} buffer after each delimiter.
-	 */
-	private Flux<DataBuffer> splitOnDelimiter(DataBuffer dataBuffer, List<byte[]> delimiterBytes) {
-		List<DataBuffer> frames = new ArrayList<>();
-		do {
-			int length = Integer.MAX_VALUE;
-			byte[] matchingDelimiter = null;
-			for (byte[] delimiter : delimiterBytes) {
-				int idx = indexOf(dataBuffer, delimiter);
-				if (idx >= 0 && idx < length) {
-					length = idx;
-					matchingDelimiter = delimiter;
-				}
-			}
-			DataBuffer frame;
-			int readPosition = dataBuffer.readPosition();
-			if (matchingDelimiter != null) {
-				if (this.stripDelimiter) {
-					frame = dataBuffer.slice(readPosition, length);
-				}
-				else {
-					frame = dataBuffer.slice(readPosition, length + matchingDelimiter.length);
-				}
-				dataBuffer.readPosition(readPosition + length + matchingDelimiter.length);
-
-				frames.add(DataBufferUtils.retain(frame));
-				frames.add(END_FRAME);
-			}
-			else {
-				frame = dataBuffer.slice(readPosition, dataBuffer.readableByteCount());
-				dataBuffer.readPosition(readPosition + dataBuffer.readableByteCount());
-				frames.add(DataBufferUtils.retain(frame));
-			}
-		}
-		while (dataBuffer.readableByteCount() > 0);
-
-		DataBufferUtils.release(dataBuffer);
-		return Flux.fromIterable(frames);
-	}
-
-	/**
-	 * Finds the given delimiter in the given data buffer. Return the index of the delimiter, or
-	 * -1 if not found.
-	 */
-	private static int indexOf(DataBuffer dataBuffer, byte[] delimiter) {
-		for (int i = dataBuffer.readPosition(); i < dataBuffer.writePosition(); i++) {
-			int dataBufferPos = i;
-			int delimiterPos = 0;
-			while (delimiterPos < delimiter.length) {
-				if (dataBuffer.getByte(dataBufferPos) != delimiter[delimiterPos]) {
-					break;
-				}
-				else {
-					dataBufferPos++;
-					if (dataBufferPos == dataBuffer.writePosition() &&
-							delimiterPos != delimiter.length - 1) {
-						return -1;
-					}
-				}
-				delimiterPos++;
-			}
-
-			if (delimiterPos == delimiter.length) {
-				return i - dataBuffer.readPosition();
-			}
-		}
-		return -1;
-	}
-
-	/**
-	 * Checks whether the given buffer is {@link #END_FRAME}.
-	 */
-	private static boolean isEndFrame(DataBuffer dataBuffer) {
-		return dataBuffer == END_FRAME;
-	}
-
-	/**
-	 * Joins the given list of buffers into a single buffer.
-	 */
-	private static Mono<DataBuffer> joinUntilEndFrame(List<DataBuffer> dataBuffers) {
-		if (!dataBuffers.isEmpty()) {
-			int lastIdx = dataBuffers.size() - 1;
-			if (isEndFrame(dataBuffers.get(lastIdx))) {
-				dataBuffers.remove(lastIdx);
-			}
-		}
-		Flux<DataBuffer> flux = Flux.fromIterable(dataBuffers);
-		return DataBufferUtils.join(flux);
+				.toArray(byte[][]::new));
 	}
 
 	@Override
@@ -204,9 +121,24 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
 		Charset charset = getCharset(mimeType);
-		CharBuffer charBuffer = charset.decode(dataBuffer.asByteBuffer());
+		String value;
+		if (dataBuffer instanceof CompositeDataBuffer) {
+			// Lines spanning several buffers: copy once, rather than through asByteBuffer()
+			byte[] bytes = new byte[dataBuffer.readableByteCount()];
+			dataBuffer.read(bytes);
+			value = new String(bytes, charset);
+		}
+		else {
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+			if (byteBuffer.hasArray()) {
+				value = new String(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(),
+						byteBuffer.remaining(), charset);
+			}
+			else {
+				value = charset.decode(byteBuffer).toString();
+			}
+		}
 		DataBufferUtils.release(dataBuffer);
-		String value = charBuffer.toString();
 		LogFormatUtils.traceDebug(logger, traceOn -> {
 			String formatted = LogFormatUtils.formatValue(value, !traceOn);
 			return Hints.getLogPrefix(hints) + "Decoded " + formatted;
@@ -277,4 +209,222 @@ public final class StringDecoder extends AbstractDataBufferDecoder<String> {
 	}
 
 
+
+	/**
+	 * Splits the data buffers of a single input stream on delimiters, in one
+	 * pass over each buffer. Lines are returned as retained slices of the input,
+	 * joined through the {@link DataBufferFactory} if they span several buffers.
+	 * The last bytes of an incomplete line are kept so that a delimiter spanning
+	 * buffers is matched without scanning the line again.
+	 */
+	private static class LineSplitter {
+
+		private static final long ONES = 0x0101010101010101L;
+
+		private static final long HIGH_BITS = 0x8080808080808080L;
+
+		private final byte[][] delimiters;
+
+		private final boolean stripDelimiter;
+
+		/**
+		 * The last byte shared by all delimiters, repeated in every byte, or 0
+		 * if the delimiters end with different bytes.
+		 */
+		private final long endBytePattern;
+
+		private final boolean[] endBytes = new boolean[256];
+
+		/**
+		 * The last bytes of the pending line, as far as needed to match a delimiter.
+		 */
+		private final byte[] tail;
+
+		private int tailLength;
+
+		private final List<DataBuffer> pending = new ArrayList<>();
+
+		private boolean dataReceived;
+
+		@Nullable
+		private DataBufferFactory bufferFactory;
+
+		public LineSplitter(byte[][] delimiters, boolean stripDelimiter) {
+			// Longest delimiters first, so that "\r\n" is preferred over "\n"
+			this.delimiters = delimiters.clone();
+			Arrays.sort(this.delimiters, (d1, d2) -> Integer.compare(d2.length, d1.length));
+			this.stripDelimiter = stripDelimiter;
+			for (byte[] delimiter : delimiters) {
+				this.endBytes[delimiter[delimiter.length - 1] & 0xFF] = true;
+			}
+			byte endByte = this.delimiters[0][this.delimiters[0].length - 1];
+			boolean sameEndByte = true;
+			for (byte[] delimiter : delimiters) {
+				sameEndByte &= (delimiter[delimiter.length - 1] == endByte);
+			}
+			this.endBytePattern = (sameEndByte ? (endByte & 0xFFL) * ONES : 0);
+			this.tail = new byte[this.delimiters[0].length - 1];
+		}
+
+		public List<DataBuffer> split(DataBuffer dataBuffer) {
+			this.bufferFactory = dataBuffer.factory();
+			List<DataBuffer> lines = new ArrayList<>();
+			try {
+				ByteBuffer byteBuffer = dataBuffer.asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+				int readPosition = dataBuffer.readPosition();
+				int count = byteBuffer.remaining();
+				int lineStart = 0;
+				int index = indexOfEndByte(byteBuffer, 0, count);
+				while (index != -1) {
+					byte[] delimiter = matchDelimiter(byteBuffer, lineStart, index);
+					if (delimiter != null) {
+						int length = index + 1 - lineStart;
+						if (this.stripDelimiter) {
+							length -= delimiter.length;
+							if (length < 0) {
+								// Part of the delimiter is in previous buffers
+								trimPending(-length);
+							}
+						}
+						if (length > 0) {
+							this.pending.add(DataBufferUtils.retain(dataBuffer.slice(readPosition + lineStart, length)));
+						}
+						lines.add(joinPending());
+						lineStart = index + 1;
+						this.tailLength = 0;
+					}
+					index = indexOfEndByte(byteBuffer, index + 1, count);
+				}
+				if (count > 0) {
+					this.dataReceived = true;
+				}
+				if (lineStart < count) {
+					this.pending.add(DataBufferUtils.retain(
+							dataBuffer.slice(readPosition + lineStart, count - lineStart)));
+					updateTail(byteBuffer, lineStart, count);
+				}
+				return lines;
+			}
+			catch (Throwable ex) {
+				lines.forEach(DataBufferUtils::release);
+				throw ex;
+			}
+			finally {
+				DataBufferUtils.release(dataBuffer);
+			}
+		}
+
+		/**
+		 * Find the next byte that a delimiter ends with, between the given indexes.
+		 */
+		private int indexOfEndByte(ByteBuffer byteBuffer, int fromIndex, int toIndex) {
+			int i = fromIndex;
+			if (this.endBytePattern != 0) {
+				// Test 8 bytes at once for a zero byte after XOR with the end byte
+				for (; i + Long.BYTES <= toIndex; i += Long.BYTES) {
+					long word = byteBuffer.getLong(i) ^ this.endBytePattern;
+					long found = (word - ONES) & ~word & HIGH_BITS;
+					if (found != 0) {
+						return i + (Long.numberOfTrailingZeros(found) >>> 3);
+					}
+				}
+			}
+			for (; i < toIndex; i++) {
+				if (this.endBytes[byteBuffer.get(i) & 0xFF]) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Return the longest delimiter that ends at the given index, and starts
+		 * no earlier than the current line, or {@code null} if none.
+		 */
+		@Nullable
+		private byte[] matchDelimiter(ByteBuffer byteBuffer, int lineStart, int endIndex) {
+			for (byte[] delimiter : this.delimiters) {
+				if (matches(delimiter, byteBuffer, lineStart, endIndex)) {
+					return delimiter;
+				}
+			}
+			return null;
+		}
+
+		private boolean matches(byte[] delimiter, ByteBuffer byteBuffer, int lineStart, int endIndex) {
+			int startIndex = endIndex + 1 - delimiter.length;
+			if (startIndex < lineStart && lineStart - startIndex > this.tailLength) {
+				return false;
+			}
+			for (int i = 0; i < delimiter.length; i++) {
+				int index = startIndex + i;
+				byte b = (index < lineStart ?
+						this.tail[this.tailLength - (lineStart - index)] : byteBuffer.get(index));
+				if (b != delimiter[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void updateTail(ByteBuffer byteBuffer, int fromIndex, int toIndex) {
+			int length = Math.min(toIndex - fromIndex, this.tail.length);
+			int keep = Math.min(this.tailLength, this.tail.length - length);
+			System.arraycopy(this.tail, this.tailLength - keep, this.tail, 0, keep);
+			for (int i = 0; i < length; i++) {
+				this.tail[keep + i] = byteBuffer.get(toIndex - length + i);
+			}
+			this.tailLength = keep + length;
+		}
+
+		private void trimPending(int byteCount) {
+			while (byteCount > 0 && !this.pending.isEmpty()) {
+				DataBuffer last = this.pending.get(this.pending.size() - 1);
+				int length = last.readableByteCount();
+				if (length <= byteCount) {
+					this.pending.remove(this.pending.size() - 1);
+					DataBufferUtils.release(last);
+					byteCount -= length;
+				}
+				else {
+					last.writePosition(last.writePosition() - byteCount);
+					byteCount = 0;
+				}
+			}
+		}
+
+		private DataBuffer joinPending() {
+			Assert.state(this.bufferFactory != null, "No DataBufferFactory");
+			DataBuffer result;
+			if (this.pending.isEmpty()) {
+				result = this.bufferFactory.allocateBuffer(0);
+			}
+			else if (this.pending.size() == 1) {
+				result = this.pending.get(0);
+			}
+			else {
+				result = this.bufferFactory.join(new ArrayList<>(this.pending));
+			}
+			this.pending.clear();
+			return result;
+		}
+
+		/**
+		 * Return the last line, if the input did not end with a delimiter, or
+		 * an empty line if the input consisted of empty buffers only.
+		 */
+		public Mono<DataBuffer> complete() {
+			if (this.pending.isEmpty() && (this.dataReceived || this.bufferFactory == null)) {
+				return Mono.empty();
+			}
+			return Mono.just(joinPending());
+		}
+
+		public void release() {
+			this.pending.forEach(DataBufferUtils::release);
+			this.pending.clear();
+		}
+	}
+
+
 }
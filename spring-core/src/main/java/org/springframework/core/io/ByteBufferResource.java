@@ -0,0 +1,216 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Resource} implementation for a given {@link ByteBuffer}, e.g. a
+ * {@link java.nio.MappedByteBuffer memory-mapped} file.
+ *
+ * <p>The content is exposed as a read-only view of the buffer, from its
+ * position to its limit at construction time. Every stream and channel
+ * reads from an independent view, so the resource can be read concurrently
+ * and any number of times, without copying the buffer.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see ByteArrayResource
+ * @see org.springframework.core.io.buffer.DataBufferUtils#read(Resource, long,
+ * org.springframework.core.io.buffer.DataBufferFactory, int)
+ */
+public class ByteBufferResource extends AbstractResource {
+
+	private final ByteBuffer byteBuffer;
+
+	private final String description;
+
+
+	/**
+	 * Create a new {@code ByteBufferResource}.
+	 * @param byteBuffer the buffer to wrap
+	 */
+	public ByteBufferResource(ByteBuffer byteBuffer) {
+		this(byteBuffer, "resource loaded from byte buffer");
+	}
+
+	/**
+	 * Create a new {@code ByteBufferResource} with a description.
+	 * @param byteBuffer the buffer to wrap
+	 * @param description where the buffer comes from
+	 */
+	public ByteBufferResource(ByteBuffer byteBuffer, @Nullable String description) {
+		Assert.notNull(byteBuffer, "ByteBuffer must not be null");
+		this.byteBuffer = byteBuffer.asReadOnlyBuffer();
+		this.description = (description != null ? description : "");
+	}
+
+
+	/**
+	 * Return a new read-only view of the underlying buffer, positioned at the
+	 * start of the content.
+	 */
+	public final ByteBuffer getByteBuffer() {
+		return this.byteBuffer.duplicate();
+	}
+
+	/**
+	 * This implementation always returns {@code true}.
+	 */
+	@Override
+	public boolean exists() {
+		return true;
+	}
+
+	/**
+	 * This implementation returns the number of bytes in the buffer.
+	 */
+	@Override
+	public long contentLength() {
+		return this.byteBuffer.remaining();
+	}
+
+	/**
+	 * This implementation returns an InputStream reading from a view of the
+	 * underlying buffer.
+	 */
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return new ByteBufferInputStream(getByteBuffer());
+	}
+
+	/**
+	 * This implementation returns a channel reading from a view of the
+	 * underlying buffer.
+	 */
+	@Override
+	public ReadableByteChannel readableChannel() throws IOException {
+		return new ByteBufferChannel(getByteBuffer());
+	}
+
+	/**
+	 * This implementation returns a description that includes the passed-in
+	 * {@code description}, if any.
+	 */
+	@Override
+	public String getDescription() {
+		return "ByteBuffer resource [" + this.description + "]";
+	}
+
+
+	/**
+	 * This implementation compares the underlying buffer content.
+	 * @see java.nio.ByteBuffer#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof ByteBufferResource &&
+				this.byteBuffer.equals(((ByteBufferResource) other).byteBuffer)));
+	}
+
+	/**
+	 * This implementation returns the hash code based on the
+	 * underlying buffer content.
+	 */
+	@Override
+	public int hashCode() {
+		return this.byteBuffer.hashCode();
+	}
+
+
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return (this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!this.buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, this.buffer.remaining());
+			this.buffer.get(bytes, off, len);
+			return len;
+		}
+
+		@Override
+		public long skip(long n) {
+			int skipped = (int) Math.max(Math.min(n, this.buffer.remaining()), 0);
+			((Buffer) this.buffer).position(this.buffer.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public int available() {
+			return this.buffer.remaining();
+		}
+	}
+
+
+	private static class ByteBufferChannel implements ReadableByteChannel {
+
+		private final ByteBuffer buffer;
+
+		private boolean open = true;
+
+		ByteBufferChannel(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) {
+			if (!this.buffer.hasRemaining()) {
+				return -1;
+			}
+			int length = Math.min(dst.remaining(), this.buffer.remaining());
+			ByteBuffer slice = this.buffer.slice();
+			((Buffer) slice).limit(length);
+			dst.put(slice);
+			((Buffer) this.buffer).position(this.buffer.position() + length);
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return this.open;
+		}
+
+		@Override
+		public void close() {
+			this.open = false;
+		}
+	}
+
+}
@@ -0,0 +1,662 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.IntPredicate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link DataBuffer} that presents a sequence of other data buffers as a single
+ * buffer, without copying their contents. Reads, writes and index lookups are
+ * routed to the component that holds the given position; {@link #asByteBuffers()}
+ * exposes the readable bytes as a gathering array of {@link ByteBuffer} views,
+ * whereas {@link #asByteBuffer()} has to copy them if they span several components.
+ *
+ * <p>The composite takes ownership of the buffers it is created with: they are
+ * released when the reference count of the composite drops to zero. Buffers
+ * obtained through {@link #slice(int, int)} share that reference count.
+ *
+ * <p>Writing beyond the current {@linkplain #capacity() capacity} appends a new
+ * component allocated from the {@linkplain #factory() factory}, rather than
+ * copying the existing components into a larger buffer.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see DefaultDataBufferFactory#join(List)
+ */
+public class CompositeDataBuffer implements PooledDataBuffer {
+
+	private static final int MIN_COMPONENT_CAPACITY = 256;
+
+	private static final Log logger = LogFactory.getLog(CompositeDataBuffer.class);
+
+	private static final AtomicIntegerFieldUpdater<CompositeDataBuffer> REF_COUNT_UPDATER =
+			AtomicIntegerFieldUpdater.newUpdater(CompositeDataBuffer.class, "refCount");
+
+
+	private final DataBufferFactory dataBufferFactory;
+
+	@Nullable
+	private final CompositeDataBuffer parent;
+
+	private final List<DataBuffer> buffers;
+
+	private final List<Component> components;
+
+	private int capacity;
+
+	private int readPosition;
+
+	private int writePosition;
+
+	private int lastComponentIndex;
+
+	private volatile int refCount = 1;
+
+
+	/**
+	 * Create a new {@code CompositeDataBuffer} over the readable bytes of the given
+	 * buffers. The buffers are released along with the composite.
+	 * @param dataBufferFactory the factory to allocate additional components with
+	 * @param dataBuffers the buffers to compose
+	 */
+	public CompositeDataBuffer(DataBufferFactory dataBufferFactory, List<? extends DataBuffer> dataBuffers) {
+		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
+		Assert.notNull(dataBuffers, "DataBuffers must not be null");
+		this.dataBufferFactory = dataBufferFactory;
+		this.parent = null;
+		this.buffers = new ArrayList<>(dataBuffers);
+		this.components = new ArrayList<>(dataBuffers.size());
+		for (DataBuffer dataBuffer : dataBuffers) {
+			if (dataBuffer instanceof CompositeDataBuffer) {
+				for (ByteBuffer byteBuffer : ((CompositeDataBuffer) dataBuffer).asByteBuffers()) {
+					addComponent(byteBuffer);
+				}
+			}
+			else if (dataBuffer.readableByteCount() > 0) {
+				addComponent(dataBuffer.asByteBuffer());
+			}
+		}
+		this.writePosition = this.capacity;
+	}
+
+	private CompositeDataBuffer(CompositeDataBuffer parent, List<ByteBuffer> byteBuffers) {
+		this.dataBufferFactory = parent.dataBufferFactory;
+		this.parent = (parent.parent != null ? parent.parent : parent);
+		this.buffers = Collections.emptyList();
+		this.components = new ArrayList<>(byteBuffers.size());
+		byteBuffers.forEach(this::addComponent);
+		this.writePosition = this.capacity;
+	}
+
+	private void addComponent(ByteBuffer byteBuffer) {
+		ByteBuffer slice = byteBuffer.slice();
+		this.components.add(new Component(slice, this.capacity));
+		this.capacity += slice.remaining();
+	}
+
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "'predicate' must not be null");
+
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int i = componentIndex(fromIndex); i < this.components.size(); i++) {
+			Component component = this.components.get(i);
+			int end = Math.min(component.end(), this.writePosition);
+			for (int index = Math.max(fromIndex, component.offset); index < end; index++) {
+				if (predicate.test(component.buffer.get(index - component.offset))) {
+					return index;
+				}
+			}
+			if (end == this.writePosition) {
+				break;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "'predicate' must not be null");
+		int fromPosition = Math.min(fromIndex, this.writePosition - 1);
+		if (fromPosition < 0) {
+			return -1;
+		}
+		for (int i = componentIndex(fromPosition); i >= 0; i--) {
+			Component component = this.components.get(i);
+			for (int index = Math.min(fromPosition, component.end() - 1); index >= component.offset; index--) {
+				if (predicate.test(component.buffer.get(index - component.offset))) {
+					return index;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public int writableByteCount() {
+		return this.capacity - this.writePosition;
+	}
+
+	@Override
+	public int readPosition() {
+		return this.readPosition;
+	}
+
+	@Override
+	public CompositeDataBuffer readPosition(int readPosition) {
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.writePosition;
+	}
+
+	@Override
+	public CompositeDataBuffer writePosition(int writePosition) {
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= this.capacity, "'writePosition' %d must be <= %d",
+				writePosition, this.capacity);
+
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>Increasing the capacity appends a newly allocated component; decreasing
+	 * it drops the components, or parts thereof, beyond the new capacity.
+	 */
+	@Override
+	public CompositeDataBuffer capacity(int newCapacity) {
+		Assert.isTrue(newCapacity > 0,
+				String.format("'newCapacity' %d must be higher than 0", newCapacity));
+		if (this.parent != null) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+
+		if (newCapacity > this.capacity) {
+			int length = newCapacity - this.capacity;
+			DataBuffer dataBuffer = this.dataBufferFactory.allocateBuffer(length);
+			this.buffers.add(dataBuffer);
+			addComponent(dataBuffer.asByteBuffer(0, length));
+		}
+		else if (newCapacity < this.capacity) {
+			int index = componentIndex(newCapacity - 1);
+			Component last = this.components.get(index);
+			ByteBuffer byteBuffer = last.buffer.duplicate();
+			((Buffer) byteBuffer).limit(newCapacity - last.offset);
+			this.components.set(index, new Component(byteBuffer.slice(), last.offset));
+			this.components.subList(index + 1, this.components.size()).clear();
+			this.capacity = newCapacity;
+			this.lastComponentIndex = 0;
+			if (this.writePosition > newCapacity) {
+				this.writePosition = newCapacity;
+			}
+			if (this.readPosition > newCapacity) {
+				this.readPosition = newCapacity;
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d",
+				index, this.writePosition - 1);
+
+		Component component = this.components.get(componentIndex(index));
+		return component.buffer.get(index - component.offset);
+	}
+
+	@Override
+	public byte read() {
+		assertIndex(this.readPosition <= this.writePosition - 1, "readPosition %d must be <= %d",
+				this.readPosition, this.writePosition - 1);
+		int pos = this.readPosition;
+		Component component = this.components.get(componentIndex(pos));
+		byte b = component.buffer.get(pos - component.offset);
+		this.readPosition = pos + 1;
+		return b;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "'destination' must not be null");
+		read(destination, 0, destination.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "'destination' must not be null");
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+
+		int index = this.readPosition;
+		int remaining = length;
+		for (int i = (length > 0 ? componentIndex(index) : 0); remaining > 0; i++) {
+			Component component = this.components.get(i);
+			ByteBuffer tmp = component.buffer.duplicate();
+			int pos = index - component.offset;
+			int count = Math.min(remaining, tmp.capacity() - pos);
+			((Buffer) tmp).clear().position(pos).limit(pos + count);
+			tmp.get(destination, offset + length - remaining, count);
+			index += count;
+			remaining -= count;
+		}
+
+		this.readPosition += length;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte b) {
+		ensureCapacity(1);
+		int pos = this.writePosition;
+		Component component = this.components.get(componentIndex(pos));
+		component.buffer.put(pos - component.offset, b);
+		this.writePosition = pos + 1;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source) {
+		Assert.notNull(source, "'source' must not be null");
+		write(source, 0, source.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source, int offset, int length) {
+		Assert.notNull(source, "'source' must not be null");
+		ensureCapacity(length);
+		write(ByteBuffer.wrap(source, offset, length));
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(DataBuffer... buffers) {
+		if (!ObjectUtils.isEmpty(buffers)) {
+			List<ByteBuffer> byteBuffers = new ArrayList<>(buffers.length);
+			for (DataBuffer buffer : buffers) {
+				if (buffer instanceof CompositeDataBuffer) {
+					Collections.addAll(byteBuffers, ((CompositeDataBuffer) buffer).asByteBuffers());
+				}
+				else {
+					byteBuffers.add(buffer.asByteBuffer());
+				}
+			}
+			if (!byteBuffers.isEmpty()) {
+				write(byteBuffers.toArray(new ByteBuffer[0]));
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(ByteBuffer... byteBuffers) {
+		Assert.notEmpty(byteBuffers, "'byteBuffers' must not be empty");
+		int length = 0;
+		for (ByteBuffer byteBuffer : byteBuffers) {
+			length += byteBuffer.remaining();
+		}
+		ensureCapacity(length);
+		for (ByteBuffer byteBuffer : byteBuffers) {
+			write(byteBuffer);
+		}
+		return this;
+	}
+
+	private void write(ByteBuffer source) {
+		if (!source.hasRemaining()) {
+			return;
+		}
+		for (int i = componentIndex(this.writePosition); source.hasRemaining(); i++) {
+			Component component = this.components.get(i);
+			ByteBuffer tmp = component.buffer.duplicate();
+			int pos = this.writePosition - component.offset;
+			int count = Math.min(source.remaining(), tmp.capacity() - pos);
+			((Buffer) tmp).clear().position(pos).limit(pos + count);
+			ByteBuffer part = source.duplicate();
+			((Buffer) part).limit(part.position() + count);
+			tmp.put(part);
+			((Buffer) source).position(source.position() + count);
+			this.writePosition += count;
+		}
+	}
+
+	private void ensureCapacity(int length) {
+		if (length <= writableByteCount()) {
+			return;
+		}
+		capacity(this.writePosition + Math.max(length, MIN_COMPONENT_CAPACITY));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The returned slice shares both the memory and the reference count of
+	 * this composite.
+	 */
+	@Override
+	public CompositeDataBuffer slice(int index, int length) {
+		checkIndex(index, length);
+		return new CompositeDataBuffer(this, byteBuffers(index, length));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p><strong>Note:</strong> unless the readable bytes fall within a single
+	 * component, this deviates from the {@link DataBuffer#asByteBuffer()} contract
+	 * in that the contents are copied into a new {@code ByteBuffer}, so changes
+	 * are not shared with this buffer. Use {@link #asByteBuffers()} to access
+	 * all components without copying.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(this.readPosition, readableByteCount());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p><strong>Note:</strong> unless the given range falls within a single
+	 * component, the contents are copied into a new {@code ByteBuffer}.
+	 * @see #asByteBuffer()
+	 */
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		List<ByteBuffer> byteBuffers = byteBuffers(index, length);
+		if (byteBuffers.size() == 1) {
+			return byteBuffers.get(0);
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Copying " + length + " bytes of " + byteBuffers.size() +
+					" components into a single ByteBuffer");
+		}
+		ByteBuffer result = ByteBuffer.allocate(length);
+		byteBuffers.forEach(result::put);
+		((Buffer) result).flip();
+		return result;
+	}
+
+	/**
+	 * Expose the readable bytes of this buffer as a sequence of {@code ByteBuffer}
+	 * views on the underlying components, in order and without copying. Changes
+	 * to the returned buffers' contents are reflected in this buffer, but changes
+	 * to their position or limit are not.
+	 * @return the readable bytes of this buffer, suitable for gathering writes
+	 * @see java.nio.channels.GatheringByteChannel#write(ByteBuffer[])
+	 */
+	public ByteBuffer[] asByteBuffers() {
+		return byteBuffers(this.readPosition, readableByteCount()).toArray(new ByteBuffer[0]);
+	}
+
+	private List<ByteBuffer> byteBuffers(int index, int length) {
+		if (length == 0) {
+			return Collections.singletonList(ByteBuffer.allocate(0));
+		}
+		List<ByteBuffer> result = new ArrayList<>();
+		int end = index + length;
+		for (int i = componentIndex(index); i < this.components.size(); i++) {
+			Component component = this.components.get(i);
+			if (component.offset >= end) {
+				break;
+			}
+			ByteBuffer duplicate = component.buffer.duplicate();
+			((Buffer) duplicate).position(Math.max(index, component.offset) - component.offset);
+			((Buffer) duplicate).limit(Math.min(end, component.end()) - component.offset);
+			result.add(duplicate.slice());
+		}
+		return result;
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream(false);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		return new CompositeDataBufferInputStream(releaseOnClose);
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return new CompositeDataBufferOutputStream();
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return (this.parent != null ? this.parent.isAllocated() : this.refCount > 0);
+	}
+
+	@Override
+	public CompositeDataBuffer retain() {
+		if (this.parent != null) {
+			this.parent.retain();
+			return this;
+		}
+		for (;;) {
+			int count = this.refCount;
+			if (count <= 0) {
+				throw new IllegalStateException("DataBuffer has already been released");
+			}
+			if (REF_COUNT_UPDATER.compareAndSet(this, count, count + 1)) {
+				return this;
+			}
+		}
+	}
+
+	@Override
+	public boolean release() {
+		if (this.parent != null) {
+			return this.parent.release();
+		}
+		for (;;) {
+			int count = this.refCount;
+			if (count <= 0) {
+				throw new IllegalStateException("DataBuffer has already been released");
+			}
+			if (REF_COUNT_UPDATER.compareAndSet(this, count, count - 1)) {
+				if (count == 1) {
+					this.buffers.forEach(DataBufferUtils::release);
+					return true;
+				}
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Return the index of the component holding the given byte index. Favors the
+	 * last component accessed, as access is typically sequential.
+	 */
+	private int componentIndex(int index) {
+		int last = this.lastComponentIndex;
+		if (last < this.components.size() && this.components.get(last).contains(index)) {
+			return last;
+		}
+		int low = 0;
+		int high = this.components.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			Component component = this.components.get(mid);
+			if (index < component.offset) {
+				high = mid - 1;
+			}
+			else if (index >= component.end()) {
+				low = mid + 1;
+			}
+			else {
+				this.lastComponentIndex = mid;
+				return mid;
+			}
+		}
+		throw new IndexOutOfBoundsException(
+				String.format("index %d must be < %d", index, this.capacity));
+	}
+
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				this.readPosition, this.writePosition, this.capacity, this.components.size());
+	}
+
+
+	private void checkIndex(int index, int length) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index + length <= this.capacity, "index %d and length %d must be <= %d",
+				index, length, this.capacity);
+	}
+
+	private static void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+
+	/**
+	 * A readable and writable region of one of the composed buffers.
+	 */
+	private static final class Component {
+
+		final ByteBuffer buffer;
+
+		final int offset;
+
+		Component(ByteBuffer buffer, int offset) {
+			this.buffer = buffer;
+			this.offset = offset;
+		}
+
+		int end() {
+			return this.offset + this.buffer.capacity();
+		}
+
+		boolean contains(int index) {
+			return (index >= this.offset && index < end());
+		}
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		private final boolean releaseOnClose;
+
+		private boolean closed;
+
+		CompositeDataBufferInputStream(boolean releaseOnClose) {
+			this.releaseOnClose = releaseOnClose;
+		}
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return available() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) throws IOException {
+			int available = available();
+			if (available > 0) {
+				len = Math.min(len, available);
+				CompositeDataBuffer.this.read(bytes, off, len);
+				return len;
+			}
+			else {
+				return -1;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (this.releaseOnClose && !this.closed) {
+				this.closed = true;
+				CompositeDataBuffer.this.release();
+			}
+		}
+	}
+
+
+	private class CompositeDataBufferOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			CompositeDataBuffer.this.write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) throws IOException {
+			CompositeDataBuffer.this.write(bytes, off, len);
+		}
+	}
+
+}
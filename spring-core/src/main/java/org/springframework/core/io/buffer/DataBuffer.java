@@ -45,6 +45,7 @@ import java.util.function.IntPredicate;
  * can also be used on non-Netty platforms (i.e. Servlet).
  *
  * @author Arjen Poutsma
+ * @author Jinwei Sun
  * @since 5.0
  * @see DataBufferFactory
  */
@@ -231,6 +232,10 @@ public interface DataBuffer {
 	 * {@code DataBuffer} and the returned {@code ByteBuffer} is shared; though
 	 * changes in the returned buffer's {@linkplain ByteBuffer#position() position}
 	 * will not be reflected in the reading nor writing position of this data buffer.
+	 * <p>Note that a buffer that is not backed by a single contiguous region
+	 * of memory, such as a {@link CompositeDataBuffer}, may have to return a copy
+	 * of its bytes instead, in which case data is not shared. Such buffers offer
+	 * an alternative, e.g. {@link CompositeDataBuffer#asByteBuffers()}.
 	 * @return this data buffer as a byte buffer
 	 */
 	ByteBuffer asByteBuffer();
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
@@ -34,6 +35,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.IntPredicate;
+import java.util.function.Supplier;
 
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscription;
@@ -43,6 +45,7 @@ import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SynchronousSink;
 
+import org.springframework.core.io.ByteBufferResource;
 import org.springframework.core.io.Resource;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -52,6 +55,7 @@ import org.springframework.util.Assert;
  *
  * @author Arjen Poutsma
  * @author Brian Clozel
+ * @author Jinwei Sun
  * @since 5.0
  */
 public abstract class DataBufferUtils {
@@ -173,7 +177,8 @@ public abstract class DataBufferUtils {
 	/**
 	 * Read the given {@code Resource} into a {@code Flux} of {@code DataBuffer}s
 	 * starting at the given position.
-	 * <p>If the resource is a file, it is read into an
+	 * <p>If the resource is a {@link ByteBufferResource}, its buffer is wrapped
+	 * in slices without copying. If the resource is a file, it is read into an
 	 * {@code AsynchronousFileChannel} and turned to {@code Flux} via
 	 * {@link #readAsynchronousFileChannel(Callable, DataBufferFactory, int)} or else
 	 * fall back on {@link #readByteChannel(Callable, DataBufferFactory, int)}.
@@ -187,6 +192,11 @@ public abstract class DataBufferUtils {
 	public static Flux<DataBuffer> read(
 			Resource resource, long position, DataBufferFactory dataBufferFactory, int bufferSize) {
 
+		if (resource instanceof ByteBufferResource) {
+			return readByteBuffer(((ByteBufferResource) resource)::getByteBuffer,
+					position, dataBufferFactory, bufferSize);
+		}
+
 		try {
 			if (resource.isFile()) {
 				File file = resource.getFile();
@@ -203,6 +213,31 @@ public abstract class DataBufferUtils {
 		return position == 0 ? result : skipUntilByteCount(result, position);
 	}
 
+	private static Flux<DataBuffer> readByteBuffer(Supplier<ByteBuffer> bufferSupplier, long position,
+			DataBufferFactory dataBufferFactory, int bufferSize) {
+
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be > 0");
+
+		return Flux.generate(() -> {
+			ByteBuffer byteBuffer = bufferSupplier.get();
+			int skip = (int) Math.min(position, byteBuffer.remaining());
+			((Buffer) byteBuffer).position(byteBuffer.position() + skip);
+			return byteBuffer;
+		}, (byteBuffer, sink) -> {
+			if (!byteBuffer.hasRemaining()) {
+				sink.complete();
+				return byteBuffer;
+			}
+			int length = Math.min(bufferSize, byteBuffer.remaining());
+			ByteBuffer slice = byteBuffer.slice();
+			((Buffer) slice).limit(length);
+			((Buffer) byteBuffer).position(byteBuffer.position() + length);
+			sink.next(dataBufferFactory.wrap(slice));
+			return byteBuffer;
+		});
+	}
+
 
 	//---------------------------------------------------------------------
 	// Writing
@@ -248,9 +283,13 @@ public abstract class DataBufferUtils {
 		return Flux.create(sink ->
 				flux.subscribe(dataBuffer -> {
 							try {
-								ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
-								while (byteBuffer.hasRemaining()) {
-									channel.write(byteBuffer);
+								ByteBuffer[] byteBuffers = (dataBuffer instanceof CompositeDataBuffer ?
+										((CompositeDataBuffer) dataBuffer).asByteBuffers() :
+										new ByteBuffer[] {dataBuffer.asByteBuffer()});
+								for (ByteBuffer byteBuffer : byteBuffers) {
+									while (byteBuffer.hasRemaining()) {
+										channel.write(byteBuffer);
+									}
 								}
 								sink.next(dataBuffer);
 							}
@@ -105,22 +105,19 @@ public class DefaultDataBufferFactory implements DataBufferFactory {
 
 	/**
 	 * {@inheritDoc}
-	 * <p>This implementation creates a single {@link DefaultDataBuffer} to contain the data
-	 * in {@code dataBuffers}.
+	 * <p>This implementation returns a {@link CompositeDataBuffer} that refers to
+	 * the data in {@code dataBuffers} rather than copying it, or the single given
+	 * buffer as-is. Note that {@link DataBuffer#asByteBuffer()} copies the data of
+	 * a composite buffer, unlike {@link CompositeDataBuffer#asByteBuffers()}.
 	 */
 	@Override
 	public DataBuffer join(List<? extends DataBuffer> dataBuffers) {
 		Assert.notEmpty(dataBuffers, "'dataBuffers' must not be empty");
 
-		int capacity = dataBuffers.stream()
-				.mapToInt(DataBuffer::readableByteCount)
-				.sum();
-		DefaultDataBuffer dataBuffer = allocateBuffer(capacity);
-		DataBuffer result = dataBuffers.stream()
-				.map(o -> (DataBuffer) o)
-				.reduce(dataBuffer, DataBuffer::write);
-		dataBuffers.forEach(DataBufferUtils::release);
-		return result;
+		if (dataBuffers.size() == 1) {
+			return dataBuffers.get(0);
+		}
+		return new CompositeDataBuffer(this, dataBuffers);
 	}
 
 	@Override
@@ -110,8 +110,9 @@ public class NettyDataBufferFactory implements DataBufferFactory {
 	/**
 	 * Return the given Netty {@link DataBuffer} as a {@link ByteBuf}. Returns the
 	 * {@linkplain NettyDataBuffer#getNativeBuffer() native buffer} if {@code buffer} is
-	 * a {@link NettyDataBuffer}; returns {@link Unpooled#wrappedBuffer(ByteBuffer)}
-	 * otherwise.
+	 * a {@link NettyDataBuffer}; returns {@link Unpooled#wrappedBuffer(ByteBuffer...)}
+	 * over the components of a {@link CompositeDataBuffer}, and
+	 * {@link Unpooled#wrappedBuffer(ByteBuffer)} otherwise.
 	 * @param buffer the {@code DataBuffer} to return a {@code ByteBuf} for.
 	 * @return the netty {@code ByteBuf}
 	 */
@@ -119,6 +120,9 @@ public class NettyDataBufferFactory implements DataBufferFactory {
 		if (buffer instanceof NettyDataBuffer) {
 			return ((NettyDataBuffer) buffer).getNativeBuffer();
 		}
+		else if (buffer instanceof CompositeDataBuffer) {
+			return Unpooled.wrappedBuffer(((CompositeDataBuffer) buffer).asByteBuffers());
+		}
 		else {
 			return Unpooled.wrappedBuffer(buffer.asByteBuffer());
 		}
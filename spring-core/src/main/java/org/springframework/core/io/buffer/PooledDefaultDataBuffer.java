@@ -0,0 +1,222 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.springframework.core.io.buffer.PooledDefaultDataBufferFactory.Chunk;
+import org.springframework.core.io.buffer.PooledDefaultDataBufferFactory.LeakTracker;
+import org.springframework.lang.Nullable;
+
+/**
+ * Reference counted variant of {@link DefaultDataBuffer}, backed by a chunk of
+ * memory obtained from a {@link PooledDefaultDataBufferFactory}. The chunk is
+ * returned to the pool once the reference count drops to zero.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see PooledDefaultDataBufferFactory
+ */
+public class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+	private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+	private static final AtomicIntegerFieldUpdater<PooledDefaultDataBuffer> REF_COUNT_UPDATER =
+			AtomicIntegerFieldUpdater.newUpdater(PooledDefaultDataBuffer.class, "refCount");
+
+
+	private final PooledDefaultDataBufferFactory pool;
+
+	@Nullable
+	private Chunk chunk;
+
+	@Nullable
+	private LeakTracker leakTracker;
+
+	private volatile int refCount = 1;
+
+
+	PooledDefaultDataBuffer(PooledDefaultDataBufferFactory pool, Chunk chunk, int capacity) {
+		super(pool, chunk.slice(capacity));
+		this.pool = pool;
+		this.chunk = chunk;
+	}
+
+	void setLeakTracker(LeakTracker leakTracker) {
+		this.leakTracker = leakTracker;
+	}
+
+
+	@Override
+	public PooledDefaultDataBufferFactory factory() {
+		return this.pool;
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return (this.refCount > 0);
+	}
+
+	@Override
+	public PooledDefaultDataBuffer retain() {
+		for (;;) {
+			int count = this.refCount;
+			if (count <= 0) {
+				throw new IllegalStateException("DataBuffer has already been released");
+			}
+			if (REF_COUNT_UPDATER.compareAndSet(this, count, count + 1)) {
+				return this;
+			}
+		}
+	}
+
+	@Override
+	public boolean release() {
+		for (;;) {
+			int count = this.refCount;
+			if (count <= 0) {
+				throw new IllegalStateException("DataBuffer has already been released");
+			}
+			if (REF_COUNT_UPDATER.compareAndSet(this, count, count - 1)) {
+				if (count == 1) {
+					deallocate();
+					return true;
+				}
+				return false;
+			}
+		}
+	}
+
+	private void deallocate() {
+		Chunk chunk = this.chunk;
+		this.chunk = null;
+		if (this.leakTracker != null) {
+			this.leakTracker.close();
+			this.leakTracker = null;
+		}
+		// Detach from the pooled memory, so that later access fails instead of
+		// reading or writing memory that has been handed out again
+		readPosition(0);
+		writePosition(0);
+		setNativeBuffer(EMPTY_BUFFER);
+		if (chunk != null) {
+			this.pool.freeChunk(chunk);
+		}
+	}
+
+	@Override
+	public DefaultDataBuffer capacity(int newCapacity) {
+		Chunk current = this.chunk;
+		if (current == null) {
+			throw new IllegalStateException("DataBuffer has already been released");
+		}
+		if (newCapacity > capacity() && newCapacity <= current.capacity()) {
+			// Grow within the current chunk: same memory, no copying
+			setNativeBuffer(current.slice(newCapacity));
+			return this;
+		}
+		super.capacity(newCapacity);
+		if (this.chunk != current) {
+			this.pool.freeChunk(current);
+		}
+		return this;
+	}
+
+	@Override
+	ByteBuffer allocate(int capacity, boolean direct) {
+		Chunk chunk = this.pool.allocateChunk(capacity);
+		this.chunk = chunk;
+		return chunk.slice(capacity);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The returned slice shares the reference count of this buffer: releasing
+	 * the slice releases this buffer, and vice versa.
+	 */
+	@Override
+	public DefaultDataBuffer slice(int index, int length) {
+		return new PooledSlicedDataBuffer(this, asByteBuffer(index, length));
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		InputStream inputStream = asInputStream();
+		if (!releaseOnClose) {
+			return inputStream;
+		}
+		return new FilterInputStream(inputStream) {
+			private boolean closed;
+			@Override
+			public void close() throws IOException {
+				if (!this.closed) {
+					this.closed = true;
+					DataBufferUtils.release(PooledDefaultDataBuffer.this);
+				}
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return String.format("PooledDefaultDataBuffer (r: %d, w: %d, c: %d, refCount: %d)",
+				readPosition(), writePosition(), capacity(), this.refCount);
+	}
+
+
+	private static class PooledSlicedDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledDefaultDataBuffer parent;
+
+		PooledSlicedDataBuffer(PooledDefaultDataBuffer parent, ByteBuffer byteBuffer) {
+			super(parent.factory(), byteBuffer);
+			this.parent = parent;
+			writePosition(byteBuffer.remaining());
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.parent.isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			return new PooledSlicedDataBuffer(this.parent, asByteBuffer(index, length));
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+	}
+
+}
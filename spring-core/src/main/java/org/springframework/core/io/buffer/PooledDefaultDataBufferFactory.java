@@ -0,0 +1,436 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Pooling variant of {@link DefaultDataBufferFactory}, handing out reference
+ * counted {@link PooledDataBuffer PooledDataBuffers} based on {@link ByteBuffer}
+ * chunks that are returned to the pool once the buffer has been released,
+ * e.g. through {@link DataBufferUtils#release}. Intended for runtimes that do
+ * not use Netty's pooled allocator (Servlet containers, Undertow), in order to
+ * reduce garbage for streaming responses.
+ *
+ * <p>Memory is organized in power-of-two size classes from
+ * {@value #MIN_CHUNK_SIZE} bytes up to the {@linkplain #setMaxChunkSize
+ * maximum chunk size}. Chunks of a size class are carved out of larger slabs,
+ * which are allocated on demand until the {@linkplain #setMaxPooledMemory
+ * maximum pooled memory} is reached; requests that exceed the maximum chunk
+ * size or the memory limit are served by regular unpooled allocations. A
+ * buffer growing within the size of its chunk does so without copying.
+ *
+ * <p>A sample of the allocated buffers is tracked for leak detection: a tracked
+ * buffer that becomes unreachable without having been released is logged
+ * along with its allocation site. Its chunk is not returned to the pool though,
+ * since {@link ByteBuffer} views obtained from the buffer may still be in use.
+ *
+ * <p>Note that slices of a pooled buffer share its memory as well as its
+ * reference count: releasing a slice releases the original buffer, and vice versa.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see DataBufferUtils#release(DataBuffer)
+ */
+public class PooledDefaultDataBufferFactory extends DefaultDataBufferFactory {
+
+	/** The smallest size class. */
+	public static final int MIN_CHUNK_SIZE = 256;
+
+	/** The default largest size class. */
+	public static final int DEFAULT_MAX_CHUNK_SIZE = 64 * 1024;
+
+	/** The default size of the slabs that chunks are carved out of. */
+	public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+	/** The default upper limit for memory held in slabs. */
+	public static final long DEFAULT_MAX_POOLED_MEMORY = 64 * 1024 * 1024;
+
+	/** The default interval of buffers to track for leak detection. */
+	public static final int DEFAULT_LEAK_DETECTION_INTERVAL = 128;
+
+	private static final Log logger = LogFactory.getLog(PooledDefaultDataBufferFactory.class);
+
+
+	private final boolean preferDirect;
+
+	private int maxChunkSize = DEFAULT_MAX_CHUNK_SIZE;
+
+	private int slabSize = DEFAULT_SLAB_SIZE;
+
+	private long maxPooledMemory = DEFAULT_MAX_POOLED_MEMORY;
+
+	private int leakDetectionInterval = DEFAULT_LEAK_DETECTION_INTERVAL;
+
+	@Nullable
+	private volatile SizeClass[] sizeClasses;
+
+	private final AtomicLong pooledMemory = new AtomicLong();
+
+	private final AtomicLong pooledAllocations = new AtomicLong();
+
+	private final AtomicLong unpooledAllocations = new AtomicLong();
+
+	private final AtomicLong deallocations = new AtomicLong();
+
+	private final AtomicLong leaks = new AtomicLong();
+
+	private final ReferenceQueue<PooledDefaultDataBuffer> leakQueue = new ReferenceQueue<>();
+
+	private final Set<LeakTracker> leakTrackers = ConcurrentHashMap.newKeySet();
+
+
+	/**
+	 * Creates a new {@code PooledDefaultDataBufferFactory} with default settings.
+	 */
+	public PooledDefaultDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new {@code PooledDefaultDataBufferFactory}, indicating whether
+	 * direct buffers should be pooled.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDefaultDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a new {@code PooledDefaultDataBufferFactory}, indicating whether
+	 * direct buffers should be pooled, and what the capacity is to be used for
+	 * {@link #allocateBuffer()}.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDefaultDataBufferFactory(boolean preferDirect, int defaultInitialCapacity) {
+		super(preferDirect, defaultInitialCapacity);
+		this.preferDirect = preferDirect;
+	}
+
+
+	/**
+	 * Set the size of the largest size class, to be rounded up to a power of two.
+	 * Larger buffers are allocated without pooling.
+	 * <p>Default is {@value #DEFAULT_MAX_CHUNK_SIZE}. Needs to be set before
+	 * the first allocation.
+	 */
+	public void setMaxChunkSize(int maxChunkSize) {
+		Assert.isTrue(maxChunkSize >= MIN_CHUNK_SIZE, "'maxChunkSize' must be >= " + MIN_CHUNK_SIZE);
+		assertNotInitialized();
+		this.maxChunkSize = roundToPowerOfTwo(maxChunkSize);
+	}
+
+	/**
+	 * Set the size of the slabs that chunks are carved out of.
+	 * A slab is always at least as large as a single chunk of its size class.
+	 * <p>Default is {@value #DEFAULT_SLAB_SIZE}. Needs to be set before
+	 * the first allocation.
+	 */
+	public void setSlabSize(int slabSize) {
+		Assert.isTrue(slabSize > 0, "'slabSize' must be larger than 0");
+		assertNotInitialized();
+		this.slabSize = slabSize;
+	}
+
+	/**
+	 * Set the upper limit for memory held in slabs across all size classes.
+	 * <p>Default is 64 MB.
+	 */
+	public void setMaxPooledMemory(long maxPooledMemory) {
+		Assert.isTrue(maxPooledMemory >= 0, "'maxPooledMemory' must be >= 0");
+		this.maxPooledMemory = maxPooledMemory;
+	}
+
+	/**
+	 * Set the interval of allocated buffers to track for leak detection,
+	 * i.e. every n-th buffer. A value of 1 tracks all buffers, 0 turns leak
+	 * detection off.
+	 * <p>Default is {@value #DEFAULT_LEAK_DETECTION_INTERVAL}.
+	 */
+	public void setLeakDetectionInterval(int leakDetectionInterval) {
+		Assert.isTrue(leakDetectionInterval >= 0, "'leakDetectionInterval' must be >= 0");
+		this.leakDetectionInterval = leakDetectionInterval;
+	}
+
+
+	/**
+	 * Return the number of buffer allocations served from the pool.
+	 */
+	public long getPooledAllocationCount() {
+		return this.pooledAllocations.get();
+	}
+
+	/**
+	 * Return the number of buffer allocations that could not be served from
+	 * the pool, because of their size or because of the memory limit.
+	 */
+	public long getUnpooledAllocationCount() {
+		return this.unpooledAllocations.get();
+	}
+
+	/**
+	 * Return the number of buffers that are currently allocated,
+	 * i.e. that have not been released yet.
+	 */
+	public long getActiveAllocationCount() {
+		return this.pooledAllocations.get() + this.unpooledAllocations.get() - this.deallocations.get();
+	}
+
+	/**
+	 * Return the number of memory bytes currently held in slabs.
+	 */
+	public long getPooledMemory() {
+		return this.pooledMemory.get();
+	}
+
+	/**
+	 * Return the number of leaked buffers that have been detected so far.
+	 */
+	public long getLeakCount() {
+		return this.leaks.get();
+	}
+
+
+	@Override
+	public PooledDefaultDataBuffer allocateBuffer() {
+		return (PooledDefaultDataBuffer) super.allocateBuffer();
+	}
+
+	@Override
+	public PooledDefaultDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must be >= 0");
+		Chunk chunk = allocateChunk(initialCapacity);
+		PooledDefaultDataBuffer dataBuffer = new PooledDefaultDataBuffer(this, chunk, initialCapacity);
+		long count = this.pooledAllocations.get() + this.unpooledAllocations.get();
+		if (this.leakDetectionInterval > 0 && count % this.leakDetectionInterval == 0) {
+			dataBuffer.setLeakTracker(new LeakTracker(dataBuffer));
+		}
+		return dataBuffer;
+	}
+
+	/**
+	 * Obtain a chunk of at least the given capacity, from the pool if possible.
+	 */
+	Chunk allocateChunk(int capacity) {
+		detectLeaks();
+		SizeClass sizeClass = getSizeClass(capacity);
+		if (sizeClass != null) {
+			Chunk chunk = sizeClass.allocate();
+			if (chunk != null) {
+				this.pooledAllocations.incrementAndGet();
+				return chunk;
+			}
+		}
+		this.unpooledAllocations.incrementAndGet();
+		ByteBuffer memory = (this.preferDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+		return new Chunk(memory, null);
+	}
+
+	/**
+	 * Return the given chunk to the pool, if it has been pooled in the first place.
+	 */
+	void freeChunk(Chunk chunk) {
+		this.deallocations.incrementAndGet();
+		if (chunk.sizeClass != null) {
+			chunk.sizeClass.free(chunk);
+		}
+	}
+
+	@Nullable
+	private SizeClass getSizeClass(int capacity) {
+		if (capacity > this.maxChunkSize) {
+			return null;
+		}
+		SizeClass[] sizeClasses = this.sizeClasses;
+		if (sizeClasses == null) {
+			synchronized (this) {
+				sizeClasses = this.sizeClasses;
+				if (sizeClasses == null) {
+					int count = Integer.numberOfTrailingZeros(this.maxChunkSize) -
+							Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE) + 1;
+					sizeClasses = new SizeClass[count];
+					for (int i = 0; i < count; i++) {
+						sizeClasses[i] = new SizeClass(MIN_CHUNK_SIZE << i);
+					}
+					this.sizeClasses = sizeClasses;
+				}
+			}
+		}
+		int chunkSize = roundToPowerOfTwo(Math.max(capacity, MIN_CHUNK_SIZE));
+		return sizeClasses[Integer.numberOfTrailingZeros(chunkSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE)];
+	}
+
+	private void detectLeaks() {
+		Reference<? extends PooledDefaultDataBuffer> ref;
+		while ((ref = this.leakQueue.poll()) != null) {
+			LeakTracker tracker = (LeakTracker) ref;
+			if (this.leakTrackers.remove(tracker)) {
+				// Report only: the chunk must not be handed out again, as long as
+				// ByteBuffer views of the leaked buffer may still be reachable
+				this.leaks.incrementAndGet();
+				this.deallocations.incrementAndGet();
+				if (logger.isWarnEnabled()) {
+					logger.warn("DataBuffer was garbage collected without having been released; " +
+							"its memory is lost to the pool. Allocation site:", tracker.allocationSite);
+				}
+			}
+		}
+	}
+
+	private void assertNotInitialized() {
+		Assert.state(this.sizeClasses == null, "Pool configuration cannot be changed after first allocation");
+	}
+
+	private static int roundToPowerOfTwo(int value) {
+		int highestOneBit = Integer.highestOneBit(value);
+		return (highestOneBit == value ? value : highestOneBit << 1);
+	}
+
+
+	@Override
+	public String toString() {
+		return "PooledDefaultDataBufferFactory (preferDirect=" + this.preferDirect + ")";
+	}
+
+
+	/**
+	 * A pooled or unpooled piece of memory backing a {@link PooledDefaultDataBuffer}.
+	 */
+	static final class Chunk {
+
+		private final ByteBuffer memory;
+
+		@Nullable
+		private final SizeClass sizeClass;
+
+		Chunk(ByteBuffer memory, @Nullable SizeClass sizeClass) {
+			this.memory = memory;
+			this.sizeClass = sizeClass;
+		}
+
+		/**
+		 * Return the total capacity of this chunk.
+		 */
+		int capacity() {
+			return this.memory.capacity();
+		}
+
+		/**
+		 * Return a view of the first {@code length} bytes of this chunk.
+		 */
+		ByteBuffer slice(int length) {
+			ByteBuffer duplicate = this.memory.duplicate();
+			((Buffer) duplicate).position(0).limit(length);
+			return duplicate.slice();
+		}
+	}
+
+
+	/**
+	 * Free list of equally sized chunks, carved out of slabs. Released chunks
+	 * are handed out again first, while their memory is likely still cached.
+	 */
+	private final class SizeClass {
+
+		private final int chunkSize;
+
+		private final Deque<Chunk> freeChunks = new ConcurrentLinkedDeque<>();
+
+		SizeClass(int chunkSize) {
+			this.chunkSize = chunkSize;
+		}
+
+		@Nullable
+		Chunk allocate() {
+			Chunk chunk = this.freeChunks.pollFirst();
+			return (chunk != null ? chunk : allocateSlab());
+		}
+
+		void free(Chunk chunk) {
+			this.freeChunks.offerFirst(chunk);
+		}
+
+		@Nullable
+		private Chunk allocateSlab() {
+			int size = Math.max(slabSize / this.chunkSize, 1) * this.chunkSize;
+			long memory;
+			do {
+				memory = pooledMemory.get();
+				if (memory + size > maxPooledMemory) {
+					return null;
+				}
+			}
+			while (!pooledMemory.compareAndSet(memory, memory + size));
+
+			ByteBuffer slab = (preferDirect ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size));
+			Chunk first = null;
+			for (int offset = 0; offset < size; offset += this.chunkSize) {
+				((Buffer) slab).limit(offset + this.chunkSize).position(offset);
+				Chunk chunk = new Chunk(slab.slice(), this);
+				if (first == null) {
+					first = chunk;
+				}
+				else {
+					this.freeChunks.offerLast(chunk);
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Allocated slab of " + size + " bytes for chunk size " + this.chunkSize);
+			}
+			return first;
+		}
+	}
+
+
+	/**
+	 * Weak reference to a sampled buffer, keeping track of its allocation
+	 * site in order to report it in case of a leak.
+	 */
+	final class LeakTracker extends WeakReference<PooledDefaultDataBuffer> {
+
+		private final Throwable allocationSite;
+
+		LeakTracker(PooledDefaultDataBuffer referent) {
+			super(referent, leakQueue);
+			this.allocationSite = new Throwable("DataBuffer allocated here");
+			leakTrackers.add(this);
+		}
+
+		void close() {
+			leakTrackers.remove(this);
+			clear();
+		}
+	}
+
+}
@@ -18,6 +18,7 @@ package org.springframework.core.codec;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -148,6 +149,74 @@ public class StringDecoderTests extends AbstractDataBufferAllocatingTestCase {
 				.verify();
 	}
 
+	@Test
+	public void decodeDelimiterAcrossBuffers() {
+		Flux<DataBuffer> source = Flux.just(
+				stringBuffer("abc\r"),
+				stringBuffer("\ndef\r"),
+				stringBuffer("\n\r"),
+				stringBuffer("\nghi")
+		);
+
+		Flux<String> output = this.decoder.decode(source, ResolvableType.forClass(String.class),
+				null, Collections.emptyMap());
+
+		StepVerifier.create(output)
+				.expectNext("abc")
+				.expectNext("def")
+				.expectNext("")
+				.expectNext("ghi")
+				.verifyComplete();
+	}
+
+	@Test
+	public void decodeCustomDelimiters() {
+		decoder = StringDecoder.allMimeTypes(Arrays.asList("--", "||"), true);
+
+		Flux<DataBuffer> source = Flux.just(
+				stringBuffer("a-b--c|"),
+				stringBuffer("|d-"),
+				stringBuffer("-"),
+				stringBuffer("---e")
+		);
+
+		Flux<String> output = this.decoder.decode(source, ResolvableType.forClass(String.class),
+				null, Collections.emptyMap());
+
+		StepVerifier.create(output)
+				.expectNext("a-b")
+				.expectNext("c")
+				.expectNext("d")
+				.expectNext("")
+				.expectNext("-e")
+				.verifyComplete();
+	}
+
+	@Test
+	public void decodeLongLines() {
+		List<String> lines = new ArrayList<>();
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 40; i++) {
+			String line = String.join("", Collections.nCopies(i, "x")) + "\u00e9" + i;
+			lines.add(line);
+			builder.append(line).append(i % 2 == 0 ? "\n" : "\r\n");
+		}
+		byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int offset = 0; offset < bytes.length; offset += 13) {
+			DataBuffer buffer = this.bufferFactory.allocateBuffer(13);
+			buffer.write(bytes, offset, Math.min(13, bytes.length - offset));
+			buffers.add(buffer);
+		}
+
+		Flux<String> output = this.decoder.decode(Flux.fromIterable(buffers),
+				ResolvableType.forClass(String.class), null, Collections.emptyMap());
+
+		StepVerifier.create(output)
+				.expectNextSequence(lines)
+				.verifyComplete();
+	}
+
 	@Test
 	public void decodeEmptyFlux() {
 		Flux<DataBuffer> source = Flux.empty();
@@ -173,6 +242,28 @@ public class StringDecoderTests extends AbstractDataBufferAllocatingTestCase {
 
 	}
 
+	@Test
+	public void decodeEmptyLastDataBuffer() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("abc\n"), stringBuffer(""));
+		Flux<String> output = this.decoder.decode(source,
+				ResolvableType.forClass(String.class), null, Collections.emptyMap());
+
+		StepVerifier.create(output)
+				.expectNext("abc")
+				.expectComplete().verify();
+	}
+
+	@Test
+	public void decodeEmptyDataBuffers() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer(""), stringBuffer(""), stringBuffer("abc"), stringBuffer(""));
+		Flux<String> output = this.decoder.decode(source,
+				ResolvableType.forClass(String.class), null, Collections.emptyMap());
+
+		StepVerifier.create(output)
+				.expectNext("abc")
+				.expectComplete().verify();
+	}
+
 	@Test
 	public void decodeError() {
 		DataBuffer fooBuffer = stringBuffer("foo\n");
@@ -53,7 +53,9 @@ public abstract class AbstractDataBufferAllocatingTestCase {
 				{new NettyDataBufferFactory(new PooledByteBufAllocator(true, 1, 1, 8192, 11, 0, 0, 0, true))},
 				{new NettyDataBufferFactory(new PooledByteBufAllocator(false, 1, 1, 8192, 11, 0, 0, 0, true))},
 				{new DefaultDataBufferFactory(true)},
-				{new DefaultDataBufferFactory(false)}
+				{new DefaultDataBufferFactory(false)},
+				{new PooledDefaultDataBufferFactory(true)},
+				{new PooledDefaultDataBufferFactory(false)}
 
 		};
 	}
@@ -103,6 +105,11 @@ public abstract class AbstractDataBufferAllocatingTestCase {
 							" allocations were not released", allocations == 0);
 				}
 			}
+			else if (bufferFactory instanceof PooledDefaultDataBufferFactory) {
+				long allocations = ((PooledDefaultDataBufferFactory) bufferFactory).getActiveAllocationCount();
+				assertTrue("DataBuffer leak detected: " + allocations +
+						" allocations were not released", allocations == 0);
+			}
 		}
 
 		private long calculateAllocations(List<PoolArenaMetric> metrics) {
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.Test;
+
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CompositeDataBuffer}.
+ *
+ * @author Jinwei Sun
+ */
+public class CompositeDataBufferTests {
+
+	private final PooledDefaultDataBufferFactory bufferFactory = new PooledDefaultDataBufferFactory();
+
+
+	@Test
+	public void joinDoesNotCopy() {
+		DataBuffer foo = stringBuffer("foo");
+		DataBuffer bar = stringBuffer("bar");
+		DataBuffer joined = this.bufferFactory.join(Arrays.asList(foo, bar));
+		assertTrue(joined instanceof CompositeDataBuffer);
+
+		foo.asByteBuffer().put(0, (byte) 'F');
+		assertEquals("Foobar", toString(joined));
+		assertEquals(2, this.bufferFactory.getActiveAllocationCount());
+
+		DataBufferUtils.release(joined);
+		assertEquals(0, this.bufferFactory.getActiveAllocationCount());
+	}
+
+	@Test
+	public void readAcrossComponents() {
+		CompositeDataBuffer buffer = composite("ab", "cde", "f");
+		assertEquals(6, buffer.readableByteCount());
+		assertEquals('a', buffer.read());
+		byte[] bytes = new byte[4];
+		buffer.read(bytes);
+		assertArrayEquals("bcde".getBytes(StandardCharsets.UTF_8), bytes);
+		assertEquals('f', buffer.getByte(5));
+		assertEquals(1, buffer.readableByteCount());
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	public void indexOfAcrossComponents() {
+		CompositeDataBuffer buffer = composite("ab", "c,d", ",e");
+		assertEquals(3, buffer.indexOf(b -> b == ',', 0));
+		assertEquals(5, buffer.indexOf(b -> b == ',', 4));
+		assertEquals(-1, buffer.indexOf(b -> b == 'x', 0));
+		assertEquals(5, buffer.lastIndexOf(b -> b == ',', 6));
+		assertEquals(3, buffer.lastIndexOf(b -> b == ',', 4));
+		assertEquals(-1, buffer.lastIndexOf(b -> b == 'x', 6));
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	public void writeAppendsComponent() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		assertEquals(0, buffer.writableByteCount());
+		buffer.write("baz".getBytes(StandardCharsets.UTF_8));
+		DataBuffer qux = stringBuffer("qux");
+		buffer.write(qux);
+		DataBufferUtils.release(qux);
+
+		assertEquals(3, buffer.asByteBuffers().length);
+		assertEquals("foobarbazqux", toString(buffer));
+		DataBufferUtils.release(buffer);
+		assertEquals(0, this.bufferFactory.getActiveAllocationCount());
+	}
+
+	@Test
+	public void reduceCapacity() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		buffer.capacity(4);
+		assertEquals(4, buffer.capacity());
+		assertEquals("foob", toString(buffer));
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	public void sliceSharesReferenceCount() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		DataBuffer slice = buffer.slice(2, 3);
+		assertEquals("oba", toString(slice));
+
+		DataBufferUtils.retain(slice);
+		assertFalse(DataBufferUtils.release(buffer));
+		assertTrue(((PooledDataBuffer) slice).isAllocated());
+		assertTrue(DataBufferUtils.release(slice));
+		assertFalse(buffer.isAllocated());
+		assertEquals(0, this.bufferFactory.getActiveAllocationCount());
+	}
+
+	@Test
+	public void asByteBuffers() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		buffer.readPosition(1);
+		ByteBuffer[] byteBuffers = buffer.asByteBuffers();
+		assertEquals(2, byteBuffers.length);
+		assertEquals(2, byteBuffers[0].remaining());
+		assertEquals(3, byteBuffers[1].remaining());
+
+		ByteBuffer byteBuffer = buffer.asByteBuffer();
+		assertEquals(ByteBuffer.wrap("oobar".getBytes(StandardCharsets.UTF_8)), byteBuffer);
+		assertEquals(ByteBuffer.wrap("ar".getBytes(StandardCharsets.UTF_8)), buffer.asByteBuffer(4, 2));
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	public void inputStreamReleaseOnClose() throws Exception {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		try (InputStream inputStream = buffer.asInputStream(true)) {
+			assertEquals("foobar", StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+		}
+		assertFalse(buffer.isAllocated());
+		assertEquals(0, this.bufferFactory.getActiveAllocationCount());
+	}
+
+	@Test
+	public void toByteBufWrapsComponents() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		ByteBuf byteBuf = NettyDataBufferFactory.toByteBuf(buffer);
+		assertEquals(2, byteBuf.nioBufferCount());
+		assertEquals("foobar", byteBuf.toString(StandardCharsets.UTF_8));
+		DataBufferUtils.release(buffer);
+	}
+
+
+	private CompositeDataBuffer composite(String... values) {
+		DataBuffer[] buffers = Arrays.stream(values).map(this::stringBuffer).toArray(DataBuffer[]::new);
+		return (CompositeDataBuffer) this.bufferFactory.join(Arrays.asList(buffers));
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
+	private static String toString(DataBuffer buffer) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
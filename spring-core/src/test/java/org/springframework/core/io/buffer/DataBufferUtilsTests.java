@@ -40,6 +40,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import org.springframework.core.io.ByteBufferResource;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.support.DataBufferTestUtils;
@@ -142,6 +143,20 @@ public class DataBufferUtilsTests extends AbstractDataBufferAllocatingTestCase {
 				.verify(Duration.ofSeconds(5));
 	}
 
+	@Test
+	public void readByteBufferResource() throws Exception {
+		ByteBuffer byteBuffer = ByteBuffer.wrap("foobarbazqux".getBytes(StandardCharsets.UTF_8));
+		Resource resource = new ByteBufferResource(byteBuffer);
+		Flux<DataBuffer> flux = DataBufferUtils.read(resource, 2, this.bufferFactory, 4);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("obar"))
+				.consumeNextWith(stringConsumer("bazq"))
+				.consumeNextWith(stringConsumer("ux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
 	@Test
 	public void writeOutputStream() throws Exception {
 		DataBuffer foo = stringBuffer("foo");
@@ -477,6 +492,9 @@ public class DataBufferUtilsTests extends AbstractDataBufferAllocatingTestCase {
 			ByteBuf byteBuf = ((NettyDataBuffer) dataBuffer).getNativeBuffer();
 			assertEquals(0, byteBuf.refCnt());
 		}
+		else if (dataBuffer instanceof PooledDataBuffer) {
+			assertFalse(((PooledDataBuffer) dataBuffer).isAllocated());
+		}
 	}
 
 	@Test
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PooledDefaultDataBufferFactory}.
+ *
+ * @author Jinwei Sun
+ */
+public class PooledDefaultDataBufferFactoryTests {
+
+	private final PooledDefaultDataBufferFactory factory = new PooledDefaultDataBufferFactory();
+
+
+	@Test
+	public void memoryReusedAfterRelease() {
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		ByteBuffer memory = buffer.getNativeBuffer();
+		buffer.write("foo".getBytes(StandardCharsets.UTF_8));
+		assertTrue(DataBufferUtils.release(buffer));
+		assertFalse(buffer.isAllocated());
+
+		PooledDefaultDataBuffer other = this.factory.allocateBuffer(200);
+		assertEquals(200, other.capacity());
+		assertEquals(0, other.readableByteCount());
+		assertEquals('f', other.getNativeBuffer().get(0));
+		assertNotSame(memory, other.getNativeBuffer());
+		DataBufferUtils.release(other);
+
+		assertEquals(2, this.factory.getPooledAllocationCount());
+		assertEquals(0, this.factory.getUnpooledAllocationCount());
+		assertEquals(0, this.factory.getActiveAllocationCount());
+		assertEquals(PooledDefaultDataBufferFactory.DEFAULT_SLAB_SIZE, this.factory.getPooledMemory());
+	}
+
+	@Test
+	public void growWithinChunkWithoutCopying() {
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(10);
+		buffer.write("0123456789".getBytes(StandardCharsets.UTF_8));
+		buffer.write("abc".getBytes(StandardCharsets.UTF_8));
+		assertTrue(buffer.capacity() >= 13);
+		assertEquals(1, this.factory.getPooledAllocationCount());
+		assertEquals("0123456789abc", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+
+		byte[] large = new byte[1000];
+		buffer.write(large);
+		assertEquals(1013, buffer.writePosition());
+		assertEquals(2, this.factory.getPooledAllocationCount());
+		assertEquals(1, this.factory.getActiveAllocationCount());
+		DataBufferUtils.release(buffer);
+		assertEquals(0, this.factory.getActiveAllocationCount());
+	}
+
+	@Test
+	public void largeBufferNotPooled() {
+		this.factory.setMaxChunkSize(1024);
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(4096);
+		assertEquals(4096, buffer.capacity());
+		assertEquals(1, this.factory.getUnpooledAllocationCount());
+		assertEquals(0, this.factory.getPooledMemory());
+		DataBufferUtils.release(buffer);
+		assertEquals(0, this.factory.getActiveAllocationCount());
+	}
+
+	@Test
+	public void pooledMemoryLimit() {
+		this.factory.setSlabSize(1024);
+		this.factory.setMaxPooledMemory(1024);
+		PooledDefaultDataBuffer[] buffers = new PooledDefaultDataBuffer[5];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = this.factory.allocateBuffer(256);
+		}
+		assertEquals(4, this.factory.getPooledAllocationCount());
+		assertEquals(1, this.factory.getUnpooledAllocationCount());
+		assertEquals(1024, this.factory.getPooledMemory());
+		for (PooledDefaultDataBuffer buffer : buffers) {
+			DataBufferUtils.release(buffer);
+		}
+		assertEquals(0, this.factory.getActiveAllocationCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void writeAfterRelease() {
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(10);
+		DataBufferUtils.release(buffer);
+		buffer.write((byte) 'a');
+	}
+
+	@Test
+	public void leakDetection() throws Exception {
+		this.factory.setLeakDetectionInterval(1);
+		ByteBuffer leakedView = this.factory.allocateBuffer(10).write(new byte[10]).asByteBuffer();
+		for (int i = 0; i < 50 && this.factory.getLeakCount() == 0; i++) {
+			System.gc();
+			Thread.sleep(10);
+			DataBufferUtils.release(this.factory.allocateBuffer(10));
+		}
+		assertEquals(1, this.factory.getLeakCount());
+		assertEquals(0, this.factory.getActiveAllocationCount());
+
+		// The memory of the leaked buffer must not be handed out again
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(10);
+		buffer.write(new byte[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1});
+		assertEquals(0, leakedView.get(0));
+		DataBufferUtils.release(buffer);
+	}
+
+
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.reactive;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Reactive facade for blocking JDBC access, running all {@link JdbcTemplate}
+ * operations on a dedicated, bounded {@link Scheduler} instead of the caller's
+ * thread. This allows WebFlux handlers to use JDBC without blocking event-loop
+ * threads, while the number of worker threads is aligned with the size of the
+ * underlying connection pool so that no worker ever waits for a connection.
+ *
+ * <p>Queries may be streamed as a {@link Flux}: rows are read from an open
+ * {@link ResultSet} only as they are requested by the subscriber, with the
+ * statement fetch size and the upstream request size both bounded by the
+ * configured {@link #setFetchSize fetch size}. Since an open cursor holds on
+ * to its connection while the subscriber is idle, the number of concurrently
+ * open cursors is bounded by {@link #setMaxOpenCursors}; further streamed
+ * queries wait for a cursor to be closed, without occupying a worker thread.
+ *
+ * <p>Since Spring's JDBC transaction support is thread-bound, a transaction has
+ * to be demarcated around a blocking unit of work through
+ * {@link #inTransaction(TransactionCallback)}, which runs the entire callback on
+ * a single worker thread, using {@link #getJdbcOperations()} for data access.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see JdbcTemplate
+ * @see DataSourceTransactionManager
+ */
+public class ReactiveJdbcClient implements DisposableBean {
+
+	/** Default fetch size and upstream request size for streamed queries. */
+	public static final int DEFAULT_FETCH_SIZE = 256;
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final Scheduler scheduler;
+
+	private final boolean disposeScheduler;
+
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+
+	private volatile CursorPermits cursorPermits;
+
+	private TransactionTemplate transactionTemplate;
+
+
+	/**
+	 * Create a new ReactiveJdbcClient for the given DataSource, with a dedicated
+	 * scheduler of the given number of worker threads.
+	 * @param dataSource the JDBC DataSource to obtain connections from
+	 * @param maxConnections the maximum number of concurrently used connections,
+	 * typically matching the maximum size of the connection pool
+	 */
+	public ReactiveJdbcClient(DataSource dataSource, int maxConnections) {
+		Assert.isTrue(maxConnections > 0, "maxConnections must be greater than 0");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.scheduler = Schedulers.fromExecutorService(createExecutor(maxConnections));
+		this.disposeScheduler = true;
+		this.cursorPermits = new CursorPermits(maxConnections);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	/**
+	 * Create a new ReactiveJdbcClient for the given JdbcTemplate and Scheduler.
+	 * <p>The given scheduler is expected to be bounded according to the connection
+	 * pool size and is not going to be disposed by this client. The number of
+	 * concurrently open cursors defaults to {@link Schedulers#DEFAULT_POOL_SIZE},
+	 * and should be aligned with the pool size through {@link #setMaxOpenCursors}.
+	 * @param jdbcTemplate the JdbcTemplate to delegate to
+	 * @param scheduler the scheduler to run blocking JDBC operations on
+	 */
+	public ReactiveJdbcClient(JdbcTemplate jdbcTemplate, Scheduler scheduler) {
+		Assert.notNull(jdbcTemplate, "JdbcTemplate must not be null");
+		Assert.notNull(scheduler, "Scheduler must not be null");
+		this.jdbcTemplate = jdbcTemplate;
+		this.scheduler = scheduler;
+		this.disposeScheduler = false;
+		this.cursorPermits = new CursorPermits(Schedulers.DEFAULT_POOL_SIZE);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(obtainDataSource()));
+	}
+
+	private static ExecutorService createExecutor(int threads) {
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "reactive-jdbc-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+
+	/**
+	 * Return the underlying blocking {@link JdbcOperations}, e.g. for use
+	 * within an {@link #inTransaction(TransactionCallback)} callback.
+	 */
+	public JdbcOperations getJdbcOperations() {
+		return this.jdbcTemplate;
+	}
+
+	/**
+	 * Return the scheduler that blocking JDBC operations are run on.
+	 */
+	public Scheduler getScheduler() {
+		return this.scheduler;
+	}
+
+	/**
+	 * Set the JDBC fetch size for streamed queries, which is also used as the
+	 * number of rows requested from the {@code ResultSet} at a time.
+	 * <p>Default is {@value #DEFAULT_FETCH_SIZE}.
+	 */
+	public void setFetchSize(int fetchSize) {
+		Assert.isTrue(fetchSize > 0, "Fetch size must be greater than 0");
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Return the JDBC fetch size for streamed queries.
+	 */
+	public int getFetchSize() {
+		return this.fetchSize;
+	}
+
+	/**
+	 * Set the maximum number of streamed queries that may hold an open cursor,
+	 * and therefore a connection, at the same time. Further streamed queries
+	 * are deferred until a cursor is closed.
+	 * <p>Default is the {@code maxConnections} the client has been created with.
+	 * Consider a lower value if slow subscribers should not be able to occupy
+	 * all connections of the pool, leaving none for other operations.
+	 * @see #query(String, RowMapper, Object...)
+	 */
+	public void setMaxOpenCursors(int maxOpenCursors) {
+		Assert.isTrue(maxOpenCursors > 0, "maxOpenCursors must be greater than 0");
+		this.cursorPermits = new CursorPermits(maxOpenCursors);
+	}
+
+	/**
+	 * Return the maximum number of concurrently open cursors.
+	 */
+	public int getMaxOpenCursors() {
+		return this.cursorPermits.maxPermits;
+	}
+
+	/**
+	 * Set the transaction manager to use for {@link #inTransaction} callbacks.
+	 * <p>Default is a {@link DataSourceTransactionManager} for the DataSource
+	 * of this client.
+	 */
+	public void setTransactionManager(PlatformTransactionManager transactionManager) {
+		Assert.notNull(transactionManager, "PlatformTransactionManager must not be null");
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+
+	/**
+	 * Execute the given action against the underlying {@link JdbcOperations}
+	 * on the JDBC scheduler.
+	 * @param action the blocking action to perform
+	 * @return a {@code Mono} with the result of the action, or an empty
+	 * {@code Mono} if the action returned {@code null}
+	 */
+	public <T> Mono<T> execute(Function<JdbcOperations, T> action) {
+		Assert.notNull(action, "Action must not be null");
+		return Mono.fromCallable(() -> action.apply(this.jdbcTemplate)).subscribeOn(this.scheduler);
+	}
+
+	/**
+	 * Issue a single SQL update operation on the JDBC scheduler.
+	 * @param sql the SQL statement to execute
+	 * @param args the arguments to bind to the statement
+	 * @return a {@code Mono} with the number of rows affected
+	 * @see JdbcOperations#update(String, Object...)
+	 */
+	public Mono<Integer> update(String sql, @Nullable Object... args) {
+		return execute(jdbcOperations -> jdbcOperations.update(sql, args));
+	}
+
+	/**
+	 * Query for a single object on the JDBC scheduler.
+	 * <p>In contrast to {@link JdbcOperations#queryForObject(String, RowMapper, Object...)},
+	 * a query without any row results in an empty {@code Mono} rather than in an
+	 * {@link org.springframework.dao.EmptyResultDataAccessException}.
+	 * @param sql the SQL query to execute
+	 * @param rowMapper the callback to map the single row
+	 * @param args the arguments to bind to the query
+	 * @return a {@code Mono} with the mapped object, or an empty {@code Mono}
+	 * if the query did not return any row, or an
+	 * {@link org.springframework.dao.IncorrectResultSizeDataAccessException}
+	 * if the query returned more than one row
+	 */
+	public <T> Mono<T> queryForObject(String sql, RowMapper<T> rowMapper, @Nullable Object... args) {
+		return execute(jdbcOperations -> DataAccessUtils.singleResult(
+				jdbcOperations.query(sql, args, new RowMapperResultSetExtractor<>(rowMapper, 1))));
+	}
+
+	/**
+	 * Stream the results of the given SQL query, mapping each row through the
+	 * given {@link RowMapper} as it is requested by the subscriber.
+	 * <p>A connection is held for the duration of the subscription, and released
+	 * on completion, error or cancellation. The cursor is always closed on the
+	 * JDBC scheduler, once a row that is being read has been emitted, rather
+	 * than on a cancelling thread. If the {@link #setMaxOpenCursors maximum
+	 * number of open cursors} has been reached, the query is deferred until
+	 * another streamed query releases its connection.
+	 * @param sql the SQL query to execute
+	 * @param rowMapper the callback to map each row
+	 * @param args the arguments to bind to the query
+	 * @return a {@code Flux} of mapped rows
+	 */
+	public <T> Flux<T> query(String sql, RowMapper<T> rowMapper, @Nullable Object... args) {
+		Assert.hasText(sql, "SQL must not be empty");
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		CursorPermits cursorPermits = this.cursorPermits;
+		return Flux.defer(() -> {
+			CursorPermit permit = new CursorPermit();
+			return cursorPermits.acquire(permit)
+					.thenMany(Flux.using(
+							() -> new ResultSetCursor(sql, args, cursorPermits, permit),
+							cursor -> Flux.generate((SynchronousSink<T> sink) -> cursor.next(sink, rowMapper)),
+							this::closeCursor)
+							.subscribeOn(this.scheduler))
+					.doFinally(signalType -> cursorPermits.releaseUnclaimed(permit));
+		})
+				.limitRate(this.fetchSize);
+	}
+
+	/**
+	 * Execute the given callback within a transaction on a single thread of the
+	 * JDBC scheduler. Data access within the callback needs to go through
+	 * {@link #getJdbcOperations()} in order to participate in the transaction.
+	 * @param action the transactional callback
+	 * @return a {@code Mono} with the result of the callback
+	 * @see TransactionTemplate#execute
+	 */
+	public <T> Mono<T> inTransaction(TransactionCallback<T> action) {
+		Assert.notNull(action, "TransactionCallback must not be null");
+		TransactionTemplate transactionTemplate = this.transactionTemplate;
+		return Mono.fromCallable(() -> transactionTemplate.execute(action)).subscribeOn(this.scheduler);
+	}
+
+	/**
+	 * Execute the given callback within a transaction with the given definition.
+	 * @param definition the transaction definition to apply
+	 * @param action the transactional callback
+	 * @return a {@code Mono} with the result of the callback
+	 * @see #inTransaction(TransactionCallback)
+	 */
+	public <T> Mono<T> inTransaction(TransactionDefinition definition, TransactionCallback<T> action) {
+		Assert.notNull(action, "TransactionCallback must not be null");
+		PlatformTransactionManager transactionManager = this.transactionTemplate.getTransactionManager();
+		Assert.state(transactionManager != null, "No PlatformTransactionManager set");
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager, definition);
+		return Mono.fromCallable(() -> transactionTemplate.execute(action)).subscribeOn(this.scheduler);
+	}
+
+	/**
+	 * Dispose the internally created scheduler, if any.
+	 */
+	@Override
+	public void destroy() {
+		if (this.disposeScheduler) {
+			this.scheduler.dispose();
+		}
+	}
+
+
+	private DataSource obtainDataSource() {
+		DataSource dataSource = this.jdbcTemplate.getDataSource();
+		Assert.state(dataSource != null, "No DataSource set");
+		return dataSource;
+	}
+
+	private DataAccessException translateException(String sql, SQLException ex) {
+		DataAccessException dae = this.jdbcTemplate.getExceptionTranslator().translate("StreamingQuery", sql, ex);
+		return (dae != null ? dae : new UncategorizedSQLException("StreamingQuery", sql, ex));
+	}
+
+	private void closeCursor(ResultSetCursor cursor) {
+		// Cleanup may run on a cancelling thread, while a row is still being read
+		try {
+			this.scheduler.schedule(cursor::close);
+		}
+		catch (RejectedExecutionException ex) {
+			cursor.close();
+		}
+	}
+
+
+	/**
+	 * Permit for opening a cursor, held by a single subscription to a streamed query.
+	 */
+	private static class CursorPermit {
+
+		// Guarded by CursorPermits
+		boolean granted;
+
+		// Guarded by CursorPermits: whether a cursor is responsible for the release
+		boolean claimed;
+
+		@Nullable
+		MonoSink<Void> sink;
+	}
+
+
+	/**
+	 * Non-blocking bound for the number of concurrently open cursors, granting
+	 * permits to deferred queries in the order of their subscription.
+	 */
+	private static class CursorPermits {
+
+		final int maxPermits;
+
+		private int available;
+
+		private final Queue<CursorPermit> waiting = new ArrayDeque<>();
+
+		CursorPermits(int maxPermits) {
+			this.maxPermits = maxPermits;
+			this.available = maxPermits;
+		}
+
+		Mono<Void> acquire(CursorPermit permit) {
+			return Mono.create(sink -> {
+				synchronized (this) {
+					if (this.available > 0) {
+						this.available--;
+						permit.granted = true;
+					}
+					else {
+						permit.sink = sink;
+						this.waiting.add(permit);
+					}
+				}
+				if (permit.sink == null) {
+					sink.success();
+				}
+				else {
+					sink.onCancel(() -> {
+						synchronized (this) {
+							this.waiting.remove(permit);
+						}
+					});
+				}
+			});
+		}
+
+		/**
+		 * Transfer the release of the given permit to the cursor that is opened
+		 * with it, unless it has already been released.
+		 */
+		boolean claim(CursorPermit permit) {
+			synchronized (this) {
+				permit.claimed = permit.granted;
+				return permit.claimed;
+			}
+		}
+
+		/**
+		 * Release the given permit on termination of the subscription, unless
+		 * a cursor has claimed it and releases it once closed.
+		 */
+		void releaseUnclaimed(CursorPermit permit) {
+			release(permit, false);
+		}
+
+		void release(CursorPermit permit) {
+			release(permit, true);
+		}
+
+		private void release(CursorPermit permit, boolean claimed) {
+			MonoSink<Void> next = null;
+			synchronized (this) {
+				if (!permit.granted || permit.claimed != claimed) {
+					return;
+				}
+				permit.granted = false;
+				CursorPermit nextPermit = this.waiting.poll();
+				if (nextPermit != null) {
+					nextPermit.granted = true;
+					next = nextPermit.sink;
+				}
+				else {
+					this.available++;
+				}
+			}
+			if (next != null) {
+				next.success();
+			}
+		}
+	}
+
+
+	/**
+	 * Holder for the {@code ResultSet} of a streamed query and its JDBC resources.
+	 * The statement is executed on the first request; reading and closing are
+	 * mutually exclusive since they may be triggered from different threads.
+	 */
+	private class ResultSetCursor {
+
+		private final String sql;
+
+		@Nullable
+		private final Object[] args;
+
+		private final CursorPermits cursorPermits;
+
+		private final CursorPermit permit;
+
+		@Nullable
+		private Connection connection;
+
+		@Nullable
+		private PreparedStatement statement;
+
+		@Nullable
+		private ResultSet resultSet;
+
+		private int rowNum = 0;
+
+		private boolean closed;
+
+		ResultSetCursor(String sql, @Nullable Object[] args, CursorPermits cursorPermits, CursorPermit permit) {
+			this.sql = sql;
+			this.args = args;
+			this.cursorPermits = cursorPermits;
+			this.permit = permit;
+			// Released already if the subscription has been cancelled in the meantime
+			this.closed = !cursorPermits.claim(permit);
+		}
+
+		synchronized <T> void next(SynchronousSink<T> sink, RowMapper<T> rowMapper) {
+			if (this.closed) {
+				sink.complete();
+				return;
+			}
+			try {
+				ResultSet resultSet = this.resultSet;
+				if (resultSet == null) {
+					resultSet = open();
+				}
+				if (resultSet.next()) {
+					T row = rowMapper.mapRow(resultSet, this.rowNum++);
+					Assert.state(row != null, "RowMapper returned null");
+					sink.next(row);
+				}
+				else {
+					sink.complete();
+				}
+			}
+			catch (SQLException ex) {
+				sink.error(translateException(this.sql, ex));
+			}
+		}
+
+		private ResultSet open() throws SQLException {
+			DataSource dataSource = obtainDataSource();
+			this.connection = DataSourceUtils.getConnection(dataSource);
+			this.statement = this.connection.prepareStatement(
+					this.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			this.statement.setFetchSize(fetchSize);
+			int maxRows = jdbcTemplate.getMaxRows();
+			if (maxRows != -1) {
+				this.statement.setMaxRows(maxRows);
+			}
+			DataSourceUtils.applyTimeout(this.statement, dataSource, jdbcTemplate.getQueryTimeout());
+			new ArgumentPreparedStatementSetter(this.args).setValues(this.statement);
+			this.resultSet = this.statement.executeQuery();
+			return this.resultSet;
+		}
+
+		synchronized void close() {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			try {
+				JdbcUtils.closeResultSet(this.resultSet);
+				JdbcUtils.closeStatement(this.statement);
+				if (this.connection != null) {
+					DataSourceUtils.releaseConnection(this.connection, obtainDataSource());
+				}
+				if (logger.isTraceEnabled()) {
+					logger.trace("Closed streaming query [" + this.sql + "] after " + this.rowNum + " rows");
+				}
+			}
+			finally {
+				this.cursorPermits.release(this.permit);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,10 @@
+/**
+ * Reactive facade for Spring's JDBC support, running blocking
+ * JdbcTemplate operations on a dedicated scheduler.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.jdbc.core.reactive;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
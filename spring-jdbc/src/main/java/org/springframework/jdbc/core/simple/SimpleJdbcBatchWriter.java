@@ -0,0 +1,523 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.simple;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * A SimpleJdbcBatchWriter is a multi-threaded, reusable object for bulk
+ * ingestion of rows through a single parameterized SQL statement. Unlike
+ * {@link JdbcTemplate#batchUpdate(String, java.util.Collection, int, ParameterizedPreparedStatementSetter)},
+ * the items are pulled from an {@link Iterator} or {@link Stream} in chunks of the
+ * configured batch size, so memory usage stays bounded regardless of the total
+ * number of items, and no overall {@code int[][]} result is being accumulated.
+ *
+ * <p>By default all chunks are sent one after another through a single
+ * {@link PreparedStatement}. With a {@link #setConcurrency concurrency} greater
+ * than 1, chunks are fanned out to separate connections obtained from the
+ * {@code DataSource}, with at most that many chunks in flight at any time.
+ * Note that this only applies when no transaction is active for the calling
+ * thread: within a transaction, all chunks need to run on the transactional
+ * connection and are therefore always written sequentially.
+ *
+ * <p>Outside of a transaction, each chunk is committed on its own, as per the
+ * auto-commit mode of its connection. A write that fails part-way through
+ * therefore leaves the chunks written so far committed, and with parallel
+ * execution, possibly later chunks as well. For all-or-nothing semantics,
+ * call the writer within a transaction, e.g. through
+ * {@link org.springframework.transaction.support.TransactionTemplate}, at
+ * the expense of parallel execution.
+ *
+ * <p>Per-chunk throughput metrics can be collected through a {@link ChunkListener}.
+ *
+ * <p>Many of the configuration methods return the current instance of the
+ * SimpleJdbcBatchWriter to provide the ability to chain multiple ones together
+ * in a "fluent" interface style.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see SimpleJdbcInsert
+ * @see org.springframework.jdbc.core.JdbcTemplate#batchUpdate
+ */
+public class SimpleJdbcBatchWriter {
+
+	/** Default number of items per batch chunk. */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+
+	/** Logger available to subclasses. */
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	/** Lower-level class used to execute SQL. */
+	private final JdbcTemplate jdbcTemplate;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private int concurrency = 1;
+
+	@Nullable
+	private AsyncTaskExecutor taskExecutor;
+
+	/** Executor for parallel writes unless a task executor has been set. */
+	private final SimpleAsyncTaskExecutor defaultTaskExecutor =
+			new SimpleAsyncTaskExecutor(getClass().getSimpleName() + "-");
+
+	@Nullable
+	private ChunkListener chunkListener;
+
+
+	/**
+	 * Constructor that takes one parameter with the JDBC DataSource to use when
+	 * creating the JdbcTemplate.
+	 * @param dataSource the {@code DataSource} to use
+	 */
+	public SimpleJdbcBatchWriter(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Alternative Constructor that takes one parameter with the JdbcTemplate to be used.
+	 * @param jdbcTemplate the {@code JdbcTemplate} to use
+	 */
+	public SimpleJdbcBatchWriter(JdbcTemplate jdbcTemplate) {
+		Assert.notNull(jdbcTemplate, "JdbcTemplate must not be null");
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+
+	/**
+	 * Get the configured {@link JdbcTemplate}.
+	 */
+	public JdbcTemplate getJdbcTemplate() {
+		return this.jdbcTemplate;
+	}
+
+	/**
+	 * Set the number of items to send per JDBC batch.
+	 * <p>Default is {@value #DEFAULT_BATCH_SIZE}.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the number of items to send per JDBC batch.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Set the maximum number of chunks to write in parallel, each on its own
+	 * connection obtained from the {@code DataSource}.
+	 * <p>Default is 1, i.e. sequential execution on a single connection.
+	 * Parallel execution is not applied within an active transaction.
+	 */
+	public void setConcurrency(int concurrency) {
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater than 0");
+		this.concurrency = concurrency;
+		this.defaultTaskExecutor.setConcurrencyLimit(concurrency);
+	}
+
+	/**
+	 * Return the maximum number of chunks to write in parallel.
+	 */
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	/**
+	 * Set the executor to write chunks with when the {@link #setConcurrency
+	 * concurrency} is greater than 1.
+	 * <p>Default is a {@link SimpleAsyncTaskExecutor} limited to the configured
+	 * concurrency.
+	 */
+	public void setTaskExecutor(@Nullable AsyncTaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Return the executor to write chunks with, if explicitly configured.
+	 */
+	@Nullable
+	public AsyncTaskExecutor getTaskExecutor() {
+		return this.taskExecutor;
+	}
+
+	/**
+	 * Set a listener to be notified with the metrics of every written chunk.
+	 * <p>Note that the listener may be invoked from different threads
+	 * when writing in parallel.
+	 */
+	public void setChunkListener(@Nullable ChunkListener chunkListener) {
+		this.chunkListener = chunkListener;
+	}
+
+	/**
+	 * Return the listener to be notified with the metrics of every written chunk.
+	 */
+	@Nullable
+	public ChunkListener getChunkListener() {
+		return this.chunkListener;
+	}
+
+	/**
+	 * Specify the number of items to send per JDBC batch.
+	 * @see #setBatchSize
+	 */
+	public SimpleJdbcBatchWriter withBatchSize(int batchSize) {
+		setBatchSize(batchSize);
+		return this;
+	}
+
+	/**
+	 * Specify the maximum number of chunks to write in parallel.
+	 * @see #setConcurrency
+	 */
+	public SimpleJdbcBatchWriter withConcurrency(int concurrency) {
+		setConcurrency(concurrency);
+		return this;
+	}
+
+	/**
+	 * Specify the executor to write chunks with in parallel.
+	 * @see #setTaskExecutor
+	 */
+	public SimpleJdbcBatchWriter withTaskExecutor(AsyncTaskExecutor taskExecutor) {
+		setTaskExecutor(taskExecutor);
+		return this;
+	}
+
+	/**
+	 * Specify a listener to be notified with the metrics of every written chunk.
+	 * @see #setChunkListener
+	 */
+	public SimpleJdbcBatchWriter withChunkListener(ChunkListener chunkListener) {
+		setChunkListener(chunkListener);
+		return this;
+	}
+
+
+	/**
+	 * Write all items of the given {@link Stream} using the supplied SQL statement.
+	 * <p>The stream is consumed but not closed by this method.
+	 * @param sql the SQL statement to execute
+	 * @param items the items to write
+	 * @param pss the setter for the parameters of each item
+	 * @return the total number of items written
+	 * @see #write(String, Iterator, ParameterizedPreparedStatementSetter)
+	 */
+	public <T> long write(String sql, Stream<T> items, ParameterizedPreparedStatementSetter<T> pss) {
+		Assert.notNull(items, "Stream must not be null");
+		return write(sql, items.iterator(), pss);
+	}
+
+	/**
+	 * Write all items of the given {@link Iterator} using the supplied SQL statement.
+	 * <p>Items are pulled from the iterator chunk by chunk: at most one chunk
+	 * per concurrent writer is held in memory at any given time.
+	 * <p>Unless a transaction is active, chunks are committed independently:
+	 * if this method throws an exception, chunks written before the failing
+	 * one remain committed.
+	 * @param sql the SQL statement to execute
+	 * @param items the items to write
+	 * @param pss the setter for the parameters of each item
+	 * @return the total number of items written
+	 * @throws org.springframework.dao.DataAccessException if there is any
+	 * problem issuing the update for any of the chunks
+	 */
+	public <T> long write(String sql, Iterator<T> items, ParameterizedPreparedStatementSetter<T> pss) {
+		Assert.hasText(sql, "SQL must not be empty");
+		Assert.notNull(items, "Iterator must not be null");
+		Assert.notNull(pss, "ParameterizedPreparedStatementSetter must not be null");
+
+		try {
+			if (this.concurrency > 1 && !isTransactionBound()) {
+				return writeInParallel(sql, items, pss);
+			}
+			else {
+				return writeSequentially(sql, items, pss);
+			}
+		}
+		finally {
+			if (pss instanceof ParameterDisposer) {
+				((ParameterDisposer) pss).cleanupParameters();
+			}
+		}
+	}
+
+	/**
+	 * Determine whether JDBC access is currently bound to a transaction, in
+	 * which case all chunks have to be executed on the calling thread.
+	 */
+	protected boolean isTransactionBound() {
+		DataSource dataSource = this.jdbcTemplate.getDataSource();
+		return (TransactionSynchronizationManager.isSynchronizationActive() ||
+				(dataSource != null && TransactionSynchronizationManager.hasResource(dataSource)));
+	}
+
+	private <T> long writeSequentially(String sql, Iterator<T> items, ParameterizedPreparedStatementSetter<T> pss) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Writing SQL batch [" + sql + "] sequentially with a batch size of " + this.batchSize);
+		}
+		Long result = this.jdbcTemplate.execute(sql, (PreparedStatementCallback<Long>) ps -> {
+			boolean batchSupported = JdbcUtils.supportsBatchUpdates(ps.getConnection());
+			long total = 0;
+			int chunkIndex = 0;
+			while (items.hasNext()) {
+				long startTime = System.nanoTime();
+				int[] updateCounts = executeChunk(ps, new ChunkIterator<>(items, this.batchSize), pss, batchSupported);
+				chunkCompleted(chunkIndex++, updateCounts, startTime);
+				total += updateCounts.length;
+			}
+			return total;
+		});
+		Assert.state(result != null, "No result");
+		return result;
+	}
+
+	private <T> long writeInParallel(String sql, Iterator<T> items, ParameterizedPreparedStatementSetter<T> pss) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Writing SQL batch [" + sql + "] on up to " + this.concurrency +
+					" connections with a batch size of " + this.batchSize);
+		}
+		AsyncTaskExecutor executor = obtainTaskExecutor();
+		Deque<Future<Integer>> inFlight = new ArrayDeque<>(this.concurrency);
+		long total = 0;
+		int chunkIndex = 0;
+		try {
+			while (items.hasNext()) {
+				if (inFlight.size() >= this.concurrency) {
+					total += awaitChunk(inFlight.poll());
+				}
+				List<T> chunk = new ArrayList<>(this.batchSize);
+				while (chunk.size() < this.batchSize && items.hasNext()) {
+					chunk.add(items.next());
+				}
+				int index = chunkIndex++;
+				inFlight.add(executor.submit(() -> {
+					long startTime = System.nanoTime();
+					int[] updateCounts = this.jdbcTemplate.execute(sql, (PreparedStatementCallback<int[]>) ps ->
+							executeChunk(ps, chunk.iterator(), pss, JdbcUtils.supportsBatchUpdates(ps.getConnection())));
+					Assert.state(updateCounts != null, "No update counts");
+					chunkCompleted(index, updateCounts, startTime);
+					return updateCounts.length;
+				}));
+			}
+			while (!inFlight.isEmpty()) {
+				total += awaitChunk(inFlight.poll());
+			}
+			return total;
+		}
+		finally {
+			for (Future<Integer> future : inFlight) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private AsyncTaskExecutor obtainTaskExecutor() {
+		AsyncTaskExecutor executor = this.taskExecutor;
+		return (executor != null ? executor : this.defaultTaskExecutor);
+	}
+
+	private int awaitChunk(Future<Integer> future) {
+		try {
+			return future.get();
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Unexpected exception from batch chunk", cause);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new DataAccessResourceFailureException("Interrupted while waiting for batch chunk", ex);
+		}
+	}
+
+	private <T> int[] executeChunk(PreparedStatement ps, Iterator<T> chunk,
+			ParameterizedPreparedStatementSetter<T> pss, boolean batchSupported) throws SQLException {
+
+		if (batchSupported) {
+			while (chunk.hasNext()) {
+				pss.setValues(ps, chunk.next());
+				ps.addBatch();
+			}
+			return ps.executeBatch();
+		}
+		else {
+			List<Integer> rowsAffected = new ArrayList<>(this.batchSize);
+			while (chunk.hasNext()) {
+				pss.setValues(ps, chunk.next());
+				rowsAffected.add(ps.executeUpdate());
+			}
+			int[] result = new int[rowsAffected.size()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = rowsAffected.get(i);
+			}
+			return result;
+		}
+	}
+
+	private void chunkCompleted(int chunkIndex, int[] updateCounts, long startTime) {
+		long elapsedNanos = System.nanoTime() - startTime;
+		if (logger.isTraceEnabled()) {
+			logger.trace("Sent SQL batch chunk #" + chunkIndex + " with " + updateCounts.length +
+					" items in " + (elapsedNanos / 1000000) + " ms");
+		}
+		ChunkListener listener = this.chunkListener;
+		if (listener != null) {
+			listener.chunkWritten(new ChunkMetrics(chunkIndex, updateCounts, elapsedNanos));
+		}
+	}
+
+
+	/**
+	 * Callback interface for receiving the {@link ChunkMetrics} of each
+	 * chunk written by a {@link SimpleJdbcBatchWriter}.
+	 */
+	@FunctionalInterface
+	public interface ChunkListener {
+
+		/**
+		 * Called after a chunk has been written successfully.
+		 * @param metrics the metrics for the chunk
+		 */
+		void chunkWritten(ChunkMetrics metrics);
+	}
+
+
+	/**
+	 * Throughput metrics for a single chunk written by a {@link SimpleJdbcBatchWriter}.
+	 */
+	public static final class ChunkMetrics {
+
+		private final int chunkIndex;
+
+		private final int[] updateCounts;
+
+		private final long elapsedNanos;
+
+		ChunkMetrics(int chunkIndex, int[] updateCounts, long elapsedNanos) {
+			this.chunkIndex = chunkIndex;
+			this.updateCounts = updateCounts;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * Return the 0-based index of the chunk within the write operation.
+		 */
+		public int getChunkIndex() {
+			return this.chunkIndex;
+		}
+
+		/**
+		 * Return the number of items in the chunk.
+		 */
+		public int getItemCount() {
+			return this.updateCounts.length;
+		}
+
+		/**
+		 * Return the update counts as returned by the JDBC driver for the chunk.
+		 * @see java.sql.Statement#executeBatch()
+		 */
+		public int[] getUpdateCounts() {
+			return this.updateCounts;
+		}
+
+		/**
+		 * Return the time it took to write the chunk, in nanoseconds.
+		 */
+		public long getElapsedNanos() {
+			return this.elapsedNanos;
+		}
+
+		/**
+		 * Return the throughput of the chunk in items per second.
+		 */
+		public double getItemsPerSecond() {
+			return (this.elapsedNanos > 0 ? this.updateCounts.length * 1e9 / this.elapsedNanos : 0);
+		}
+
+		@Override
+		public String toString() {
+			return "ChunkMetrics [index=" + this.chunkIndex + ", items=" + this.updateCounts.length +
+					", elapsedNanos=" + this.elapsedNanos + "]";
+		}
+	}
+
+
+	/**
+	 * Iterator view limited to the next {@code limit} elements of a given source.
+	 */
+	private static class ChunkIterator<T> implements Iterator<T> {
+
+		private final Iterator<T> source;
+
+		private int remaining;
+
+		ChunkIterator(Iterator<T> source, int limit) {
+			this.source = source;
+			this.remaining = limit;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return (this.remaining > 0 && this.source.hasNext());
+		}
+
+		@Override
+		public T next() {
+			this.remaining--;
+			return this.source.next();
+		}
+	}
+
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Proxy for a target DataSource, adding a per-Connection LRU cache of
+ * {@link PreparedStatement PreparedStatements}. Calling {@code close()} on a
+ * cached statement returns it to the cache of its Connection instead of closing
+ * it, so that subsequent {@code prepareStatement} calls with the same SQL and
+ * the same statement options on the same Connection reuse the already parsed
+ * statement. Statements evicted from the cache, and all cached statements of a
+ * Connection that is being closed, are closed physically.
+ *
+ * <p>This is primarily intended for Spring's own {@link DriverManagerDataSource},
+ * {@link SimpleDriverDataSource} and {@link SingleConnectionDataSource}, which
+ * do not provide any statement reuse themselves, in combination with JDBC
+ * drivers which do not cache statements internally either. Typical use cases
+ * are embedded databases, test setups and lightweight services without a full
+ * connection pool. There is no need for this proxy in front of a connection
+ * pool which provides statement caching already.
+ *
+ * <p>Statement caches are kept per target Connection, so a target DataSource
+ * which hands out the same Connection repeatedly (such as a close-suppressing
+ * SingleConnectionDataSource) benefits from statement reuse across logical
+ * Connections. A cache is discarded once its Connection is closed physically.
+ *
+ * <p>Note that a cached statement is handed out to one user at a time only:
+ * a statement will be re-prepared if the same SQL is requested while the
+ * cached statement is still in use. The number of cache hits and misses is
+ * exposed through {@link #getCacheHits()} and {@link #getCacheMisses()}.
+ *
+ * <p><b>NOTE:</b> This DataSource proxy needs to return wrapped Connections
+ * (which implement the {@link ConnectionProxy} interface) in order to handle
+ * the statement cache. Use {@link Connection#unwrap} to retrieve the native
+ * JDBC Connection.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see SingleConnectionDataSource
+ * @see DriverManagerDataSource
+ */
+public class StatementCachingDataSourceProxy extends DelegatingDataSource {
+
+	/** Default maximum number of cached statements per Connection. */
+	public static final int DEFAULT_CACHE_LIMIT = 64;
+
+	private static final Log logger = LogFactory.getLog(StatementCachingDataSourceProxy.class);
+
+
+	private int cacheLimit = DEFAULT_CACHE_LIMIT;
+
+	private final AtomicLong cacheHits = new AtomicLong();
+
+	private final AtomicLong cacheMisses = new AtomicLong();
+
+	/** Statement caches per target Connection, for reuse across logical Connections. */
+	private final Map<Connection, StatementCache> statementCaches = new IdentityHashMap<>();
+
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @see #setTargetDataSource
+	 */
+	public StatementCachingDataSourceProxy() {
+	}
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @param targetDataSource the target DataSource
+	 */
+	public StatementCachingDataSourceProxy(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+
+	/**
+	 * Specify the maximum number of statements to cache per Connection.
+	 * <p>Default is {@value #DEFAULT_CACHE_LIMIT}. The least recently used
+	 * statement is closed when the limit is exceeded.
+	 */
+	public void setCacheLimit(int cacheLimit) {
+		Assert.isTrue(cacheLimit > 0, "Cache limit must be greater than 0");
+		this.cacheLimit = cacheLimit;
+	}
+
+	/**
+	 * Return the maximum number of statements to cache per Connection.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Return the number of {@code prepareStatement} calls that have been
+	 * served from the statement cache.
+	 */
+	public long getCacheHits() {
+		return this.cacheHits.get();
+	}
+
+	/**
+	 * Return the number of {@code prepareStatement} calls that had to
+	 * prepare a new statement on the target Connection.
+	 */
+	public long getCacheMisses() {
+		return this.cacheMisses.get();
+	}
+
+	/**
+	 * Reset the cache hit and miss counters.
+	 */
+	public void resetStatistics() {
+		this.cacheHits.set(0);
+		this.cacheMisses.set(0);
+	}
+
+
+	/**
+	 * Wraps the target Connection with a statement-caching proxy.
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getStatementCachingConnectionProxy(obtainTargetDataSource().getConnection());
+	}
+
+	/**
+	 * Wraps the target Connection with a statement-caching proxy.
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getStatementCachingConnectionProxy(obtainTargetDataSource().getConnection(username, password));
+	}
+
+	/**
+	 * Wrap the given Connection with a proxy that caches its prepared statements.
+	 * @param target the original Connection to wrap
+	 * @return the wrapped Connection
+	 */
+	protected Connection getStatementCachingConnectionProxy(Connection target) {
+		return (Connection) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class<?>[] {ConnectionProxy.class},
+				new StatementCachingInvocationHandler(target));
+	}
+
+
+	/**
+	 * Obtain the statement cache for the given target Connection, creating it
+	 * if necessary. Caches of Connections that have been closed in the meantime
+	 * are discarded along the way.
+	 */
+	private StatementCache obtainStatementCache(Connection target) {
+		synchronized (this.statementCaches) {
+			StatementCache cache = this.statementCaches.get(target);
+			if (cache == null) {
+				this.statementCaches.entrySet().removeIf(entry -> isClosed(entry.getKey()));
+				cache = new StatementCache();
+				this.statementCaches.put(target, cache);
+			}
+			return cache;
+		}
+	}
+
+	private void discardStatementCache(Connection target) {
+		StatementCache cache;
+		synchronized (this.statementCaches) {
+			cache = this.statementCaches.remove(target);
+		}
+		if (cache != null) {
+			cache.closeAll(target);
+		}
+	}
+
+	private static boolean isClosed(Connection con) {
+		try {
+			return con.isClosed();
+		}
+		catch (SQLException ex) {
+			return true;
+		}
+	}
+
+
+	/**
+	 * Invocation handler that serves the prepared statements of a JDBC
+	 * Connection from the statement cache for its target Connection.
+	 */
+	private class StatementCachingInvocationHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		private final StatementCache cache;
+
+		public StatementCachingInvocationHandler(Connection target) {
+			this.target = target;
+			this.cache = obtainStatementCache(target);
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			switch (method.getName()) {
+				case "equals":
+					// Only consider equal when proxies are identical.
+					return (proxy == args[0]);
+				case "hashCode":
+					// Use hashCode of Connection proxy.
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Statement-caching proxy for target Connection [" + this.target + "]";
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "getTargetConnection":
+					// Handle getTargetConnection method: return underlying Connection.
+					return this.target;
+				case "prepareStatement":
+					return prepareStatement((Connection) proxy, method, args);
+				case "close":
+					// Handle close method: discard the cache only if physically closed,
+					// e.g. not for the close-suppressing SingleConnectionDataSource.
+					try {
+						this.target.close();
+					}
+					finally {
+						if (isClosed(this.target)) {
+							discardStatementCache(this.target);
+						}
+					}
+					return null;
+			}
+
+			// Invoke method on target Connection.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		private PreparedStatement prepareStatement(Connection proxy, Method method, Object[] args) throws Throwable {
+			StatementKey key = new StatementKey(args);
+			CachedStatement cachedStatement = this.cache.checkout(key);
+			if (cachedStatement != null) {
+				cacheHits.incrementAndGet();
+			}
+			else {
+				cacheMisses.incrementAndGet();
+				try {
+					cachedStatement = new CachedStatement((PreparedStatement) method.invoke(this.target, args));
+				}
+				catch (InvocationTargetException ex) {
+					throw ex.getTargetException();
+				}
+			}
+			return (PreparedStatement) Proxy.newProxyInstance(
+					PreparedStatement.class.getClassLoader(),
+					new Class<?>[] {PreparedStatement.class},
+					new CachedStatementInvocationHandler(proxy, key, cachedStatement, this.cache));
+		}
+	}
+
+
+	/**
+	 * LRU cache of idle statements for a single target Connection.
+	 */
+	private class StatementCache {
+
+		private final Map<StatementKey, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+		@Nullable
+		synchronized CachedStatement checkout(StatementKey key) {
+			return this.statements.remove(key);
+		}
+
+		void checkin(StatementKey key, CachedStatement cachedStatement) {
+			List<CachedStatement> toClose = new ArrayList<>(1);
+			synchronized (this) {
+				CachedStatement existing = this.statements.putIfAbsent(key, cachedStatement);
+				if (existing != null) {
+					toClose.add(cachedStatement);
+				}
+				Iterator<CachedStatement> it = this.statements.values().iterator();
+				while (this.statements.size() > cacheLimit && it.hasNext()) {
+					toClose.add(it.next());
+					it.remove();
+				}
+			}
+			for (CachedStatement statement : toClose) {
+				JdbcUtils.closeStatement(statement.getTarget());
+			}
+		}
+
+		void closeAll(Connection target) {
+			List<CachedStatement> toClose;
+			synchronized (this) {
+				toClose = new ArrayList<>(this.statements.values());
+				this.statements.clear();
+			}
+			if (logger.isDebugEnabled() && !toClose.isEmpty()) {
+				logger.debug("Closing " + toClose.size() + " cached statements of JDBC Connection [" + target + "]");
+			}
+			for (CachedStatement statement : toClose) {
+				JdbcUtils.closeStatement(statement.getTarget());
+			}
+		}
+	}
+
+
+	/**
+	 * Invocation handler for a checked-out cached statement, returning the
+	 * statement to the cache of its Connection on close.
+	 */
+	private static class CachedStatementInvocationHandler implements InvocationHandler {
+
+		private final Connection connectionProxy;
+
+		private final StatementKey key;
+
+		private final CachedStatement cachedStatement;
+
+		private final StatementCache cache;
+
+		private boolean closed = false;
+
+		public CachedStatementInvocationHandler(Connection connectionProxy, StatementKey key,
+				CachedStatement cachedStatement, StatementCache cache) {
+
+			this.connectionProxy = connectionProxy;
+			this.key = key;
+			this.cachedStatement = cachedStatement;
+			this.cache = cache;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "equals":
+					return (proxy == args[0]);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Cached statement: " + this.cachedStatement.getTarget();
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(this.cachedStatement.getTarget())) {
+						return this.cachedStatement.getTarget();
+					}
+					break;
+				case "isClosed":
+					return this.closed;
+				case "close":
+					if (!this.closed) {
+						this.closed = true;
+						if (this.cachedStatement.reset()) {
+							this.cache.checkin(this.key, this.cachedStatement);
+						}
+					}
+					return null;
+				case "getConnection":
+					return this.connectionProxy;
+			}
+
+			if (this.closed) {
+				throw new SQLException("Statement has already been returned to the cache");
+			}
+			try {
+				return method.invoke(this.cachedStatement.getTarget(), args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+
+	/**
+	 * Cache key for a statement, consisting of all {@code prepareStatement} arguments.
+	 */
+	private static final class StatementKey {
+
+		private final Object[] args;
+
+		StatementKey(Object[] args) {
+			this.args = args;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other || (other instanceof StatementKey &&
+					Arrays.deepEquals(this.args, ((StatementKey) other).args)));
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.deepHashCode(this.args);
+		}
+	}
+
+
+	/**
+	 * Holder for a cached target statement, along with its initial settings.
+	 */
+	private static final class CachedStatement {
+
+		private final PreparedStatement target;
+
+		private final int fetchSize;
+
+		private final int fetchDirection;
+
+		private final int maxFieldSize;
+
+		private final int maxRows;
+
+		private final int queryTimeout;
+
+		CachedStatement(PreparedStatement target) throws SQLException {
+			this.target = target;
+			this.fetchSize = target.getFetchSize();
+			this.fetchDirection = target.getFetchDirection();
+			this.maxFieldSize = target.getMaxFieldSize();
+			this.maxRows = target.getMaxRows();
+			this.queryTimeout = target.getQueryTimeout();
+		}
+
+		PreparedStatement getTarget() {
+			return this.target;
+		}
+
+		/**
+		 * Reset the target statement to its initial state for reuse, closing
+		 * a {@code ResultSet} that has been left open by the caller.
+		 * @return {@code true} if the statement can be reused,
+		 * {@code false} if it has been closed as a consequence of a failed reset
+		 */
+		boolean reset() {
+			try {
+				JdbcUtils.closeResultSet(this.target.getResultSet());
+				this.target.clearParameters();
+				this.target.clearBatch();
+				this.target.clearWarnings();
+				if (this.target.getFetchSize() != this.fetchSize) {
+					this.target.setFetchSize(this.fetchSize);
+				}
+				if (this.target.getFetchDirection() != this.fetchDirection) {
+					this.target.setFetchDirection(this.fetchDirection);
+				}
+				if (this.target.getMaxFieldSize() != this.maxFieldSize) {
+					this.target.setMaxFieldSize(this.maxFieldSize);
+				}
+				if (this.target.getMaxRows() != this.maxRows) {
+					this.target.setMaxRows(this.maxRows);
+				}
+				if (this.target.getQueryTimeout() != this.queryTimeout) {
+					this.target.setQueryTimeout(this.queryTimeout);
+				}
+				return true;
+			}
+			catch (SQLException | RuntimeException ex) {
+				logger.debug("Could not reset cached JDBC statement - closing it", ex);
+				JdbcUtils.closeStatement(this.target);
+				return false;
+			}
+		}
+	}
+
+}
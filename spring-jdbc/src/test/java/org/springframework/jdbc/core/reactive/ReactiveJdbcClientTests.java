@@ -0,0 +1,219 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.reactive;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.Assert.*;
+
+/**
+ * Integration tests for {@link ReactiveJdbcClient} against an embedded H2 database.
+ *
+ * @author Jinwei Sun
+ */
+public class ReactiveJdbcClientTests {
+
+	private EmbeddedDatabase database;
+
+	private ReactiveJdbcClient client;
+
+
+	@Before
+	public void setUp() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2).build();
+		this.client = new ReactiveJdbcClient(this.database, 2);
+		this.client.setFetchSize(4);
+		this.client.getJdbcOperations().execute("create table person (id integer primary key, name varchar(20))");
+		for (int i = 0; i < 10; i++) {
+			this.client.getJdbcOperations().update("insert into person (id, name) values (?, ?)", i, "name" + i);
+		}
+	}
+
+	@After
+	public void shutDown() {
+		this.client.destroy();
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void query() {
+		StepVerifier.create(this.client.query("select name from person where id < ? order by id",
+				(rs, rowNum) -> rs.getString(1), 3))
+				.expectNext("name0", "name1", "name2")
+				.verifyComplete();
+	}
+
+	@Test
+	public void queryWithBackpressure() {
+		StepVerifier.create(this.client.query("select id from person order by id", (rs, rowNum) -> rs.getInt(1)), 2)
+				.expectNext(0, 1)
+				.thenRequest(3)
+				.expectNext(2, 3, 4)
+				.thenCancel()
+				.verify();
+	}
+
+	@Test
+	public void queryWithMaxOpenCursors() {
+		this.client.setMaxOpenCursors(1);
+		StepVerifier.create(this.client.query("select id from person order by id", (rs, rowNum) -> rs.getInt(1)), 1)
+				.expectNext(0)
+				.then(() -> StepVerifier.create(this.client.query("select id from person where id = 5",
+						(rs, rowNum) -> rs.getInt(1)))
+						.expectSubscription()
+						.expectNoEvent(Duration.ofMillis(200))
+						.thenCancel()
+						.verify())
+				.thenRequest(1)
+				.expectNext(1)
+				.thenCancel()
+				.verify();
+		StepVerifier.create(this.client.query("select id from person where id = 5", (rs, rowNum) -> rs.getInt(1)))
+				.expectNext(5)
+				.verifyComplete();
+	}
+
+	@Test
+	public void queryCancelledWhileReadingRow() throws Exception {
+		this.client.setMaxOpenCursors(1);
+		CountDownLatch mapping = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		AtomicReference<Object> columnAfterCancel = new AtomicReference<>();
+		Disposable subscription = this.client.query("select id from person order by id", (rs, rowNum) -> {
+			if (rowNum == 1) {
+				mapping.countDown();
+				awaitUninterruptibly(cancelled);
+				try {
+					columnAfterCancel.set(rs.getInt(1));
+				}
+				catch (SQLException ex) {
+					columnAfterCancel.set(ex);
+				}
+			}
+			return rs.getInt(1);
+		}).subscribe();
+		assertTrue(mapping.await(5, TimeUnit.SECONDS));
+		subscription.dispose();
+		Thread.sleep(100);
+		cancelled.countDown();
+
+		StepVerifier.create(this.client.query("select id from person where id = 5", (rs, rowNum) -> rs.getInt(1)))
+				.expectNext(5)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+		assertEquals(1, columnAfterCancel.get());
+	}
+
+	@Test
+	public void queryRunsOnJdbcScheduler() {
+		AtomicReference<String> threadName = new AtomicReference<>();
+		StepVerifier.create(this.client.query("select id from person where id = 0", (rs, rowNum) -> {
+			threadName.set(Thread.currentThread().getName());
+			return rs.getInt(1);
+		}))
+				.expectNext(0)
+				.verifyComplete();
+		assertTrue(threadName.get().startsWith("reactive-jdbc-"));
+	}
+
+	@Test
+	public void queryWithBadSql() {
+		StepVerifier.create(this.client.query("select nothing from nowhere", (rs, rowNum) -> rs.getInt(1)))
+				.expectError(BadSqlGrammarException.class)
+				.verify();
+	}
+
+	@Test
+	public void updateAndQueryForObject() {
+		StepVerifier.create(this.client.update("update person set name = ? where id = ?", "updated", 5))
+				.expectNext(1)
+				.verifyComplete();
+		StepVerifier.create(this.client.queryForObject("select name from person where id = ?",
+				(rs, rowNum) -> rs.getString(1), 5))
+				.expectNext("updated")
+				.verifyComplete();
+		StepVerifier.create(this.client.queryForObject("select name from person where id = ?",
+				(rs, rowNum) -> rs.getString(1), 42))
+				.verifyComplete();
+	}
+
+	@Test
+	public void queryForObjectWithMultipleRows() {
+		StepVerifier.create(this.client.queryForObject("select name from person where id < ?",
+				(rs, rowNum) -> rs.getString(1), 2))
+				.expectError(IncorrectResultSizeDataAccessException.class)
+				.verify();
+	}
+
+	@Test
+	public void inTransactionCommit() {
+		StepVerifier.create(this.client.inTransaction(status ->
+				this.client.getJdbcOperations().update("delete from person where id > ?", 4)))
+				.expectNext(5)
+				.verifyComplete();
+		assertEquals(Integer.valueOf(5), this.client.getJdbcOperations()
+				.queryForObject("select count(*) from person", Integer.class));
+	}
+
+	@Test
+	public void inTransactionRollback() {
+		StepVerifier.create(this.client.inTransaction(status -> {
+			this.client.getJdbcOperations().update("delete from person");
+			throw new IllegalStateException("rollback");
+		}))
+				.expectError(IllegalStateException.class)
+				.verify();
+		assertEquals(Integer.valueOf(10), this.client.getJdbcOperations()
+				.queryForObject("select count(*) from person", Integer.class));
+	}
+
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				latch.await();
+				break;
+			}
+			catch (InterruptedException ex) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.simple;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Integration tests for {@link SimpleJdbcBatchWriter}.
+ *
+ * @author Jinwei Sun
+ */
+public class SimpleJdbcBatchWriterTests {
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+
+	@Before
+	public void setUp() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.HSQL).build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+		this.jdbcTemplate.execute("create table item (id integer primary key, name varchar(20))");
+	}
+
+	@After
+	public void shutDown() {
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void writeSequentially() {
+		List<SimpleJdbcBatchWriter.ChunkMetrics> metrics = new CopyOnWriteArrayList<>();
+		SimpleJdbcBatchWriter writer = new SimpleJdbcBatchWriter(this.jdbcTemplate)
+				.withBatchSize(10).withChunkListener(metrics::add);
+
+		long count = writer.write("insert into item (id, name) values (?, ?)", IntStream.range(0, 25).boxed(),
+				(ps, id) -> {
+					ps.setInt(1, id);
+					ps.setString(2, "item" + id);
+				});
+
+		assertEquals(25, count);
+		assertEquals(25, countRows());
+		assertEquals(3, metrics.size());
+		assertEquals(10, metrics.get(0).getItemCount());
+		assertEquals(10, metrics.get(1).getItemCount());
+		assertEquals(5, metrics.get(2).getItemCount());
+		assertEquals(2, metrics.get(2).getChunkIndex());
+	}
+
+	@Test
+	public void writeInParallel() {
+		List<SimpleJdbcBatchWriter.ChunkMetrics> metrics = new CopyOnWriteArrayList<>();
+		SimpleJdbcBatchWriter writer = new SimpleJdbcBatchWriter(this.database)
+				.withBatchSize(7).withConcurrency(3).withChunkListener(metrics::add);
+
+		long count = writer.write("insert into item (id, name) values (?, ?)", IntStream.range(0, 100).boxed(),
+				(ps, id) -> {
+					ps.setInt(1, id);
+					ps.setString(2, "item" + id);
+				});
+
+		assertEquals(100, count);
+		assertEquals(100, countRows());
+		assertEquals(15, metrics.size());
+		assertEquals(100, metrics.stream().mapToInt(SimpleJdbcBatchWriter.ChunkMetrics::getItemCount).sum());
+	}
+
+	@Test
+	public void writeWithinTransactionIsSequential() {
+		List<String> threads = new CopyOnWriteArrayList<>();
+		SimpleJdbcBatchWriter writer = new SimpleJdbcBatchWriter(this.database)
+				.withBatchSize(5).withConcurrency(4)
+				.withChunkListener(metrics -> threads.add(Thread.currentThread().getName()));
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(this.database));
+
+		tt.execute(status -> {
+			writer.write("insert into item (id, name) values (?, ?)", IntStream.range(0, 20).boxed(),
+					(ps, id) -> {
+						ps.setInt(1, id);
+						ps.setString(2, "item" + id);
+					});
+			status.setRollbackOnly();
+			return null;
+		});
+
+		assertEquals(4, threads.size());
+		assertTrue(threads.stream().allMatch(name -> name.equals(Thread.currentThread().getName())));
+		assertEquals(0, countRows());
+	}
+
+	@Test
+	public void writeEmpty() {
+		SimpleJdbcBatchWriter writer = new SimpleJdbcBatchWriter(this.database).withConcurrency(2);
+		long count = writer.write("insert into item (id, name) values (?, ?)", IntStream.range(0, 0).boxed(),
+				(ps, id) -> ps.setInt(1, id));
+		assertEquals(0, count);
+	}
+
+	@Test
+	public void writeFailureKeepsPreviousChunks() {
+		SimpleJdbcBatchWriter writer = new SimpleJdbcBatchWriter(this.database).withBatchSize(5);
+		try {
+			writer.write("insert into item (id, name) values (?, ?)", IntStream.range(0, 15).map(i -> i % 10).boxed(),
+					(ps, id) -> {
+						ps.setInt(1, id);
+						ps.setString(2, "item" + id);
+					});
+			fail("Should have thrown DataIntegrityViolationException");
+		}
+		catch (DataIntegrityViolationException ex) {
+			// expected
+		}
+		assertEquals(10, countRows());
+	}
+
+	@Test(expected = DataIntegrityViolationException.class)
+	public void writeInParallelPropagatesFailure() {
+		SimpleJdbcBatchWriter writer = new SimpleJdbcBatchWriter(this.database)
+				.withBatchSize(5).withConcurrency(2);
+		writer.write("insert into item (id, name) values (?, ?)", IntStream.range(0, 20).map(i -> i % 12).boxed(),
+				(ps, id) -> {
+					ps.setInt(1, id);
+					ps.setString(2, "item" + id);
+				});
+	}
+
+
+	private int countRows() {
+		Integer count = this.jdbcTemplate.queryForObject("select count(*) from item", Integer.class);
+		return (count != null ? count : 0);
+	}
+
+}
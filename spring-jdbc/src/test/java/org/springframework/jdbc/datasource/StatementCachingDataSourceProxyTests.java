@@ -0,0 +1,183 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Tests for {@link StatementCachingDataSourceProxy}.
+ *
+ * @author Jinwei Sun
+ */
+public class StatementCachingDataSourceProxyTests {
+
+	private final Connection connection = mock(Connection.class);
+
+	private final DataSource dataSource = mock(DataSource.class);
+
+
+	@Before
+	public void setUp() throws Exception {
+		given(this.dataSource.getConnection()).willReturn(this.connection);
+		given(this.connection.prepareStatement(anyString())).willAnswer(invocation -> {
+			PreparedStatement ps = mock(PreparedStatement.class);
+			given(ps.getFetchDirection()).willReturn(ResultSet.FETCH_FORWARD);
+			return ps;
+		});
+	}
+
+
+	@Test
+	public void statementReusedAfterLogicalClose() throws Exception {
+		StatementCachingDataSourceProxy proxy = new StatementCachingDataSourceProxy(this.dataSource);
+		Connection con = proxy.getConnection();
+
+		PreparedStatement ps1 = con.prepareStatement("select 1");
+		PreparedStatement target1 = ps1.unwrap(PreparedStatement.class);
+		ps1.close();
+		assertTrue(ps1.isClosed());
+		verify(target1, never()).close();
+		verify(target1).clearParameters();
+
+		PreparedStatement ps2 = con.prepareStatement("select 1");
+		assertSame(target1, ps2.unwrap(PreparedStatement.class));
+		assertSame(con, ps2.getConnection());
+		verify(this.connection, times(1)).prepareStatement("select 1");
+		assertEquals(1, proxy.getCacheHits());
+		assertEquals(1, proxy.getCacheMisses());
+	}
+
+	@Test
+	public void statementInUseNotShared() throws Exception {
+		StatementCachingDataSourceProxy proxy = new StatementCachingDataSourceProxy(this.dataSource);
+		Connection con = proxy.getConnection();
+
+		PreparedStatement ps1 = con.prepareStatement("select 1");
+		PreparedStatement ps2 = con.prepareStatement("select 1");
+		assertNotSame(ps1.unwrap(PreparedStatement.class), ps2.unwrap(PreparedStatement.class));
+		assertEquals(0, proxy.getCacheHits());
+		assertEquals(2, proxy.getCacheMisses());
+
+		ps1.close();
+		ps2.close();
+		verify(ps2.unwrap(PreparedStatement.class)).close();
+	}
+
+	@Test
+	public void statementResetOnLogicalClose() throws Exception {
+		StatementCachingDataSourceProxy proxy = new StatementCachingDataSourceProxy(this.dataSource);
+		Connection con = proxy.getConnection();
+
+		PreparedStatement ps = con.prepareStatement("select 1");
+		PreparedStatement target = ps.unwrap(PreparedStatement.class);
+		ResultSet resultSet = mock(ResultSet.class);
+		given(target.getResultSet()).willReturn(resultSet);
+		given(target.getFetchDirection()).willReturn(ResultSet.FETCH_REVERSE);
+		given(target.getMaxFieldSize()).willReturn(64);
+		ps.close();
+
+		verify(resultSet).close();
+		verify(target).clearBatch();
+		verify(target).setFetchDirection(ResultSet.FETCH_FORWARD);
+		verify(target).setMaxFieldSize(0);
+		verify(target, never()).close();
+	}
+
+	@Test
+	public void statementEvictedOnFailedReset() throws Exception {
+		StatementCachingDataSourceProxy proxy = new StatementCachingDataSourceProxy(this.dataSource);
+		Connection con = proxy.getConnection();
+
+		PreparedStatement ps1 = con.prepareStatement("select 1");
+		PreparedStatement target1 = ps1.unwrap(PreparedStatement.class);
+		willThrow(new SQLException("Batch updates not supported")).given(target1).clearBatch();
+		ps1.close();
+		verify(target1).close();
+
+		PreparedStatement ps2 = con.prepareStatement("select 1");
+		assertNotSame(target1, ps2.unwrap(PreparedStatement.class));
+		assertEquals(0, proxy.getCacheHits());
+		assertEquals(2, proxy.getCacheMisses());
+	}
+
+	@Test(expected = SQLException.class)
+	public void statementUnusableAfterLogicalClose() throws Exception {
+		StatementCachingDataSourceProxy proxy = new StatementCachingDataSourceProxy(this.dataSource);
+		PreparedStatement ps = proxy.getConnection().prepareStatement("select 1");
+		ps.close();
+		ps.executeQuery();
+	}
+
+	@Test
+	public void leastRecentlyUsedStatementEvicted() throws Exception {
+		StatementCachingDataSourceProxy proxy = new StatementCachingDataSourceProxy(this.dataSource);
+		proxy.setCacheLimit(2);
+		Connection con = proxy.getConnection();
+
+		PreparedStatement ps1 = con.prepareStatement("select 1");
+		PreparedStatement target1 = ps1.unwrap(PreparedStatement.class);
+		ps1.close();
+		con.prepareStatement("select 2").close();
+		con.prepareStatement("select 3").close();
+
+		verify(target1).close();
+		con.prepareStatement("select 3").close();
+		assertEquals(1, proxy.getCacheHits());
+		assertEquals(3, proxy.getCacheMisses());
+	}
+
+	@Test
+	public void statementsClosedWithConnection() throws Exception {
+		StatementCachingDataSourceProxy proxy = new StatementCachingDataSourceProxy(this.dataSource);
+		Connection con = proxy.getConnection();
+		PreparedStatement ps = con.prepareStatement("select 1");
+		PreparedStatement target = ps.unwrap(PreparedStatement.class);
+		ps.close();
+
+		given(this.connection.isClosed()).willReturn(true);
+		con.close();
+		verify(this.connection).close();
+		verify(target).close();
+	}
+
+	@Test
+	public void statementsCachedAcrossSingleConnectionDataSourceUsage() throws Exception {
+		SingleConnectionDataSource scds = new SingleConnectionDataSource(this.connection, true);
+		StatementCachingDataSourceProxy proxy = new StatementCachingDataSourceProxy(scds);
+		JdbcTemplate template = new JdbcTemplate(proxy);
+
+		for (int i = 0; i < 5; i++) {
+			template.update("update t set x = ?", i);
+		}
+		verify(this.connection, times(1)).prepareStatement("update t set x = ?");
+		assertEquals(4, proxy.getCacheHits());
+		assertEquals(1, proxy.getCacheMisses());
+	}
+
+}
@@ -16,6 +16,10 @@
 
 package org.springframework.jms.core;
 
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.jms.CompletionListener;
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.DeliveryMode;
@@ -29,7 +33,9 @@ import javax.jms.QueueBrowser;
 import javax.jms.Session;
 import javax.jms.TemporaryQueue;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.jms.JmsException;
+import org.springframework.jms.UncategorizedJmsException;
 import org.springframework.jms.connection.ConnectionFactoryUtils;
 import org.springframework.jms.connection.JmsResourceHolder;
 import org.springframework.jms.support.JmsUtils;
@@ -40,6 +46,8 @@ import org.springframework.jms.support.destination.JmsDestinationAccessor;
 import org.springframework.lang.Nullable;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
 
 /**
  * Helper class that simplifies synchronous JMS access code.
@@ -75,6 +83,12 @@ import org.springframework.util.Assert;
  * application's environment naming context via JNDI; application servers
  * typically expose pooled, transaction-aware factories there.
  *
+ * <p>As of 5.2, messages may also be sent asynchronously through the JMS 2.0
+ * {@link CompletionListener} mechanism, see {@link #sendAsync(Destination, MessageCreator)},
+ * reusing a dedicated Session and MessageProducer for all asynchronous sends
+ * of this template, as well as in batches within a single local transaction,
+ * see {@link #sendBatch(Destination, List)}.
+ *
  * @author Mark Pollack
  * @author Juergen Hoeller
  * @author Stephane Nicoll
@@ -86,7 +100,7 @@ import org.springframework.util.Assert;
  * @see javax.jms.MessageProducer
  * @see javax.jms.MessageConsumer
  */
-public class JmsTemplate extends JmsDestinationAccessor implements JmsOperations {
+public class JmsTemplate extends JmsDestinationAccessor implements JmsOperations, DisposableBean {
 
 	/** Internal ResourceFactory adapter for interacting with ConnectionFactoryUtils. */
 	private final JmsTemplateResourceFactory transactionalResourceFactory = new JmsTemplateResourceFactory();
@@ -119,6 +133,21 @@ public class JmsTemplate extends JmsDestinationAccessor implements JmsOperations
 	private long timeToLive = Message.DEFAULT_TIME_TO_LIVE;
 
 
+	private int maxPendingAsyncSends = 256;
+
+	private long pendingAsyncSendTimeout = 30000;
+
+	@Nullable
+	private Semaphore pendingAsyncSends;
+
+	@Nullable
+	private AsyncSendResources asyncSendResources;
+
+	private boolean asyncSendDestroyed;
+
+	private final Object asyncSendMonitor = new Object();
+
+
 	/**
 	 * Create a new JmsTemplate for bean-style usage.
 	 * <p>Note: The ConnectionFactory has to be set before using the instance.
@@ -457,6 +486,55 @@ public class JmsTemplate extends JmsDestinationAccessor implements JmsOperations
 		return this.timeToLive;
 	}
 
+	/**
+	 * Set the maximum number of asynchronous sends that may be pending,
+	 * i.e. handed to the JMS provider but not acknowledged by it yet.
+	 * Further asynchronous sends block until a pending send completes, up to
+	 * the {@link #setPendingAsyncSendTimeout "pendingAsyncSendTimeout"}.
+	 * <p>Default is 256. This setting needs to be specified before the
+	 * first asynchronous send.
+	 * @since 5.2
+	 * @see #sendAsync(Destination, MessageCreator)
+	 */
+	public void setMaxPendingAsyncSends(int maxPendingAsyncSends) {
+		Assert.isTrue(maxPendingAsyncSends > 0, "'maxPendingAsyncSends' must be 1 or higher");
+		this.maxPendingAsyncSends = maxPendingAsyncSends;
+	}
+
+	/**
+	 * Return the maximum number of pending asynchronous sends.
+	 * @since 5.2
+	 */
+	public int getMaxPendingAsyncSends() {
+		return this.maxPendingAsyncSends;
+	}
+
+	/**
+	 * Set the time to wait for a pending asynchronous send to complete when
+	 * {@link #setMaxPendingAsyncSends "maxPendingAsyncSends"} sends are pending
+	 * (in milliseconds), beyond which the future of the asynchronous send is
+	 * completed exceptionally.
+	 * <p>Default is 30000 (30 seconds). Note that an asynchronous send from
+	 * within the callback of another asynchronous send may wait for the full
+	 * timeout, since the JMS provider may not complete further sends until
+	 * the callback has returned.
+	 * @since 5.2
+	 * @see #sendAsync(Destination, MessageCreator)
+	 */
+	public void setPendingAsyncSendTimeout(long pendingAsyncSendTimeout) {
+		Assert.isTrue(pendingAsyncSendTimeout >= 0, "'pendingAsyncSendTimeout' must not be negative");
+		this.pendingAsyncSendTimeout = pendingAsyncSendTimeout;
+	}
+
+	/**
+	 * Return the time to wait for a pending asynchronous send to complete
+	 * (in milliseconds).
+	 * @since 5.2
+	 */
+	public long getPendingAsyncSendTimeout() {
+		return this.pendingAsyncSendTimeout;
+	}
+
 
 	//---------------------------------------------------------------------------------------
 	// JmsOperations execute methods
@@ -695,6 +773,372 @@ public class JmsTemplate extends JmsDestinationAccessor implements JmsOperations
 	}
 
 
+	//---------------------------------------------------------------------------------------
+	// Methods for sending messages asynchronously and in batches
+	//---------------------------------------------------------------------------------------
+
+	/**
+	 * Send a message to the default destination asynchronously.
+	 * <p>This will only work with a default destination specified!
+	 * @param messageCreator callback to create a message
+	 * @return a future for the sent message, completed once the JMS provider
+	 * has acknowledged the message
+	 * @throws JmsException checked JMSException converted to unchecked
+	 * @since 5.2
+	 * @see #sendAsync(Destination, MessageCreator)
+	 */
+	public ListenableFuture<Message> sendAsync(MessageCreator messageCreator) throws JmsException {
+		Destination defaultDestination = getDefaultDestination();
+		if (defaultDestination != null) {
+			return sendAsync(defaultDestination, messageCreator);
+		}
+		else {
+			return sendAsync(getRequiredDefaultDestinationName(), messageCreator);
+		}
+	}
+
+	/**
+	 * Send a message to the specified destination asynchronously, through the
+	 * JMS 2.0 {@link CompletionListener} mechanism.
+	 * <p>Asynchronous sends do not wait for the JMS provider to acknowledge
+	 * each message, so that many messages can be in flight at the same time.
+	 * All asynchronous sends of this template share a dedicated non-transacted
+	 * Session and MessageProducer, which are kept until {@link #destroy()},
+	 * preserving the order of messages sent from the same thread. Up to
+	 * {@link #setMaxPendingAsyncSends "maxPendingAsyncSends"} sends may be
+	 * pending at any time; further sends block until a pending send completes,
+	 * or fail once the {@link #setPendingAsyncSendTimeout "pendingAsyncSendTimeout"}
+	 * has elapsed. Asynchronous sends are rejected once this template has been
+	 * {@link #destroy() destroyed}.
+	 * <p>Within a transaction, the message is sent synchronously on the
+	 * transactional Session instead, since it is only delivered on commit.
+	 * @param destination the destination to send this message to
+	 * @param messageCreator callback to create a message
+	 * @return a future for the sent message, completed once the JMS provider
+	 * has acknowledged the message, or completed exceptionally with a
+	 * {@link JmsException} if the JMS provider failed to accept it, or if the
+	 * send timed out waiting for pending sends to complete
+	 * @throws JmsException if the message could not be handed to the JMS provider
+	 * @throws IllegalStateException if this template has been destroyed
+	 * @since 5.2
+	 * @see #setMaxPendingAsyncSends
+	 * @see javax.jms.MessageProducer#send(Destination, Message, CompletionListener)
+	 */
+	public ListenableFuture<Message> sendAsync(Destination destination, MessageCreator messageCreator)
+			throws JmsException {
+
+		return doSendAsync(destination, messageCreator);
+	}
+
+	/**
+	 * Send a message to the specified destination asynchronously.
+	 * @param destinationName the name of the destination to send this message to
+	 * (to be resolved to an actual destination by a DestinationResolver)
+	 * @param messageCreator callback to create a message
+	 * @return a future for the sent message, completed once the JMS provider
+	 * has acknowledged the message
+	 * @throws JmsException checked JMSException converted to unchecked
+	 * @since 5.2
+	 * @see #sendAsync(Destination, MessageCreator)
+	 */
+	public ListenableFuture<Message> sendAsync(String destinationName, MessageCreator messageCreator)
+			throws JmsException {
+
+		return doSendAsync(destinationName, messageCreator);
+	}
+
+	/**
+	 * Send the given object to the specified destination asynchronously,
+	 * converting the object to a JMS message with the configured MessageConverter.
+	 * @param destination the destination to send this message to
+	 * @param message the object to convert to a message
+	 * @return a future for the sent message
+	 * @throws JmsException converted checked JMSException to unchecked
+	 * @since 5.2
+	 * @see #sendAsync(Destination, MessageCreator)
+	 */
+	public ListenableFuture<Message> convertAndSendAsync(Destination destination, final Object message)
+			throws JmsException {
+
+		return sendAsync(destination, session -> getRequiredMessageConverter().toMessage(message, session));
+	}
+
+	/**
+	 * Send the given object to the specified destination asynchronously,
+	 * converting the object to a JMS message with the configured MessageConverter.
+	 * @param destinationName the name of the destination to send this message to
+	 * (to be resolved to an actual destination by a DestinationResolver)
+	 * @param message the object to convert to a message
+	 * @return a future for the sent message
+	 * @throws JmsException converted checked JMSException to unchecked
+	 * @since 5.2
+	 * @see #sendAsync(String, MessageCreator)
+	 */
+	public ListenableFuture<Message> convertAndSendAsync(String destinationName, final Object message)
+			throws JmsException {
+
+		return sendAsync(destinationName, session -> getRequiredMessageConverter().toMessage(message, session));
+	}
+
+	private ListenableFuture<Message> doSendAsync(Object destination, MessageCreator messageCreator)
+			throws JmsException {
+
+		Assert.notNull(messageCreator, "MessageCreator must not be null");
+		SettableListenableFuture<Message> future = new SettableListenableFuture<>();
+		synchronized (this.asyncSendMonitor) {
+			Assert.state(!this.asyncSendDestroyed, "JmsTemplate has been destroyed");
+		}
+		try {
+			Session transactionalSession = ConnectionFactoryUtils.doGetTransactionalSession(
+					obtainConnectionFactory(), this.transactionalResourceFactory, false);
+			if (transactionalSession != null) {
+				future.set(doSendInSession(transactionalSession, destination, messageCreator));
+				return future;
+			}
+		}
+		catch (JMSException ex) {
+			throw convertJmsAccessException(ex);
+		}
+
+		Semaphore pendingSends = obtainPendingAsyncSends();
+		try {
+			if (!pendingSends.tryAcquire(this.pendingAsyncSendTimeout, TimeUnit.MILLISECONDS)) {
+				future.setException(new UncategorizedJmsException("Timed out after " +
+						this.pendingAsyncSendTimeout + " ms waiting for pending asynchronous sends to complete"));
+				return future;
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			future.setException(ex);
+			return future;
+		}
+		boolean sent = false;
+		AsyncSendResources resources = null;
+		try {
+			synchronized (this.asyncSendMonitor) {
+				resources = obtainAsyncSendResources();
+				Session session = resources.session;
+				MessageProducer producer = resources.producer;
+				Message message = messageCreator.createMessage(session);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Sending created message asynchronously: " + message);
+				}
+				doSend(producer, resolveDestination(session, destination), message, new CompletionListener() {
+					@Override
+					public void onCompletion(Message sentMessage) {
+						pendingSends.release();
+						future.set(sentMessage);
+					}
+					@Override
+					public void onException(Message failedMessage, Exception ex) {
+						pendingSends.release();
+						future.setException(ex instanceof JMSException ?
+								convertJmsAccessException((JMSException) ex) : ex);
+					}
+				});
+				sent = true;
+			}
+		}
+		catch (JMSException ex) {
+			if (resources != null) {
+				synchronized (this.asyncSendMonitor) {
+					if (this.asyncSendResources == resources) {
+						this.asyncSendResources = null;
+					}
+				}
+				// Closing outside of the monitor, since it waits for pending sends to complete
+				resources.close();
+			}
+			throw convertJmsAccessException(ex);
+		}
+		finally {
+			if (!sent) {
+				pendingSends.release();
+			}
+		}
+		return future;
+	}
+
+	/**
+	 * Actually send the given JMS message asynchronously.
+	 * @param producer the JMS MessageProducer to send with (not bound to a destination)
+	 * @param destination the JMS Destination to send to
+	 * @param message the JMS Message to send
+	 * @param completionListener the listener to notify once the send has completed
+	 * @throws JMSException if thrown by JMS API methods
+	 * @since 5.2
+	 */
+	protected void doSend(MessageProducer producer, Destination destination, Message message,
+			CompletionListener completionListener) throws JMSException {
+
+		if (this.deliveryDelay >= 0) {
+			producer.setDeliveryDelay(this.deliveryDelay);
+		}
+		if (isExplicitQosEnabled()) {
+			producer.send(destination, message, getDeliveryMode(), getPriority(), getTimeToLive(),
+					completionListener);
+		}
+		else {
+			producer.send(destination, message, completionListener);
+		}
+	}
+
+	/**
+	 * Send a batch of messages to the specified destination within a single
+	 * local transaction, committing the transaction once after all messages
+	 * have been sent, or rolling it back if any message fails to be sent.
+	 * <p>Within an existing transaction, the messages are sent on the
+	 * transactional Session instead, and committed along with the transaction.
+	 * @param destination the destination to send the messages to
+	 * @param messageCreators callbacks to create the messages, in order of sending
+	 * @throws JmsException checked JMSException converted to unchecked
+	 * @since 5.2
+	 */
+	public void sendBatch(Destination destination, List<? extends MessageCreator> messageCreators)
+			throws JmsException {
+
+		doSendBatch(destination, messageCreators);
+	}
+
+	/**
+	 * Send a batch of messages to the specified destination within a single
+	 * local transaction.
+	 * @param destinationName the name of the destination to send the messages to
+	 * (to be resolved to an actual destination by a DestinationResolver)
+	 * @param messageCreators callbacks to create the messages, in order of sending
+	 * @throws JmsException checked JMSException converted to unchecked
+	 * @since 5.2
+	 * @see #sendBatch(Destination, List)
+	 */
+	public void sendBatch(String destinationName, List<? extends MessageCreator> messageCreators)
+			throws JmsException {
+
+		doSendBatch(destinationName, messageCreators);
+	}
+
+	private void doSendBatch(Object destination, List<? extends MessageCreator> messageCreators)
+			throws JmsException {
+
+		Assert.notNull(messageCreators, "MessageCreators must not be null");
+		Connection conToClose = null;
+		Session sessionToClose = null;
+		try {
+			Session sessionToUse = ConnectionFactoryUtils.doGetTransactionalSession(
+					obtainConnectionFactory(), this.transactionalResourceFactory, false);
+			if (sessionToUse == null) {
+				conToClose = createConnection();
+				sessionToClose = conToClose.createSession(true, Session.SESSION_TRANSACTED);
+				sessionToUse = sessionToClose;
+			}
+			MessageProducer producer = createProducer(sessionToUse, resolveDestination(sessionToUse, destination));
+			try {
+				for (MessageCreator messageCreator : messageCreators) {
+					Message message = messageCreator.createMessage(sessionToUse);
+					if (logger.isTraceEnabled()) {
+						logger.trace("Sending created message in batch: " + message);
+					}
+					doSend(producer, message);
+				}
+				if (sessionToClose != null) {
+					sessionToClose.commit();
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug("Sent batch of " + messageCreators.size() + " messages");
+				}
+			}
+			catch (JMSException | RuntimeException | Error ex) {
+				if (sessionToClose != null) {
+					JmsUtils.rollbackIfNecessary(sessionToClose);
+				}
+				throw ex;
+			}
+			finally {
+				JmsUtils.closeMessageProducer(producer);
+			}
+		}
+		catch (JMSException ex) {
+			throw convertJmsAccessException(ex);
+		}
+		finally {
+			JmsUtils.closeSession(sessionToClose);
+			ConnectionFactoryUtils.releaseConnection(conToClose, getConnectionFactory(), false);
+		}
+	}
+
+	private Message doSendInSession(Session session, Object destination, MessageCreator messageCreator)
+			throws JMSException {
+
+		MessageProducer producer = createProducer(session, resolveDestination(session, destination));
+		try {
+			Message message = messageCreator.createMessage(session);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Sending created message: " + message);
+			}
+			doSend(producer, message);
+			return message;
+		}
+		finally {
+			JmsUtils.closeMessageProducer(producer);
+		}
+	}
+
+	private Destination resolveDestination(Session session, Object destination) throws JMSException {
+		return (destination instanceof Destination ? (Destination) destination :
+				resolveDestinationName(session, (String) destination));
+	}
+
+	private Semaphore obtainPendingAsyncSends() {
+		synchronized (this.asyncSendMonitor) {
+			if (this.pendingAsyncSends == null) {
+				this.pendingAsyncSends = new Semaphore(this.maxPendingAsyncSends);
+			}
+			return this.pendingAsyncSends;
+		}
+	}
+
+	private AsyncSendResources obtainAsyncSendResources() throws JMSException {
+		Assert.state(!this.asyncSendDestroyed, "JmsTemplate has been destroyed");
+		AsyncSendResources resources = this.asyncSendResources;
+		if (resources == null) {
+			Connection con = createConnection();
+			Session session = null;
+			try {
+				session = con.createSession(false, Session.AUTO_ACKNOWLEDGE);
+				resources = new AsyncSendResources(con, session, createProducer(session, null));
+			}
+			catch (JMSException ex) {
+				JmsUtils.closeSession(session);
+				ConnectionFactoryUtils.releaseConnection(con, getConnectionFactory(), false);
+				throw ex;
+			}
+			this.asyncSendResources = resources;
+		}
+		return resources;
+	}
+
+	/**
+	 * Close the Session and MessageProducer used for asynchronous sends, if any,
+	 * waiting for pending asynchronous sends to complete. Further asynchronous
+	 * sends are rejected.
+	 * @since 5.2
+	 * @see #sendAsync(Destination, MessageCreator)
+	 */
+	@Override
+	public void destroy() {
+		AsyncSendResources resources;
+		synchronized (this.asyncSendMonitor) {
+			this.asyncSendDestroyed = true;
+			resources = this.asyncSendResources;
+			this.asyncSendResources = null;
+		}
+		// Closing outside of the monitor, since it waits for pending sends to complete
+		if (resources != null) {
+			resources.close();
+		}
+	}
+
+
 	//---------------------------------------------------------------------------------------
 	// Convenience methods for receiving messages
 	//---------------------------------------------------------------------------------------
@@ -1191,4 +1635,30 @@ public class JmsTemplate extends JmsDestinationAccessor implements JmsOperations
 		}
 	}
 
+
+	/**
+	 * The Connection, Session and MessageProducer shared by asynchronous sends.
+	 */
+	private class AsyncSendResources {
+
+		final Connection connection;
+
+		final Session session;
+
+		final MessageProducer producer;
+
+		AsyncSendResources(Connection connection, Session session, MessageProducer producer) {
+			this.connection = connection;
+			this.session = session;
+			this.producer = producer;
+		}
+
+		void close() {
+			// Closing waits for pending asynchronous sends to complete (as of JMS 2.0)
+			JmsUtils.closeMessageProducer(this.producer);
+			JmsUtils.closeSession(this.session);
+			ConnectionFactoryUtils.releaseConnection(this.connection, getConnectionFactory(), false);
+		}
+	}
+
 }
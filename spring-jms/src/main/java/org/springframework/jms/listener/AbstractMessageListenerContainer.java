@@ -16,6 +16,8 @@
 
 package org.springframework.jms.listener;
 
+import java.util.Collections;
+import java.util.List;
 import javax.jms.Connection;
 import javax.jms.Destination;
 import javax.jms.ExceptionListener;
@@ -272,16 +274,19 @@ public abstract class AbstractMessageListenerContainer extends AbstractJmsListen
 
 	/**
 	 * Set the message listener implementation to register.
-	 * This can be either a standard JMS {@link MessageListener} object
-	 * or a Spring {@link SessionAwareMessageListener} object.
+	 * This can be either a standard JMS {@link MessageListener} object,
+	 * a Spring {@link SessionAwareMessageListener} object, or a Spring
+	 * {@link BatchMessageListener} object.
 	 * <p>Note: The message listener may be replaced at runtime, with the listener
 	 * container picking up the new listener object immediately (works e.g. with
 	 * DefaultMessageListenerContainer, as long as the cache level is less than
 	 * CACHE_CONSUMER). However, this is considered advanced usage; use it with care!
 	 * @throws IllegalArgumentException if the supplied listener is not a
-	 * {@link MessageListener} or a {@link SessionAwareMessageListener}
+	 * {@link MessageListener}, a {@link SessionAwareMessageListener}
+	 * or a {@link BatchMessageListener}
 	 * @see javax.jms.MessageListener
 	 * @see SessionAwareMessageListener
+	 * @see BatchMessageListener
 	 */
 	public void setMessageListener(@Nullable Object messageListener) {
 		checkMessageListener(messageListener);
@@ -302,20 +307,25 @@ public abstract class AbstractMessageListenerContainer extends AbstractJmsListen
 	/**
 	 * Check the given message listener, throwing an exception
 	 * if it does not correspond to a supported listener type.
-	 * <p>By default, only a standard JMS {@link MessageListener} object or a
-	 * Spring {@link SessionAwareMessageListener} object will be accepted.
+	 * <p>By default, only a standard JMS {@link MessageListener} object, a
+	 * Spring {@link SessionAwareMessageListener} object or a Spring
+	 * {@link BatchMessageListener} object will be accepted.
 	 * @param messageListener the message listener object to check
 	 * @throws IllegalArgumentException if the supplied listener is not a
-	 * {@link MessageListener} or a {@link SessionAwareMessageListener}
+	 * {@link MessageListener}, a {@link SessionAwareMessageListener}
+	 * or a {@link BatchMessageListener}
 	 * @see javax.jms.MessageListener
 	 * @see SessionAwareMessageListener
+	 * @see BatchMessageListener
 	 */
 	protected void checkMessageListener(@Nullable Object messageListener) {
 		if (messageListener != null && !(messageListener instanceof MessageListener ||
-				messageListener instanceof SessionAwareMessageListener)) {
+				messageListener instanceof SessionAwareMessageListener ||
+				messageListener instanceof BatchMessageListener)) {
 			throw new IllegalArgumentException(
 					"Message listener needs to be of type [" + MessageListener.class.getName() +
-					"] or [" + SessionAwareMessageListener.class.getName() + "]");
+					"], [" + SessionAwareMessageListener.class.getName() +
+					"] or [" + BatchMessageListener.class.getName() + "]");
 		}
 	}
 
@@ -680,6 +690,39 @@ public abstract class AbstractMessageListenerContainer extends AbstractJmsListen
 		commitIfNecessary(session, message);
 	}
 
+	/**
+	 * Execute the specified listener for a batch of messages, committing or
+	 * rolling back the transaction afterwards (if necessary), i.e. once for
+	 * all messages of the batch.
+	 * @param session the JMS Session to operate on
+	 * @param messages the received JMS Messages (not empty)
+	 * @throws JMSException if thrown by JMS API methods
+	 * @since 5.2
+	 * @see #invokeListener(Session, List)
+	 * @see #commitIfNecessary
+	 * @see #rollbackOnExceptionIfNecessary
+	 */
+	protected void doExecuteListener(Session session, List<Message> messages) throws JMSException {
+		if (!isAcceptMessagesWhileStopping() && !isRunning()) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Rejecting received messages because of the listener container " +
+						"having been stopped in the meantime: " + messages);
+			}
+			rollbackIfNecessary(session);
+			throw new MessageRejectedWhileStoppingException();
+		}
+
+		try {
+			invokeListener(session, messages);
+		}
+		catch (JMSException | RuntimeException | Error ex) {
+			rollbackOnExceptionIfNecessary(session, ex);
+			throw ex;
+		}
+		// Acknowledging the last message acknowledges all messages consumed by the session
+		commitIfNecessary(session, messages.get(messages.size() - 1));
+	}
+
 	/**
 	 * Invoke the specified listener: either as standard JMS MessageListener
 	 * or (preferably) as Spring SessionAwareMessageListener.
@@ -698,15 +741,40 @@ public abstract class AbstractMessageListenerContainer extends AbstractJmsListen
 		else if (listener instanceof MessageListener) {
 			doInvokeListener((MessageListener) listener, message);
 		}
+		else if (listener instanceof BatchMessageListener) {
+			doInvokeListener((BatchMessageListener) listener, session, Collections.singletonList(message));
+		}
 		else if (listener != null) {
-			throw new IllegalArgumentException(
-					"Only MessageListener and SessionAwareMessageListener supported: " + listener);
+			throw new IllegalArgumentException("Only MessageListener, SessionAwareMessageListener " +
+					"and BatchMessageListener supported: " + listener);
 		}
 		else {
 			throw new IllegalStateException("No message listener specified - see property 'messageListener'");
 		}
 	}
 
+	/**
+	 * Invoke the specified listener for a batch of messages: as Spring
+	 * BatchMessageListener with all messages at once, or else for each
+	 * message in turn.
+	 * @param session the JMS Session to operate on
+	 * @param messages the received JMS Messages
+	 * @throws JMSException if thrown by JMS API methods
+	 * @since 5.2
+	 * @see #setMessageListener
+	 */
+	protected void invokeListener(Session session, List<Message> messages) throws JMSException {
+		Object listener = getMessageListener();
+		if (listener instanceof BatchMessageListener) {
+			doInvokeListener((BatchMessageListener) listener, session, messages);
+		}
+		else {
+			for (Message message : messages) {
+				invokeListener(session, message);
+			}
+		}
+	}
+
 	/**
 	 * Invoke the specified listener as Spring SessionAwareMessageListener,
 	 * exposing a new JMS Session (potentially with its own transaction)
@@ -748,6 +816,47 @@ public abstract class AbstractMessageListenerContainer extends AbstractJmsListen
 		}
 	}
 
+	/**
+	 * Invoke the specified listener as Spring BatchMessageListener,
+	 * exposing a new JMS Session (potentially with its own transaction)
+	 * to the listener if demanded.
+	 * @param listener the Spring BatchMessageListener to invoke
+	 * @param session the JMS Session to operate on
+	 * @param messages the received JMS Messages
+	 * @throws JMSException if thrown by JMS API methods
+	 * @since 5.2
+	 * @see BatchMessageListener
+	 * @see #setExposeListenerSession
+	 */
+	protected void doInvokeListener(BatchMessageListener listener, Session session, List<Message> messages)
+			throws JMSException {
+
+		Connection conToClose = null;
+		Session sessionToClose = null;
+		try {
+			Session sessionToUse = session;
+			if (!isExposeListenerSession()) {
+				// We need to expose a separate Session.
+				conToClose = createConnection();
+				sessionToClose = createSession(conToClose);
+				sessionToUse = sessionToClose;
+			}
+			// Actually invoke the message listener...
+			listener.onMessages(messages, sessionToUse);
+			// Clean up specially exposed Session, if any.
+			if (sessionToUse != session) {
+				if (sessionToUse.getTransacted() && isSessionLocallyTransacted(sessionToUse)) {
+					// Transacted session created by this container -> commit.
+					JmsUtils.commitIfNecessary(sessionToUse);
+				}
+			}
+		}
+		finally {
+			JmsUtils.closeSession(sessionToClose);
+			JmsUtils.closeConnection(conToClose);
+		}
+	}
+
 	/**
 	 * Invoke the specified listener as standard JMS MessageListener.
 	 * <p>Default implementation performs a plain invocation of the
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 
 package org.springframework.jms.listener;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.jms.Connection;
 import javax.jms.Destination;
 import javax.jms.JMSException;
@@ -46,6 +50,8 @@ import org.springframework.util.Assert;
  * may be reobtained fo reach attempt or cached in between attempts; this is up
  * to the concrete implementation. The receive timeout for each attempt can be
  * configured through the {@link #setReceiveTimeout "receiveTimeout"} property.
+ * Each attempt may also receive a batch of messages, which are then processed
+ * within the same transaction; see the {@link #setBatchSize "batchSize"} property.
  *
  * <p>The underlying mechanism is based on standard JMS MessageConsumer handling,
  * which is perfectly compatible with both native JMS and JMS in a Java EE environment.
@@ -94,6 +100,10 @@ public abstract class AbstractPollingMessageListenerContainer extends AbstractMe
 
 	private long receiveTimeout = DEFAULT_RECEIVE_TIMEOUT;
 
+	private int batchSize = 1;
+
+	private long batchReceiveTimeout = 0;
+
 
 	@Override
 	public void setSessionTransacted(boolean sessionTransacted) {
@@ -182,6 +192,55 @@ public abstract class AbstractPollingMessageListenerContainer extends AbstractMe
 		return this.receiveTimeout;
 	}
 
+	/**
+	 * Set the maximum number of messages to receive and process within one
+	 * receive attempt, and therefore within one transaction (if any).
+	 * <p>Default is 1, processing each message in a transaction of its own.
+	 * Specify a higher value to reduce the per-message overhead of commits
+	 * and acknowledgements: once a first message has been received, further
+	 * messages are received up to this number, or until no further message
+	 * arrives within the {@link #setBatchReceiveTimeout "batchReceiveTimeout"}.
+	 * The batch is then passed as a whole to a {@link BatchMessageListener},
+	 * or message by message to any other kind of listener, and committed or
+	 * rolled back as a whole: an exception thrown for any message of the
+	 * batch leads to the redelivery of all of its messages.
+	 * @since 5.2
+	 * @see #setBatchReceiveTimeout
+	 * @see BatchMessageListener
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be 1 or higher");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the maximum number of messages to receive within one receive attempt.
+	 * @since 5.2
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Set the time window, in <b>milliseconds</b>, for receiving further
+	 * messages of a batch once its first message has been received.
+	 * <p>The default is 0, only adding messages that are available immediately
+	 * to the batch. This value needs to be smaller than the transaction timeout.
+	 * @since 5.2
+	 * @see #setBatchSize
+	 */
+	public void setBatchReceiveTimeout(long batchReceiveTimeout) {
+		this.batchReceiveTimeout = batchReceiveTimeout;
+	}
+
+	/**
+	 * Return the time window (ms) for receiving further messages of a batch.
+	 * @since 5.2
+	 */
+	public long getBatchReceiveTimeout() {
+		return this.batchReceiveTimeout;
+	}
+
 
 	@Override
 	public void initialize() {
@@ -302,12 +361,15 @@ public abstract class AbstractPollingMessageListenerContainer extends AbstractMe
 			}
 			Message message = receiveMessage(consumerToUse);
 			if (message != null) {
+				List<Message> batch = (this.batchSize > 1 ? receiveBatch(consumerToUse, message) : null);
 				if (logger.isDebugEnabled()) {
-					logger.debug("Received message of type [" + message.getClass() + "] from consumer [" +
+					logger.debug("Received " + (batch != null ? batch.size() + " messages, first " : "") +
+							"message of type [" + message.getClass() + "] from consumer [" +
 							consumerToUse + "] of " + (transactional ? "transactional " : "") + "session [" +
 							sessionToUse + "]");
 				}
 				messageReceived(invoker, sessionToUse);
+				messagesReceived(invoker, sessionToUse, (batch != null ? batch : Collections.singletonList(message)));
 				boolean exposeResource = (!transactional && isExposeListenerSession() &&
 						!TransactionSynchronizationManager.hasResource(obtainConnectionFactory()));
 				if (exposeResource) {
@@ -315,7 +377,12 @@ public abstract class AbstractPollingMessageListenerContainer extends AbstractMe
 							obtainConnectionFactory(), new LocallyExposedJmsResourceHolder(sessionToUse));
 				}
 				try {
-					doExecuteListener(sessionToUse, message);
+					if (batch != null) {
+						doExecuteListener(sessionToUse, batch);
+					}
+					else {
+						doExecuteListener(sessionToUse, message);
+					}
 				}
 				catch (Throwable ex) {
 					if (status != null) {
@@ -418,6 +485,33 @@ public abstract class AbstractPollingMessageListenerContainer extends AbstractMe
 		return receiveFromConsumer(consumer, getReceiveTimeout());
 	}
 
+	/**
+	 * Receive further messages from the given consumer for a batch, until the
+	 * batch size has been reached or no message arrives within the batch
+	 * receive timeout.
+	 * @param consumer the MessageConsumer to use
+	 * @param firstMessage the first message of the batch, already received
+	 * @return the messages of the batch, starting with the first message
+	 * @throws JMSException if thrown by JMS methods
+	 * @since 5.2
+	 * @see #setBatchSize
+	 * @see #setBatchReceiveTimeout
+	 */
+	protected List<Message> receiveBatch(MessageConsumer consumer, Message firstMessage) throws JMSException {
+		List<Message> messages = new ArrayList<>(this.batchSize);
+		messages.add(firstMessage);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.batchReceiveTimeout);
+		while (messages.size() < this.batchSize) {
+			long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			Message message = receiveFromConsumer(consumer, (remaining > 0 ? remaining : RECEIVE_TIMEOUT_NO_WAIT));
+			if (message == null) {
+				break;
+			}
+			messages.add(message);
+		}
+		return messages;
+	}
+
 	/**
 	 * Template method that gets called right when a new message has been received,
 	 * before attempting to process it. Allows subclasses to react to the event
@@ -428,6 +522,18 @@ public abstract class AbstractPollingMessageListenerContainer extends AbstractMe
 	protected void messageReceived(Object invoker, Session session) {
 	}
 
+	/**
+	 * Template method that gets called right after {@link #messageReceived},
+	 * with all messages received in the current attempt, i.e. a single message
+	 * or a batch. Allows subclasses to record statistics about received messages.
+	 * @param invoker the invoker object (passed through)
+	 * @param session the receiving JMS Session
+	 * @param messages the received messages (not empty)
+	 * @since 5.2
+	 */
+	protected void messagesReceived(Object invoker, Session session, List<Message> messages) {
+	}
+
 	/**
 	 * Template method that gets called when <i>no</i> message has been received,
 	 * before returning to the receive loop again. Allows subclasses to react to
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jms.listener;
+
+import java.util.List;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+/**
+ * Variant of {@link SessionAwareMessageListener} for processing a batch of
+ * received messages at once, offering the underlying JMS Session as well.
+ * All messages of a batch are received within the same transaction (if any),
+ * which is committed or rolled back as a whole once the listener returns.
+ *
+ * <p>Supported by Spring's {@link DefaultMessageListenerContainer}, which
+ * receives batches of up to its {@link AbstractPollingMessageListenerContainer#setBatchSize
+ * "batchSize"} messages, and by {@link SimpleMessageListenerContainer},
+ * which passes every message as a batch of its own.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see AbstractMessageListenerContainer#setMessageListener
+ * @see AbstractPollingMessageListenerContainer#setBatchSize
+ */
+@FunctionalInterface
+public interface BatchMessageListener {
+
+	/**
+	 * Callback for processing a batch of received JMS messages.
+	 * @param messages the received JMS messages, in order of reception
+	 * (never empty)
+	 * @param session the underlying JMS Session (never {@code null})
+	 * @throws JMSException if thrown by JMS methods
+	 */
+	void onMessages(List<Message> messages, Session session) throws JMSException;
+
+}
@@ -17,10 +17,12 @@
 package org.springframework.jms.listener;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import javax.jms.Connection;
 import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.Session;
 
@@ -98,6 +100,13 @@ import org.springframework.util.backoff.FixedBackOff;
  * number of 1 consumer, otherwise you'd receive the same message multiple times on
  * the same node.
  *
+ * <p>Alternatively, dynamic scaling can be driven by the measured queue latency
+ * of received messages, i.e. the time between their sending and their reception,
+ * through the {@link #setTargetQueueLatency "targetQueueLatency"} setting. The
+ * measured queue latency and throughput are exposed through
+ * {@link #getQueueLatency()} and {@link #getThroughput()}, along with
+ * {@link #getReceivedMessageCount()}.
+ *
  * <p><b>Note: Don't use Spring's {@link org.springframework.jms.connection.CachingConnectionFactory}
  * in combination with dynamic scaling.</b> Ideally, don't use it with a message
  * listener container at all, since it is generally preferable to let the
@@ -191,6 +200,10 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 
 	private int idleTaskExecutionLimit = 1;
 
+	private long targetQueueLatency = 0;
+
+	private final ConsumerMetrics consumerMetrics = new ConsumerMetrics();
+
 	private final Set<AsyncMessageListenerInvoker> scheduledInvokers = new HashSet<>();
 
 	private int activeInvokerCount = 0;
@@ -508,6 +521,42 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 		}
 	}
 
+	/**
+	 * Specify a target for the queue latency of received messages, in
+	 * <b>milliseconds</b>, to drive dynamic scaling between the
+	 * {@link #setConcurrentConsumers "concurrentConsumers"} and
+	 * {@link #setMaxConcurrentConsumers "maxConcurrentConsumers"} limits.
+	 * <p>The queue latency is measured as the time between the
+	 * {@link Message#getJMSTimestamp() JMSTimestamp} of received messages and
+	 * their reception, averaged over recently received messages. If set, a new
+	 * consumer is only scheduled once the measured latency exceeds this target,
+	 * and consumers beyond the "concurrentConsumers" limit are released once it
+	 * drops below half of the target (in addition to the regular release of idle
+	 * consumers). Note that the measurement relies on the clocks of the sending
+	 * and receiving hosts being synchronized, and on the JMS provider setting
+	 * message timestamps.
+	 * <p>The default is 0, scaling up whenever no consumer is idle.
+	 * <p><b>This setting can be modified at runtime, for example through JMX.</b>
+	 * @since 5.2
+	 * @see #getQueueLatency()
+	 * @see #setIdleConsumerLimit
+	 */
+	public void setTargetQueueLatency(long targetQueueLatency) {
+		synchronized (this.lifecycleMonitor) {
+			this.targetQueueLatency = targetQueueLatency;
+		}
+	}
+
+	/**
+	 * Return the target for the queue latency of received messages.
+	 * @since 5.2
+	 */
+	public final long getTargetQueueLatency() {
+		synchronized (this.lifecycleMonitor) {
+			return this.targetQueueLatency;
+		}
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Implementation of AbstractMessageListenerContainer's template methods
@@ -690,6 +739,34 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 		}
 	}
 
+	/**
+	 * Return the total number of messages received by this listener container.
+	 * @since 5.2
+	 */
+	public long getReceivedMessageCount() {
+		return this.consumerMetrics.getMessageCount();
+	}
+
+	/**
+	 * Return the measured queue latency of received messages in milliseconds,
+	 * i.e. the time between their sending and their reception, as a moving
+	 * average over recently received messages, or 0 if not measured yet.
+	 * @since 5.2
+	 * @see #setTargetQueueLatency
+	 */
+	public long getQueueLatency() {
+		return this.consumerMetrics.getQueueLatency();
+	}
+
+	/**
+	 * Return the measured throughput in messages per second, based on the
+	 * messages received in the last measurement interval of one second.
+	 * @since 5.2
+	 */
+	public double getThroughput() {
+		return this.consumerMetrics.getThroughput();
+	}
+
 
 	/**
 	 * Create a default TaskExecutor. Called if no explicit TaskExecutor has been specified.
@@ -745,6 +822,16 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 		scheduleNewInvokerIfAppropriate();
 	}
 
+	/**
+	 * Records the received messages in the metrics of this listener container.
+	 * @see #getQueueLatency()
+	 * @see #getThroughput()
+	 */
+	@Override
+	protected void messagesReceived(Object invoker, Session session, List<Message> messages) {
+		this.consumerMetrics.record(messages);
+	}
+
 	/**
 	 * Marks the affected invoker as idle.
 	 */
@@ -757,19 +844,22 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 	 * Schedule a new invoker, increasing the total number of scheduled
 	 * invokers for this listener container, but only if the specified
 	 * "maxConcurrentConsumers" limit has not been reached yet, and only
-	 * if the specified "idleConsumerLimit" has not been reached either.
+	 * if the specified "idleConsumerLimit" has not been reached either,
+	 * and if the specified "targetQueueLatency" (if any) has been exceeded.
 	 * <p>Called once a message has been received, in order to scale up while
 	 * processing the message in the invoker that originally received it.
 	 * @see #setTaskExecutor
 	 * @see #getMaxConcurrentConsumers()
 	 * @see #getIdleConsumerLimit()
+	 * @see #getTargetQueueLatency()
 	 */
 	protected void scheduleNewInvokerIfAppropriate() {
 		if (isRunning()) {
 			resumePausedTasks();
 			synchronized (this.lifecycleMonitor) {
 				if (this.scheduledInvokers.size() < this.maxConcurrentConsumers &&
-						getIdleInvokerCount() < this.idleConsumerLimit) {
+						getIdleInvokerCount() < this.idleConsumerLimit &&
+						(this.targetQueueLatency <= 0 || getQueueLatency() > this.targetQueueLatency)) {
 					scheduleNewInvoker();
 					if (logger.isDebugEnabled()) {
 						logger.debug("Raised scheduled invoker count: " + this.scheduledInvokers.size());
@@ -787,11 +877,20 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 	 */
 	private boolean shouldRescheduleInvoker(int idleTaskExecutionCount) {
 		boolean superfluous =
-				(idleTaskExecutionCount >= this.idleTaskExecutionLimit && getIdleInvokerCount() > 1);
+				(idleTaskExecutionCount >= this.idleTaskExecutionLimit && getIdleInvokerCount() > 1) ||
+				isQueueLatencyBelowTarget();
 		return (this.scheduledInvokers.size() <=
 				(superfluous ? this.concurrentConsumers : this.maxConcurrentConsumers));
 	}
 
+	/**
+	 * Determine whether the measured queue latency is low enough for
+	 * consumers beyond the "concurrentConsumers" limit to be released.
+	 */
+	private boolean isQueueLatencyBelowTarget() {
+		return (this.targetQueueLatency > 0 && getQueueLatency() < this.targetQueueLatency / 2);
+	}
+
 	/**
 	 * Determine whether this listener container currently has more
 	 * than one idle instance among its scheduled invokers.
@@ -1171,7 +1270,8 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 					if (wasWaiting) {
 						activeInvokerCount++;
 					}
-					if (scheduledInvokers.size() > maxConcurrentConsumers) {
+					if (scheduledInvokers.size() > maxConcurrentConsumers ||
+							(scheduledInvokers.size() > concurrentConsumers && isQueueLatencyBelowTarget())) {
 						active = false;
 					}
 				}
@@ -1279,4 +1379,69 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 		}
 	}
 
+
+	/**
+	 * Metrics about the messages received by all invokers of this container.
+	 */
+	private static class ConsumerMetrics {
+
+		private static final long THROUGHPUT_INTERVAL = 1000;
+
+		/* Weight of a new sample in the moving average of the queue latency */
+		private static final double LATENCY_WEIGHT = 0.1;
+
+		private long messageCount;
+
+		private double queueLatency = -1;
+
+		private long intervalStart = System.currentTimeMillis();
+
+		private long intervalMessageCount;
+
+		private double throughput;
+
+		public synchronized void record(List<Message> messages) {
+			long now = System.currentTimeMillis();
+			for (Message message : messages) {
+				long timestamp;
+				try {
+					timestamp = message.getJMSTimestamp();
+				}
+				catch (JMSException ex) {
+					timestamp = 0;
+				}
+				if (timestamp > 0) {
+					long latency = Math.max(now - timestamp, 0);
+					this.queueLatency = (this.queueLatency < 0 ? latency :
+							this.queueLatency + LATENCY_WEIGHT * (latency - this.queueLatency));
+				}
+			}
+			this.messageCount += messages.size();
+			this.intervalMessageCount += messages.size();
+			updateThroughput(now);
+		}
+
+		public synchronized long getMessageCount() {
+			return this.messageCount;
+		}
+
+		public synchronized long getQueueLatency() {
+			return (this.queueLatency > 0 ? Math.round(this.queueLatency) : 0);
+		}
+
+		public synchronized double getThroughput() {
+			updateThroughput(System.currentTimeMillis());
+			return this.throughput;
+		}
+
+		private void updateThroughput(long now) {
+			long elapsed = now - this.intervalStart;
+			if (elapsed >= THROUGHPUT_INTERVAL) {
+				this.throughput = this.intervalMessageCount * 1000.0 / elapsed;
+				this.intervalMessageCount = 0;
+				this.intervalStart = now;
+			}
+		}
+	}
+
 }
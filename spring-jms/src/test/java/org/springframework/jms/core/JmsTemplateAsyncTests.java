@@ -0,0 +1,264 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jms.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.jms.CompletionListener;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.jms.MessageFormatException;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Unit tests for asynchronous and batch sending with {@link JmsTemplate}.
+ *
+ * @author Jinwei Sun
+ */
+public class JmsTemplateAsyncTests {
+
+	private final List<CompletionListener> completionListeners = new CopyOnWriteArrayList<>();
+
+	private ConnectionFactory connectionFactory;
+
+	private Connection connection;
+
+	private Session session;
+
+	private MessageProducer producer;
+
+	private Queue queue;
+
+	private JmsTemplate template;
+
+
+	@Before
+	public void setup() throws Exception {
+		this.connectionFactory = mock(ConnectionFactory.class);
+		this.connection = mock(Connection.class);
+		this.session = mock(Session.class);
+		this.producer = mock(MessageProducer.class);
+		this.queue = mock(Queue.class);
+
+		given(this.connectionFactory.createConnection()).willReturn(this.connection);
+		given(this.connection.createSession(anyBoolean(), anyInt())).willReturn(this.session);
+		given(this.session.createProducer(any())).willReturn(this.producer);
+		willAnswer(invocation -> {
+			this.completionListeners.add(invocation.getArgument(2));
+			return null;
+		}).given(this.producer).send(eq(this.queue), any(), any(CompletionListener.class));
+
+		this.template = new JmsTemplate(this.connectionFactory);
+	}
+
+
+	@Test
+	public void sendAsync() throws Exception {
+		TextMessage message1 = mock(TextMessage.class);
+		TextMessage message2 = mock(TextMessage.class);
+
+		ListenableFuture<Message> future1 = this.template.sendAsync(this.queue, session -> message1);
+		ListenableFuture<Message> future2 = this.template.sendAsync(this.queue, session -> message2);
+		assertFalse(future1.isDone());
+		assertFalse(future2.isDone());
+
+		assertEquals(2, this.completionListeners.size());
+		this.completionListeners.get(0).onCompletion(message1);
+		this.completionListeners.get(1).onCompletion(message2);
+		assertSame(message1, future1.get());
+		assertSame(message2, future2.get());
+
+		verify(this.connection, times(1)).createSession(false, Session.AUTO_ACKNOWLEDGE);
+		verify(this.session, times(1)).createProducer(null);
+		verify(this.producer, never()).close();
+
+		this.template.destroy();
+		verify(this.producer).close();
+		verify(this.session).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void sendAsyncWithExplicitQos() throws Exception {
+		TextMessage message = mock(TextMessage.class);
+		this.template.setExplicitQosEnabled(true);
+		this.template.setPriority(9);
+
+		this.template.sendAsync(this.queue, session -> message);
+		verify(this.producer).send(eq(this.queue), eq(message), eq(Message.DEFAULT_DELIVERY_MODE),
+				eq(9), eq(Message.DEFAULT_TIME_TO_LIVE), any(CompletionListener.class));
+	}
+
+	@Test
+	public void sendAsyncFailure() throws Exception {
+		TextMessage message = mock(TextMessage.class);
+		ListenableFuture<Message> future = this.template.sendAsync(this.queue, session -> message);
+
+		this.completionListeners.get(0).onException(message, new javax.jms.MessageFormatException("test"));
+		try {
+			future.get();
+			fail("Expected ExecutionException");
+		}
+		catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof MessageFormatException);
+		}
+	}
+
+	@Test
+	public void sendAsyncResetsSessionOnFailure() throws Exception {
+		willThrow(new JMSException("test")).given(this.producer)
+				.send(any(Destination.class), any(), any(CompletionListener.class));
+		try {
+			this.template.sendAsync(this.queue, session -> mock(TextMessage.class));
+			fail("Expected UncategorizedJmsException");
+		}
+		catch (UncategorizedJmsException ex) {
+			// expected
+		}
+		verify(this.session).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void sendAsyncWithMaxPendingSends() throws Exception {
+		TextMessage message = mock(TextMessage.class);
+		this.template.setMaxPendingAsyncSends(1);
+		this.template.sendAsync(this.queue, session -> message);
+
+		AtomicReference<ListenableFuture<Message>> blockedFuture = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		Thread thread = new Thread(() -> {
+			blockedFuture.set(this.template.sendAsync(this.queue, session -> message));
+			latch.countDown();
+		});
+		thread.start();
+		assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+		assertEquals(1, this.completionListeners.size());
+
+		this.completionListeners.get(0).onCompletion(message);
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		assertEquals(2, this.completionListeners.size());
+		assertFalse(blockedFuture.get().isDone());
+	}
+
+	@Test
+	public void sendAsyncWithPendingSendTimeout() throws Exception {
+		TextMessage message = mock(TextMessage.class);
+		this.template.setMaxPendingAsyncSends(1);
+		this.template.setPendingAsyncSendTimeout(50);
+		this.template.sendAsync(this.queue, session -> message);
+
+		ListenableFuture<Message> future = this.template.sendAsync(this.queue, session -> message);
+		try {
+			future.get(2, TimeUnit.SECONDS);
+			fail("Expected ExecutionException");
+		}
+		catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof UncategorizedJmsException);
+		}
+		assertEquals(1, this.completionListeners.size());
+	}
+
+	@Test
+	public void sendAsyncAfterDestroy() throws Exception {
+		TextMessage message = mock(TextMessage.class);
+		this.template.sendAsync(this.queue, session -> message);
+
+		CountDownLatch closing = new CountDownLatch(1);
+		CountDownLatch pendingSendsCompleted = new CountDownLatch(1);
+		willAnswer(invocation -> {
+			closing.countDown();
+			pendingSendsCompleted.await(2, TimeUnit.SECONDS);
+			return null;
+		}).given(this.producer).close();
+		Thread thread = new Thread(this.template::destroy);
+		thread.start();
+		assertTrue(closing.await(2, TimeUnit.SECONDS));
+
+		// Rejected right away, while destroy() waits for pending sends
+		try {
+			this.template.sendAsync(this.queue, session -> message);
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+		pendingSendsCompleted.countDown();
+		thread.join(2000);
+		verify(this.connection, times(1)).createSession(false, Session.AUTO_ACKNOWLEDGE);
+		verify(this.session).close();
+	}
+
+	@Test
+	public void sendBatch() throws Exception {
+		TextMessage message1 = mock(TextMessage.class);
+		TextMessage message2 = mock(TextMessage.class);
+
+		this.template.sendBatch(this.queue, Arrays.asList(session -> message1, session -> message2));
+
+		verify(this.connection).createSession(true, Session.SESSION_TRANSACTED);
+		verify(this.producer).send(message1);
+		verify(this.producer).send(message2);
+		verify(this.session, times(1)).commit();
+		verify(this.session, never()).rollback();
+		verify(this.producer).close();
+		verify(this.session).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void sendBatchWithFailure() throws Exception {
+		TextMessage message = mock(TextMessage.class);
+		given(this.session.getTransacted()).willReturn(true);
+		List<MessageCreator> messageCreators = Arrays.asList(session -> message, session -> {
+			throw new JMSException("test");
+		});
+
+		try {
+			this.template.sendBatch(this.queue, messageCreators);
+			fail("Expected UncategorizedJmsException");
+		}
+		catch (UncategorizedJmsException ex) {
+			// expected
+		}
+		verify(this.producer).send(message);
+		verify(this.session, never()).commit();
+		verify(this.session).rollback();
+		verify(this.session).close();
+	}
+
+}
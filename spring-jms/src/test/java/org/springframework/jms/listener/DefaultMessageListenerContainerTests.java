@@ -16,12 +16,19 @@
 
 package org.springframework.jms.listener;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.Destination;
 import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
 
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -102,6 +109,73 @@ public class DefaultMessageListenerContainerTests {
 		runnable2.waitForCompletion();
 	}
 
+	@Test
+	public void batchMessageListener() throws Exception {
+		Message message1 = createMessage(System.currentTimeMillis() - 100);
+		Message message2 = createMessage(System.currentTimeMillis() - 100);
+		Message message3 = createMessage(System.currentTimeMillis() - 100);
+		MessageConsumer consumer = mock(MessageConsumer.class);
+		given(consumer.receive(anyLong())).willReturn(message1, (Message) null);
+		given(consumer.receiveNoWait()).willReturn(message2, message3, null);
+
+		List<List<Message>> batches = new ArrayList<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		DefaultMessageListenerContainer container = createContainer(createConnectionFactory(consumer));
+		container.setBatchSize(3);
+		container.setMessageListener((BatchMessageListener) (messages, session) -> {
+			batches.add(new ArrayList<>(messages));
+			latch.countDown();
+		});
+		container.afterPropertiesSet();
+		container.start();
+		try {
+			assertTrue(latch.await(2, TimeUnit.SECONDS));
+		}
+		finally {
+			container.shutdown();
+		}
+
+		assertEquals(1, batches.size());
+		assertEquals(Arrays.asList(message1, message2, message3), batches.get(0));
+		assertEquals(3, container.getReceivedMessageCount());
+		assertTrue(container.getQueueLatency() >= 100);
+	}
+
+	@Test
+	public void batchWithMessageListener() throws Exception {
+		Message message1 = createMessage(0);
+		Message message2 = createMessage(0);
+		MessageConsumer consumer = mock(MessageConsumer.class);
+		given(consumer.receive(anyLong())).willReturn(message1, (Message) null);
+		given(consumer.receiveNoWait()).willReturn(message2, (Message) null);
+
+		List<Message> received = new ArrayList<>();
+		CountDownLatch latch = new CountDownLatch(2);
+		DefaultMessageListenerContainer container = createContainer(createConnectionFactory(consumer));
+		container.setBatchSize(5);
+		container.setMessageListener((MessageListener) message -> {
+			received.add(message);
+			latch.countDown();
+		});
+		container.afterPropertiesSet();
+		container.start();
+		try {
+			assertTrue(latch.await(2, TimeUnit.SECONDS));
+		}
+		finally {
+			container.shutdown();
+		}
+
+		assertEquals(Arrays.asList(message1, message2), received);
+		assertEquals(2, container.getReceivedMessageCount());
+		assertEquals(0, container.getQueueLatency());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidBatchSize() {
+		new DefaultMessageListenerContainer().setBatchSize(0);
+	}
+
 
 	private DefaultMessageListenerContainer createRunningContainer() {
 		DefaultMessageListenerContainer container = createContainer(createSuccessfulConnectionFactory());
@@ -167,6 +241,22 @@ public class DefaultMessageListenerContainerTests {
 		}
 	}
 
+	private ConnectionFactory createConnectionFactory(MessageConsumer consumer) throws JMSException {
+		Session session = mock(Session.class);
+		given(session.createConsumer(any(Destination.class), isNull())).willReturn(consumer);
+		Connection connection = mock(Connection.class);
+		given(connection.createSession(anyBoolean(), anyInt())).willReturn(session);
+		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		given(connectionFactory.createConnection()).willReturn(connection);
+		return connectionFactory;
+	}
+
+	private Message createMessage(long timestamp) throws JMSException {
+		Message message = mock(Message.class);
+		given(message.getJMSTimestamp()).willReturn(timestamp);
+		return message;
+	}
+
 
 	private static class TestRunnable implements Runnable {
 
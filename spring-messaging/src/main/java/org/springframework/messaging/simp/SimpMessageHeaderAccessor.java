@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -83,6 +83,14 @@ public class SimpMessageHeaderAccessor extends NativeMessageHeaderAccessor {
 	 */
 	public static final String IGNORE_ERROR = "simpIgnoreError";
 
+	/**
+	 * A header that indicates that a message is one of several copies that a
+	 * broker sends to its matching subscriptions, all with the same payload.
+	 * The header is simply checked for presence or absence.
+	 * @since 5.2
+	 */
+	public static final String BROADCAST_COPY = "simpBroadcastCopy";
+
 
 	/**
 	 * A constructor for creating new message headers.
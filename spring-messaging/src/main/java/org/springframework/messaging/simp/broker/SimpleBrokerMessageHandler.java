@@ -19,6 +19,7 @@ package org.springframework.messaging.simp.broker;
 import java.security.Principal;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
@@ -385,12 +386,20 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 			logger.debug("Broadcasting to " + subscriptions.size() + " sessions.");
 		}
 		long now = System.currentTimeMillis();
+		int copyCount = 0;
+		for (List<String> subscriptionIds : subscriptions.values()) {
+			copyCount += subscriptionIds.size();
+		}
+		boolean broadcast = (copyCount > 1);
 		subscriptions.forEach((sessionId, subscriptionIds) -> {
 			for (String subscriptionId : subscriptionIds) {
 				SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
 				initHeaders(headerAccessor);
 				headerAccessor.setSessionId(sessionId);
 				headerAccessor.setSubscriptionId(subscriptionId);
+				if (broadcast) {
+					headerAccessor.setHeader(SimpMessageHeaderAccessor.BROADCAST_COPY, Boolean.TRUE);
+				}
 				headerAccessor.copyHeadersIfAbsent(message.getHeaders());
 				headerAccessor.setLeaveMutable(true);
 				Object payload = message.getPayload();
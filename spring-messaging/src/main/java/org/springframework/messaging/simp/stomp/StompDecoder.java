@@ -16,12 +16,14 @@
 
 package org.springframework.messaging.simp.stomp;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 
@@ -43,6 +45,12 @@ import org.springframework.util.MultiValueMap;
  * partial content. The caller is then responsible for dealing with that
  * incomplete content by buffering until there is more input available.
  *
+ * <p>Commands, headers and payloads are read directly from the buffer, without
+ * intermediate copies. Header names, as well as the values of frequently
+ * repeated headers such as "destination", "subscription" and "content-type",
+ * are interned in a small cache shared by all frames decoded with the same
+ * decoder instance, in order to avoid creating the same strings for every frame.
+ *
  * @author Andy Wilkinson
  * @author Rossen Stoyanchev
  * @since 4.0
@@ -53,6 +61,23 @@ public class StompDecoder {
 
 	private static final Log logger = SimpLogging.forLogName(StompDecoder.class);
 
+	private static final StompCommand[] COMMANDS = StompCommand.values();
+
+	private static final byte[][] COMMAND_BYTES = new byte[COMMANDS.length][];
+
+	private static final Set<String> INTERNED_VALUE_HEADERS = new HashSet<>(Arrays.asList(
+			StompHeaderAccessor.STOMP_DESTINATION_HEADER, StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER,
+			StompHeaderAccessor.STOMP_CONTENT_TYPE_HEADER));
+
+	static {
+		for (int i = 0; i < COMMANDS.length; i++) {
+			COMMAND_BYTES[i] = COMMANDS[i].name().getBytes(StandardCharsets.US_ASCII);
+		}
+	}
+
+
+	private final InternCache internCache = new InternCache();
+
 	@Nullable
 	private MessageHeaderInitializer headerInitializer;
 
@@ -135,12 +160,13 @@ public class StompDecoder {
 		Buffer buffer = byteBuffer;
 		buffer.mark();
 
-		String command = readCommand(byteBuffer);
-		if (command.length() > 0) {
+		int commandStart = byteBuffer.position();
+		int commandEnd = readLine(byteBuffer);
+		if (commandEnd > commandStart) {
 			StompHeaderAccessor headerAccessor = null;
 			byte[] payload = null;
 			if (byteBuffer.remaining() > 0) {
-				StompCommand stompCommand = StompCommand.valueOf(command);
+				StompCommand stompCommand = readCommand(byteBuffer, commandStart, commandEnd);
 				headerAccessor = StompHeaderAccessor.create(stompCommand);
 				initHeaders(headerAccessor);
 				readHeaders(byteBuffer, headerAccessor);
@@ -206,37 +232,46 @@ public class StompDecoder {
 		}
 	}
 
-	private String readCommand(ByteBuffer byteBuffer) {
-		ByteArrayOutputStream command = new ByteArrayOutputStream(256);
+	/**
+	 * Consume the next line, including its EOL, if present.
+	 * @return the end position of the line content, excluding the EOL
+	 */
+	private int readLine(ByteBuffer byteBuffer) {
+		int end = byteBuffer.position();
 		while (byteBuffer.remaining() > 0 && !tryConsumeEndOfLine(byteBuffer)) {
-			command.write(byteBuffer.get());
+			byteBuffer.get();
+			end++;
+		}
+		return end;
+	}
+
+	private StompCommand readCommand(ByteBuffer byteBuffer, int start, int end) {
+		for (int i = 0; i < COMMANDS.length; i++) {
+			if (matches(byteBuffer, start, end, COMMAND_BYTES[i])) {
+				return COMMANDS[i];
+			}
 		}
-		return new String(command.toByteArray(), StandardCharsets.UTF_8);
+		return StompCommand.valueOf(readString(byteBuffer, start, end));
 	}
 
 	private void readHeaders(ByteBuffer byteBuffer, StompHeaderAccessor headerAccessor) {
 		while (true) {
-			ByteArrayOutputStream headerStream = new ByteArrayOutputStream(256);
-			boolean headerComplete = false;
-			while (byteBuffer.hasRemaining()) {
-				if (tryConsumeEndOfLine(byteBuffer)) {
-					headerComplete = true;
-					break;
-				}
-				headerStream.write(byteBuffer.get());
-			}
-			if (headerStream.size() > 0 && headerComplete) {
-				String header = new String(headerStream.toByteArray(), StandardCharsets.UTF_8);
-				int colonIndex = header.indexOf(':');
-				if (colonIndex <= 0) {
+			int start = byteBuffer.position();
+			int end = readLine(byteBuffer);
+			boolean headerComplete = (byteBuffer.position() > end);
+			if (end > start && headerComplete) {
+				int colonIndex = indexOf(byteBuffer, start, end, (byte) ':');
+				if (colonIndex <= start) {
 					if (byteBuffer.remaining() > 0) {
-						throw new StompConversionException("Illegal header: '" + header +
+						throw new StompConversionException("Illegal header: '" +
+								readString(byteBuffer, start, end) +
 								"'. A header must be of the form <name>:[<value>].");
 					}
 				}
 				else {
-					String headerName = unescape(header.substring(0, colonIndex));
-					String headerValue = unescape(header.substring(colonIndex + 1));
+					String headerName = readHeaderString(byteBuffer, start, colonIndex, true);
+					String headerValue = readHeaderString(byteBuffer, colonIndex + 1, end,
+							INTERNED_VALUE_HEADERS.contains(headerName));
 					try {
 						headerAccessor.addNativeHeader(headerName, headerValue);
 					}
@@ -253,6 +288,17 @@ public class StompDecoder {
 		}
 	}
 
+	/**
+	 * Read an unescaped header name or value, using the intern cache if
+	 * requested and if the content does not require unescaping.
+	 */
+	private String readHeaderString(ByteBuffer byteBuffer, int start, int end, boolean intern) {
+		if (indexOf(byteBuffer, start, end, (byte) '\\') != -1) {
+			return unescape(readString(byteBuffer, start, end));
+		}
+		return (intern ? this.internCache.get(byteBuffer, start, end) : readString(byteBuffer, start, end));
+	}
+
 	/**
 	 * See STOMP Spec 1.2:
 	 * <a href="http://stomp.github.io/stomp-specification-1.2.html#Value_Encoding">"Value Encoding"</a>.
@@ -319,16 +365,16 @@ public class StompDecoder {
 			}
 		}
 		else {
-			ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
-			while (byteBuffer.remaining() > 0) {
-				byte b = byteBuffer.get();
-				if (b == 0) {
-					return payload.toByteArray();
-				}
-				else {
-					payload.write(b);
-				}
+			int start = byteBuffer.position();
+			int end = indexOf(byteBuffer, start, byteBuffer.limit(), (byte) 0);
+			if (end != -1) {
+				byte[] payload = new byte[end - start];
+				byteBuffer.get(payload);
+				byteBuffer.get();
+				return payload;
 			}
+			// Explicit cast for compatibility with covariant return type on JDK 9's ByteBuffer
+			((Buffer) byteBuffer).position(byteBuffer.limit());
 		}
 		return null;
 	}
@@ -357,4 +403,90 @@ public class StompDecoder {
 		return false;
 	}
 
+
+	private static int indexOf(ByteBuffer byteBuffer, int start, int end, byte b) {
+		for (int i = start; i < end; i++) {
+			if (byteBuffer.get(i) == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean matches(ByteBuffer byteBuffer, int start, int end, byte[] bytes) {
+		if (end - start != bytes.length) {
+			return false;
+		}
+		for (int i = 0; i < bytes.length; i++) {
+			if (byteBuffer.get(start + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String readString(ByteBuffer byteBuffer, int start, int end) {
+		if (byteBuffer.hasArray()) {
+			return new String(byteBuffer.array(), byteBuffer.arrayOffset() + start, end - start,
+					StandardCharsets.UTF_8);
+		}
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = byteBuffer.get(start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Fixed-size cache of strings decoded from header bytes, indexed by the
+	 * hash of the bytes. Collisions simply replace the previous entry, and
+	 * concurrent updates may be lost, which is harmless since entries are
+	 * immutable and a missed lookup only results in a new string.
+	 */
+	private static class InternCache {
+
+		private static final int SIZE = 512;
+
+		private static final int MAX_LENGTH = 128;
+
+		private final Entry[] entries = new Entry[SIZE];
+
+		public String get(ByteBuffer byteBuffer, int start, int end) {
+			int length = end - start;
+			if (length > MAX_LENGTH) {
+				return readString(byteBuffer, start, end);
+			}
+			int hash = 0;
+			for (int i = start; i < end; i++) {
+				hash = 31 * hash + byteBuffer.get(i);
+			}
+			int index = (hash ^ (hash >>> 16)) & (SIZE - 1);
+			Entry entry = this.entries[index];
+			if (entry != null && matches(byteBuffer, start, end, entry.bytes)) {
+				return entry.value;
+			}
+			String value = readString(byteBuffer, start, end);
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; i++) {
+				bytes[i] = byteBuffer.get(start + i);
+			}
+			this.entries[index] = new Entry(bytes, value);
+			return value;
+		}
+
+
+		private static class Entry {
+
+			final byte[] bytes;
+
+			final String value;
+
+			Entry(byte[] bytes, String value) {
+				this.bytes = bytes;
+				this.value = value;
+			}
+		}
+	}
+
 }
@@ -20,11 +20,16 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
@@ -36,10 +41,15 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.support.NativeMessageHeaderAccessor;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * An encoder for STOMP frames.
  *
+ * <p>Commands are pre-encoded, and the encoded bytes of header names, as well
+ * as of the values of the typically low-cardinality "destination" and
+ * "content-type" headers, are cached.
+ *
  * @author Andy Wilkinson
  * @author Rossen Stoyanchev
  * @since 4.0
@@ -53,8 +63,26 @@ public class StompEncoder  {
 
 	private static final Log logger = SimpLogging.forLogName(StompEncoder.class);
 
+	private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[][] COMMAND_BYTES = new byte[StompCommand.values().length][];
+
+	private static final Set<String> CACHED_VALUE_HEADERS = new HashSet<>(Arrays.asList(
+			StompHeaderAccessor.STOMP_DESTINATION_HEADER, StompHeaderAccessor.STOMP_CONTENT_TYPE_HEADER));
+
+	private static final Set<String> BROADCAST_COPY_HEADERS = new HashSet<>(Arrays.asList(
+			StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER, StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER));
+
 	private static final int HEADER_KEY_CACHE_LIMIT = 32;
 
+	private static final int HEADER_VALUE_CACHE_LIMIT = 256;
+
+	static {
+		for (StompCommand command : StompCommand.values()) {
+			COMMAND_BYTES[command.ordinal()] = command.name().getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
 
 	private final Map<String, byte[]> headerKeyAccessCache = new ConcurrentHashMap<>(HEADER_KEY_CACHE_LIMIT);
 
@@ -73,6 +101,26 @@ public class StompEncoder  {
 				}
 			};
 
+	private final Map<String, byte[]> headerValueAccessCache = new ConcurrentHashMap<>(HEADER_VALUE_CACHE_LIMIT);
+
+	@SuppressWarnings("serial")
+	private final Map<String, byte[]> headerValueUpdateCache =
+			new LinkedHashMap<String, byte[]>(HEADER_VALUE_CACHE_LIMIT, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+					if (size() > HEADER_VALUE_CACHE_LIMIT) {
+						headerValueAccessCache.remove(eldest.getKey());
+						return true;
+					}
+					else {
+						return false;
+					}
+				}
+			};
+
+	private final Map<byte[], SharedContent> sharedContentCache =
+			new ConcurrentReferenceHashMap<>(16, ConcurrentReferenceHashMap.ReferenceType.WEAK);
+
 
 	/**
 	 * Encodes the given STOMP {@code message} into a {@code byte[]}.
@@ -108,7 +156,7 @@ public class StompEncoder  {
 					throw new IllegalStateException("Missing STOMP command: " + headers);
 				}
 
-				output.write(command.toString().getBytes(StandardCharsets.UTF_8));
+				output.write(COMMAND_BYTES[command.ordinal()]);
 				output.write(LF);
 				writeHeaders(command, headers, payload, output);
 				output.write(LF);
@@ -123,12 +171,108 @@ public class StompEncoder  {
 		}
 	}
 
+	/**
+	 * Encodes the given payload and headers of a MESSAGE frame that is one of
+	 * several copies of the same broadcast, e.g. sent by a broker to each of
+	 * its subscribers, and differing only in their "subscription" and
+	 * "message-id" headers.
+	 * <p>The encoded frame is the same as with {@link #encode(Map, byte[])}.
+	 * The parts of the frame other than the per-copy headers, including the
+	 * payload, are encoded once and shared by all copies with the same payload
+	 * array and otherwise equal headers, so that only the per-copy headers need
+	 * to be encoded for each copy. This is only worthwhile for a payload that
+	 * is actually sent several times. Frames other than MESSAGE frames are
+	 * encoded as usual.
+	 * <p>Subclasses that customize {@link #encode(Map, byte[])} should
+	 * override this method as well.
+	 * @param headers the headers
+	 * @param payload the payload, shared by all copies of the broadcast
+	 * @return the encoded message
+	 * @since 5.2
+	 */
+	public byte[] encodeBroadcast(Map<String, Object> headers, byte[] payload) {
+		Assert.notNull(headers, "'headers' is required");
+		Assert.notNull(payload, "'payload' is required");
+
+		StompCommand command = StompHeaderAccessor.getCommand(headers);
+		Map<String, List<String>> nativeHeaders = getNativeHeaders(headers);
+		if (command != StompCommand.MESSAGE || nativeHeaders == null) {
+			return encode(headers, payload);
+		}
+
+		if (logger.isTraceEnabled()) {
+			logger.trace("Encoding STOMP " + command + ", headers=" + nativeHeaders);
+		}
+
+		try {
+			SharedContent sharedContent = this.sharedContentCache.get(payload);
+			if (sharedContent == null || !sharedContent.isSharedBy(nativeHeaders)) {
+				sharedContent = encodeSharedContent(command, headers, nativeHeaders, payload);
+				this.sharedContentCache.put(payload, sharedContent);
+			}
+
+			// Encode the per-copy headers, in the order of the shared segments they go between
+			byte[][] segments = sharedContent.getSegments();
+			byte[][] copyHeaders = new byte[segments.length - 1][];
+			int length = segments[0].length;
+			int index = 0;
+			for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
+				if (BROADCAST_COPY_HEADERS.contains(entry.getKey())) {
+					ByteArrayOutputStream baos = new ByteArrayOutputStream(32);
+					writeNativeHeader(command, headers, entry.getKey(), entry.getValue(), true,
+							new DataOutputStream(baos));
+					copyHeaders[index] = baos.toByteArray();
+					length += copyHeaders[index].length + segments[index + 1].length;
+					index++;
+				}
+			}
+
+			byte[] frame = new byte[length];
+			int position = 0;
+			for (int i = 0; i < segments.length; i++) {
+				if (i > 0) {
+					System.arraycopy(copyHeaders[i - 1], 0, frame, position, copyHeaders[i - 1].length);
+					position += copyHeaders[i - 1].length;
+				}
+				System.arraycopy(segments[i], 0, frame, position, segments[i].length);
+				position += segments[i].length;
+			}
+			return frame;
+		}
+		catch (IOException ex) {
+			throw new StompConversionException("Failed to encode STOMP frame, headers=" + headers,  ex);
+		}
+	}
+
+	private SharedContent encodeSharedContent(StompCommand command, Map<String, Object> headers,
+			Map<String, List<String>> nativeHeaders, byte[] payload) throws IOException {
+
+		List<byte[]> segments = new ArrayList<>(BROADCAST_COPY_HEADERS.size() + 1);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(128 + payload.length);
+		DataOutputStream output = new DataOutputStream(baos);
+		output.write(COMMAND_BYTES[command.ordinal()]);
+		output.write(LF);
+		for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
+			if (BROADCAST_COPY_HEADERS.contains(entry.getKey())) {
+				segments.add(baos.toByteArray());
+				baos.reset();
+			}
+			else if (!"content-length".equals(entry.getKey())) {
+				writeNativeHeader(command, headers, entry.getKey(), entry.getValue(), true, output);
+			}
+		}
+		writeContentLength(payload, output);
+		output.write(LF);
+		writeBody(payload, output);
+		output.write((byte) 0);
+		segments.add(baos.toByteArray());
+		return new SharedContent(nativeHeaders, segments.toArray(new byte[segments.size()][]));
+	}
+
 	private void writeHeaders(StompCommand command, Map<String, Object> headers, byte[] payload,
 			DataOutputStream output) throws IOException {
 
-		@SuppressWarnings("unchecked")
-		Map<String,List<String>> nativeHeaders =
-				(Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+		Map<String,List<String>> nativeHeaders = getNativeHeaders(headers);
 
 		if (logger.isTraceEnabled()) {
 			logger.trace("Encoding STOMP " + command + ", headers=" + nativeHeaders);
@@ -138,36 +282,55 @@ public class StompEncoder  {
 			return;
 		}
 
+		writeNativeHeaders(command, headers, nativeHeaders, output);
+
+		if (command.requiresContentLength()) {
+			writeContentLength(payload, output);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private Map<String, List<String>> getNativeHeaders(Map<String, Object> headers) {
+		return (Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+	}
+
+	private void writeNativeHeaders(StompCommand command, Map<String, Object> headers,
+			Map<String, List<String>> nativeHeaders, DataOutputStream output) throws IOException {
+
 		boolean shouldEscape = (command != StompCommand.CONNECT && command != StompCommand.CONNECTED);
 
 		for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
 			if (command.requiresContentLength() && "content-length".equals(entry.getKey())) {
 				continue;
 			}
+			writeNativeHeader(command, headers, entry.getKey(), entry.getValue(), shouldEscape, output);
+		}
+	}
 
-			List<String> values = entry.getValue();
-			if (StompCommand.CONNECT.equals(command) &&
-					StompHeaderAccessor.STOMP_PASSCODE_HEADER.equals(entry.getKey())) {
-				values = Collections.singletonList(StompHeaderAccessor.getPasscode(headers));
-			}
+	private void writeNativeHeader(StompCommand command, Map<String, Object> headers, String name,
+			List<String> values, boolean shouldEscape, DataOutputStream output) throws IOException {
 
-			byte[] encodedKey = encodeHeaderKey(entry.getKey(), shouldEscape);
-			for (String value : values) {
-				output.write(encodedKey);
-				output.write(COLON);
-				output.write(encodeHeaderValue(value, shouldEscape));
-				output.write(LF);
-			}
+		if (StompCommand.CONNECT.equals(command) && StompHeaderAccessor.STOMP_PASSCODE_HEADER.equals(name)) {
+			values = Collections.singletonList(StompHeaderAccessor.getPasscode(headers));
 		}
 
-		if (command.requiresContentLength()) {
-			int contentLength = payload.length;
-			output.write("content-length:".getBytes(StandardCharsets.UTF_8));
-			output.write(Integer.toString(contentLength).getBytes(StandardCharsets.UTF_8));
+		byte[] encodedKey = encodeHeaderKey(name, shouldEscape);
+		boolean cacheValue = (shouldEscape && CACHED_VALUE_HEADERS.contains(name));
+		for (String value : values) {
+			output.write(encodedKey);
+			output.write(COLON);
+			output.write(cacheValue ? encodeCachedHeaderValue(value) : encodeHeaderValue(value, shouldEscape));
 			output.write(LF);
 		}
 	}
 
+	private void writeContentLength(byte[] payload, DataOutputStream output) throws IOException {
+		output.write(CONTENT_LENGTH);
+		output.write(Integer.toString(payload.length).getBytes(StandardCharsets.UTF_8));
+		output.write(LF);
+	}
+
 	private byte[] encodeHeaderKey(String input, boolean escape) {
 		String inputToUse = (escape ? escape(input) : input);
 		if (this.headerKeyAccessCache.containsKey(inputToUse)) {
@@ -189,6 +352,22 @@ public class StompEncoder  {
 		return inputToUse.getBytes(StandardCharsets.UTF_8);
 	}
 
+	private byte[] encodeCachedHeaderValue(String input) {
+		byte[] bytes = this.headerValueAccessCache.get(input);
+		if (bytes != null) {
+			return bytes;
+		}
+		synchronized (this.headerValueUpdateCache) {
+			bytes = this.headerValueUpdateCache.get(input);
+			if (bytes == null) {
+				bytes = encodeHeaderValue(input, true);
+				this.headerValueAccessCache.put(input, bytes);
+				this.headerValueUpdateCache.put(input, bytes);
+			}
+			return bytes;
+		}
+	}
+
 	/**
 	 * See STOMP Spec 1.2:
 	 * <a href="http://stomp.github.io/stomp-specification-1.2.html#Value_Encoding">"Value Encoding"</a>.
@@ -232,4 +411,56 @@ public class StompEncoder  {
 		output.write(payload);
 	}
 
+
+
+	/**
+	 * The encoded segments of a broadcast frame between its per-copy headers,
+	 * along with the headers they were encoded from.
+	 */
+	private static class SharedContent {
+
+		private final List<String> names;
+
+		private final Map<String, List<String>> headers;
+
+		private final byte[][] segments;
+
+		public SharedContent(Map<String, List<String>> nativeHeaders, byte[][] segments) {
+			this.names = new ArrayList<>(nativeHeaders.keySet());
+			this.headers = new HashMap<>(nativeHeaders.size());
+			nativeHeaders.forEach((name, values) -> {
+				if (!BROADCAST_COPY_HEADERS.contains(name)) {
+					this.headers.put(name, new ArrayList<>(values));
+				}
+			});
+			this.segments = segments;
+		}
+
+		public byte[][] getSegments() {
+			return this.segments;
+		}
+
+		/**
+		 * Whether the given headers are in the same order as the headers the
+		 * segments were encoded from, with equal values other than those of
+		 * the per-copy headers.
+		 */
+		public boolean isSharedBy(Map<String, List<String>> nativeHeaders) {
+			if (nativeHeaders.size() != this.names.size()) {
+				return false;
+			}
+			int index = 0;
+			for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
+				String name = entry.getKey();
+				if (!name.equals(this.names.get(index++))) {
+					return false;
+				}
+				if (!BROADCAST_COPY_HEADERS.contains(name) && !entry.getValue().equals(this.headers.get(name))) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 }
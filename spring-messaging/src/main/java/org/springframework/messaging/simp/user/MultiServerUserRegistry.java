@@ -42,6 +42,13 @@ import org.springframework.util.ObjectUtils;
  * handled by {@link UserRegistryMessageHandler} which in turn notifies this
  * registry when updates are received.
  *
+ * <p>Broadcasts are either full snapshots of the local registry, or deltas
+ * that contain only the users that were added, changed or removed since the
+ * previous broadcast. A delta is applied to the snapshot received previously
+ * from the same server, if it is based on that snapshot, while deltas that
+ * cannot be applied leave the previous snapshot in place until the next full
+ * snapshot is received.
+ *
  * @author Rossen Stoyanchev
  * @since 4.2
  */
@@ -59,6 +66,12 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 	/* Cross-server session lookup (e.g. same user connected to multiple servers) */
 	private final SessionLookup sessionLookup = new SessionLookup();
 
+	/* Users in the last broadcast of the local registry, for computing deltas */
+	@Nullable
+	private Map<String, TransferSimpUser> lastBroadcastUsers;
+
+	private long lastBroadcastVersion;
+
 
 	/**
 	 * Create an instance wrapping the local user registry.
@@ -157,16 +170,80 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 		return result;
 	}
 
+	@Override
+	public Set<SimpSubscription> findSubscriptionsForDestination(String destination) {
+		Set<SimpSubscription> result = new HashSet<>();
+		for (UserRegistrySnapshot registry : this.remoteRegistries.values()) {
+			result.addAll(registry.findSubscriptionsForDestination(destination));
+		}
+		result.addAll(this.localRegistry.findSubscriptionsForDestination(destination));
+		return result;
+	}
+
 
 	// Internal methods for UserRegistryMessageHandler to manage broadcasts
 
 	Object getLocalRegistryDto() {
-		return new UserRegistrySnapshot(this.id, this.localRegistry);
+		return getLocalRegistryDto(true);
+	}
+
+	/**
+	 * Return a snapshot of the local registry for broadcasting, either in full,
+	 * or as a delta from the previous snapshot returned from this method.
+	 * @param fullSnapshot whether to return a full snapshot
+	 */
+	synchronized Object getLocalRegistryDto(boolean fullSnapshot) {
+		Set<SimpUser> localUsers = this.localRegistry.getUsers();
+		Map<String, TransferSimpUser> users = new HashMap<>(localUsers.size());
+		for (SimpUser user : localUsers) {
+			users.put(user.getName(), new TransferSimpUser(user));
+		}
+
+		Map<String, TransferSimpUser> lastUsers = this.lastBroadcastUsers;
+		long version = this.lastBroadcastVersion + 1;
+		UserRegistrySnapshot snapshot;
+		if (fullSnapshot || lastUsers == null) {
+			snapshot = new UserRegistrySnapshot(this.id, version, users);
+		}
+		else {
+			Map<String, TransferSimpUser> changedUsers = new HashMap<>();
+			users.forEach((name, user) -> {
+				TransferSimpUser lastUser = lastUsers.get(name);
+				if (lastUser == null || !lastUser.hasSameContent(user)) {
+					changedUsers.put(name, user);
+				}
+			});
+			Set<String> removedUserNames = new HashSet<>();
+			for (String name : lastUsers.keySet()) {
+				if (!users.containsKey(name)) {
+					removedUserNames.add(name);
+				}
+			}
+			snapshot = new UserRegistrySnapshot(this.id, version, changedUsers);
+			snapshot.setBaseVersion(this.lastBroadcastVersion);
+			snapshot.setRemovedUserNames(removedUserNames);
+		}
+		this.lastBroadcastUsers = users;
+		this.lastBroadcastVersion = version;
+		return snapshot;
 	}
 
 	void addRemoteRegistryDto(Message<?> message, MessageConverter converter, long expirationPeriod) {
 		UserRegistrySnapshot registry = (UserRegistrySnapshot) converter.fromMessage(message, UserRegistrySnapshot.class);
-		if (registry != null && !registry.getId().equals(this.id)) {
+		if (registry == null || registry.getId().equals(this.id)) {
+			return;
+		}
+		if (registry.getBaseVersion() > 0) {
+			this.remoteRegistries.computeIfPresent(registry.getId(), (id, current) -> {
+				if (current.getVersion() != registry.getBaseVersion()) {
+					// Missed a broadcast: keep the current snapshot until the next full one
+					current.extendExpiration(expirationPeriod);
+					return current;
+				}
+				return current.applyDelta(registry, expirationPeriod, this.sessionLookup);
+			});
+		}
+		else {
 			registry.init(expirationPeriod, this.sessionLookup);
 			this.remoteRegistries.put(registry.getId(), registry);
 		}
@@ -194,8 +271,17 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 
 		private Map<String, TransferSimpUser> users = Collections.emptyMap();
 
+		private long version;
+
+		private long baseVersion;
+
+		private Set<String> removedUserNames = Collections.emptySet();
+
 		private long expirationTime;
 
+		@Nullable
+		private volatile Map<String, Set<SimpSubscription>> subscriptionsByDestination;
+
 		/**
 		 * Default constructor for JSON deserialization.
 		 */
@@ -204,15 +290,12 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 		}
 
 		/**
-		 * Constructor to create DTO from a local user registry.
+		 * Constructor to create DTO from the users of a local user registry.
 		 */
-		public UserRegistrySnapshot(String id, SimpUserRegistry registry) {
+		public UserRegistrySnapshot(String id, long version, Map<String, TransferSimpUser> users) {
 			this.id = id;
-			Set<SimpUser> users = registry.getUsers();
-			this.users = new HashMap<>(users.size());
-			for (SimpUser user : users) {
-				this.users.put(user.getName(), new TransferSimpUser(user));
-			}
+			this.version = version;
+			this.users = users;
 		}
 
 		public void setId(String id) {
@@ -231,17 +314,67 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 			return this.users;
 		}
 
+		public void setVersion(long version) {
+			this.version = version;
+		}
+
+		public long getVersion() {
+			return this.version;
+		}
+
+		/**
+		 * Set the version of the snapshot this snapshot is a delta from,
+		 * or 0 if this is a full snapshot.
+		 */
+		public void setBaseVersion(long baseVersion) {
+			this.baseVersion = baseVersion;
+		}
+
+		public long getBaseVersion() {
+			return this.baseVersion;
+		}
+
+		public void setRemovedUserNames(Set<String> removedUserNames) {
+			this.removedUserNames = removedUserNames;
+		}
+
+		public Set<String> getRemovedUserNames() {
+			return this.removedUserNames;
+		}
+
 		public boolean isExpired(long now) {
 			return (now > this.expirationTime);
 		}
 
 		public void init(long expirationPeriod, SessionLookup sessionLookup) {
-			this.expirationTime = System.currentTimeMillis() + expirationPeriod;
+			extendExpiration(expirationPeriod);
 			for (TransferSimpUser user : this.users.values()) {
 				user.afterDeserialization(sessionLookup);
 			}
 		}
 
+		public void extendExpiration(long expirationPeriod) {
+			this.expirationTime = System.currentTimeMillis() + expirationPeriod;
+		}
+
+		/**
+		 * Create a new snapshot by applying the given delta to this snapshot,
+		 * which remains unchanged for concurrent readers.
+		 */
+		public UserRegistrySnapshot applyDelta(UserRegistrySnapshot delta,
+				long expirationPeriod, SessionLookup sessionLookup) {
+
+			Map<String, TransferSimpUser> users = new HashMap<>(this.users);
+			users.keySet().removeAll(delta.getRemovedUserNames());
+			users.putAll(delta.getUserMap());
+			UserRegistrySnapshot result = new UserRegistrySnapshot(this.id, delta.getVersion(), users);
+			result.extendExpiration(expirationPeriod);
+			for (TransferSimpUser user : delta.getUserMap().values()) {
+				user.afterDeserialization(sessionLookup);
+			}
+			return result;
+		}
+
 		public Set<SimpSubscription> findSubscriptions(SimpSubscriptionMatcher matcher) {
 			Set<SimpSubscription> result = new HashSet<>();
 			for (TransferSimpUser user : this.users.values()) {
@@ -256,6 +389,22 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 			return result;
 		}
 
+		public Set<SimpSubscription> findSubscriptionsForDestination(String destination) {
+			Map<String, Set<SimpSubscription>> index = this.subscriptionsByDestination;
+			if (index == null) {
+				index = new HashMap<>();
+				for (TransferSimpUser user : this.users.values()) {
+					for (TransferSimpSession session : user.sessions) {
+						for (SimpSubscription subscription : session.subscriptions) {
+							index.computeIfAbsent(subscription.getDestination(), key -> new HashSet<>()).add(subscription);
+						}
+					}
+				}
+				this.subscriptionsByDestination = index;
+			}
+			return index.getOrDefault(destination, Collections.emptySet());
+		}
+
 		@Override
 		public String toString() {
 			return "id=" + this.id + ", users=" + this.users;
@@ -355,6 +504,28 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 			}
 		}
 
+		/**
+		 * Whether the given user has the same sessions and subscriptions,
+		 * compared by id and destination, as this user.
+		 */
+		private boolean hasSameContent(TransferSimpUser other) {
+			if (this.sessions.size() != other.sessions.size()) {
+				return false;
+			}
+			Map<String, TransferSimpSession> otherSessions = new HashMap<>(other.sessions.size());
+			for (TransferSimpSession session : other.sessions) {
+				otherSessions.put(session.getId(), session);
+			}
+			for (TransferSimpSession session : this.sessions) {
+				TransferSimpSession otherSession = otherSessions.get(session.getId());
+				if (otherSession == null || !session.getSubscriptionDestinations().equals(
+						otherSession.getSubscriptionDestinations())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
 
 		@Override
 		public boolean equals(Object other) {
@@ -440,6 +611,14 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 			}
 		}
 
+		private Map<String, String> getSubscriptionDestinations() {
+			Map<String, String> destinations = new HashMap<>(this.subscriptions.size());
+			for (TransferSimpSubscription subscription : this.subscriptions) {
+				destinations.put(subscription.getId(), subscription.getDestination());
+			}
+			return destinations;
+		}
+
 		@Override
 		public boolean equals(Object other) {
 			return (this == other || (other instanceof SimpSession && getId().equals(((SimpSession) other).getId())));
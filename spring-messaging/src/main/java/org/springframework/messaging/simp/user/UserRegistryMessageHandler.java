@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -59,6 +59,8 @@ public class UserRegistryMessageHandler implements MessageHandler, ApplicationLi
 
 	private long registryExpirationPeriod = TimeUnit.SECONDS.toMillis(20);
 
+	private int fullSnapshotInterval = 1;
+
 
 	/**
 	 * Constructor.
@@ -107,6 +109,33 @@ public class UserRegistryMessageHandler implements MessageHandler, ApplicationLi
 		return this.registryExpirationPeriod;
 	}
 
+	/**
+	 * Configure how often the full content of the local user registry is
+	 * broadcast, in number of broadcasts. In between, only the users that
+	 * were added, changed or removed since the previous broadcast are sent,
+	 * which reduces the broadcast traffic for large registries.
+	 * <p>By default this is set to 1, i.e. every broadcast contains the full
+	 * content of the registry, as expected by servers running versions prior
+	 * to 5.2. Servers that miss a partial broadcast catch up with the next
+	 * full one, so the interval should be kept small relative to the
+	 * {@link #setRegistryExpirationPeriod registry expiration period}.
+	 * @param fullSnapshotInterval the number of broadcasts between full
+	 * broadcasts (1 or higher)
+	 * @since 5.2
+	 */
+	public void setFullSnapshotInterval(int fullSnapshotInterval) {
+		Assert.isTrue(fullSnapshotInterval > 0, "'fullSnapshotInterval' must be 1 or higher");
+		this.fullSnapshotInterval = fullSnapshotInterval;
+	}
+
+	/**
+	 * Return the configured full snapshot interval.
+	 * @since 5.2
+	 */
+	public int getFullSnapshotInterval() {
+		return this.fullSnapshotInterval;
+	}
+
 
 	@Override
 	public void onApplicationEvent(BrokerAvailabilityEvent event) {
@@ -132,13 +161,16 @@ public class UserRegistryMessageHandler implements MessageHandler, ApplicationLi
 
 	private class UserRegistryTask implements Runnable {
 
+		private long broadcastCount;
+
 		@Override
 		public void run() {
 			try {
 				SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
 				accessor.setHeader(SimpMessageHeaderAccessor.IGNORE_ERROR, true);
 				accessor.setLeaveMutable(true);
-				Object payload = userRegistry.getLocalRegistryDto();
+				boolean fullSnapshot = (this.broadcastCount++ % getFullSnapshotInterval() == 0);
+				Object payload = userRegistry.getLocalRegistryDto(fullSnapshot);
 				brokerTemplate.convertAndSend(getBroadcastDestination(), payload, accessor.getMessageHeaders());
 			}
 			finally {
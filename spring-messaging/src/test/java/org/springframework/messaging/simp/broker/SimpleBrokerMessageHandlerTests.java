@@ -101,6 +101,27 @@ public class SimpleBrokerMessageHandlerTests {
 		assertTrue(messageCaptured("sess2", "sub3", "/bar"));
 	}
 
+	@Test
+	public void publishBroadcastCopies() {
+		startSession("sess1");
+		startSession("sess2");
+
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess1", "sub1", "/foo"));
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess2", "sub1", "/foo"));
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess1", "sub2", "/bar"));
+
+		this.messageHandler.handleMessage(createMessage("/foo", "message1"));
+		this.messageHandler.handleMessage(createMessage("/bar", "message2"));
+
+		verify(this.clientOutChannel, times(3)).send(this.messageCaptor.capture());
+		List<Message<?>> messages = this.messageCaptor.getAllValues();
+		messages = messages.subList(messages.size() - 3, messages.size());
+		assertEquals(Boolean.TRUE, messages.get(0).getHeaders().get(SimpMessageHeaderAccessor.BROADCAST_COPY));
+		assertEquals(Boolean.TRUE, messages.get(1).getHeaders().get(SimpMessageHeaderAccessor.BROADCAST_COPY));
+		assertSame(messages.get(0).getPayload(), messages.get(1).getPayload());
+		assertNull(messages.get(2).getHeaders().get(SimpMessageHeaderAccessor.BROADCAST_COPY));
+	}
+
 	@Test
 	public void subscribeDisconnectPublish() {
 		String sess1 = "sess1";
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,7 +27,10 @@ import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.util.InvalidMimeTypeException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 /**
  * Test fixture for {@link StompDecoder}.
@@ -248,6 +251,33 @@ public class StompDecoderTests {
 		assertEquals(SimpMessageType.HEARTBEAT, StompHeaderAccessor.wrap(messages.get(0)).getMessageType());
 	}
 
+	@Test
+	public void decodeFrameInternsCommonHeaders() {
+		String frame = "MESSAGE\ndestination:/topic/foo\nsubscription:s1\nmessage-id:m1\n\nbody\0";
+		StompHeaderAccessor headers1 = StompHeaderAccessor.wrap(decode(frame));
+		StompHeaderAccessor headers2 = StompHeaderAccessor.wrap(decode(frame));
+
+		assertEquals("/topic/foo", headers1.getDestination());
+		assertSame(headers1.getDestination(), headers2.getDestination());
+		assertSame(headers1.getSubscriptionId(), headers2.getSubscriptionId());
+		assertNotSame(headers1.getMessageId(), headers2.getMessageId());
+	}
+
+	@Test
+	public void decodeFrameFromDirectBuffer() {
+		byte[] bytes = "SEND\ndestination:/a\\cb\n\nThe body\0".getBytes();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		buffer.flip();
+		Message<byte[]> frame = decode(buffer);
+		StompHeaderAccessor headers = StompHeaderAccessor.wrap(frame);
+
+		assertEquals(StompCommand.SEND, headers.getCommand());
+		assertEquals("/a:b", headers.getDestination());
+		assertEquals("The body", new String(frame.getPayload()));
+		assertFalse(buffer.hasRemaining());
+	}
+
 	private void assertIncompleteDecode(String partialFrame) {
 		ByteBuffer buffer = ByteBuffer.wrap(partialFrame.getBytes());
 		assertNull(decode(buffer));
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,19 @@
 
 package org.springframework.messaging.simp.stomp;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -88,4 +97,68 @@ public class StompEncoderTests {
 				new String(encoder.encode(frame)));
 	}
 
+	@Test
+	public void encodeConcurrently() throws Exception {
+		int threads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					int count = 0;
+					// More distinct destinations than the value cache holds, with repeated hits
+					for (int j = 0; j < 10000; j++) {
+						String destination = "/topic/" + (j % 500) + ":" + (j % 7);
+						StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.SEND);
+						headers.setDestination(destination);
+						headers.setContentType(MimeTypeUtils.TEXT_PLAIN);
+						Message<byte[]> frame = MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+						String expected = "SEND\ndestination:" + destination.replace(":", "\\c") +
+								"\ncontent-type:text/plain\ncontent-length:0\n\n\0";
+						assertEquals(expected, new String(encoder.encode(frame)));
+						count++;
+					}
+					return count;
+				}));
+			}
+			for (Future<Integer> result : results) {
+				assertEquals(Integer.valueOf(10000), result.get(30, TimeUnit.SECONDS));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void encodeBroadcast() {
+		byte[] payload = "Message body".getBytes();
+
+		assertEquals("MESSAGE\na:alpha\nsubscription:s1\nb:bravo\nmessage-id:m1\ncontent-length:12\n\nMessage body\0",
+				new String(encoder.encodeBroadcast(createBroadcastCopy("s1", "m1", "alpha"), payload)));
+		assertEquals("MESSAGE\na:alpha\nsubscription:s2\nb:bravo\nmessage-id:m2\ncontent-length:12\n\nMessage body\0",
+				new String(encoder.encodeBroadcast(createBroadcastCopy("s2", "m2", "alpha"), payload)));
+		assertEquals("MESSAGE\na:charlie\nsubscription:s3\nb:bravo\nmessage-id:m3\ncontent-length:12\n\nMessage body\0",
+				new String(encoder.encodeBroadcast(createBroadcastCopy("s3", "m3", "charlie"), payload)));
+	}
+
+	@Test
+	public void encodeBroadcastSameAsEncode() {
+		byte[] payload = "Message body".getBytes();
+		for (int i = 0; i < 2; i++) {
+			MessageHeaders headers = createBroadcastCopy("s" + i, "m" + i, "alpha");
+			assertEquals(new String(encoder.encode(headers, payload)),
+					new String(encoder.encodeBroadcast(headers, payload)));
+		}
+	}
+
+	private MessageHeaders createBroadcastCopy(String subscriptionId, String messageId, String header) {
+		StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+		headers.addNativeHeader("a", header);
+		headers.setSubscriptionId(subscriptionId);
+		headers.addNativeHeader("b", "bravo");
+		headers.setMessageId(messageId);
+		return headers.getMessageHeaders();
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -132,6 +132,81 @@ public class MultiServerUserRegistryTests {
 		assertEquals(new HashSet<>(Arrays.asList("sess1", "sess2")), sessionIds);
 	}
 
+	@Test
+	public void findSubscriptionsForDestinationFromRemoteRegistry() throws Exception {
+		TestSimpUser user1 = new TestSimpUser("joe");
+		TestSimpUser user2 = new TestSimpUser("jane");
+		TestSimpSession session1 = new TestSimpSession("sess1");
+		TestSimpSession session2 = new TestSimpSession("sess2");
+		session1.addSubscriptions(new TestSimpSubscription("sub1", "/match"));
+		session2.addSubscriptions(new TestSimpSubscription("sub1", "/not-a-match"));
+		user1.addSessions(session1);
+		user2.addSessions(session2);
+		SimpUserRegistry userRegistry = mock(SimpUserRegistry.class);
+		when(userRegistry.getUsers()).thenReturn(new HashSet<>(Arrays.asList(user1, user2)));
+		Object registryDto = new MultiServerUserRegistry(userRegistry).getLocalRegistryDto();
+		Message<?> message = this.converter.toMessage(registryDto, null);
+
+		this.registry.addRemoteRegistryDto(message, this.converter, 20000);
+
+		Set<SimpSubscription> matches = this.registry.findSubscriptionsForDestination("/match");
+		assertEquals(1, matches.size());
+		assertEquals("sess1", matches.iterator().next().getSession().getId());
+		assertTrue(this.registry.findSubscriptionsForDestination("/other").isEmpty());
+	}
+
+	@Test
+	public void deltaFromRemoteRegistry() throws Exception {
+		SimpUserRegistry userRegistry = mock(SimpUserRegistry.class);
+		MultiServerUserRegistry remoteRegistry = new MultiServerUserRegistry(userRegistry);
+
+		when(userRegistry.getUsers()).thenReturn(new HashSet<>(Arrays.asList(
+				createUser("joe", "sess1", "/foo"), createUser("jane", "sess2", "/foo"))));
+		addRemoteRegistryDto(remoteRegistry.getLocalRegistryDto(true));
+		assertEquals(2, this.registry.getUserCount());
+
+		// jane unchanged, joe removed, jack added
+		when(userRegistry.getUsers()).thenReturn(new HashSet<>(Arrays.asList(
+				createUser("jane", "sess2", "/foo"), createUser("jack", "sess3", "/bar"))));
+		Object delta = remoteRegistry.getLocalRegistryDto(false);
+		String json = new String((byte[]) this.converter.toMessage(delta, null).getPayload());
+		assertTrue(json.contains("jack"));
+		assertFalse(json.contains("sess2"));
+		addRemoteRegistryDto(delta);
+
+		assertEquals(2, this.registry.getUserCount());
+		assertNull(this.registry.getUser("joe"));
+		assertNotNull(this.registry.getUser("jane"));
+		SimpUser jack = this.registry.getUser("jack");
+		assertNotNull(jack);
+		assertNotNull(jack.getSession("sess3"));
+		assertEquals(1, this.registry.findSubscriptionsForDestination("/bar").size());
+		assertEquals(1, this.registry.findSubscriptionsForDestination("/foo").size());
+	}
+
+	@Test
+	public void missedDeltaFromRemoteRegistry() throws Exception {
+		SimpUserRegistry userRegistry = mock(SimpUserRegistry.class);
+		MultiServerUserRegistry remoteRegistry = new MultiServerUserRegistry(userRegistry);
+
+		when(userRegistry.getUsers()).thenReturn(Collections.singleton(createUser("joe", "sess1", "/foo")));
+		addRemoteRegistryDto(remoteRegistry.getLocalRegistryDto(true));
+
+		when(userRegistry.getUsers()).thenReturn(Collections.singleton(createUser("jane", "sess2", "/foo")));
+		remoteRegistry.getLocalRegistryDto(false);
+
+		when(userRegistry.getUsers()).thenReturn(Collections.singleton(createUser("jack", "sess3", "/foo")));
+		addRemoteRegistryDto(remoteRegistry.getLocalRegistryDto(false));
+
+		assertEquals(1, this.registry.getUserCount());
+		assertNotNull(this.registry.getUser("joe"));
+
+		addRemoteRegistryDto(remoteRegistry.getLocalRegistryDto(true));
+
+		assertEquals(1, this.registry.getUserCount());
+		assertNotNull(this.registry.getUser("jack"));
+	}
+
 	@Test  // SPR-13800
 	public void getSessionsWhenUserIsConnectedToMultipleServers() throws Exception {
 		// Add user to local registry
@@ -187,4 +262,18 @@ public class MultiServerUserRegistryTests {
 		assertEquals(0, this.registry.getUserCount());
 	}
 
+
+	private void addRemoteRegistryDto(Object registryDto) {
+		Message<?> message = this.converter.toMessage(registryDto, null);
+		this.registry.addRemoteRegistryDto(message, this.converter, 20000);
+	}
+
+	private TestSimpUser createUser(String name, String sessionId, String destination) {
+		TestSimpUser user = new TestSimpUser(name);
+		TestSimpSession session = new TestSimpSession(sessionId);
+		session.addSubscriptions(new TestSimpSubscription("sub1", destination));
+		user.addSessions(session);
+		return user;
+	}
+
 }
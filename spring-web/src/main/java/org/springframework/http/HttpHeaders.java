@@ -29,6 +29,8 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
@@ -413,14 +415,25 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 		this(new LinkedCaseInsensitiveMap<>(8, Locale.ENGLISH), false);
 	}
 
+	/**
+	 * Construct a new {@code HttpHeaders} instance backed by an existing map.
+	 * <p>This constructor is available as an optimization for adapting to existing
+	 * headers map structures, primarily for internal use within the framework.
+	 * The given map is expected to treat header names case-insensitively.
+	 * @param headers the headers map
+	 * @since 5.2
+	 */
+	public HttpHeaders(MultiValueMap<String, String> headers) {
+		this(headers, false);
+	}
+
 	/**
 	 * Private constructor that can create read-only {@code HttpHeader} instances.
 	 */
 	private HttpHeaders(Map<String, List<String>> headers, boolean readOnly) {
+		Assert.notNull(headers, "Headers must not be null");
 		if (readOnly) {
-			Map<String, List<String>> map = new LinkedCaseInsensitiveMap<>(headers.size(), Locale.ENGLISH);
-			headers.forEach((key, valueList) -> map.put(key, Collections.unmodifiableList(valueList)));
-			this.headers = Collections.unmodifiableMap(map);
+			this.headers = new ReadOnlyHeaders(headers);
 		}
 		else {
 			this.headers = headers;
@@ -1474,6 +1487,9 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	@Override
 	@Nullable
 	public String getFirst(String headerName) {
+		if (this.headers instanceof MultiValueMap) {
+			return ((MultiValueMap<String, String>) this.headers).getFirst(headerName);
+		}
 		List<String> headerValues = this.headers.get(headerName);
 		return (headerValues != null ? headerValues.get(0) : null);
 	}
@@ -1620,10 +1636,143 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 
 	/**
 	 * Return a {@code HttpHeaders} object that can only be read, not written to.
+	 * <p>Headers {@link #HttpHeaders(MultiValueMap) backed by an existing map}
+	 * are exposed through a read-only view, which reflects later changes to that
+	 * map and is serialized as a copy of its current headers. Other headers
+	 * are copied.
 	 */
 	public static HttpHeaders readOnlyHttpHeaders(HttpHeaders headers) {
 		Assert.notNull(headers, "HttpHeaders must not be null");
-		return (headers.readOnly ? headers : new HttpHeaders(headers, true));
+		if (headers.readOnly) {
+			return headers;
+		}
+		if (!(headers.headers instanceof LinkedCaseInsensitiveMap)) {
+			// Backed by an existing map: read-only view rather than a copy
+			return new HttpHeaders(headers.headers, true);
+		}
+		Map<String, List<String>> copy = new LinkedCaseInsensitiveMap<>(headers.size(), Locale.ENGLISH);
+		headers.forEach(copy::put);
+		return new HttpHeaders(copy, true);
+	}
+
+
+	/**
+	 * Read-only view of a headers map.
+	 */
+	private static final class ReadOnlyHeaders extends AbstractMap<String, List<String>>
+			implements MultiValueMap<String, String>, Serializable {
+
+		private static final long serialVersionUID = -5925396340613651580L;
+
+		private final Map<String, List<String>> headers;
+
+		ReadOnlyHeaders(Map<String, List<String>> headers) {
+			this.headers = headers;
+		}
+
+		@Override
+		@Nullable
+		public String getFirst(String key) {
+			if (this.headers instanceof MultiValueMap) {
+				return ((MultiValueMap<String, String>) this.headers).getFirst(key);
+			}
+			List<String> values = this.headers.get(key);
+			return (values != null ? values.get(0) : null);
+		}
+
+		@Override
+		@Nullable
+		public List<String> get(Object key) {
+			List<String> values = this.headers.get(key);
+			return (values != null ? Collections.unmodifiableList(values) : null);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return this.headers.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			return this.headers.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return this.headers.isEmpty();
+		}
+
+		@Override
+		public Set<String> keySet() {
+			return Collections.unmodifiableSet(this.headers.keySet());
+		}
+
+		@Override
+		public Set<Entry<String, List<String>>> entrySet() {
+			return new AbstractSet<Entry<String, List<String>>>() {
+				@Override
+				public Iterator<Entry<String, List<String>>> iterator() {
+					Iterator<Entry<String, List<String>>> entries = headers.entrySet().iterator();
+					return new Iterator<Entry<String, List<String>>>() {
+						@Override
+						public boolean hasNext() {
+							return entries.hasNext();
+						}
+						@Override
+						public Entry<String, List<String>> next() {
+							Entry<String, List<String>> entry = entries.next();
+							return new SimpleImmutableEntry<>(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+						}
+					};
+				}
+				@Override
+				public int size() {
+					return headers.size();
+				}
+			};
+		}
+
+		@Override
+		public Map<String, String> toSingleValueMap() {
+			LinkedHashMap<String, String> singleValueMap = new LinkedHashMap<>(this.headers.size());
+			this.headers.forEach((key, valueList) -> singleValueMap.put(key, valueList.get(0)));
+			return singleValueMap;
+		}
+
+		@Override
+		public void add(String key, @Nullable String value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void addAll(String key, List<? extends String> values) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void addAll(MultiValueMap<String, String> values) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void set(String key, @Nullable String value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void setAll(Map<String, String> values) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Serialize a copy of the current headers, rather than the underlying
+		 * map, which may not be serializable.
+		 */
+		private Object writeReplace() {
+			Map<String, List<String>> copy = new LinkedCaseInsensitiveMap<>(this.headers.size(), Locale.ENGLISH);
+			this.headers.forEach((key, valueList) -> copy.put(key, Collections.unmodifiableList(valueList)));
+			return Collections.unmodifiableMap(copy);
+		}
 	}
 
 }
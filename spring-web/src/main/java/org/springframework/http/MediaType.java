@@ -30,6 +30,7 @@ import java.util.stream.Collectors;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.InvalidMimeTypeException;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
@@ -321,6 +322,9 @@ public class MediaType extends MimeType implements Serializable {
 
 	private static final String PARAM_QUALITY_FACTOR = "q";
 
+	private static final ConcurrentLruCache<String, MediaType> cachedMediaTypes =
+			new ConcurrentLruCache<>(64, MediaType::parseMediaTypeInternal);
+
 
 	static {
 		ALL = valueOf(ALL_VALUE);
@@ -521,11 +525,20 @@ public class MediaType extends MimeType implements Serializable {
 
 	/**
 	 * Parse the given String into a single {@code MediaType}.
+	 * <p>Recently parsed {@code MediaType} instances are cached, except for
+	 * multipart types, which usually carry a unique boundary parameter.
 	 * @param mediaType the string to parse
 	 * @return the media type
 	 * @throws InvalidMediaTypeException if the media type value cannot be parsed
 	 */
 	public static MediaType parseMediaType(String mediaType) {
+		if (!StringUtils.hasLength(mediaType) || mediaType.startsWith("multipart")) {
+			return parseMediaTypeInternal(mediaType);
+		}
+		return cachedMediaTypes.get(mediaType);
+	}
+
+	private static MediaType parseMediaTypeInternal(String mediaType) {
 		MimeType type;
 		try {
 			type = MimeTypeUtils.parseMimeType(mediaType);
@@ -684,7 +697,7 @@ public class MediaType extends MimeType implements Serializable {
 	public static void sortBySpecificityAndQuality(List<MediaType> mediaTypes) {
 		Assert.notNull(mediaTypes, "'mediaTypes' must not be null");
 		if (mediaTypes.size() > 1) {
-			mediaTypes.sort(MediaType.SPECIFICITY_COMPARATOR.thenComparing(MediaType.QUALITY_VALUE_COMPARATOR));
+			mediaTypes.sort(SPECIFICITY_AND_QUALITY_COMPARATOR);
 		}
 	}
 
@@ -744,4 +757,10 @@ public class MediaType extends MimeType implements Serializable {
 		}
 	};
 
+	/**
+	 * Comparator used by {@link #sortBySpecificityAndQuality(List)}.
+	 */
+	private static final Comparator<MediaType> SPECIFICITY_AND_QUALITY_COMPARATOR =
+			SPECIFICITY_COMPARATOR.thenComparing(QUALITY_VALUE_COMPARATOR);
+
 }
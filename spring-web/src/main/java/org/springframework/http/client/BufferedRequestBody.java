@@ -0,0 +1,243 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.FastByteArrayOutputStream;
+
+/**
+ * A {@link StreamingHttpOutputMessage.Body} that buffers another body, for
+ * {@link StreamingClientHttpRequestInterceptor StreamingClientHttpRequestInterceptors}
+ * that need to inspect the request body before executing the request.
+ *
+ * <p>The body is kept in memory up to a given threshold, and spills over to
+ * a temporary file beyond it, so that the memory used is bounded regardless
+ * of the size of the body. The buffered body can be read any number of times,
+ * and the temporary file is deleted on {@link #close()}:
+ *
+ * <pre class="code">
+ * public ClientHttpResponse intercept(HttpRequest request, Body body,
+ *         ClientHttpRequestExecution execution) throws IOException {
+ *
+ *     try (BufferedRequestBody bufferedBody = BufferedRequestBody.of(body)) {
+ *         request.getHeaders().add("Signature", sign(bufferedBody.getInputStream()));
+ *         return execution.execute(request, bufferedBody);
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+public final class BufferedRequestBody implements StreamingHttpOutputMessage.Body, Closeable {
+
+	/**
+	 * The default size up to which bodies are buffered in memory.
+	 * @see #of(StreamingHttpOutputMessage.Body, int)
+	 */
+	public static final int DEFAULT_MEMORY_THRESHOLD = 1024 * 1024;
+
+
+	private final FastByteArrayOutputStream memoryBuffer;
+
+	@Nullable
+	private final Path file;
+
+	private final long size;
+
+
+	private BufferedRequestBody(FastByteArrayOutputStream memoryBuffer, @Nullable Path file, long size) {
+		this.memoryBuffer = memoryBuffer;
+		this.file = file;
+		this.size = size;
+	}
+
+
+	/**
+	 * Return the size of the buffered body in bytes.
+	 */
+	public long size() {
+		return this.size;
+	}
+
+	/**
+	 * Whether the body exceeded the memory threshold and has been written
+	 * to a temporary file.
+	 */
+	public boolean isFileBacked() {
+		return (this.file != null);
+	}
+
+	/**
+	 * Return a new {@link InputStream} for reading the buffered body.
+	 */
+	public InputStream getInputStream() throws IOException {
+		return (this.file != null ? Files.newInputStream(this.file) : this.memoryBuffer.getInputStream());
+	}
+
+	@Override
+	public void writeTo(OutputStream outputStream) throws IOException {
+		if (this.file != null) {
+			Files.copy(this.file, outputStream);
+		}
+		else {
+			this.memoryBuffer.writeTo(outputStream);
+		}
+	}
+
+	/**
+	 * Delete the temporary file the body has been written to, if any.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.file != null) {
+			Files.deleteIfExists(this.file);
+		}
+	}
+
+
+	/**
+	 * Buffer the given body, keeping up to {@link #DEFAULT_MEMORY_THRESHOLD}
+	 * bytes in memory.
+	 * @param body the body to buffer
+	 * @return the buffered body, to be closed once no longer needed
+	 * @throws IOException in case of I/O errors while writing the body
+	 */
+	public static BufferedRequestBody of(StreamingHttpOutputMessage.Body body) throws IOException {
+		return of(body, DEFAULT_MEMORY_THRESHOLD);
+	}
+
+	/**
+	 * Buffer the given body, keeping up to the given number of bytes in memory.
+	 * @param body the body to buffer
+	 * @param memoryThreshold the maximum number of bytes to keep in memory,
+	 * beyond which the body is written to a temporary file
+	 * @return the buffered body, to be closed once no longer needed
+	 * @throws IOException in case of I/O errors while writing the body
+	 */
+	public static BufferedRequestBody of(StreamingHttpOutputMessage.Body body, int memoryThreshold)
+			throws IOException {
+
+		Assert.notNull(body, "Body must not be null");
+		Assert.isTrue(memoryThreshold >= 0, "Memory threshold must not be negative");
+		SpillingOutputStream outputStream = new SpillingOutputStream(memoryThreshold);
+		try {
+			body.writeTo(outputStream);
+			outputStream.close();
+		}
+		catch (IOException | RuntimeException ex) {
+			outputStream.discard();
+			throw ex;
+		}
+		return new BufferedRequestBody(outputStream.memoryBuffer, outputStream.file, outputStream.size);
+	}
+
+
+	/**
+	 * {@link OutputStream} that writes to memory up to a threshold, and to a
+	 * temporary file beyond it.
+	 */
+	private static class SpillingOutputStream extends OutputStream {
+
+		private final int memoryThreshold;
+
+		private final FastByteArrayOutputStream memoryBuffer = new FastByteArrayOutputStream(1024);
+
+		@Nullable
+		private Path file;
+
+		@Nullable
+		private OutputStream fileOutputStream;
+
+		private long size;
+
+		private boolean closed;
+
+		public SpillingOutputStream(int memoryThreshold) {
+			this.memoryThreshold = memoryThreshold;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			getOutputStream(1).write(b);
+			this.size++;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			getOutputStream(length).write(bytes, offset, length);
+			this.size += length;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (this.fileOutputStream != null) {
+				this.fileOutputStream.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				this.closed = true;
+				if (this.fileOutputStream != null) {
+					this.fileOutputStream.close();
+				}
+			}
+		}
+
+		public void discard() throws IOException {
+			try {
+				close();
+			}
+			finally {
+				if (this.file != null) {
+					Files.deleteIfExists(this.file);
+				}
+			}
+		}
+
+		private OutputStream getOutputStream(int length) throws IOException {
+			if (this.closed) {
+				throw new IOException("Body already written");
+			}
+			if (this.fileOutputStream != null) {
+				return this.fileOutputStream;
+			}
+			if (this.size + length <= this.memoryThreshold) {
+				return this.memoryBuffer;
+			}
+			// Threshold exceeded: move what has been buffered so far to a temporary file
+			this.file = Files.createTempFile("spring-request-body-", ".tmp");
+			this.fileOutputStream = new BufferedOutputStream(Files.newOutputStream(this.file));
+			this.memoryBuffer.writeTo(this.fileOutputStream);
+			this.memoryBuffer.reset();
+			return this.fileOutputStream;
+		}
+	}
+
+}
@@ -28,6 +28,12 @@ import org.springframework.http.HttpMethod;
  * <p>Using this wrapper allows for multiple reads of the
  * {@linkplain ClientHttpResponse#getBody() response body}.
  *
+ * <p>As of 5.2, request bodies set through
+ * {@link org.springframework.http.StreamingHttpOutputMessage#setBody
+ * StreamingHttpOutputMessage.setBody} are streamed to the underlying request
+ * rather than buffered, since only the response needs to be buffered for
+ * multiple reads.
+ *
  * @author Arjen Poutsma
  * @since 3.1
  */
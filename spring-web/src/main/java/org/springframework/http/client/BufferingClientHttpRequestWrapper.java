@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,19 +21,26 @@ import java.net.URI;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.lang.Nullable;
+import org.springframework.util.FastByteArrayOutputStream;
 import org.springframework.util.StreamUtils;
 
 /**
  * Simple implementation of {@link ClientHttpRequest} that wraps another request.
  *
  * @author Arjen Poutsma
+ * @author Jinwei Sun
  * @since 3.1
  */
-final class BufferingClientHttpRequestWrapper extends AbstractBufferingClientHttpRequest {
+final class BufferingClientHttpRequestWrapper extends AbstractBufferingClientHttpRequest
+		implements StreamingHttpOutputMessage {
 
 	private final ClientHttpRequest request;
 
+	@Nullable
+	private Body body;
+
 
 	BufferingClientHttpRequestWrapper(ClientHttpRequest request) {
 		this.request = request;
@@ -56,6 +63,36 @@ final class BufferingClientHttpRequestWrapper extends AbstractBufferingClientHtt
 		return this.request.getURI();
 	}
 
+	@Override
+	public void setBody(Body body) {
+		assertNotExecuted();
+		this.body = body;
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		if (this.body == null) {
+			return super.executeInternal(headers);
+		}
+		if (headers.getContentLength() < 0) {
+			// Buffer a body of unknown length, for the request to declare its length rather than being chunked
+			FastByteArrayOutputStream outputStream = new FastByteArrayOutputStream(1024);
+			this.body.writeTo(outputStream);
+			headers.setContentLength(outputStream.size());
+			return executeInternal(headers, outputStream.toByteArrayUnsafe());
+		}
+		// Only the response needs to be buffered: stream the request body of known length
+		this.request.getHeaders().putAll(headers);
+		if (this.request instanceof StreamingHttpOutputMessage) {
+			((StreamingHttpOutputMessage) this.request).setBody(this.body);
+		}
+		else {
+			this.body.writeTo(this.request.getBody());
+		}
+		ClientHttpResponse response = this.request.execute();
+		return new BufferingClientHttpResponseWrapper(response);
+	}
+
 	@Override
 	protected ClientHttpResponse executeInternal(HttpHeaders headers, byte[] bufferedOutput) throws IOException {
 		this.request.getHeaders().putAll(headers);
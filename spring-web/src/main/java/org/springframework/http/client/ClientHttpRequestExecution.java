@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.http.client;
 import java.io.IOException;
 
 import org.springframework.http.HttpRequest;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.util.FastByteArrayOutputStream;
 
 /**
  * Represents the context of a client-side HTTP request execution.
@@ -27,6 +29,7 @@ import org.springframework.http.HttpRequest;
  * or - if the calling interceptor is last - execute the request itself.
  *
  * @author Arjen Poutsma
+ * @author Jinwei Sun
  * @since 3.1
  * @see ClientHttpRequestInterceptor
  */
@@ -43,4 +46,26 @@ public interface ClientHttpRequestExecution {
 	 */
 	ClientHttpResponse execute(HttpRequest request, byte[] body) throws IOException;
 
+	/**
+	 * Execute the request with the given request attributes and streaming body,
+	 * and return the response.
+	 * <p>The default implementation writes the body to a byte array and
+	 * delegates to {@link #execute(HttpRequest, byte[])}, whereas the execution
+	 * of an {@link InterceptingClientHttpRequestFactory} streams the body to
+	 * the underlying request unless subsequent interceptors need it as a whole.
+	 * @param request the request, containing method, URI, and headers
+	 * @param body the body of the request to execute
+	 * @return the response
+	 * @throws IOException in case of I/O errors
+	 * @since 5.2
+	 * @see StreamingClientHttpRequestInterceptor
+	 */
+	default ClientHttpResponse execute(HttpRequest request, StreamingHttpOutputMessage.Body body)
+			throws IOException {
+
+		FastByteArrayOutputStream outputStream = new FastByteArrayOutputStream(1024);
+		body.writeTo(outputStream);
+		return execute(request, outputStream.toByteArrayUnsafe());
+	}
+
 }
@@ -17,6 +17,7 @@
 package org.springframework.http.client;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.Iterator;
 import java.util.List;
@@ -25,16 +26,24 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.FastByteArrayOutputStream;
 import org.springframework.util.StreamUtils;
 
 /**
  * Wrapper for a {@link ClientHttpRequest} that has support for {@link ClientHttpRequestInterceptor ClientHttpRequest} that has support for {@link ClientHttpRequestInterceptors}.
  *
+ * <p>A body set through {@link #setBody(Body)} is streamed to the underlying
+ * request as long as all interceptors are {@link StreamingClientHttpRequestInterceptor
+ * StreamingClientHttpRequestInterceptors}, and only buffered for the others.
+ *
  * @author Arjen Poutsma
+ * @author Jinwei Sun
  * @since 3.1
  */
-class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest {
+class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest
+		implements StreamingHttpOutputMessage {
 
 	private final ClientHttpRequestFactory requestFactory;
 
@@ -44,6 +53,9 @@ class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest {
 
 	private URI uri;
 
+	@Nullable
+	private Body body;
+
 
 	protected InterceptingClientHttpRequest(ClientHttpRequestFactory requestFactory,
 			List<ClientHttpRequestInterceptor> interceptors, URI uri, HttpMethod method) {
@@ -70,6 +82,21 @@ class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest {
 		return this.uri;
 	}
 
+	@Override
+	public void setBody(Body body) {
+		assertNotExecuted();
+		this.body = body;
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		if (this.body != null) {
+			InterceptingRequestExecution requestExecution = new InterceptingRequestExecution();
+			return requestExecution.execute(this, this.body);
+		}
+		return super.executeInternal(headers);
+	}
+
 	@Override
 	protected final ClientHttpResponse executeInternal(HttpHeaders headers, byte[] bufferedOutput) throws IOException {
 		InterceptingRequestExecution requestExecution = new InterceptingRequestExecution();
@@ -90,15 +117,16 @@ class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest {
 		public ClientHttpResponse execute(HttpRequest request, byte[] body) throws IOException {
 			if (this.iterator.hasNext()) {
 				ClientHttpRequestInterceptor nextInterceptor = this.iterator.next();
+				if (nextInterceptor instanceof StreamingClientHttpRequestInterceptor) {
+					return ((StreamingClientHttpRequestInterceptor) nextInterceptor).intercept(
+							request, new ByteArrayBody(body), this);
+				}
 				// 利用拦截器拦截处理 并传入InterceptingRequestExecution
 				return nextInterceptor.intercept(request, body, this);
 			}
 			else {
 				// 拦截器遍历完后开始发起真正的 http 请求
-				HttpMethod method = request.getMethod();
-				Assert.state(method != null, "No standard HTTP method");
-				ClientHttpRequest delegate = requestFactory.createRequest(request.getURI(), method);
-				request.getHeaders().forEach((key, value) -> delegate.getHeaders().addAll(key, value));
+				ClientHttpRequest delegate = createDelegate(request);
 				if (body.length > 0) {
 					if (delegate instanceof StreamingHttpOutputMessage) {
 						StreamingHttpOutputMessage streamingOutputMessage = (StreamingHttpOutputMessage) delegate;
@@ -111,6 +139,62 @@ class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest {
 				return delegate.execute();
 			}
 		}
+
+		@Override
+		public ClientHttpResponse execute(HttpRequest request, Body body) throws IOException {
+			if (body instanceof ByteArrayBody) {
+				return execute(request, ((ByteArrayBody) body).bytes);
+			}
+			if (this.iterator.hasNext()) {
+				ClientHttpRequestInterceptor nextInterceptor = this.iterator.next();
+				if (nextInterceptor instanceof StreamingClientHttpRequestInterceptor) {
+					return ((StreamingClientHttpRequestInterceptor) nextInterceptor).intercept(request, body, this);
+				}
+				// Interceptors other than streaming ones need the entire body, as well as its length
+				FastByteArrayOutputStream outputStream = new FastByteArrayOutputStream(1024);
+				body.writeTo(outputStream);
+				if (request.getHeaders().getContentLength() < 0) {
+					request.getHeaders().setContentLength(outputStream.size());
+				}
+				return nextInterceptor.intercept(request, outputStream.toByteArrayUnsafe(), this);
+			}
+			else {
+				ClientHttpRequest delegate = createDelegate(request);
+				if (delegate instanceof StreamingHttpOutputMessage) {
+					((StreamingHttpOutputMessage) delegate).setBody(body);
+				}
+				else {
+					body.writeTo(delegate.getBody());
+				}
+				return delegate.execute();
+			}
+		}
+
+		private ClientHttpRequest createDelegate(HttpRequest request) throws IOException {
+			HttpMethod method = request.getMethod();
+			Assert.state(method != null, "No standard HTTP method");
+			ClientHttpRequest delegate = requestFactory.createRequest(request.getURI(), method);
+			request.getHeaders().forEach((key, value) -> delegate.getHeaders().addAll(key, value));
+			return delegate;
+		}
+	}
+
+
+	/**
+	 * Body for a byte array, to be passed on as such to subsequent interceptors.
+	 */
+	private static class ByteArrayBody implements Body {
+
+		private final byte[] bytes;
+
+		public ByteArrayBody(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public void writeTo(OutputStream outputStream) throws IOException {
+			StreamUtils.copy(this.bytes, outputStream);
+		}
 	}
 
 }
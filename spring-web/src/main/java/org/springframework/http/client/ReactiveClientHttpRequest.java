@@ -0,0 +1,343 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.FastByteArrayOutputStream;
+
+/**
+ * {@link ClientHttpRequest} implementation that executes requests through
+ * a reactive {@link ClientHttpConnector}. A body set through
+ * {@link #setBody(Body)} is streamed to the connector while being written,
+ * whereas a body written to {@link #getBody()} is buffered until execution.
+ *
+ * <p>Created via the {@link ReactiveClientHttpRequestFactory}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+final class ReactiveClientHttpRequest extends AbstractClientHttpRequest implements StreamingHttpOutputMessage {
+
+	private final ClientHttpConnector connector;
+
+	private final HttpMethod method;
+
+	private final URI uri;
+
+	private final int chunkSize;
+
+	@Nullable
+	private final Duration responseTimeout;
+
+	@Nullable
+	private Body body;
+
+	@Nullable
+	private FastByteArrayOutputStream bufferedBody;
+
+
+	ReactiveClientHttpRequest(ClientHttpConnector connector, HttpMethod method, URI uri,
+			int chunkSize, @Nullable Duration responseTimeout) {
+
+		this.connector = connector;
+		this.method = method;
+		this.uri = uri;
+		this.chunkSize = chunkSize;
+		this.responseTimeout = responseTimeout;
+	}
+
+
+	@Override
+	public HttpMethod getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public String getMethodValue() {
+		return this.method.name();
+	}
+
+	@Override
+	public URI getURI() {
+		return this.uri;
+	}
+
+	@Override
+	public void setBody(Body body) {
+		assertNotExecuted();
+		this.body = body;
+	}
+
+	@Override
+	protected OutputStream getBodyInternal(HttpHeaders headers) throws IOException {
+		if (this.bufferedBody == null) {
+			this.bufferedBody = new FastByteArrayOutputStream(1024);
+		}
+		return this.bufferedBody;
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		Body body = this.body;
+		CompletableFuture<BodyOutputStream> bodyFuture = new CompletableFuture<>();
+
+		Mono<ClientHttpResponse> responseMono = this.connector
+				.connect(this.method, this.uri, request -> {
+					request.getHeaders().putAll(headers);
+					if (body != null) {
+						return request.writeWith(Flux.create(sink -> bodyFuture.complete(
+								new BodyOutputStream(sink, request.bufferFactory(), this.chunkSize))));
+					}
+					else if (this.bufferedBody != null && this.bufferedBody.size() > 0) {
+						byte[] bytes = this.bufferedBody.toByteArrayUnsafe();
+						return request.writeWith(Mono.fromSupplier(() -> request.bufferFactory().wrap(bytes)));
+					}
+					else {
+						return request.setComplete();
+					}
+				})
+				.map(ReactiveClientHttpResponse::new);
+		if (this.responseTimeout != null) {
+			responseMono = responseMono.timeout(this.responseTimeout);
+		}
+
+		CompletableFuture<ClientHttpResponse> responseFuture = responseMono.toFuture();
+		if (body != null) {
+			writeBody(body, bodyFuture, responseFuture);
+		}
+		ClientHttpResponse response = await(responseFuture);
+		if (response == null) {
+			throw new IOException("No response received for " + this.method.name() + " " + this.uri);
+		}
+		return response;
+	}
+
+	/**
+	 * Write the given body on the calling thread, once the connector has
+	 * subscribed to it, unless the exchange has completed or failed before.
+	 */
+	private void writeBody(Body body, CompletableFuture<BodyOutputStream> bodyFuture,
+			CompletableFuture<?> responseFuture) throws IOException {
+
+		await(CompletableFuture.anyOf(bodyFuture, responseFuture).exceptionally(ex -> null), responseFuture);
+		BodyOutputStream outputStream = bodyFuture.getNow(null);
+		if (outputStream == null) {
+			return;
+		}
+		// No need to write any more once the response has been received
+		responseFuture.whenComplete((response, ex) -> outputStream.cancel());
+		try {
+			body.writeTo(outputStream);
+			outputStream.close();
+		}
+		catch (IOException | RuntimeException ex) {
+			outputStream.abort(ex);
+			// Report the outcome of the exchange instead, if already known
+			if (!responseFuture.isDone()) {
+				throw ex;
+			}
+		}
+	}
+
+	@Nullable
+	private static <T> T await(CompletableFuture<T> future) throws IOException {
+		return await(future, future);
+	}
+
+	@Nullable
+	private static <T> T await(CompletableFuture<T> future, CompletableFuture<?> responseFuture)
+			throws IOException {
+
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ex) {
+			responseFuture.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted during request execution");
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			else if (cause instanceof TimeoutException) {
+				SocketTimeoutException timeoutException = new SocketTimeoutException("Response timed out");
+				timeoutException.initCause(cause);
+				throw timeoutException;
+			}
+			else {
+				throw new IOException(cause.getMessage(), cause);
+			}
+		}
+	}
+
+
+	/**
+	 * {@link OutputStream} that passes written bytes on to a {@link FluxSink}
+	 * in chunks, blocking the writing thread while there is no demand.
+	 */
+	private static class BodyOutputStream extends OutputStream {
+
+		private final FluxSink<DataBuffer> sink;
+
+		private final DataBufferFactory bufferFactory;
+
+		private final int chunkSize;
+
+		private final Object demandMonitor = new Object();
+
+		@Nullable
+		private DataBuffer buffer;
+
+		private volatile boolean cancelled;
+
+		private boolean closed;
+
+		public BodyOutputStream(FluxSink<DataBuffer> sink, DataBufferFactory bufferFactory, int chunkSize) {
+			this.sink = sink;
+			this.bufferFactory = bufferFactory;
+			this.chunkSize = chunkSize;
+			sink.onRequest(n -> signalDemand());
+			sink.onCancel(this::cancel);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			getBuffer().write((byte) b);
+			flushIfFull();
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			while (length > 0) {
+				DataBuffer buffer = getBuffer();
+				int count = Math.min(length, this.chunkSize - buffer.readableByteCount());
+				buffer.write(bytes, offset, count);
+				offset += count;
+				length -= count;
+				flushIfFull();
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			DataBuffer buffer = this.buffer;
+			if (buffer != null && buffer.readableByteCount() > 0) {
+				awaitDemand();
+				this.buffer = null;
+				this.sink.next(buffer);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				flush();
+				this.closed = true;
+				this.sink.complete();
+			}
+		}
+
+		public void cancel() {
+			this.cancelled = true;
+			signalDemand();
+		}
+
+		public void abort(Throwable ex) {
+			releaseBuffer();
+			if (!this.closed) {
+				this.closed = true;
+				this.sink.error(ex);
+			}
+		}
+
+		private DataBuffer getBuffer() throws IOException {
+			if (this.closed) {
+				throw new IOException("Request body already closed");
+			}
+			DataBuffer buffer = this.buffer;
+			if (buffer == null) {
+				buffer = this.bufferFactory.allocateBuffer(this.chunkSize);
+				this.buffer = buffer;
+			}
+			return buffer;
+		}
+
+		private void flushIfFull() throws IOException {
+			DataBuffer buffer = this.buffer;
+			if (buffer != null && buffer.readableByteCount() >= this.chunkSize) {
+				flush();
+			}
+		}
+
+		private void awaitDemand() throws IOException {
+			synchronized (this.demandMonitor) {
+				while (this.sink.requestedFromDownstream() == 0 && !this.cancelled) {
+					try {
+						this.demandMonitor.wait();
+					}
+					catch (InterruptedException ex) {
+						releaseBuffer();
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException("Interrupted while writing request body");
+					}
+				}
+			}
+			if (this.cancelled) {
+				releaseBuffer();
+				throw new IOException("Request body no longer consumed");
+			}
+		}
+
+		private void signalDemand() {
+			synchronized (this.demandMonitor) {
+				this.demandMonitor.notifyAll();
+			}
+		}
+
+		private void releaseBuffer() {
+			DataBuffer buffer = this.buffer;
+			if (buffer != null) {
+				this.buffer = null;
+				DataBufferUtils.release(buffer);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestFactory} implementation that executes requests
+ * through a reactive {@link ClientHttpConnector}, e.g. the
+ * {@link org.springframework.http.client.reactive.ReactorClientHttpConnector
+ * ReactorClientHttpConnector} or the
+ * {@link org.springframework.http.client.reactive.JettyClientHttpConnector
+ * JettyClientHttpConnector}, for use with the
+ * {@link org.springframework.web.client.RestTemplate RestTemplate}.
+ *
+ * <p>Requests thereby share the event loop and the connection pool of the
+ * connector, and request and response bodies are streamed as
+ * {@link org.springframework.core.io.buffer.DataBuffer DataBuffers} rather
+ * than buffered in memory as a whole. The calling thread only blocks while
+ * waiting for the response, or while the connector cannot take more of the
+ * request body.
+ *
+ * <p>The resources of the connector, e.g. its event loop and connection pool,
+ * are not managed by this factory but rather by the connector itself or by
+ * a shared {@link org.springframework.http.client.reactive.ReactorResourceFactory
+ * ReactorResourceFactory} or
+ * {@link org.springframework.http.client.reactive.JettyResourceFactory
+ * JettyResourceFactory}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+public class ReactiveClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+	/**
+	 * The default size of the chunks that request bodies are written in.
+	 * @see #setChunkSize(int)
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+
+	private final ClientHttpConnector connector;
+
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	@Nullable
+	private Duration responseTimeout;
+
+
+	/**
+	 * Create a new {@code ReactiveClientHttpRequestFactory} for the given connector.
+	 * @param connector the connector to execute requests with
+	 */
+	public ReactiveClientHttpRequestFactory(ClientHttpConnector connector) {
+		Assert.notNull(connector, "ClientHttpConnector must not be null");
+		this.connector = connector;
+	}
+
+
+	/**
+	 * Set the size of the chunks that request bodies are written in, unless
+	 * flushed earlier.
+	 * <p>By default this is set to {@link #DEFAULT_CHUNK_SIZE}.
+	 */
+	public void setChunkSize(int chunkSize) {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Set the maximum time to wait for the response status and headers,
+	 * including the time for connecting and for writing the request body.
+	 * <p>By default there is no such timeout, leaving it up to the timeouts
+	 * configured for the underlying HTTP client.
+	 */
+	public void setResponseTimeout(@Nullable Duration responseTimeout) {
+		this.responseTimeout = responseTimeout;
+	}
+
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+		return new ReactiveClientHttpRequest(this.connector, httpMethod, uri, this.chunkSize, this.responseTimeout);
+	}
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link ClientHttpResponse} implementation that adapts the response of a
+ * reactive {@link org.springframework.http.client.reactive.ClientHttpConnector
+ * ClientHttpConnector}, exposing its body as an {@link InputStream} that
+ * reads the body {@link DataBuffer DataBuffers} as they arrive.
+ *
+ * <p>Created via the {@link ReactiveClientHttpRequest}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+final class ReactiveClientHttpResponse extends AbstractClientHttpResponse {
+
+	private final org.springframework.http.client.reactive.ClientHttpResponse response;
+
+	private final BodyInputStream body = new BodyInputStream();
+
+
+	ReactiveClientHttpResponse(org.springframework.http.client.reactive.ClientHttpResponse response) {
+		this.response = response;
+		// Subscribe right away, for the body to be read with back pressure
+		// rather than being buffered by the underlying HTTP client
+		response.getBody().subscribe(this.body);
+	}
+
+
+	@Override
+	public int getRawStatusCode() throws IOException {
+		return this.response.getRawStatusCode();
+	}
+
+	@Override
+	public String getStatusText() throws IOException {
+		HttpStatus status = HttpStatus.resolve(this.response.getRawStatusCode());
+		return (status != null ? status.getReasonPhrase() : "");
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.response.getHeaders();
+	}
+
+	@Override
+	public InputStream getBody() throws IOException {
+		return this.body;
+	}
+
+	@Override
+	public void close() {
+		this.body.close();
+	}
+
+
+	/**
+	 * {@link InputStream} that subscribes to the response body, requesting
+	 * further {@link DataBuffer DataBuffers} as previous ones are read.
+	 */
+	private static class BodyInputStream extends InputStream implements Subscriber<DataBuffer> {
+
+		private static final int PREFETCH = 2;
+
+		private static final Object COMPLETE = new Object();
+
+		private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+		@Nullable
+		private volatile Subscription subscription;
+
+		private volatile boolean closed;
+
+		private volatile boolean terminated;
+
+		@Nullable
+		private DataBuffer current;
+
+		private boolean completed;
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+			if (this.closed) {
+				subscription.cancel();
+			}
+			else {
+				subscription.request(PREFETCH);
+			}
+		}
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			this.signals.add(buffer);
+			if (this.closed) {
+				releaseSignals();
+			}
+		}
+
+		@Override
+		public void onError(Throwable ex) {
+			this.terminated = true;
+			this.signals.add(ex);
+		}
+
+		@Override
+		public void onComplete() {
+			this.terminated = true;
+			this.signals.add(COMPLETE);
+		}
+
+		@Override
+		public int read() throws IOException {
+			DataBuffer buffer = getCurrent();
+			if (buffer == null) {
+				return -1;
+			}
+			int b = buffer.read() & 0xFF;
+			releaseIfConsumed(buffer);
+			return b;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			DataBuffer buffer = getCurrent();
+			if (buffer == null) {
+				return -1;
+			}
+			int count = Math.min(length, buffer.readableByteCount());
+			buffer.read(bytes, offset, count);
+			releaseIfConsumed(buffer);
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException {
+			DataBuffer buffer = this.current;
+			return (buffer != null ? buffer.readableByteCount() : 0);
+		}
+
+		@Override
+		public void close() {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			Subscription subscription = this.subscription;
+			if (subscription != null && !this.terminated) {
+				subscription.cancel();
+			}
+			DataBuffer buffer = this.current;
+			if (buffer != null) {
+				this.current = null;
+				DataBufferUtils.release(buffer);
+			}
+			releaseSignals();
+		}
+
+		/**
+		 * Return the buffer to read from, waiting for the next one if necessary,
+		 * or {@code null} if the end of the body has been reached.
+		 */
+		@Nullable
+		private DataBuffer getCurrent() throws IOException {
+			if (this.closed) {
+				throw new IOException("Response body already closed");
+			}
+			while (this.current == null && !this.completed) {
+				Object signal;
+				try {
+					signal = this.signals.take();
+				}
+				catch (InterruptedException ex) {
+					close();
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while reading response body");
+				}
+				if (signal instanceof DataBuffer) {
+					DataBuffer buffer = (DataBuffer) signal;
+					Subscription subscription = this.subscription;
+					if (subscription != null) {
+						subscription.request(1);
+					}
+					if (buffer.readableByteCount() > 0) {
+						this.current = buffer;
+					}
+					else {
+						DataBufferUtils.release(buffer);
+					}
+				}
+				else if (signal instanceof Throwable) {
+					this.completed = true;
+					Throwable ex = (Throwable) signal;
+					throw (ex instanceof IOException ? (IOException) ex : new IOException(ex.getMessage(), ex));
+				}
+				else {
+					this.completed = true;
+				}
+			}
+			return this.current;
+		}
+
+		private void releaseIfConsumed(DataBuffer buffer) {
+			if (buffer.readableByteCount() == 0) {
+				this.current = null;
+				DataBufferUtils.release(buffer);
+			}
+		}
+
+		private void releaseSignals() {
+			Object signal;
+			while ((signal = this.signals.poll()) != null) {
+				if (signal instanceof DataBuffer) {
+					DataBufferUtils.release((DataBuffer) signal);
+				}
+			}
+		}
+	}
+
+}
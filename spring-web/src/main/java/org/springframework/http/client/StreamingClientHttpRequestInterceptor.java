@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Variant of {@link ClientHttpRequestInterceptor} that operates on a streaming
+ * request body rather than on a byte array. As long as all interceptors of an
+ * {@link InterceptingClientHttpRequestFactory} are streaming interceptors, the
+ * request body is not buffered but rather written straight to the underlying
+ * request, e.g. for uploading large files in constant memory.
+ *
+ * <p>Interceptors that only modify the request method, URI or headers can pass
+ * the body on to the {@link ClientHttpRequestExecution} as it is. Interceptors
+ * that need to inspect the body before executing the request, e.g. for signing
+ * it, can buffer it through a {@link BufferedRequestBody}, which spills over
+ * to a temporary file beyond a memory threshold.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see ClientHttpRequestExecution#execute(HttpRequest, StreamingHttpOutputMessage.Body)
+ */
+@FunctionalInterface
+public interface StreamingClientHttpRequestInterceptor extends ClientHttpRequestInterceptor {
+
+	/**
+	 * Intercept the given request, and return a response. The given
+	 * {@link ClientHttpRequestExecution} allows the interceptor to pass on the
+	 * request and body to the next entity in the chain, through
+	 * {@link ClientHttpRequestExecution#execute(HttpRequest, StreamingHttpOutputMessage.Body)}.
+	 * @param request the request, containing method, URI, and headers
+	 * @param body the body of the request, to be written once the request is sent
+	 * @param execution the request execution
+	 * @return the response
+	 * @throws IOException in case of I/O errors
+	 */
+	ClientHttpResponse intercept(HttpRequest request, StreamingHttpOutputMessage.Body body,
+			ClientHttpRequestExecution execution) throws IOException;
+
+	/**
+	 * The default implementation adapts the given body and delegates to
+	 * {@link #intercept(HttpRequest, StreamingHttpOutputMessage.Body, ClientHttpRequestExecution)}.
+	 */
+	@Override
+	default ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+
+		return intercept(request, outputStream -> StreamUtils.copy(body, outputStream), execution);
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+
+/**
+ * The timings of the phases of a completed HTTP exchange, as passed to
+ * {@link ClientHttpMetricsRecorder#exchangeCompleted}. All times are in
+ * nanoseconds, with -1 indicating a phase that has not been reached.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+public final class ClientHttpExchangeTimings {
+
+	private final HttpMethod method;
+
+	private final URI uri;
+
+	private final int statusCode;
+
+	private final long connectTime;
+
+	private final long requestTime;
+
+	private final long timeToFirstByte;
+
+	private final long totalTime;
+
+	@Nullable
+	private final Throwable error;
+
+
+	/**
+	 * Create a new instance.
+	 * @param method the HTTP method of the request
+	 * @param uri the URI of the request
+	 * @param statusCode the status code of the response, or -1 if none received
+	 * @param connectTime the time until a connection was ready for writing the request
+	 * @param requestTime the time for writing the request, once connected
+	 * @param timeToFirstByte the time until the response status and headers were received
+	 * @param totalTime the total time of the exchange
+	 * @param error the error the exchange failed with, if any
+	 */
+	public ClientHttpExchangeTimings(HttpMethod method, URI uri, int statusCode, long connectTime,
+			long requestTime, long timeToFirstByte, long totalTime, @Nullable Throwable error) {
+
+		this.method = method;
+		this.uri = uri;
+		this.statusCode = statusCode;
+		this.connectTime = connectTime;
+		this.requestTime = requestTime;
+		this.timeToFirstByte = timeToFirstByte;
+		this.totalTime = totalTime;
+		this.error = error;
+	}
+
+
+	/**
+	 * Return the HTTP method of the request.
+	 */
+	public HttpMethod getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Return the URI of the request.
+	 */
+	public URI getUri() {
+		return this.uri;
+	}
+
+	/**
+	 * Return the status code of the response, or -1 if no response was received.
+	 */
+	public int getStatusCode() {
+		return this.statusCode;
+	}
+
+	/**
+	 * Return the time from the start of the exchange until a connection was
+	 * ready for writing the request, including the time for acquiring a pooled
+	 * connection or for establishing a new one (along with its TLS handshake).
+	 */
+	public long getConnectTime() {
+		return this.connectTime;
+	}
+
+	/**
+	 * Return the time for writing the request, once connected.
+	 */
+	public long getRequestTime() {
+		return this.requestTime;
+	}
+
+	/**
+	 * Return the time from the start of the exchange until the response
+	 * status and headers were received.
+	 */
+	public long getTimeToFirstByte() {
+		return this.timeToFirstByte;
+	}
+
+	/**
+	 * Return the total time from the start of the exchange until the response
+	 * body was consumed, or until the exchange failed or was cancelled.
+	 */
+	public long getTotalTime() {
+		return this.totalTime;
+	}
+
+	/**
+	 * Return the error the exchange failed with, if any.
+	 */
+	@Nullable
+	public Throwable getError() {
+		return this.error;
+	}
+
+	/**
+	 * Whether the exchange completed with a response and without an error.
+	 */
+	public boolean isSuccessful() {
+		return (this.error == null && this.statusCode != -1);
+	}
+
+
+	@Override
+	public String toString() {
+		return "ClientHttpExchangeTimings[" + this.method + " " + this.uri + ", status=" + this.statusCode +
+				", connect=" + this.connectTime + "ns, request=" + this.requestTime +
+				"ns, firstByte=" + this.timeToFirstByte + "ns, total=" + this.totalTime + "ns]";
+	}
+
+}
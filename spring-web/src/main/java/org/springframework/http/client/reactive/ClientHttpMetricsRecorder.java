@@ -0,0 +1,87 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Callback interface for recording metrics of a {@link ClientHttpConnector},
+ * i.e. connection pool events and the timings of HTTP exchanges, which are
+ * thereby also available for the exchanges of a {@code WebClient}.
+ *
+ * <p>Callbacks are invoked on the I/O threads of the underlying HTTP client
+ * and must therefore return quickly without blocking. All methods have empty
+ * default implementations, so that implementations only need to override the
+ * callbacks they are interested in.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see SimpleClientHttpMetricsRecorder
+ * @see ReactorClientHttpConnector#setMetricsRecorder
+ * @see ReactorResourceFactory#setMetricsRecorder
+ */
+public interface ClientHttpMetricsRecorder {
+
+	/**
+	 * Invoked when a connection to the given remote address is requested
+	 * from the connection pool.
+	 * @param remoteAddress the remote address as {@code host:port}
+	 */
+	default void connectionAcquisitionStarted(String remoteAddress) {
+	}
+
+	/**
+	 * Invoked when a connection to the given remote address has been obtained
+	 * from the connection pool, either an idle pooled connection or a newly
+	 * established one.
+	 * @param remoteAddress the remote address as {@code host:port}
+	 * @param durationNanos the time spent waiting for the connection, in nanoseconds
+	 */
+	default void connectionAcquired(String remoteAddress, long durationNanos) {
+	}
+
+	/**
+	 * Invoked when a connection to the given remote address could not be
+	 * obtained, or when the acquisition was cancelled.
+	 * @param remoteAddress the remote address as {@code host:port}
+	 * @param durationNanos the time spent waiting for the connection, in nanoseconds
+	 */
+	default void connectionAcquisitionFailed(String remoteAddress, long durationNanos) {
+	}
+
+	/**
+	 * Invoked when an HTTP exchange is started.
+	 * @param method the HTTP method of the request
+	 * @param uri the URI of the request
+	 */
+	default void exchangeStarted(HttpMethod method, URI uri) {
+	}
+
+	/**
+	 * Invoked when an HTTP exchange has completed, i.e. once the response
+	 * body has been consumed, or the response has been received in full or its
+	 * connection has been released, or when the exchange has failed or has been
+	 * cancelled. Note that a response body that is never read may hold on to a
+	 * pooled connection, in which case the exchange does not complete either.
+	 * @param timings the timings of the exchange
+	 */
+	default void exchangeCompleted(ClientHttpExchangeTimings timings) {
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.function.Supplier;
+
+import io.netty.bootstrap.Bootstrap;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.resources.ConnectionProvider;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link ConnectionProvider} decorator that reports connection acquisitions
+ * to a {@link ClientHttpMetricsRecorder}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+class MetricsRecordingConnectionProvider implements ConnectionProvider {
+
+	private final ConnectionProvider delegate;
+
+	private final ClientHttpMetricsRecorder recorder;
+
+
+	MetricsRecordingConnectionProvider(ConnectionProvider delegate, ClientHttpMetricsRecorder recorder) {
+		this.delegate = delegate;
+		this.recorder = recorder;
+	}
+
+
+	@Override
+	public Mono<? extends Connection> acquire(Bootstrap bootstrap) {
+		return Mono.defer(() -> {
+			String remoteAddress = formatAddress(bootstrap.config().remoteAddress());
+			long start = System.nanoTime();
+			boolean[] acquired = new boolean[1];
+			this.recorder.connectionAcquisitionStarted(remoteAddress);
+			return this.delegate.acquire(bootstrap)
+					.doOnNext(connection -> {
+						acquired[0] = true;
+						this.recorder.connectionAcquired(remoteAddress, System.nanoTime() - start);
+					})
+					.doFinally(signal -> {
+						if (!acquired[0]) {
+							this.recorder.connectionAcquisitionFailed(remoteAddress, System.nanoTime() - start);
+						}
+					});
+		});
+	}
+
+	@Override
+	public void disposeWhen(SocketAddress address) {
+		this.delegate.disposeWhen(address);
+	}
+
+	@Override
+	public void dispose() {
+		this.delegate.dispose();
+	}
+
+	@Override
+	public Mono<Void> disposeLater() {
+		return this.delegate.disposeLater();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return this.delegate.isDisposed();
+	}
+
+
+	private static String formatAddress(@Nullable SocketAddress remoteAddress) {
+		Object address = remoteAddress;
+		if (address instanceof Supplier) {
+			// Lazily resolved remote address, as set up by Reactor Netty's TcpClient
+			address = ((Supplier<?>) address).get();
+		}
+		if (address instanceof InetSocketAddress) {
+			InetSocketAddress inetAddress = (InetSocketAddress) address;
+			return inetAddress.getHostString() + ":" + inetAddress.getPort();
+		}
+		return String.valueOf(address);
+	}
+
+}
@@ -17,10 +17,13 @@
 package org.springframework.http.client.reactive;
 
 import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 import io.netty.buffer.ByteBufAllocator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.ConnectionObserver;
 import reactor.netty.NettyInbound;
 import reactor.netty.NettyOutbound;
 import reactor.netty.http.client.HttpClient;
@@ -29,7 +32,9 @@ import reactor.netty.http.client.HttpClientResponse;
 import reactor.netty.resources.ConnectionProvider;
 import reactor.netty.resources.LoopResources;
 
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 /**
@@ -46,6 +51,9 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 
 	private final HttpClient httpClient;
 
+	@Nullable
+	private ClientHttpMetricsRecorder metricsRecorder;
+
 
 	/**
 	 * Default constructor. Initializes {@link HttpClient} via:
@@ -75,6 +83,7 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 	 */
 	public ReactorClientHttpConnector(ReactorResourceFactory factory, Function<HttpClient, HttpClient> mapper) {
 		this.httpClient = defaultInitializer.andThen(mapper).apply(initHttpClient(factory));
+		this.metricsRecorder = factory.getMetricsRecorder();
 	}
 
 	private static HttpClient initHttpClient(ReactorResourceFactory resourceFactory) {
@@ -96,6 +105,29 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 	}
 
 
+	/**
+	 * Set a recorder for the timings of the HTTP exchanges of this connector.
+	 * <p>By default, this is the {@link ReactorResourceFactory#setMetricsRecorder
+	 * recorder of the ReactorResourceFactory} this connector was created with,
+	 * if any, which also records acquisitions from its connection pool.
+	 * Otherwise, no metrics are recorded.
+	 * @param metricsRecorder the recorder to use, or {@code null} for none
+	 * @since 5.2
+	 */
+	public void setMetricsRecorder(@Nullable ClientHttpMetricsRecorder metricsRecorder) {
+		this.metricsRecorder = metricsRecorder;
+	}
+
+	/**
+	 * Return the configured recorder for the timings of HTTP exchanges, if any.
+	 * @since 5.2
+	 */
+	@Nullable
+	public ClientHttpMetricsRecorder getMetricsRecorder() {
+		return this.metricsRecorder;
+	}
+
+
 	@Override
 	public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
 			Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
@@ -104,6 +136,11 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 			return Mono.error(new IllegalArgumentException("URI is not absolute: " + uri));
 		}
 
+		ClientHttpMetricsRecorder recorder = this.metricsRecorder;
+		if (recorder != null) {
+			return Mono.defer(() -> connect(method, uri, requestCallback, new ExchangeTimer(method, uri, recorder)));
+		}
+
 		return this.httpClient
 				.request(io.netty.handler.codec.http.HttpMethod.valueOf(method.name()))
 				.uri(uri.toString())
@@ -112,6 +149,42 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 				.next();
 	}
 
+	private Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+			Function<? super ClientHttpRequest, Mono<Void>> requestCallback, ExchangeTimer timer) {
+
+		return this.httpClient
+				.observe((connection, state) -> {
+					// Also complete once the response has been received in full or the connection has been
+					// released, in case the body is never read (a pooled connection is not closed then)
+					if (state == ConnectionObserver.State.DISCONNECTING || state == ConnectionObserver.State.RELEASED) {
+						timer.responseCompleted();
+					}
+				})
+				.request(io.netty.handler.codec.http.HttpMethod.valueOf(method.name()))
+				.uri(uri.toString())
+				.send((request, outbound) -> {
+					timer.connected();
+					return requestCallback.apply(adaptRequest(method, uri, request, outbound))
+							.doOnSuccess(aVoid -> timer.requestSent());
+				})
+				.responseConnection((res, con) -> {
+					timer.responseReceived(res.status().code());
+					ClientHttpResponse response = adaptResponse(res, con.inbound(), con.outbound().alloc());
+					return Mono.<ClientHttpResponse>just(new ClientHttpResponseDecorator(response) {
+						@Override
+						public Flux<DataBuffer> getBody() {
+							return super.getBody()
+									.doOnSubscribe(subscription -> timer.bodySubscribed())
+									.doOnTerminate(() -> timer.completed(null))
+									.doOnCancel(() -> timer.completed(null));
+						}
+					});
+				})
+				.next()
+				.doOnError(timer::completed)
+				.doOnCancel(timer::cancelled);
+	}
+
 	private ReactorClientHttpRequest adaptRequest(HttpMethod method, URI uri, HttpClientRequest request,
 			NettyOutbound nettyOutbound) {
 
@@ -124,4 +197,82 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 		return new ReactorClientHttpResponse(response, nettyInbound, allocator);
 	}
 
+
+	/**
+	 * Tracks the phases of a single exchange and reports them once complete.
+	 */
+	private static class ExchangeTimer {
+
+		private final HttpMethod method;
+
+		private final URI uri;
+
+		private final ClientHttpMetricsRecorder recorder;
+
+		private final long start = System.nanoTime();
+
+		private volatile long connected;
+
+		private volatile long requestSent;
+
+		private volatile long responseReceived;
+
+		private volatile int statusCode = -1;
+
+		private volatile boolean bodySubscribed;
+
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		ExchangeTimer(HttpMethod method, URI uri, ClientHttpMetricsRecorder recorder) {
+			this.method = method;
+			this.uri = uri;
+			this.recorder = recorder;
+			recorder.exchangeStarted(method, uri);
+		}
+
+		public void connected() {
+			this.connected = System.nanoTime();
+		}
+
+		public void requestSent() {
+			this.requestSent = System.nanoTime();
+		}
+
+		public void responseReceived(int statusCode) {
+			this.statusCode = statusCode;
+			this.responseReceived = System.nanoTime();
+		}
+
+		public void bodySubscribed() {
+			this.bodySubscribed = true;
+		}
+
+		public void responseCompleted() {
+			if (this.statusCode != -1) {
+				completed(null);
+			}
+		}
+
+		public void cancelled() {
+			// Once the body has been subscribed to, the exchange completes with it
+			if (!this.bodySubscribed) {
+				completed(null);
+			}
+		}
+
+		public void completed(@Nullable Throwable error) {
+			if (this.completed.compareAndSet(false, true)) {
+				long end = System.nanoTime();
+				long connected = this.connected;
+				long requestSent = this.requestSent;
+				long responseReceived = this.responseReceived;
+				this.recorder.exchangeCompleted(new ClientHttpExchangeTimings(this.method, this.uri, this.statusCode,
+						(connected != 0 ? connected - this.start : -1),
+						(connected != 0 && requestSent != 0 ? requestSent - connected : -1),
+						(responseReceived != 0 ? responseReceived - this.start : -1),
+						end - this.start, error));
+			}
+		}
+	}
+
 }
@@ -60,6 +60,9 @@ public class ReactorResourceFactory implements InitializingBean, DisposableBean
 
 	private boolean manageLoopResources = false;
 
+	@Nullable
+	private ClientHttpMetricsRecorder metricsRecorder;
+
 
 	/**
 	 * Whether to use global Reactor Netty resources via {@link HttpResources}.
@@ -153,6 +156,32 @@ public class ReactorResourceFactory implements InitializingBean, DisposableBean
 		return this.loopResources;
 	}
 
+	/**
+	 * Set a recorder for metrics of the connection pool, i.e. for the number of
+	 * pending connection acquisitions and for the time spent acquiring
+	 * connections, per remote host. The recorder is also used by default for
+	 * the exchange timings of a {@link ReactorClientHttpConnector} created with
+	 * this factory.
+	 * <p>This needs to be set before this factory is initialized, and applies
+	 * to the global resources as well as to managed or externally provided ones.
+	 * @param metricsRecorder the recorder to use, e.g. a
+	 * {@link SimpleClientHttpMetricsRecorder}
+	 * @since 5.2
+	 * @see ReactorClientHttpConnector#setMetricsRecorder
+	 */
+	public void setMetricsRecorder(@Nullable ClientHttpMetricsRecorder metricsRecorder) {
+		this.metricsRecorder = metricsRecorder;
+	}
+
+	/**
+	 * Return the configured recorder for connection pool metrics, if any.
+	 * @since 5.2
+	 */
+	@Nullable
+	public ClientHttpMetricsRecorder getMetricsRecorder() {
+		return this.metricsRecorder;
+	}
+
 
 	@Override
 	public void afterPropertiesSet() {
@@ -176,6 +205,10 @@ public class ReactorResourceFactory implements InitializingBean, DisposableBean
 				this.connectionProvider = this.connectionProviderSupplier.get();
 			}
 		}
+		if (this.metricsRecorder != null) {
+			this.connectionProvider = new MetricsRecordingConnectionProvider(
+					this.connectionProvider, this.metricsRecorder);
+		}
 	}
 
 	@Override
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+
+/**
+ * Default {@link ClientHttpMetricsRecorder} that keeps metrics per remote
+ * host in memory: gauges for pending connection acquisitions and active
+ * exchanges, along with counts and average times of connection acquisitions
+ * and of the phases of exchanges, e.g. for tuning connection pool sizes.
+ *
+ * <p>Hosts are identified as {@code host:port}, with the port of a request
+ * URI defaulting to 80 or 443, so that the metrics of connection pools and
+ * of exchanges for the same host are kept together.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+public class SimpleClientHttpMetricsRecorder implements ClientHttpMetricsRecorder {
+
+	private final ConcurrentMap<String, HostMetrics> hostMetrics = new ConcurrentHashMap<>();
+
+
+	@Override
+	public void connectionAcquisitionStarted(String remoteAddress) {
+		getOrCreateHostMetrics(remoteAddress).pendingAcquisitions.incrementAndGet();
+	}
+
+	@Override
+	public void connectionAcquired(String remoteAddress, long durationNanos) {
+		HostMetrics metrics = getOrCreateHostMetrics(remoteAddress);
+		metrics.pendingAcquisitions.decrementAndGet();
+		metrics.acquisitionCount.increment();
+		metrics.acquisitionTime.add(durationNanos);
+		metrics.maxAcquisitionTime.accumulate(durationNanos);
+	}
+
+	@Override
+	public void connectionAcquisitionFailed(String remoteAddress, long durationNanos) {
+		HostMetrics metrics = getOrCreateHostMetrics(remoteAddress);
+		metrics.pendingAcquisitions.decrementAndGet();
+		metrics.failedAcquisitionCount.increment();
+	}
+
+	@Override
+	public void exchangeStarted(HttpMethod method, URI uri) {
+		getOrCreateHostMetrics(getHost(uri)).activeExchanges.incrementAndGet();
+	}
+
+	@Override
+	public void exchangeCompleted(ClientHttpExchangeTimings timings) {
+		HostMetrics metrics = getOrCreateHostMetrics(getHost(timings.getUri()));
+		metrics.activeExchanges.decrementAndGet();
+		if (timings.isSuccessful()) {
+			metrics.exchangeCount.increment();
+			metrics.connectTime.add(Math.max(timings.getConnectTime(), 0));
+			metrics.requestTime.add(Math.max(timings.getRequestTime(), 0));
+			metrics.timeToFirstByte.add(Math.max(timings.getTimeToFirstByte(), 0));
+			metrics.totalTime.add(timings.getTotalTime());
+		}
+		else {
+			metrics.failedExchangeCount.increment();
+		}
+	}
+
+	/**
+	 * Return the metrics for all hosts recorded so far, keyed by {@code host:port}.
+	 */
+	public Map<String, HostMetrics> getHostMetrics() {
+		return Collections.unmodifiableMap(this.hostMetrics);
+	}
+
+	/**
+	 * Return the metrics for the given host, if any recorded.
+	 * @param host the host as {@code host:port}
+	 */
+	@Nullable
+	public HostMetrics getHostMetrics(String host) {
+		return this.hostMetrics.get(host);
+	}
+
+	/**
+	 * Remove the metrics of all hosts.
+	 * <p>Note that gauges for acquisitions and exchanges in progress are
+	 * reset as well, and may become negative once these complete.
+	 */
+	public void clear() {
+		this.hostMetrics.clear();
+	}
+
+	private HostMetrics getOrCreateHostMetrics(String host) {
+		HostMetrics metrics = this.hostMetrics.get(host);
+		if (metrics == null) {
+			metrics = this.hostMetrics.computeIfAbsent(host, key -> new HostMetrics());
+		}
+		return metrics;
+	}
+
+	private static String getHost(URI uri) {
+		int port = uri.getPort();
+		if (port == -1) {
+			port = ("https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80);
+		}
+		return uri.getHost() + ":" + port;
+	}
+
+
+	/**
+	 * Metrics of connection acquisitions and exchanges for a single host.
+	 * Averages only take successful acquisitions and exchanges into account.
+	 */
+	public static final class HostMetrics {
+
+		private final AtomicInteger pendingAcquisitions = new AtomicInteger();
+
+		private final LongAdder acquisitionCount = new LongAdder();
+
+		private final LongAdder failedAcquisitionCount = new LongAdder();
+
+		private final LongAdder acquisitionTime = new LongAdder();
+
+		private final LongAccumulator maxAcquisitionTime = new LongAccumulator(Math::max, 0);
+
+		private final AtomicInteger activeExchanges = new AtomicInteger();
+
+		private final LongAdder exchangeCount = new LongAdder();
+
+		private final LongAdder failedExchangeCount = new LongAdder();
+
+		private final LongAdder connectTime = new LongAdder();
+
+		private final LongAdder requestTime = new LongAdder();
+
+		private final LongAdder timeToFirstByte = new LongAdder();
+
+		private final LongAdder totalTime = new LongAdder();
+
+		HostMetrics() {
+		}
+
+		/**
+		 * Return the number of connection acquisitions currently waiting for
+		 * a connection, e.g. since the connection pool is exhausted.
+		 */
+		public int getPendingAcquisitions() {
+			return this.pendingAcquisitions.get();
+		}
+
+		/**
+		 * Return the number of successful connection acquisitions.
+		 */
+		public long getAcquisitionCount() {
+			return this.acquisitionCount.sum();
+		}
+
+		/**
+		 * Return the number of failed or cancelled connection acquisitions.
+		 */
+		public long getFailedAcquisitionCount() {
+			return this.failedAcquisitionCount.sum();
+		}
+
+		/**
+		 * Return the average time spent waiting for a connection.
+		 */
+		public Duration getAverageAcquisitionTime() {
+			return average(this.acquisitionTime, this.acquisitionCount);
+		}
+
+		/**
+		 * Return the longest time spent waiting for a connection.
+		 */
+		public Duration getMaxAcquisitionTime() {
+			return Duration.ofNanos(this.maxAcquisitionTime.get());
+		}
+
+		/**
+		 * Return the number of exchanges currently in progress.
+		 */
+		public int getActiveExchanges() {
+			return this.activeExchanges.get();
+		}
+
+		/**
+		 * Return the number of successfully completed exchanges.
+		 */
+		public long getExchangeCount() {
+			return this.exchangeCount.sum();
+		}
+
+		/**
+		 * Return the number of failed or cancelled exchanges.
+		 */
+		public long getFailedExchangeCount() {
+			return this.failedExchangeCount.sum();
+		}
+
+		/**
+		 * Return the average time until a connection was ready for writing the request.
+		 * @see ClientHttpExchangeTimings#getConnectTime()
+		 */
+		public Duration getAverageConnectTime() {
+			return average(this.connectTime, this.exchangeCount);
+		}
+
+		/**
+		 * Return the average time for writing the request.
+		 * @see ClientHttpExchangeTimings#getRequestTime()
+		 */
+		public Duration getAverageRequestTime() {
+			return average(this.requestTime, this.exchangeCount);
+		}
+
+		/**
+		 * Return the average time until the response status and headers were received.
+		 * @see ClientHttpExchangeTimings#getTimeToFirstByte()
+		 */
+		public Duration getAverageTimeToFirstByte() {
+			return average(this.timeToFirstByte, this.exchangeCount);
+		}
+
+		/**
+		 * Return the average total time of exchanges.
+		 * @see ClientHttpExchangeTimings#getTotalTime()
+		 */
+		public Duration getAverageTotalTime() {
+			return average(this.totalTime, this.exchangeCount);
+		}
+
+		private static Duration average(LongAdder time, LongAdder count) {
+			long sum = count.sum();
+			return (sum > 0 ? Duration.ofNanos(time.sum() / sum) : Duration.ZERO);
+		}
+
+		@Override
+		public String toString() {
+			return "HostMetrics[pendingAcquisitions=" + getPendingAcquisitions() +
+					", acquisitions=" + getAcquisitionCount() +
+					", averageAcquisitionTime=" + getAverageAcquisitionTime() +
+					", activeExchanges=" + getActiveExchanges() +
+					", exchanges=" + getExchangeCount() +
+					", failedExchanges=" + getFailedExchangeCount() +
+					", averageTimeToFirstByte=" + getAverageTimeToFirstByte() +
+					", averageTotalTime=" + getAverageTotalTime() + "]";
+		}
+	}
+
+}
@@ -20,9 +20,11 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
 import org.springframework.http.HttpRequest;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.StreamingClientHttpRequestInterceptor;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.Base64Utils;
@@ -30,10 +32,14 @@ import org.springframework.util.Base64Utils;
 /**
  * {@link ClientHttpRequestInterceptor} to apply a BASIC authorization header.
  *
+ * <p>As of 5.2, this is a {@link StreamingClientHttpRequestInterceptor},
+ * which does not require the request body to be buffered.
+ *
  * @author Phillip Webb
+ * @author Jinwei Sun
  * @since 4.3.1
  */
-public class BasicAuthorizationInterceptor implements ClientHttpRequestInterceptor {
+public class BasicAuthorizationInterceptor implements StreamingClientHttpRequestInterceptor {
 
 	private final String username;
 
@@ -57,10 +63,22 @@ public class BasicAuthorizationInterceptor implements ClientHttpRequestIntercept
 	public ClientHttpResponse intercept(HttpRequest request, byte[] body,
 			ClientHttpRequestExecution execution) throws IOException {
 
+		addAuthorization(request);
+		return execution.execute(request, body);
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, StreamingHttpOutputMessage.Body body,
+			ClientHttpRequestExecution execution) throws IOException {
+
+		addAuthorization(request);
+		return execution.execute(request, body);
+	}
+
+	private void addAuthorization(HttpRequest request) {
 		String token = Base64Utils.encodeToString(
 				(this.username + ":" + this.password).getBytes(StandardCharsets.UTF_8));
 		request.getHeaders().add("Authorization", "Basic " + token);
-		return execution.execute(request, body);
 	}
 
 }
@@ -17,6 +17,7 @@
 package org.springframework.http.codec;
 
 import org.springframework.core.codec.Encoder;
+import org.springframework.http.codec.multipart.Part;
 
 /**
  * Extension of {@link CodecConfigurer} for HTTP message reader and writer
@@ -31,7 +32,9 @@ import org.springframework.core.codec.Encoder;
  * <li>{@link org.springframework.util.MultiValueMap
  * MultiValueMap&lt;String,String&gt;} for form data
  * <li>{@link org.springframework.util.MultiValueMap
- * MultiValueMap&lt;String,Object&gt;} for multipart data
+ * MultiValueMap&lt;String,Object&gt;} for multipart data, if Synchronoss NIO
+ * Multipart is present or a {@linkplain ServerDefaultCodecs#partReader part
+ * reader} has been configured
  * <li>JSON and Smile, if Jackson is present
  * <li>XML, if JAXB2 is present
  * </ul>
@@ -50,6 +53,7 @@ import org.springframework.core.codec.Encoder;
  * </ul>
  *
  * @author Rossen Stoyanchev
+ * @author Jinwei Sun
  * @since 5.0
  */
 public interface ServerCodecConfigurer extends CodecConfigurer {
@@ -83,6 +87,22 @@ public interface ServerCodecConfigurer extends CodecConfigurer {
 		 * if you want to further customize the SSE encoder.
 		 */
 		void serverSentEventEncoder(Encoder<?> encoder);
+
+		/**
+		 * Configure the {@code HttpMessageReader} for the parts of multipart
+		 * requests, which is also used for aggregating all parts into a
+		 * {@code MultiValueMap} through a
+		 * {@link org.springframework.http.codec.multipart.MultipartHttpMessageReader
+		 * MultipartHttpMessageReader}.
+		 * <p>By default if this is not set, and Synchronoss NIO Multipart is
+		 * available, a
+		 * {@link org.springframework.http.codec.multipart.SynchronossPartHttpMessageReader
+		 * SynchronossPartHttpMessageReader} is used. Use this property e.g. to opt
+		 * into the {@link org.springframework.http.codec.multipart.DefaultPartHttpMessageReader
+		 * DefaultPartHttpMessageReader}, which has no third-party dependencies.
+		 * @since 5.2
+		 */
+		void partReader(HttpMessageReader<Part> partReader);
 	}
 
 }
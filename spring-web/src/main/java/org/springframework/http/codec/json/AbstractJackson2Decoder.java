@@ -57,12 +57,26 @@ import org.springframework.util.MimeType;
  */
 public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport implements HttpMessageDecoder<Object> {
 
+	/**
+	 * Name of the hint with a JSON Pointer to the values to decode as elements of
+	 * a {@code Flux}, overriding the {@link #setElementPath element path} of
+	 * the decoder.
+	 * @since 5.2
+	 */
+	public static final String ELEMENT_PATH_HINT = AbstractJackson2Decoder.class.getName() + ".elementPath";
+
+
 	/**
 	 * Until https://github.com/FasterXML/jackson-core/issues/476 is resolved,
 	 * we need to ensure buffer recycling is off.
 	 */
 	private final JsonFactory jsonFactory;
 
+	@Nullable
+	private String elementPath;
+
+	private int maxElementSize = -1;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -74,6 +88,53 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	}
 
 
+	/**
+	 * Set a JSON Pointer to the values to decode as elements of a {@code Flux},
+	 * where {@code *} matches any array element. For example, {@code "/items/*"}
+	 * decodes each element of the {@code "items"} array of the top-level object,
+	 * as soon as it is complete, and skips all other content.
+	 * <p>By default this is not set, in which case the elements of a top-level
+	 * array, or the top-level value itself, are decoded.
+	 * <p>Only applies to {@link #decode}; can be overridden per call through the
+	 * {@link #ELEMENT_PATH_HINT} hint.
+	 * @since 5.2
+	 */
+	public void setElementPath(@Nullable String elementPath) {
+		if (elementPath != null) {
+			Jackson2Tokenizer.parseElementPath(elementPath);
+		}
+		this.elementPath = elementPath;
+	}
+
+	/**
+	 * Return the configured JSON Pointer to the values to decode as elements.
+	 * @since 5.2
+	 */
+	@Nullable
+	public String getElementPath() {
+		return this.elementPath;
+	}
+
+	/**
+	 * Set the maximum number of bytes of input to buffer for a single decoded
+	 * value, i.e. an element of a {@code Flux}, or the value of a {@code Mono}.
+	 * Input exceeding the limit results in a {@link DecodingException}.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @since 5.2
+	 */
+	public void setMaxElementSize(int maxElementSize) {
+		this.maxElementSize = maxElementSize;
+	}
+
+	/**
+	 * Return the configured maximum number of bytes per decoded value.
+	 * @since 5.2
+	 */
+	public int getMaxElementSize() {
+		return this.maxElementSize;
+	}
+
+
 	@Override
 	public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		JavaType javaType = getObjectMapper().getTypeFactory().constructType(elementType.getType());
@@ -86,7 +147,10 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(Flux.from(input), this.jsonFactory, true);
+		String elementPath = (hints != null && hints.containsKey(ELEMENT_PATH_HINT) ?
+				(String) hints.get(ELEMENT_PATH_HINT) : this.elementPath);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				Flux.from(input), this.jsonFactory, true, elementPath, this.maxElementSize);
 		return decodeInternal(tokens, elementType, mimeType, hints);
 	}
 
@@ -94,7 +158,8 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	public Mono<Object> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(Flux.from(input), this.jsonFactory, false);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				Flux.from(input), this.jsonFactory, false, null, this.maxElementSize);
 		return decodeInternal(tokens, elementType, mimeType, hints).singleOrEmpty();
 	}
 
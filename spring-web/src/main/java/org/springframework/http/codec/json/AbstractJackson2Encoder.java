@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
@@ -44,6 +45,7 @@ import org.springframework.core.codec.EncodingException;
 import org.springframework.core.codec.Hints;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.HttpMessageEncoder;
@@ -51,7 +53,9 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.MimeType;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Base class providing support methods for Jackson 2.9 encoding. For non-streaming use
@@ -77,6 +81,8 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 
 	private final List<MediaType> streamingMediaTypes = new ArrayList<>(1);
 
+	private final Map<ObjectWriterKey, ObjectWriter> objectWriterCache = new ConcurrentReferenceHashMap<>(64);
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -124,13 +130,14 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		for (MediaType streamingMediaType : this.streamingMediaTypes) {
 			if (streamingMediaType.isCompatibleWith(mimeType)) {
 				byte[] separator = STREAM_SEPARATORS.getOrDefault(streamingMediaType, NEWLINE_SEPARATOR);
-				return Flux.from(inputStream).map(value -> {
-					DataBuffer buffer = encodeValue(value, mimeType, bufferFactory, elementType, hints, encoding);
-					if (separator != null) {
-						buffer.write(separator);
-					}
-					return buffer;
-				});
+				ObjectWriter writer = createObjectWriter(elementType, mimeType, hints);
+				return Flux.using(
+						() -> new StreamingEncoder(writer, bufferFactory, encoding, separator),
+						streamingEncoder -> Flux.from(inputStream).map(value -> {
+							logValue(value, hints);
+							return streamingEncoder.encode(value);
+						}),
+						StreamingEncoder::close);
 			}
 		}
 
@@ -142,30 +149,59 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 	private DataBuffer encodeValue(Object value, @Nullable MimeType mimeType, DataBufferFactory bufferFactory,
 			ResolvableType elementType, @Nullable Map<String, Object> hints, JsonEncoding encoding) {
 
+		logValue(value, hints);
+		ObjectWriter writer = createObjectWriter(elementType, mimeType, hints);
+
+		DataBuffer buffer = bufferFactory.allocateBuffer();
+		boolean release = true;
+		try {
+			JsonGenerator generator = createGenerator(buffer.asOutputStream(), encoding);
+			writeValue(writer, generator, value);
+			release = false;
+		}
+		finally {
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
+		}
+		return buffer;
+	}
+
+	private void logValue(Object value, @Nullable Map<String, Object> hints) {
 		if (!Hints.isLoggingSuppressed(hints)) {
 			LogFormatUtils.traceDebug(logger, traceOn -> {
 				String formatted = LogFormatUtils.formatValue(value, !traceOn);
 				return Hints.getLogPrefix(hints) + "Encoding [" + formatted + "]";
 			});
 		}
+	}
+
+	private ObjectWriter createObjectWriter(ResolvableType elementType, @Nullable MimeType mimeType,
+			@Nullable Map<String, Object> hints) {
 
 		JavaType javaType = getJavaType(elementType.getType(), null);
 		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
-		ObjectWriter writer = (jsonView != null ?
-				getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer());
+		ObjectWriter writer = this.objectWriterCache.computeIfAbsent(new ObjectWriterKey(javaType, jsonView), key -> {
+			ObjectWriter result = (jsonView != null ?
+					getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer());
+			return (javaType.isContainerType() ? result.forType(javaType) : result);
+		});
+		return customizeWriter(writer, mimeType, elementType, hints);
+	}
 
-		if (javaType.isContainerType()) {
-			writer = writer.forType(javaType);
+	private JsonGenerator createGenerator(OutputStream outputStream, JsonEncoding encoding) {
+		try {
+			return getObjectMapper().getFactory().createGenerator(outputStream, encoding);
 		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
+		}
+	}
 
-		writer = customizeWriter(writer, mimeType, elementType, hints);
-
-		DataBuffer buffer = bufferFactory.allocateBuffer();
-		OutputStream outputStream = buffer.asOutputStream();
-
+	private static void writeValue(ObjectWriter writer, JsonGenerator generator, Object value) {
 		try {
-			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(outputStream, encoding);
 			writer.writeValue(generator, value);
+			generator.flush();
 		}
 		catch (InvalidDefinitionException ex) {
 			throw new CodecException("Type definition error: " + ex.getType(), ex);
@@ -176,10 +212,15 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		catch (IOException ex) {
 			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
 		}
-
-		return buffer;
 	}
 
+	/**
+	 * Customize the {@link ObjectWriter} to use for the given mime type,
+	 * element type and hints.
+	 * <p>The writer passed in is shared across calls for the same element type
+	 * and JSON view. For streaming media types, this method is invoked once per
+	 * encoded stream rather than for each element.
+	 */
 	protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType,
 			ResolvableType elementType, @Nullable Map<String, Object> hints) {
 
@@ -231,4 +272,149 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return parameter.getMethodAnnotation(annotType);
 	}
 
+
+	private static final class ObjectWriterKey {
+
+		private final JavaType javaType;
+
+		@Nullable
+		private final Class<?> jsonView;
+
+		public ObjectWriterKey(JavaType javaType, @Nullable Class<?> jsonView) {
+			this.javaType = javaType;
+			this.jsonView = jsonView;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ObjectWriterKey)) {
+				return false;
+			}
+			ObjectWriterKey otherKey = (ObjectWriterKey) other;
+			return (this.javaType.equals(otherKey.javaType) &&
+					ObjectUtils.nullSafeEquals(this.jsonView, otherKey.jsonView));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.javaType.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.jsonView);
+		}
+	}
+
+
+	/**
+	 * Encodes the elements of a single stream, each into its own data buffer.
+	 * For JSON, one {@link JsonGenerator} is kept for the whole stream and
+	 * writes straight into the current data buffer; other formats such as Smile
+	 * start every element with a header, and therefore get a generator each.
+	 */
+	private class StreamingEncoder {
+
+		private final ObjectWriter writer;
+
+		private final DataBufferFactory bufferFactory;
+
+		private final JsonEncoding encoding;
+
+		private final byte[] separator;
+
+		private final DataBufferOutputStream outputStream = new DataBufferOutputStream();
+
+		private boolean reuseGenerator;
+
+		@Nullable
+		private JsonGenerator generator;
+
+		public StreamingEncoder(ObjectWriter writer, DataBufferFactory bufferFactory,
+				JsonEncoding encoding, byte[] separator) {
+
+			this.writer = writer;
+			this.bufferFactory = bufferFactory;
+			this.encoding = encoding;
+			this.separator = separator;
+			this.reuseGenerator = JsonFactory.FORMAT_NAME_JSON.equals(getObjectMapper().getFactory().getFormatName());
+		}
+
+		public DataBuffer encode(Object value) {
+			DataBuffer buffer = this.bufferFactory.allocateBuffer();
+			this.outputStream.setBuffer(buffer);
+			boolean release = true;
+			try {
+				JsonGenerator generator = this.generator;
+				if (generator == null) {
+					generator = createGenerator(this.outputStream, this.encoding);
+					if (this.reuseGenerator) {
+						// Elements are separated by the stream separator instead
+						generator.setRootValueSeparator(null);
+					}
+				}
+				writeValue(this.writer, generator, value);
+				// A pretty printer writes its own root value separator
+				if (this.reuseGenerator && generator.getPrettyPrinter() == null) {
+					this.generator = generator;
+				}
+				else {
+					this.reuseGenerator = false;
+					this.generator = null;
+				}
+				buffer.write(this.separator);
+				release = false;
+				return buffer;
+			}
+			finally {
+				this.outputStream.setBuffer(null);
+				if (release) {
+					this.generator = null;
+					DataBufferUtils.release(buffer);
+				}
+			}
+		}
+
+		public void close() {
+			JsonGenerator generator = this.generator;
+			if (generator != null) {
+				this.generator = null;
+				try {
+					generator.close();
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * {@link OutputStream} writing to a data buffer that can be switched
+	 * between writes.
+	 */
+	private static class DataBufferOutputStream extends OutputStream {
+
+		@Nullable
+		private DataBuffer buffer;
+
+		public void setBuffer(@Nullable DataBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void write(int b) {
+			getBuffer().write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) {
+			getBuffer().write(bytes, off, len);
+		}
+
+		private DataBuffer getBuffer() {
+			Assert.state(this.buffer != null, "No current data buffer");
+			return this.buffer;
+		}
+	}
+
 }
@@ -17,13 +17,16 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.async.ByteArrayFeeder;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
@@ -32,6 +35,7 @@ import reactor.core.publisher.Flux;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 /**
@@ -39,6 +43,11 @@ import org.springframework.util.Assert;
  * chunks into a {@code Flux<TokenBuffer>} where each token buffer is a
  * well-formed JSON object.
  *
+ * <p>Data buffers are requested from the source one at a time, as token
+ * buffers are demanded downstream. With an element path, only the values at
+ * that path are buffered, so that elements of an arbitrarily large nested
+ * array can be decoded in constant memory.
+ *
  * @author Arjen Poutsma
  * @since 5.0
  */
@@ -48,21 +57,34 @@ final class Jackson2Tokenizer {
 
 	private final boolean tokenizeArrayElements;
 
+	@Nullable
+	private final List<String> elementPath;
+
+	private final int maxElementSize;
+
 	private TokenBuffer tokenBuffer;
 
 	private int objectDepth;
 
 	private int arrayDepth;
 
+	private int elementDepth;
+
+	private long elementStart = -1;
+
 	// TODO: change to ByteBufferFeeder when supported by Jackson
 	private final ByteArrayFeeder inputFeeder;
 
 
-	private Jackson2Tokenizer(JsonParser parser, boolean tokenizeArrayElements) {
+	private Jackson2Tokenizer(JsonParser parser, boolean tokenizeArrayElements,
+			@Nullable List<String> elementPath, int maxElementSize) {
+
 		Assert.notNull(parser, "'parser' must not be null");
 
 		this.parser = parser;
 		this.tokenizeArrayElements = tokenizeArrayElements;
+		this.elementPath = elementPath;
+		this.maxElementSize = maxElementSize;
 		this.tokenBuffer = new TokenBuffer(parser);
 		this.inputFeeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
 	}
@@ -79,23 +101,69 @@ final class Jackson2Tokenizer {
 	public static Flux<TokenBuffer> tokenize(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
 			boolean tokenizeArrayElements) {
 
+		return tokenize(dataBuffers, jsonFactory, tokenizeArrayElements, null, -1);
+	}
+
+	/**
+	 * Tokenize the given {@code Flux<DataBuffer>} into {@code Flux<TokenBuffer>}.
+	 * @param dataBuffers the source data buffers
+	 * @param jsonFactory the factory to use
+	 * @param tokenizeArrayElements if {@code true} and the "top level" JSON
+	 * object is an array, each element is returned individually, immediately
+	 * after it is received; ignored if an {@code elementPath} is given
+	 * @param elementPath a JSON Pointer to the values to return individually,
+	 * where {@code *} matches any array element, e.g. {@code "/items/*"};
+	 * values elsewhere in the input are skipped. Array indexes are not
+	 * supported, as the non-blocking parser does not keep track of them
+	 * @param maxElementSize the maximum number of bytes of input for a single
+	 * token buffer, or -1 for no limit
+	 * @return the result token buffers
+	 * @since 5.2
+	 */
+	public static Flux<TokenBuffer> tokenize(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
+			boolean tokenizeArrayElements, @Nullable String elementPath, int maxElementSize) {
+
 		try {
+			List<String> path = (elementPath != null ? parseElementPath(elementPath) : null);
 			JsonParser parser = jsonFactory.createNonBlockingByteArrayParser();
-			Jackson2Tokenizer tokenizer = new Jackson2Tokenizer(parser, tokenizeArrayElements);
-			return dataBuffers.flatMap(tokenizer::tokenize, Flux::error, tokenizer::endOfInput);
+			Jackson2Tokenizer tokenizer = new Jackson2Tokenizer(parser, tokenizeArrayElements, path, maxElementSize);
+			return dataBuffers.concatMap(tokenizer::tokenize, 1).concatWith(Flux.defer(tokenizer::endOfInput));
 		}
 		catch (IOException ex) {
 			return Flux.error(ex);
 		}
 	}
 
-	private Flux<TokenBuffer> tokenize(DataBuffer dataBuffer) {
-		byte[] bytes = new byte[dataBuffer.readableByteCount()];
-		dataBuffer.read(bytes);
-		DataBufferUtils.release(dataBuffer);
+	/**
+	 * Parse the given JSON Pointer into its unescaped reference tokens.
+	 * A {@code *} token matches any array element, whereas any other token
+	 * matches an object field of that name only.
+	 */
+	static List<String> parseElementPath(String elementPath) {
+		if (elementPath.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Assert.isTrue(elementPath.startsWith("/"), () -> "Invalid JSON Pointer: " + elementPath);
+		List<String> result = new ArrayList<>();
+		for (String segment : elementPath.substring(1).split("/", -1)) {
+			result.add(segment.replace("~1", "/").replace("~0", "~"));
+		}
+		return result;
+	}
 
+	private Flux<TokenBuffer> tokenize(DataBuffer dataBuffer) {
 		try {
-			this.inputFeeder.feedInput(bytes, 0, bytes.length);
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+			if (byteBuffer.hasArray()) {
+				// The parser consumes all input below, so the array can be fed as-is
+				int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+				this.inputFeeder.feedInput(byteBuffer.array(), offset, offset + byteBuffer.remaining());
+			}
+			else {
+				byte[] bytes = new byte[byteBuffer.remaining()];
+				byteBuffer.get(bytes);
+				this.inputFeeder.feedInput(bytes, 0, bytes.length);
+			}
 			return parseTokenBufferFlux();
 		}
 		catch (JsonProcessingException ex) {
@@ -105,6 +173,12 @@ final class Jackson2Tokenizer {
 		catch (IOException ex) {
 			return Flux.error(ex);
 		}
+		catch (DecodingException ex) {
+			return Flux.error(ex);
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
 	}
 
 	private Flux<TokenBuffer> endOfInput() {
@@ -119,6 +193,9 @@ final class Jackson2Tokenizer {
 		catch (IOException ex) {
 			return Flux.error(ex);
 		}
+		catch (DecodingException ex) {
+			return Flux.error(ex);
+		}
 	}
 
 	private Flux<TokenBuffer> parseTokenBufferFlux() throws IOException {
@@ -133,7 +210,10 @@ final class Jackson2Tokenizer {
 			}
 			updateDepth(token);
 
-			if (!this.tokenizeArrayElements) {
+			if (this.elementPath != null) {
+				processTokenPath(token, result);
+			}
+			else if (!this.tokenizeArrayElements) {
 				processTokenNormal(token, result);
 			}
 			else {
@@ -161,26 +241,24 @@ final class Jackson2Tokenizer {
 	}
 
 	private void processTokenNormal(JsonToken token, List<TokenBuffer> result) throws IOException {
-		this.tokenBuffer.copyCurrentEvent(this.parser);
+		copyCurrentEvent();
 
 		if ((token.isStructEnd() || token.isScalarValue()) &&
 				this.objectDepth == 0 && this.arrayDepth == 0) {
-			result.add(this.tokenBuffer);
-			this.tokenBuffer = new TokenBuffer(this.parser);
+			addTokenBuffer(result);
 		}
 
 	}
 
 	private void processTokenArray(JsonToken token, List<TokenBuffer> result) throws IOException {
 		if (!isTopLevelArrayToken(token)) {
-			this.tokenBuffer.copyCurrentEvent(this.parser);
+			copyCurrentEvent();
 		}
 
 		if (this.objectDepth == 0 &&
 				(this.arrayDepth == 0 || this.arrayDepth == 1) &&
 				(token == JsonToken.END_OBJECT || token.isScalarValue())) {
-			result.add(this.tokenBuffer);
-			this.tokenBuffer = new TokenBuffer(this.parser);
+			addTokenBuffer(result);
 		}
 	}
 
@@ -189,4 +267,62 @@ final class Jackson2Tokenizer {
 				(token == JsonToken.END_ARRAY && this.arrayDepth == 0));
 	}
 
+	private void processTokenPath(JsonToken token, List<TokenBuffer> result) throws IOException {
+		if (this.elementDepth == 0 &&
+				(token == JsonToken.FIELD_NAME || token.isStructEnd() || !isOnElementPath(token))) {
+			return;
+		}
+		copyCurrentEvent();
+
+		if (token.isStructStart()) {
+			this.elementDepth++;
+		}
+		else if (token.isStructEnd()) {
+			this.elementDepth--;
+		}
+		if (this.elementDepth == 0) {
+			addTokenBuffer(result);
+		}
+	}
+
+	/**
+	 * Whether the value starting with the current token is at the element path.
+	 */
+	private boolean isOnElementPath(JsonToken token) {
+		Assert.state(this.elementPath != null, "No element path");
+		JsonStreamContext context = this.parser.getParsingContext();
+		if (token.isStructStart()) {
+			context = context.getParent();
+		}
+		for (int i = this.elementPath.size() - 1; i >= 0; i--) {
+			if (context == null || context.inRoot()) {
+				return false;
+			}
+			String segment = this.elementPath.get(i);
+			if (context.inArray() ? !"*".equals(segment) : !segment.equals(context.getCurrentName())) {
+				return false;
+			}
+			context = context.getParent();
+		}
+		return (context != null && context.inRoot());
+	}
+
+	private void copyCurrentEvent() throws IOException {
+		if (this.maxElementSize >= 0) {
+			if (this.elementStart < 0) {
+				this.elementStart = this.parser.getTokenLocation().getByteOffset();
+			}
+			if (this.parser.getCurrentLocation().getByteOffset() - this.elementStart > this.maxElementSize) {
+				throw new DecodingException("Exceeded limit on max bytes per JSON element: " + this.maxElementSize);
+			}
+		}
+		this.tokenBuffer.copyCurrentEvent(this.parser);
+	}
+
+	private void addTokenBuffer(List<TokenBuffer> result) {
+		result.add(this.tokenBuffer);
+		this.tokenBuffer = new TokenBuffer(this.parser);
+		this.elementStart = -1;
+	}
+
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Hints;
+import org.springframework.core.log.LogFormatUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.LoggingCodecSupport;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Default {@code HttpMessageReader} for parsing {@code "multipart/form-data"}
+ * requests to a stream of {@link Part}s, without third-party dependencies.
+ *
+ * <p>The request body is parsed as it is received, and each part is emitted
+ * once its content is complete. Content up to {@link #setMaxInMemorySize
+ * maxInMemorySize} bytes per part is kept in memory; larger content is written
+ * to a temporary file in the {@link #setFileStorageDirectory file storage
+ * directory}, on the {@link #setBlockingOperationScheduler blocking operation
+ * scheduler}. Form fields must fit in memory.
+ *
+ * <p>Temporary files are not deleted automatically; use {@link Part#delete()}
+ * once a part is no longer needed, or clean up the storage directory.
+ *
+ * <p>This reader can be provided to {@link MultipartHttpMessageReader} in order
+ * to aggregate all parts into a Map. It is not registered by default; on the
+ * server side, it can be opted into through
+ * {@link org.springframework.http.codec.ServerCodecConfigurer.ServerDefaultCodecs#partReader}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see MultipartHttpMessageReader
+ */
+public class DefaultPartHttpMessageReader extends LoggingCodecSupport implements HttpMessageReader<Part> {
+
+	private int maxInMemorySize = 256 * 1024;
+
+	private int maxHeadersSize = 8 * 1024;
+
+	private long maxDiskUsagePerPart = -1;
+
+	private int maxParts = -1;
+
+	@Nullable
+	private volatile Path fileStorageDirectory;
+
+	private Scheduler blockingOperationScheduler = Schedulers.elastic();
+
+	private Charset headersCharset = StandardCharsets.UTF_8;
+
+
+	/**
+	 * Configure the maximum number of bytes of content kept in memory per part.
+	 * Larger content is written to a temporary file, except for form fields
+	 * which are rejected.
+	 * <p>By default this is set to 256K.
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		Assert.isTrue(maxInMemorySize >= 0, "'maxInMemorySize' must not be negative");
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Return the configured maximum number of bytes kept in memory per part.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Configure the maximum number of bytes of headers per part.
+	 * <p>By default this is set to 8K.
+	 */
+	public void setMaxHeadersSize(int maxHeadersSize) {
+		Assert.isTrue(maxHeadersSize > 0, "'maxHeadersSize' must be positive");
+		this.maxHeadersSize = maxHeadersSize;
+	}
+
+	/**
+	 * Configure the maximum number of bytes of content per part stored on disk,
+	 * or -1 for no limit.
+	 * <p>By default this is set to -1.
+	 */
+	public void setMaxDiskUsagePerPart(long maxDiskUsagePerPart) {
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Configure the maximum number of parts per request, or -1 for no limit.
+	 * <p>By default this is set to -1.
+	 */
+	public void setMaxParts(int maxParts) {
+		this.maxParts = maxParts;
+	}
+
+	/**
+	 * Configure the directory to store the content of large parts in.
+	 * <p>By default a {@code spring-multipart} directory is created in the
+	 * system temporary directory when first needed.
+	 */
+	public void setFileStorageDirectory(Path fileStorageDirectory) {
+		Assert.notNull(fileStorageDirectory, "FileStorageDirectory must not be null");
+		this.fileStorageDirectory = fileStorageDirectory;
+	}
+
+	/**
+	 * Configure the {@link Scheduler} for blocking file operations, i.e.
+	 * parsing input that may be written to disk, and
+	 * {@link FilePart#transferTo(Path)}.
+	 * <p>By default this is {@link Schedulers#elastic()}.
+	 */
+	public void setBlockingOperationScheduler(Scheduler blockingOperationScheduler) {
+		Assert.notNull(blockingOperationScheduler, "Scheduler must not be null");
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+	/**
+	 * Configure the charset for part headers, e.g. for non-ASCII filenames.
+	 * <p>By default this is set to UTF-8, as per RFC 7578.
+	 */
+	public void setHeadersCharset(Charset headersCharset) {
+		Assert.notNull(headersCharset, "HeadersCharset must not be null");
+		this.headersCharset = headersCharset;
+	}
+
+
+	@Override
+	public List<MediaType> getReadableMediaTypes() {
+		return Collections.singletonList(MediaType.MULTIPART_FORM_DATA);
+	}
+
+	@Override
+	public boolean canRead(ResolvableType elementType, @Nullable MediaType mediaType) {
+		return Part.class.equals(elementType.toClass()) &&
+				(mediaType == null || MediaType.MULTIPART_FORM_DATA.isCompatibleWith(mediaType));
+	}
+
+
+	@Override
+	public Flux<Part> read(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+		return Flux.defer(() -> {
+			byte[] boundary = getBoundary(message);
+			if (boundary == null) {
+				return Flux.error(new DecodingException("No multipart boundary found in Content-Type: \"" +
+						message.getHeaders().getContentType() + "\""));
+			}
+			MultipartParser parser = new MultipartParser(boundary, this.headersCharset, this.maxHeadersSize,
+					this.maxInMemorySize, this.maxDiskUsagePerPart, this.maxParts,
+					this::getFileStorageDirectory, this.blockingOperationScheduler);
+			return message.getBody()
+					.concatMap(buffer -> {
+						if (parser.mayWriteToDisk(buffer.readableByteCount())) {
+							return Mono.fromCallable(() -> parser.parse(buffer))
+									.subscribeOn(this.blockingOperationScheduler)
+									.flatMapIterable(parts -> parts);
+						}
+						return Flux.fromIterable(parser.parse(buffer));
+					}, 1)
+					.concatWith(Mono.fromRunnable(parser::complete))
+					.doOnCancel(parser::discard)
+					.doOnError(ex -> parser.discard());
+		}).doOnNext(part -> {
+			if (!Hints.isLoggingSuppressed(hints)) {
+				LogFormatUtils.traceDebug(logger, traceOn -> Hints.getLogPrefix(hints) + "Parsed " +
+						(isEnableLoggingRequestDetails() ?
+								LogFormatUtils.formatValue(part, !traceOn) :
+								"parts '" + part.name() + "' (content masked)"));
+			}
+		});
+	}
+
+	@Override
+	public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+		return Mono.error(new UnsupportedOperationException("Cannot read multipart request body into single Part"));
+	}
+
+	@Nullable
+	private static byte[] getBoundary(ReactiveHttpInputMessage message) {
+		MediaType contentType = message.getHeaders().getContentType();
+		if (contentType == null) {
+			return null;
+		}
+		String boundary = contentType.getParameter("boundary");
+		if (boundary == null) {
+			return null;
+		}
+		if (boundary.length() >= 2 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+			boundary = boundary.substring(1, boundary.length() - 1);
+		}
+		return (StringUtils.hasLength(boundary) ? boundary.getBytes(StandardCharsets.ISO_8859_1) : null);
+	}
+
+	private Path getFileStorageDirectory() {
+		Path directory = this.fileStorageDirectory;
+		if (directory == null) {
+			synchronized (this) {
+				directory = this.fileStorageDirectory;
+				if (directory == null) {
+					try {
+						directory = Files.createTempDirectory("spring-multipart-");
+					}
+					catch (IOException ex) {
+						throw new UncheckedIOException("Could not create multipart storage directory", ex);
+					}
+					this.fileStorageDirectory = directory;
+				}
+			}
+		}
+		return directory;
+	}
+
+}
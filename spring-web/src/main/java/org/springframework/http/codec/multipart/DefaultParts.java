@@ -0,0 +1,315 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+
+/**
+ * Default implementations of {@link Part} and subtypes, as created by the
+ * {@link MultipartParser}, with content either in memory or in a temporary file.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+abstract class DefaultParts {
+
+	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private static final OpenOption[] FILE_CHANNEL_OPTIONS =
+			{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
+
+
+	/**
+	 * Whether the part with the given headers is a form field, i.e. has no
+	 * filename and no content type other than {@code "text/plain"}.
+	 */
+	public static boolean isFormField(HttpHeaders headers) {
+		MediaType contentType = headers.getContentType();
+		return ((contentType == null || (MediaType.TEXT_PLAIN.getType().equals(contentType.getType()) &&
+				MediaType.TEXT_PLAIN.getSubtype().equals(contentType.getSubtype()))) &&
+				headers.getContentDisposition().getFilename() == null);
+	}
+
+	/**
+	 * Create a part with the given headers and content held in memory.
+	 */
+	public static Part part(HttpHeaders headers, byte[] content, Scheduler blockingOperationScheduler) {
+		ContentDisposition disposition = headers.getContentDisposition();
+		String name = getName(disposition);
+		String filename = disposition.getFilename();
+		if (filename != null) {
+			return new InMemoryFilePart(name, headers, filename, content, blockingOperationScheduler);
+		}
+		if (isFormField(headers)) {
+			MediaType contentType = headers.getContentType();
+			Charset charset = (contentType != null && contentType.getCharset() != null ?
+					contentType.getCharset() : StandardCharsets.UTF_8);
+			return new DefaultFormFieldPart(name, headers, new String(content, charset));
+		}
+		return new InMemoryPart(name, headers, content);
+	}
+
+	/**
+	 * Create a part with the given headers and content stored in the given file.
+	 */
+	public static Part part(HttpHeaders headers, Path file, long size, Scheduler blockingOperationScheduler) {
+		ContentDisposition disposition = headers.getContentDisposition();
+		String name = getName(disposition);
+		String filename = disposition.getFilename();
+		if (filename != null) {
+			return new FileStoredFilePart(name, headers, filename, file, size, blockingOperationScheduler);
+		}
+		return new FileStoredPart(name, headers, file, size, blockingOperationScheduler);
+	}
+
+	private static String getName(ContentDisposition disposition) {
+		String name = disposition.getName();
+		if (name == null) {
+			throw new DecodingException("No name in part Content-Disposition: " + disposition);
+		}
+		return name;
+	}
+
+
+	private abstract static class AbstractPart implements Part {
+
+		private final String name;
+
+		private final HttpHeaders headers;
+
+		AbstractPart(String name, HttpHeaders headers) {
+			Assert.notNull(headers, "HttpHeaders is required");
+			this.name = name;
+			this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+		}
+
+		@Override
+		public String name() {
+			return this.name;
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return this.headers;
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + this.name + "', headers=" + this.headers;
+		}
+	}
+
+
+	private static class DefaultFormFieldPart extends AbstractPart implements FormFieldPart {
+
+		private final String value;
+
+		DefaultFormFieldPart(String name, HttpHeaders headers, String value) {
+			super(name, headers);
+			this.value = value;
+		}
+
+		@Override
+		public String value() {
+			return this.value;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			MediaType contentType = headers().getContentType();
+			Charset charset = (contentType != null && contentType.getCharset() != null ?
+					contentType.getCharset() : StandardCharsets.UTF_8);
+			return Flux.defer(() -> Flux.just(bufferFactory.wrap(this.value.getBytes(charset))));
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "=" + this.value + "'";
+		}
+	}
+
+
+	private static class InMemoryPart extends AbstractPart {
+
+		private final byte[] content;
+
+		InMemoryPart(String name, HttpHeaders headers, byte[] content) {
+			super(name, headers);
+			this.content = content;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> Flux.just(bufferFactory.wrap(this.content)));
+		}
+
+		protected byte[] getContent() {
+			return this.content;
+		}
+	}
+
+
+	private static class InMemoryFilePart extends InMemoryPart implements FilePart {
+
+		private final String filename;
+
+		private final Scheduler blockingOperationScheduler;
+
+		InMemoryFilePart(String name, HttpHeaders headers, String filename, byte[] content,
+				Scheduler blockingOperationScheduler) {
+
+			super(name, headers, content);
+			this.filename = filename;
+			this.blockingOperationScheduler = blockingOperationScheduler;
+		}
+
+		@Override
+		public String filename() {
+			return this.filename;
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return Mono.<Void>fromCallable(() -> {
+				try (FileChannel output = FileChannel.open(dest, FILE_CHANNEL_OPTIONS)) {
+					ByteBuffer byteBuffer = ByteBuffer.wrap(getContent());
+					while (byteBuffer.hasRemaining()) {
+						output.write(byteBuffer);
+					}
+				}
+				return null;
+			}).subscribeOn(this.blockingOperationScheduler);
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "', filename='" + this.filename + "'";
+		}
+	}
+
+
+	private static class FileStoredPart extends AbstractPart {
+
+		private final Path file;
+
+		private final long size;
+
+		private final Scheduler blockingOperationScheduler;
+
+		FileStoredPart(String name, HttpHeaders headers, Path file, long size, Scheduler blockingOperationScheduler) {
+			super(name, headers);
+			this.file = file;
+			this.size = size;
+			this.blockingOperationScheduler = blockingOperationScheduler;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return DataBufferUtils.readAsynchronousFileChannel(
+					() -> AsynchronousFileChannel.open(this.file, StandardOpenOption.READ), bufferFactory, 4096);
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return Mono.<Void>fromCallable(() -> {
+				Files.deleteIfExists(this.file);
+				return null;
+			}).subscribeOn(this.blockingOperationScheduler);
+		}
+
+		protected Path getFile() {
+			return this.file;
+		}
+
+		protected long getSize() {
+			return this.size;
+		}
+
+		protected Scheduler getBlockingOperationScheduler() {
+			return this.blockingOperationScheduler;
+		}
+	}
+
+
+	private static class FileStoredFilePart extends FileStoredPart implements FilePart {
+
+		private final String filename;
+
+		FileStoredFilePart(String name, HttpHeaders headers, String filename, Path file, long size,
+				Scheduler blockingOperationScheduler) {
+
+			super(name, headers, file, size, blockingOperationScheduler);
+			this.filename = filename;
+		}
+
+		@Override
+		public String filename() {
+			return this.filename;
+		}
+
+		/**
+		 * Copies the temporary file with {@link FileChannel#transferTo}, which
+		 * allows the operating system to copy without going through user space.
+		 */
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return Mono.<Void>fromCallable(() -> {
+				try (FileChannel input = FileChannel.open(getFile(), StandardOpenOption.READ);
+						FileChannel output = FileChannel.open(dest, FILE_CHANNEL_OPTIONS)) {
+					long position = 0;
+					while (position < getSize()) {
+						long transferred = input.transferTo(position, getSize() - position, output);
+						if (transferred <= 0) {
+							throw new IOException("Unexpected end of file " + getFile());
+						}
+						position += transferred;
+					}
+				}
+				return null;
+			}).subscribeOn(getBlockingOperationScheduler());
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "', filename='" + this.filename + "'";
+		}
+	}
+
+}
@@ -0,0 +1,571 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.FastByteArrayOutputStream;
+
+/**
+ * Push parser for a single {@code "multipart/form-data"} body, fed one data
+ * buffer at a time and returning the parts completed by each buffer.
+ *
+ * <p>Part bodies are searched for the {@code CRLF--boundary} delimiter with the
+ * Boyer-Moore-Horspool algorithm. Bytes at the end of a buffer that may start a
+ * delimiter are carried over to the next buffer, so that the rest of the buffer
+ * is never scanned twice. Part content is kept in memory up to a configurable
+ * size, and written to a temporary file beyond that.
+ *
+ * <p>Instances are stateful and not thread-safe; buffers must be passed in
+ * sequentially, as for the signals of a {@code Publisher}. {@link #discard()}
+ * may be called concurrently though, e.g. on cancellation: it is serialized
+ * with a parse in progress, and performed once that parse is done.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see DefaultPartHttpMessageReader
+ */
+final class MultipartParser {
+
+	private static final byte CR = '\r';
+
+	private static final byte LF = '\n';
+
+	private static final byte HYPHEN = '-';
+
+	private static final byte[] HEADERS_END = {CR, LF, CR, LF};
+
+
+	private enum State {
+
+		/** Before the first delimiter, or within the body of a part. */
+		BODY,
+
+		/** After a delimiter, up to the line end or the closing hyphens. */
+		AFTER_DELIMITER,
+
+		/** Within the headers of a part. */
+		HEADERS,
+
+		/** After the closing delimiter. */
+		EPILOGUE
+	}
+
+
+	private final byte[] delimiter;
+
+	private final int[] shiftTable = new int[256];
+
+	private final Charset headersCharset;
+
+	private final int maxHeadersSize;
+
+	private final int maxInMemorySize;
+
+	private final long maxDiskUsagePerPart;
+
+	private final int maxParts;
+
+	private final Supplier<Path> fileStorageDirectory;
+
+	private final Scheduler blockingOperationScheduler;
+
+	private State state = State.BODY;
+
+	private boolean preamble = true;
+
+	private final byte[] carry;
+
+	private int carryLength;
+
+	private int afterDelimiterCount;
+
+	private boolean afterHyphen;
+
+	private final FastByteArrayOutputStream headerBytes = new FastByteArrayOutputStream(256);
+
+	private int headersEndMatch;
+
+	private int partCount;
+
+	@Nullable
+	private HttpHeaders partHeaders;
+
+	@Nullable
+	private PartContent partContent;
+
+	private final AtomicInteger wip = new AtomicInteger();
+
+	private volatile boolean discarded;
+
+
+	MultipartParser(byte[] boundary, Charset headersCharset, int maxHeadersSize, int maxInMemorySize,
+			long maxDiskUsagePerPart, int maxParts, Supplier<Path> fileStorageDirectory,
+			Scheduler blockingOperationScheduler) {
+
+		this.delimiter = new byte[boundary.length + 4];
+		this.delimiter[0] = CR;
+		this.delimiter[1] = LF;
+		this.delimiter[2] = HYPHEN;
+		this.delimiter[3] = HYPHEN;
+		System.arraycopy(boundary, 0, this.delimiter, 4, boundary.length);
+
+		Arrays.fill(this.shiftTable, this.delimiter.length);
+		for (int i = 0; i < this.delimiter.length - 1; i++) {
+			this.shiftTable[this.delimiter[i] & 0xFF] = this.delimiter.length - 1 - i;
+		}
+
+		this.headersCharset = headersCharset;
+		this.maxHeadersSize = maxHeadersSize;
+		this.maxInMemorySize = maxInMemorySize;
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+		this.maxParts = maxParts;
+		this.fileStorageDirectory = fileStorageDirectory;
+		this.blockingOperationScheduler = blockingOperationScheduler;
+
+		// The first delimiter may be at the very start, without a preceding CRLF
+		this.carry = new byte[this.delimiter.length - 1];
+		this.carry[0] = CR;
+		this.carry[1] = LF;
+		this.carryLength = 2;
+	}
+
+
+	/**
+	 * Whether parsing the given number of bytes might write part content to
+	 * disk, i.e. whether it involves blocking I/O.
+	 */
+	public boolean mayWriteToDisk(int byteCount) {
+		if (this.partContent != null && this.partContent.isOnDisk()) {
+			return true;
+		}
+		long inMemory = (this.partContent != null ? this.partContent.size() : 0);
+		return (inMemory + byteCount > this.maxInMemorySize);
+	}
+
+	/**
+	 * Parse the given buffer, and return the parts completed by it.
+	 * The buffer is released.
+	 * <p>Once {@linkplain #discard() discarded}, buffers are released without
+	 * being parsed, and parts completed concurrently are deleted rather than
+	 * returned.
+	 * @throws DecodingException in case of malformed input or exceeded limits
+	 */
+	public List<Part> parse(DataBuffer dataBuffer) {
+		List<Part> parts = new ArrayList<>(1);
+		// Not entered only while a concurrent discard is in progress
+		boolean entered = (this.wip.getAndIncrement() == 0);
+		try {
+			if (entered && !this.discarded) {
+				parseInternal(dataBuffer.asByteBuffer(), parts);
+			}
+			return parts;
+		}
+		catch (IOException ex) {
+			this.discarded = true;
+			throw new DecodingException("I/O error while storing multipart content", ex);
+		}
+		catch (RuntimeException ex) {
+			this.discarded = true;
+			throw ex;
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+			if (entered) {
+				drain(parts);
+			}
+		}
+	}
+
+	private void parseInternal(ByteBuffer byteBuffer, List<Part> parts) throws IOException {
+		int position = 0;
+		while (position < byteBuffer.limit()) {
+			switch (this.state) {
+				case BODY:
+					position = parseBody(byteBuffer, position, parts);
+					break;
+				case AFTER_DELIMITER:
+					position = parseAfterDelimiter(byteBuffer, position);
+					break;
+				case HEADERS:
+					position = parseHeaders(byteBuffer, position);
+					break;
+				default:
+					position = byteBuffer.limit();
+			}
+		}
+	}
+
+	/**
+	 * Signal the end of the input.
+	 * @throws DecodingException if the closing delimiter was not found
+	 */
+	public void complete() {
+		if (this.state != State.EPILOGUE) {
+			discard();
+			throw new DecodingException("Could not find end of multipart body");
+		}
+	}
+
+	/**
+	 * Delete the content of the part currently being parsed, if any, and stop
+	 * parsing. If a parse is in progress on another thread, the content is
+	 * deleted as soon as that parse is done.
+	 */
+	public void discard() {
+		this.discarded = true;
+		if (this.wip.getAndIncrement() == 0) {
+			drain(Collections.emptyList());
+		}
+	}
+
+	/**
+	 * Leave the parser, deleting all content if it has been discarded in the
+	 * meantime, including the given parts that have just been completed.
+	 */
+	private void drain(List<Part> parts) {
+		int missed = 1;
+		while (true) {
+			if (this.discarded) {
+				PartContent content = this.partContent;
+				if (content != null) {
+					this.partContent = null;
+					content.delete();
+				}
+				if (!parts.isEmpty()) {
+					parts.forEach(part -> part.delete().subscribe());
+					parts.clear();
+				}
+			}
+			missed = this.wip.addAndGet(-missed);
+			if (missed == 0) {
+				return;
+			}
+		}
+	}
+
+
+	private int parseBody(ByteBuffer byteBuffer, int position, List<Part> parts) throws IOException {
+		int length = this.carryLength + byteBuffer.limit() - position;
+		int index = indexOfDelimiter(byteBuffer, position, length);
+		if (index != -1) {
+			writeBody(byteBuffer, position, 0, index);
+			completePart(parts);
+			int end = position + index + this.delimiter.length - this.carryLength;
+			this.carryLength = 0;
+			this.afterDelimiterCount = 0;
+			this.afterHyphen = false;
+			this.state = State.AFTER_DELIMITER;
+			return end;
+		}
+		int keep = delimiterPrefixLength(byteBuffer, position, length);
+		writeBody(byteBuffer, position, 0, length - keep);
+		byte[] kept = new byte[keep];
+		for (int i = 0; i < keep; i++) {
+			kept[i] = byteAt(byteBuffer, position, length - keep + i);
+		}
+		System.arraycopy(kept, 0, this.carry, 0, keep);
+		this.carryLength = keep;
+		return byteBuffer.limit();
+	}
+
+	/**
+	 * Return the virtual index of the delimiter in the carried over bytes
+	 * followed by the buffer, using the Boyer-Moore-Horspool algorithm.
+	 */
+	private int indexOfDelimiter(ByteBuffer byteBuffer, int position, int length) {
+		int last = this.delimiter.length - 1;
+		int index = 0;
+		while (index + last < length) {
+			int i = last;
+			while (i >= 0 && byteAt(byteBuffer, position, index + i) == this.delimiter[i]) {
+				i--;
+			}
+			if (i < 0) {
+				return index;
+			}
+			index += this.shiftTable[byteAt(byteBuffer, position, index + last) & 0xFF];
+		}
+		return -1;
+	}
+
+	/**
+	 * Return the length of the longest suffix of the input that is a prefix
+	 * of the delimiter.
+	 */
+	private int delimiterPrefixLength(ByteBuffer byteBuffer, int position, int length) {
+		for (int prefixLength = Math.min(this.delimiter.length - 1, length); prefixLength > 0; prefixLength--) {
+			int start = length - prefixLength;
+			int i = 0;
+			while (i < prefixLength && byteAt(byteBuffer, position, start + i) == this.delimiter[i]) {
+				i++;
+			}
+			if (i == prefixLength) {
+				return prefixLength;
+			}
+		}
+		return 0;
+	}
+
+	private byte byteAt(ByteBuffer byteBuffer, int position, int index) {
+		return (index < this.carryLength ?
+				this.carry[index] : byteBuffer.get(position + index - this.carryLength));
+	}
+
+	private void writeBody(ByteBuffer byteBuffer, int position, int fromIndex, int toIndex) throws IOException {
+		PartContent content = this.partContent;
+		if (content == null || fromIndex >= toIndex) {
+			return;
+		}
+		if (fromIndex < this.carryLength) {
+			content.write(ByteBuffer.wrap(this.carry, fromIndex, Math.min(toIndex, this.carryLength) - fromIndex));
+		}
+		int start = position + Math.max(fromIndex, this.carryLength) - this.carryLength;
+		int end = position + toIndex - this.carryLength;
+		if (start < end) {
+			ByteBuffer body = byteBuffer.duplicate();
+			((Buffer) body).limit(end);
+			((Buffer) body).position(start);
+			content.write(body);
+		}
+	}
+
+	private void completePart(List<Part> parts) throws IOException {
+		if (this.preamble) {
+			this.preamble = false;
+			return;
+		}
+		PartContent content = this.partContent;
+		HttpHeaders headers = this.partHeaders;
+		if (content != null && headers != null) {
+			this.partContent = null;
+			this.partHeaders = null;
+			parts.add(content.toPart(headers));
+		}
+	}
+
+	private int parseAfterDelimiter(ByteBuffer byteBuffer, int position) {
+		for (int i = position; i < byteBuffer.limit(); i++) {
+			byte b = byteBuffer.get(i);
+			if (b == HYPHEN && this.afterHyphen) {
+				this.state = State.EPILOGUE;
+				return i + 1;
+			}
+			this.afterHyphen = (b == HYPHEN && this.afterDelimiterCount++ == 0);
+			if (b == LF) {
+				this.headerBytes.reset();
+				// As if preceded by the CRLF of the delimiter line, for parts without headers
+				this.headersEndMatch = 2;
+				this.state = State.HEADERS;
+				return i + 1;
+			}
+		}
+		return byteBuffer.limit();
+	}
+
+	private int parseHeaders(ByteBuffer byteBuffer, int position) throws IOException {
+		for (int i = position; i < byteBuffer.limit(); i++) {
+			byte b = byteBuffer.get(i);
+			if (b == HEADERS_END[this.headersEndMatch]) {
+				this.headersEndMatch++;
+			}
+			else {
+				this.headersEndMatch = (b == CR ? 1 : 0);
+			}
+			if (this.headersEndMatch == HEADERS_END.length) {
+				startPart(parseHeaderLines());
+				this.state = State.BODY;
+				return i + 1;
+			}
+			if (this.headerBytes.size() >= this.maxHeadersSize) {
+				throw new DecodingException("Part headers exceeded the limit of " + this.maxHeadersSize + " bytes");
+			}
+			this.headerBytes.write(b);
+		}
+		return byteBuffer.limit();
+	}
+
+	private HttpHeaders parseHeaderLines() {
+		HttpHeaders headers = new HttpHeaders();
+		String headersString = new String(this.headerBytes.toByteArrayUnsafe(), 0,
+				this.headerBytes.size(), this.headersCharset);
+		String previousName = null;
+		for (String line : headersString.split("\r\n")) {
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			if ((line.charAt(0) == ' ' || line.charAt(0) == '\t') && previousName != null) {
+				// Obsolete line folding
+				List<String> values = headers.get(previousName);
+				if (values != null && !values.isEmpty()) {
+					int last = values.size() - 1;
+					values.set(last, values.get(last) + " " + line.trim());
+				}
+				continue;
+			}
+			int colon = line.indexOf(':');
+			if (colon <= 0) {
+				throw new DecodingException("Invalid part header: " + line);
+			}
+			previousName = line.substring(0, colon).trim();
+			headers.add(previousName, line.substring(colon + 1).trim());
+		}
+		return headers;
+	}
+
+	private void startPart(HttpHeaders headers) {
+		if (this.maxParts >= 0 && ++this.partCount > this.maxParts) {
+			throw new DecodingException("Multipart body exceeded the limit of " + this.maxParts + " parts");
+		}
+		this.partHeaders = headers;
+		this.partContent = new PartContent(DefaultParts.isFormField(headers));
+	}
+
+
+	/**
+	 * The content of a part, in memory or in a temporary file.
+	 */
+	private class PartContent {
+
+		private final boolean formField;
+
+		@Nullable
+		private FastByteArrayOutputStream memory = new FastByteArrayOutputStream(256);
+
+		@Nullable
+		private Path file;
+
+		@Nullable
+		private FileChannel channel;
+
+		private long size;
+
+		public PartContent(boolean formField) {
+			this.formField = formField;
+		}
+
+		public boolean isOnDisk() {
+			return (this.file != null);
+		}
+
+		public long size() {
+			return this.size;
+		}
+
+		public void write(ByteBuffer byteBuffer) throws IOException {
+			int length = byteBuffer.remaining();
+			FastByteArrayOutputStream memory = this.memory;
+			if (memory != null && this.size + length > maxInMemorySize) {
+				if (this.formField) {
+					throw new DecodingException(
+							"Form field exceeded the limit of " + maxInMemorySize + " bytes in memory");
+				}
+				spill(memory);
+				memory = null;
+			}
+			this.size += length;
+			if (memory != null) {
+				if (byteBuffer.hasArray()) {
+					memory.write(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), length);
+				}
+				else {
+					byte[] bytes = new byte[length];
+					byteBuffer.get(bytes);
+					memory.write(bytes);
+				}
+				return;
+			}
+			if (maxDiskUsagePerPart >= 0 && this.size > maxDiskUsagePerPart) {
+				throw new DecodingException(
+						"Part exceeded the limit of " + maxDiskUsagePerPart + " bytes on disk");
+			}
+			FileChannel channel = this.channel;
+			if (channel != null) {
+				while (byteBuffer.hasRemaining()) {
+					channel.write(byteBuffer);
+				}
+			}
+		}
+
+		private void spill(FastByteArrayOutputStream memory) throws IOException {
+			Path file = Files.createTempFile(fileStorageDirectory.get(), "multipart-", ".tmp");
+			this.file = file;
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+			this.channel = channel;
+			this.memory = null;
+			ByteBuffer byteBuffer = ByteBuffer.wrap(memory.toByteArrayUnsafe(), 0, memory.size());
+			while (byteBuffer.hasRemaining()) {
+				channel.write(byteBuffer);
+			}
+		}
+
+		public Part toPart(HttpHeaders headers) throws IOException {
+			FileChannel channel = this.channel;
+			if (channel != null) {
+				this.channel = null;
+				channel.close();
+			}
+			Path file = this.file;
+			if (file != null) {
+				return DefaultParts.part(headers, file, this.size, blockingOperationScheduler);
+			}
+			FastByteArrayOutputStream memory = this.memory;
+			byte[] bytes = (memory != null ? memory.toByteArrayUnsafe() : new byte[0]);
+			int length = (memory != null ? memory.size() : 0);
+			return DefaultParts.part(headers, (bytes.length == length ? bytes : Arrays.copyOf(bytes, length)),
+					blockingOperationScheduler);
+		}
+
+		public void delete() {
+			try {
+				FileChannel channel = this.channel;
+				if (channel != null) {
+					this.channel = null;
+					channel.close();
+				}
+				Path file = this.file;
+				if (file != null) {
+					Files.deleteIfExists(file);
+				}
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+	}
+
+}
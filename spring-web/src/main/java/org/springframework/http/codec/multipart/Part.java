@@ -17,6 +17,7 @@
 package org.springframework.http.codec.multipart;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
@@ -57,4 +58,15 @@ public interface Part {
 	 */
 	Flux<DataBuffer> content();
 
+	/**
+	 * Delete the storage of this part, e.g. a temporary file holding its
+	 * content, if any.
+	 * <p>The default implementation does nothing.
+	 * @return completion {@code Mono} for the deletion
+	 * @since 5.2
+	 */
+	default Mono<Void> delete() {
+		return Mono.empty();
+	}
+
 }
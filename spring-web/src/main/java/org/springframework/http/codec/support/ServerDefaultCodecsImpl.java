@@ -23,6 +23,7 @@ import org.springframework.http.codec.HttpMessageWriter;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.http.codec.ServerSentEventHttpMessageWriter;
 import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
+import org.springframework.http.codec.multipart.Part;
 import org.springframework.http.codec.multipart.SynchronossPartHttpMessageReader;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
@@ -31,6 +32,7 @@ import org.springframework.util.ClassUtils;
  * Default implementation of {@link ServerCodecConfigurer.ServerDefaultCodecs}.
  *
  * @author Rossen Stoyanchev
+ * @author Jinwei Sun
  */
 class ServerDefaultCodecsImpl extends BaseDefaultCodecs implements ServerCodecConfigurer.ServerDefaultCodecs {
 
@@ -42,26 +44,39 @@ class ServerDefaultCodecsImpl extends BaseDefaultCodecs implements ServerCodecCo
 	@Nullable
 	private Encoder<?> sseEncoder;
 
+	@Nullable
+	private HttpMessageReader<Part> partReader;
+
 
 	@Override
 	public void serverSentEventEncoder(Encoder<?> encoder) {
 		this.sseEncoder = encoder;
 	}
 
+	@Override
+	public void partReader(HttpMessageReader<Part> partReader) {
+		this.partReader = partReader;
+	}
+
 
 	@Override
 	protected void extendTypedReaders(List<HttpMessageReader<?>> typedReaders) {
-		if (synchronossMultipartPresent) {
-			boolean enable = isEnableLoggingRequestDetails();
-
-			SynchronossPartHttpMessageReader partReader = new SynchronossPartHttpMessageReader();
-			partReader.setEnableLoggingRequestDetails(enable);
-			typedReaders.add(partReader);
+		HttpMessageReader<Part> partReader = this.partReader;
+		if (partReader == null && !synchronossMultipartPresent) {
+			return;
+		}
+		boolean enable = isEnableLoggingRequestDetails();
 
-			MultipartHttpMessageReader reader = new MultipartHttpMessageReader(partReader);
-			reader.setEnableLoggingRequestDetails(enable);
-			typedReaders.add(reader);
+		if (partReader == null) {
+			SynchronossPartHttpMessageReader synchronossReader = new SynchronossPartHttpMessageReader();
+			synchronossReader.setEnableLoggingRequestDetails(enable);
+			partReader = synchronossReader;
 		}
+		typedReaders.add(partReader);
+
+		MultipartHttpMessageReader reader = new MultipartHttpMessageReader(partReader);
+		reader.setEnableLoggingRequestDetails(enable);
+		typedReaders.add(reader);
 	}
 
 	@Override
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.converter;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Cache for the selection of {@link HttpMessageConverter HttpMessageConverters}
+ * from a list of converters, i.e. for the converter that can read or write a
+ * given type and media type, and for the media types that can be read or
+ * written for a given type.
+ *
+ * <p>Selections are keyed by the declared type, the target or context class,
+ * and the media type, and the least recently used ones are evicted beyond
+ * a limit. Whenever the list of converters it was created for is found to
+ * have changed, the cache starts over with a snapshot of the new list, so the
+ * list may still be modified. Converters are expected to answer
+ * {@code canRead} and {@code canWrite} consistently for the same arguments.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+public class HttpMessageConverterCache {
+
+	private static final int MAX_SIZE = 1024;
+
+	private static final Object NO_CONVERTER = new Object();
+
+
+	private final List<HttpMessageConverter<?>> converters;
+
+	private volatile Selections selections;
+
+
+	/**
+	 * Create a cache for the given list of converters.
+	 * @param converters the converters to select from, in order of preference
+	 */
+	public HttpMessageConverterCache(List<HttpMessageConverter<?>> converters) {
+		Assert.notNull(converters, "Converters must not be null");
+		this.converters = converters;
+		this.selections = new Selections(converters);
+	}
+
+
+	/**
+	 * Return the list of converters this cache was created for.
+	 */
+	public List<HttpMessageConverter<?>> getConverters() {
+		return this.converters;
+	}
+
+	/**
+	 * Return the first converter that can read the given type, checking
+	 * {@link GenericHttpMessageConverter#canRead(Type, Class, MediaType)} and,
+	 * for a {@code Class}, {@link HttpMessageConverter#canRead(Class, MediaType)}.
+	 * @param type the type to read
+	 * @param contextClass the context class for the type, if any
+	 * @param mediaType the content type to read, if known
+	 * @return the converter, or {@code null} if none found
+	 */
+	@Nullable
+	public HttpMessageConverter<?> getReader(Type type, @Nullable Class<?> contextClass,
+			@Nullable MediaType mediaType) {
+
+		return (HttpMessageConverter<?>) get(new Key(Kind.READER, type, contextClass, mediaType));
+	}
+
+	/**
+	 * Return the first converter that can write the given type, checking
+	 * {@link GenericHttpMessageConverter#canWrite(Type, Class, MediaType)} for
+	 * generic converters and {@link HttpMessageConverter#canWrite(Class, MediaType)}
+	 * for others.
+	 * @param type the declared type to write
+	 * @param clazz the class of the value to write
+	 * @param mediaType the content type to write, if known
+	 * @return the converter, or {@code null} if none found
+	 */
+	@Nullable
+	public HttpMessageConverter<?> getWriter(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+		return (HttpMessageConverter<?>) get(new Key(Kind.WRITER, type, clazz, mediaType));
+	}
+
+	/**
+	 * Return the media types supported by all converters that can read the
+	 * given type, in order of the converters.
+	 * @param type the type to read
+	 * @return the readable media types, possibly empty
+	 */
+	@SuppressWarnings("unchecked")
+	public List<MediaType> getReadableMediaTypes(Type type) {
+		return (List<MediaType>) get(new Key(Kind.READABLE_MEDIA_TYPES, type, null, null));
+	}
+
+	/**
+	 * Return the media types supported by all converters that can write the
+	 * given type, in order of the converters.
+	 * @param type the declared type to write, if any
+	 * @param clazz the class of the value to write
+	 * @return the writable media types, possibly empty
+	 */
+	@SuppressWarnings("unchecked")
+	public List<MediaType> getWritableMediaTypes(@Nullable Type type, Class<?> clazz) {
+		return (List<MediaType>) get(new Key(Kind.WRITABLE_MEDIA_TYPES, type, clazz, null));
+	}
+
+	/**
+	 * Remove all cached selections.
+	 */
+	public void clear() {
+		this.selections = new Selections(this.converters);
+	}
+
+
+	@Nullable
+	private Object get(Key key) {
+		Object result = getSelections().cache.get(key);
+		return (result != NO_CONVERTER ? result : null);
+	}
+
+	private Selections getSelections() {
+		Selections selections = this.selections;
+		HttpMessageConverter<?>[] snapshot = selections.converters;
+		boolean changed = (snapshot.length != this.converters.size());
+		for (int i = 0; !changed && i < snapshot.length; i++) {
+			changed = (snapshot[i] != this.converters.get(i));
+		}
+		if (changed) {
+			selections = new Selections(this.converters);
+			this.selections = selections;
+		}
+		return selections;
+	}
+
+
+	/**
+	 * Selections made from a snapshot of the list of converters, so that
+	 * selections from a previous list never end up in the cache for a new one.
+	 */
+	private static final class Selections {
+
+		final HttpMessageConverter<?>[] converters;
+
+		final ConcurrentLruCache<Key, Object> cache = new ConcurrentLruCache<>(MAX_SIZE, this::select);
+
+		Selections(List<HttpMessageConverter<?>> converters) {
+			this.converters = converters.toArray(new HttpMessageConverter<?>[0]);
+		}
+
+		private Object select(Key key) {
+			switch (key.kind) {
+				case READER:
+					return selectReader(key.type, key.clazz, key.mediaType);
+				case WRITER:
+					return selectWriter(key.type, key.clazz, key.mediaType);
+				case READABLE_MEDIA_TYPES:
+					return selectReadableMediaTypes(key.type);
+				case WRITABLE_MEDIA_TYPES:
+					return selectWritableMediaTypes(key.type, key.clazz);
+				default:
+					throw new IllegalStateException("Unexpected kind of selection: " + key.kind);
+			}
+		}
+
+		private Object selectReader(@Nullable Type type, @Nullable Class<?> contextClass,
+				@Nullable MediaType mediaType) {
+
+			Assert.state(type != null, "No type to read");
+			for (HttpMessageConverter<?> converter : this.converters) {
+				if (converter instanceof GenericHttpMessageConverter &&
+						((GenericHttpMessageConverter<?>) converter).canRead(type, contextClass, mediaType)) {
+					return converter;
+				}
+				if (type instanceof Class && converter.canRead((Class<?>) type, mediaType)) {
+					return converter;
+				}
+			}
+			return NO_CONVERTER;
+		}
+
+		private Object selectWriter(@Nullable Type type, @Nullable Class<?> clazz, @Nullable MediaType mediaType) {
+			Assert.state(clazz != null, "No class to write");
+			for (HttpMessageConverter<?> converter : this.converters) {
+				if (converter instanceof GenericHttpMessageConverter ?
+						((GenericHttpMessageConverter<?>) converter).canWrite(type, clazz, mediaType) :
+						converter.canWrite(clazz, mediaType)) {
+					return converter;
+				}
+			}
+			return NO_CONVERTER;
+		}
+
+		private Object selectReadableMediaTypes(@Nullable Type type) {
+			Assert.state(type != null, "No type to read");
+			List<MediaType> mediaTypes = new ArrayList<>();
+			for (HttpMessageConverter<?> converter : this.converters) {
+				if (type instanceof Class ? converter.canRead((Class<?>) type, null) :
+						converter instanceof GenericHttpMessageConverter &&
+								((GenericHttpMessageConverter<?>) converter).canRead(type, null, null)) {
+					mediaTypes.addAll(converter.getSupportedMediaTypes());
+				}
+			}
+			return Collections.unmodifiableList(mediaTypes);
+		}
+
+		private Object selectWritableMediaTypes(@Nullable Type type, @Nullable Class<?> clazz) {
+			Assert.state(clazz != null, "No class to write");
+			List<MediaType> mediaTypes = new ArrayList<>();
+			for (HttpMessageConverter<?> converter : this.converters) {
+				if (converter instanceof GenericHttpMessageConverter && type != null ?
+						((GenericHttpMessageConverter<?>) converter).canWrite(type, clazz, null) :
+						converter.canWrite(clazz, null)) {
+					mediaTypes.addAll(converter.getSupportedMediaTypes());
+				}
+			}
+			return Collections.unmodifiableList(mediaTypes);
+		}
+	}
+
+
+	private enum Kind {
+
+		READER, WRITER, READABLE_MEDIA_TYPES, WRITABLE_MEDIA_TYPES
+	}
+
+
+	private static final class Key {
+
+		private final Kind kind;
+
+		@Nullable
+		private final Type type;
+
+		@Nullable
+		private final Class<?> clazz;
+
+		@Nullable
+		private final MediaType mediaType;
+
+		Key(Kind kind, @Nullable Type type, @Nullable Class<?> clazz, @Nullable MediaType mediaType) {
+			this.kind = kind;
+			this.type = type;
+			this.clazz = clazz;
+			this.mediaType = mediaType;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			Key otherKey = (Key) other;
+			return (this.kind == otherKey.kind && ObjectUtils.nullSafeEquals(this.type, otherKey.type) &&
+					this.clazz == otherKey.clazz && ObjectUtils.nullSafeEquals(this.mediaType, otherKey.mediaType));
+		}
+
+		@Override
+		public int hashCode() {
+			int result = this.kind.hashCode();
+			result = 31 * result + ObjectUtils.nullSafeHashCode(this.type);
+			result = 31 * result + ObjectUtils.nullSafeHashCode(this.clazz);
+			result = 31 * result + ObjectUtils.nullSafeHashCode(this.mediaType);
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Base class for {@code MultiValueMap} adapters that read through to the
+ * native headers of a server request, so that only the headers the
+ * application actually reads are converted, rather than copying all headers
+ * for every request.
+ *
+ * <p>The native headers are never modified: on the first modification,
+ * all headers are copied into {@link HttpHeaders}, which are then used for
+ * all further operations. Header names are case-insensitive, as long as the
+ * native headers are.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+abstract class AbstractHeadersAdapter extends AbstractMap<String, List<String>>
+		implements MultiValueMap<String, String> {
+
+	@Nullable
+	private HttpHeaders copy;
+
+
+	/**
+	 * Return the first native value of the given header, if any.
+	 */
+	@Nullable
+	protected abstract String getNativeFirst(String name);
+
+	/**
+	 * Return all native values of the given header, as a list that is not
+	 * backed by the native headers.
+	 */
+	protected abstract List<String> getNativeValues(String name);
+
+	/**
+	 * Whether the given header is present natively.
+	 */
+	protected abstract boolean containsNative(String name);
+
+	/**
+	 * Return the distinct names of the native headers.
+	 */
+	protected abstract Collection<String> getNativeNames();
+
+
+	@Override
+	@Nullable
+	public String getFirst(String key) {
+		return (this.copy != null ? this.copy.getFirst(key) : getNativeFirst(key));
+	}
+
+	@Override
+	@Nullable
+	public List<String> get(Object key) {
+		if (this.copy != null) {
+			return this.copy.get(key);
+		}
+		return (containsKey(key) ? getNativeValues((String) key) : null);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (this.copy != null) {
+			return this.copy.containsKey(key);
+		}
+		return (key instanceof String && containsNative((String) key));
+	}
+
+	@Override
+	public int size() {
+		return (this.copy != null ? this.copy.size() : getNativeNames().size());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (size() == 0);
+	}
+
+	@Override
+	public Set<String> keySet() {
+		if (this.copy != null) {
+			return this.copy.keySet();
+		}
+		return new AbstractSet<String>() {
+			@Override
+			public Iterator<String> iterator() {
+				Iterator<String> names = getNativeNames().iterator();
+				return new Iterator<String>() {
+					@Override
+					public boolean hasNext() {
+						return names.hasNext();
+					}
+					@Override
+					public String next() {
+						return names.next();
+					}
+				};
+			}
+			@Override
+			public boolean contains(Object key) {
+				return containsKey(key);
+			}
+			@Override
+			public int size() {
+				return AbstractHeadersAdapter.this.size();
+			}
+		};
+	}
+
+	@Override
+	public Set<Entry<String, List<String>>> entrySet() {
+		if (this.copy != null) {
+			return this.copy.entrySet();
+		}
+		return new AbstractSet<Entry<String, List<String>>>() {
+			@Override
+			public Iterator<Entry<String, List<String>>> iterator() {
+				Iterator<String> names = getNativeNames().iterator();
+				return new Iterator<Entry<String, List<String>>>() {
+					@Override
+					public boolean hasNext() {
+						return names.hasNext();
+					}
+					@Override
+					public Entry<String, List<String>> next() {
+						String name = names.next();
+						return new SimpleImmutableEntry<>(name, getNativeValues(name));
+					}
+				};
+			}
+			@Override
+			public int size() {
+				return AbstractHeadersAdapter.this.size();
+			}
+		};
+	}
+
+	@Override
+	public Map<String, String> toSingleValueMap() {
+		if (this.copy != null) {
+			return this.copy.toSingleValueMap();
+		}
+		Collection<String> names = getNativeNames();
+		Map<String, String> singleValueMap = new LinkedHashMap<>(names.size());
+		for (String name : names) {
+			singleValueMap.put(name, getNativeFirst(name));
+		}
+		return singleValueMap;
+	}
+
+
+	// Modifications operate on a copy
+
+	@Override
+	public void add(String key, @Nullable String value) {
+		getCopy().add(key, value);
+	}
+
+	@Override
+	public void addAll(String key, List<? extends String> values) {
+		getCopy().addAll(key, values);
+	}
+
+	@Override
+	public void addAll(MultiValueMap<String, String> values) {
+		getCopy().addAll(values);
+	}
+
+	@Override
+	public void set(String key, @Nullable String value) {
+		getCopy().set(key, value);
+	}
+
+	@Override
+	public void setAll(Map<String, String> values) {
+		getCopy().setAll(values);
+	}
+
+	@Override
+	@Nullable
+	public List<String> put(String key, List<String> value) {
+		return getCopy().put(key, value);
+	}
+
+	@Override
+	@Nullable
+	public List<String> remove(Object key) {
+		return getCopy().remove(key);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends List<String>> map) {
+		getCopy().putAll(map);
+	}
+
+	@Override
+	public void clear() {
+		getCopy().clear();
+	}
+
+	private HttpHeaders getCopy() {
+		HttpHeaders copy = this.copy;
+		if (copy == null) {
+			copy = new HttpHeaders();
+			for (String name : getNativeNames()) {
+				copy.addAll(name, getNativeValues(name));
+			}
+			this.copy = copy;
+		}
+		return copy;
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.jetty.http.HttpFields;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * {@code MultiValueMap} adapter for Jetty request {@link HttpFields}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+class JettyHeadersAdapter extends AbstractHeadersAdapter {
+
+	private final HttpFields headers;
+
+
+	JettyHeadersAdapter(HttpFields headers) {
+		this.headers = headers;
+	}
+
+
+	@Override
+	@Nullable
+	protected String getNativeFirst(String name) {
+		return this.headers.get(name);
+	}
+
+	@Override
+	protected List<String> getNativeValues(String name) {
+		return this.headers.getValuesList(name);
+	}
+
+	@Override
+	protected boolean containsNative(String name) {
+		return this.headers.containsKey(name);
+	}
+
+	@Override
+	protected Collection<String> getNativeNames() {
+		return this.headers.getFieldNamesCollection();
+	}
+
+}
@@ -17,19 +17,24 @@
 package org.springframework.http.server.reactive;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.jetty.server.HttpOutput;
+import org.eclipse.jetty.server.Request;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.util.Assert;
 
 /**
  * {@link ServletHttpHandlerAdapter} extension that uses Jetty APIs for writing
- * to the response with {@link ByteBuffer}.
+ * to the response with {@link ByteBuffer}, and that reads request headers
+ * directly from Jetty's {@link org.eclipse.jetty.http.HttpFields}.
  *
  * @author Violeta Georgieva
  * @since 5.0
@@ -42,6 +47,19 @@ public class JettyHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 	}
 
 
+	@Override
+	protected ServletServerHttpRequest createRequest(HttpServletRequest request, AsyncContext context)
+			throws IOException, URISyntaxException {
+
+		Request jettyRequest = Request.getBaseRequest(request);
+		if (jettyRequest == null) {
+			return super.createRequest(request, context);
+		}
+		Assert.notNull(getServletPath(), "Servlet path is not initialized");
+		return new ServletServerHttpRequest(new JettyHeadersAdapter(jettyRequest.getHttpFields()),
+				request, context, getServletPath(), getDataBufferFactory(), getBufferSize());
+	}
+
 	@Override
 	protected ServletServerHttpResponse createResponse(HttpServletResponse response,
 			AsyncContext context, ServletServerHttpRequest request) throws IOException {
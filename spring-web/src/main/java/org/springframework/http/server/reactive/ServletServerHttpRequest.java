@@ -74,7 +74,14 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 			String servletPath, DataBufferFactory bufferFactory, int bufferSize)
 			throws IOException, URISyntaxException {
 
-		super(initUri(request), request.getContextPath() + servletPath, initHeaders(request));
+		this(createDefaultHttpHeaders(request), request, asyncContext, servletPath, bufferFactory, bufferSize);
+	}
+
+	public ServletServerHttpRequest(MultiValueMap<String, String> headers, HttpServletRequest request,
+			AsyncContext asyncContext, String servletPath, DataBufferFactory bufferFactory, int bufferSize)
+			throws IOException, URISyntaxException {
+
+		super(initUri(request), request.getContextPath() + servletPath, initHeaders(headers, request));
 
 		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
 		Assert.isTrue(bufferSize > 0, "'bufferSize' must be higher than 0");
@@ -101,8 +108,8 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 		return new URI(url.toString());
 	}
 
-	private static HttpHeaders initHeaders(HttpServletRequest request) {
-		HttpHeaders headers = new HttpHeaders();
+	private static MultiValueMap<String, String> createDefaultHttpHeaders(HttpServletRequest request) {
+		MultiValueMap<String, String> headers = new HttpHeaders();
 		for (Enumeration<?> names = request.getHeaderNames();
 			names.hasMoreElements(); ) {
 			String name = (String) names.nextElement();
@@ -111,6 +118,12 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 				headers.add(name, (String) values.nextElement());
 			}
 		}
+		return headers;
+	}
+
+	private static HttpHeaders initHeaders(MultiValueMap<String, String> headerValues, HttpServletRequest request) {
+		HttpHeaders headers = (headerValues instanceof HttpHeaders ?
+				(HttpHeaders) headerValues : new HttpHeaders(headerValues));
 		MediaType contentType = headers.getContentType();
 		if (contentType == null) {
 			String requestContentType = request.getContentType();
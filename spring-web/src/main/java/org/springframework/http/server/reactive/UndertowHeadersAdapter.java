@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.HttpString;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * {@code MultiValueMap} adapter for an Undertow request {@link HeaderMap}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+class UndertowHeadersAdapter extends AbstractHeadersAdapter {
+
+	private final HeaderMap headers;
+
+
+	UndertowHeadersAdapter(HeaderMap headers) {
+		this.headers = headers;
+	}
+
+
+	@Override
+	@Nullable
+	protected String getNativeFirst(String name) {
+		return this.headers.getFirst(name);
+	}
+
+	@Override
+	protected List<String> getNativeValues(String name) {
+		HeaderValues values = this.headers.get(name);
+		return (values != null ? new ArrayList<>(values) : Collections.emptyList());
+	}
+
+	@Override
+	protected boolean containsNative(String name) {
+		return this.headers.contains(name);
+	}
+
+	@Override
+	protected Collection<String> getNativeNames() {
+		Collection<HttpString> names = this.headers.getHeaderNames();
+		Set<String> result = new LinkedHashSet<>(names.size());
+		for (HttpString name : names) {
+			result.add(name.toString());
+		}
+		return result;
+	}
+
+}
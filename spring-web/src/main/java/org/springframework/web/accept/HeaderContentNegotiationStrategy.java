@@ -17,12 +17,15 @@
 package org.springframework.web.accept;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.context.request.NativeWebRequest;
 
@@ -35,8 +38,13 @@ import org.springframework.web.context.request.NativeWebRequest;
  */
 public class HeaderContentNegotiationStrategy implements ContentNegotiationStrategy {
 
+	private final ConcurrentLruCache<String, List<MediaType>> cachedMediaTypes =
+			new ConcurrentLruCache<>(64, HeaderContentNegotiationStrategy::parseMediaTypes);
+
+
 	/**
 	 * {@inheritDoc}
+	 * <p>The sorted media types of recently seen header values are cached.
 	 * @throws HttpMediaTypeNotAcceptableException if the 'Accept' header cannot be parsed
 	 */
 	@Override
@@ -48,16 +56,21 @@ public class HeaderContentNegotiationStrategy implements ContentNegotiationStrat
 			return MEDIA_TYPE_ALL_LIST;
 		}
 
-		List<String> headerValues = Arrays.asList(headerValueArray);
+		String headerValue = (headerValueArray.length == 1 ? headerValueArray[0] :
+				StringUtils.arrayToCommaDelimitedString(headerValueArray));
 		try {
-			List<MediaType> mediaTypes = MediaType.parseMediaTypes(headerValues);
-			MediaType.sortBySpecificityAndQuality(mediaTypes);
-			return !CollectionUtils.isEmpty(mediaTypes) ? mediaTypes : MEDIA_TYPE_ALL_LIST;
+			return this.cachedMediaTypes.get(headerValue);
 		}
 		catch (InvalidMediaTypeException ex) {
 			throw new HttpMediaTypeNotAcceptableException(
-					"Could not parse 'Accept' header " + headerValues + ": " + ex.getMessage());
+					"Could not parse 'Accept' header " + Arrays.asList(headerValueArray) + ": " + ex.getMessage());
 		}
 	}
 
+	private static List<MediaType> parseMediaTypes(String headerValue) {
+		List<MediaType> mediaTypes = MediaType.parseMediaTypes(headerValue);
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		return (!CollectionUtils.isEmpty(mediaTypes) ? Collections.unmodifiableList(mediaTypes) : MEDIA_TYPE_ALL_LIST);
+	}
+
 }
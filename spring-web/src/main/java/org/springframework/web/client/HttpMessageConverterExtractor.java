@@ -28,6 +28,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverterCache;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -50,6 +51,9 @@ public class HttpMessageConverterExtractor<T> implements ResponseExtractor<T> {
 
 	private final List<HttpMessageConverter<?>> messageConverters;
 
+	@Nullable
+	private final HttpMessageConverterCache converterCache;
+
 	private final Log logger;
 
 
@@ -69,19 +73,33 @@ public class HttpMessageConverterExtractor<T> implements ResponseExtractor<T> {
 		this(responseType, messageConverters, LogFactory.getLog(HttpMessageConverterExtractor.class));
 	}
 
-	@SuppressWarnings("unchecked")
 	HttpMessageConverterExtractor(Type responseType, List<HttpMessageConverter<?>> messageConverters, Log logger) {
+		this(responseType, messageConverters, null, logger);
+	}
+
+	/**
+	 * Create a new instance that selects converters through the given cache.
+	 */
+	HttpMessageConverterExtractor(Type responseType, HttpMessageConverterCache converterCache, Log logger) {
+		this(responseType, converterCache.getConverters(), converterCache, logger);
+	}
+
+	@SuppressWarnings("unchecked")
+	private HttpMessageConverterExtractor(Type responseType, List<HttpMessageConverter<?>> messageConverters,
+			@Nullable HttpMessageConverterCache converterCache, Log logger) {
+
 		Assert.notNull(responseType, "'responseType' must not be null");
 		Assert.notEmpty(messageConverters, "'messageConverters' must not be empty");
 		this.responseType = responseType;
 		this.responseClass = (responseType instanceof Class ? (Class<T>) responseType : null);
 		this.messageConverters = messageConverters;
+		this.converterCache = converterCache;
 		this.logger = logger;
 	}
 
 
 	@Override
-	@SuppressWarnings({"unchecked", "rawtypes", "resource"})
+	@SuppressWarnings("resource")
 	public T extractData(ClientHttpResponse response) throws IOException {
 		MessageBodyClientHttpResponseWrapper responseWrapper = new MessageBodyClientHttpResponseWrapper(response);
 		if (!responseWrapper.hasMessageBody() || responseWrapper.hasEmptyMessageBody()) {
@@ -90,25 +108,25 @@ public class HttpMessageConverterExtractor<T> implements ResponseExtractor<T> {
 		MediaType contentType = getContentType(responseWrapper);
 
 		try {
-			for (HttpMessageConverter<?> messageConverter : this.messageConverters) {
+			if (this.converterCache != null) {
+				HttpMessageConverter<?> messageConverter =
+						this.converterCache.getReader(this.responseType, null, contentType);
 				if (messageConverter instanceof GenericHttpMessageConverter) {
-					GenericHttpMessageConverter<?> genericMessageConverter =
-							(GenericHttpMessageConverter<?>) messageConverter;
-					if (genericMessageConverter.canRead(this.responseType, null, contentType)) {
-						if (logger.isDebugEnabled()) {
-							ResolvableType resolvableType = ResolvableType.forType(this.responseType);
-							logger.debug("Reading to [" + resolvableType + "]");
-						}
-						return (T) genericMessageConverter.read(this.responseType, null, responseWrapper);
-					}
+					return readWithGenericConverter(messageConverter, responseWrapper);
 				}
-				if (this.responseClass != null) {
-					if (messageConverter.canRead(this.responseClass, contentType)) {
-						if (logger.isDebugEnabled()) {
-							String className = this.responseClass.getName();
-							logger.debug("Reading to [" + className + "] as \"" + contentType + "\"");
-						}
-						return (T) messageConverter.read((Class) this.responseClass, responseWrapper);
+				else if (messageConverter != null && this.responseClass != null) {
+					return readWithConverter(messageConverter, contentType, responseWrapper);
+				}
+			}
+			else {
+				for (HttpMessageConverter<?> messageConverter : this.messageConverters) {
+					if (messageConverter instanceof GenericHttpMessageConverter &&
+							((GenericHttpMessageConverter<?>) messageConverter)
+									.canRead(this.responseType, null, contentType)) {
+						return readWithGenericConverter(messageConverter, responseWrapper);
+					}
+					if (this.responseClass != null && messageConverter.canRead(this.responseClass, contentType)) {
+						return readWithConverter(messageConverter, contentType, responseWrapper);
 					}
 				}
 			}
@@ -122,6 +140,29 @@ public class HttpMessageConverterExtractor<T> implements ResponseExtractor<T> {
 				"for response type [" + this.responseType + "] and content type [" + contentType + "]");
 	}
 
+	@SuppressWarnings("unchecked")
+	private T readWithGenericConverter(HttpMessageConverter<?> messageConverter, ClientHttpResponse response)
+			throws IOException {
+
+		if (logger.isDebugEnabled()) {
+			ResolvableType resolvableType = ResolvableType.forType(this.responseType);
+			logger.debug("Reading to [" + resolvableType + "]");
+		}
+		return (T) ((GenericHttpMessageConverter<?>) messageConverter).read(this.responseType, null, response);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private T readWithConverter(HttpMessageConverter<?> messageConverter, @Nullable MediaType contentType,
+			ClientHttpResponse response) throws IOException {
+
+		Assert.state(this.responseClass != null, "No response class");
+		if (logger.isDebugEnabled()) {
+			String className = this.responseClass.getName();
+			logger.debug("Reading to [" + className + "] as \"" + contentType + "\"");
+		}
+		return (T) messageConverter.read((Class) this.responseClass, response);
+	}
+
 	/**
 	 * Determine the Content-Type of the response based on the "Content-Type"
 	 * header or otherwise default to {@link MediaType#APPLICATION_OCTET_STREAM}.
@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
@@ -43,6 +42,7 @@ import org.springframework.http.client.support.InterceptingHttpAccessor;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverterCache;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
@@ -133,6 +133,9 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 
 	private final List<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
 
+	private final HttpMessageConverterCache messageConverterCache =
+			new HttpMessageConverterCache(this.messageConverters);
+
 	private ResponseErrorHandler errorHandler = new DefaultResponseErrorHandler();
 
 	private UriTemplateHandler uriTemplateHandler;
@@ -315,7 +318,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 	public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) throws RestClientException {
 		RequestCallback requestCallback = acceptHeaderRequestCallback(responseType);
 		HttpMessageConverterExtractor<T> responseExtractor =
-				new HttpMessageConverterExtractor<>(responseType, getMessageConverters(), logger);
+				new HttpMessageConverterExtractor<>(responseType, this.messageConverterCache, logger);
 		return execute(url, HttpMethod.GET, requestCallback, responseExtractor, uriVariables);
 	}
 
@@ -324,7 +327,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 	public <T> T getForObject(String url, Class<T> responseType, Map<String, ?> uriVariables) throws RestClientException {
 		RequestCallback requestCallback = acceptHeaderRequestCallback(responseType);
 		HttpMessageConverterExtractor<T> responseExtractor =
-				new HttpMessageConverterExtractor<>(responseType, getMessageConverters(), logger);
+				new HttpMessageConverterExtractor<>(responseType, this.messageConverterCache, logger);
 		return execute(url, HttpMethod.GET, requestCallback, responseExtractor, uriVariables);
 	}
 
@@ -333,7 +336,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 	public <T> T getForObject(URI url, Class<T> responseType) throws RestClientException {
 		RequestCallback requestCallback = acceptHeaderRequestCallback(responseType);
 		HttpMessageConverterExtractor<T> responseExtractor =
-				new HttpMessageConverterExtractor<>(responseType, getMessageConverters(), logger);
+				new HttpMessageConverterExtractor<>(responseType, this.messageConverterCache, logger);
 		return execute(url, HttpMethod.GET, requestCallback, responseExtractor);
 	}
 
@@ -418,7 +421,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 
 		RequestCallback requestCallback = httpEntityCallback(request, responseType);
 		HttpMessageConverterExtractor<T> responseExtractor =
-				new HttpMessageConverterExtractor<>(responseType, getMessageConverters(), logger);
+				new HttpMessageConverterExtractor<>(responseType, this.messageConverterCache, logger);
 		return execute(url, HttpMethod.POST, requestCallback, responseExtractor, uriVariables);
 	}
 
@@ -429,7 +432,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 
 		RequestCallback requestCallback = httpEntityCallback(request, responseType);
 		HttpMessageConverterExtractor<T> responseExtractor =
-				new HttpMessageConverterExtractor<>(responseType, getMessageConverters(), logger);
+				new HttpMessageConverterExtractor<>(responseType, this.messageConverterCache, logger);
 		return execute(url, HttpMethod.POST, requestCallback, responseExtractor, uriVariables);
 	}
 
@@ -440,7 +443,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 
 		RequestCallback requestCallback = httpEntityCallback(request, responseType);
 		HttpMessageConverterExtractor<T> responseExtractor =
-				new HttpMessageConverterExtractor<>(responseType, getMessageConverters());
+				new HttpMessageConverterExtractor<>(responseType, this.messageConverterCache, logger);
 		return execute(url, HttpMethod.POST, requestCallback, responseExtractor);
 	}
 
@@ -506,7 +509,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 
 		RequestCallback requestCallback = httpEntityCallback(request, responseType);
 		HttpMessageConverterExtractor<T> responseExtractor =
-				new HttpMessageConverterExtractor<>(responseType, getMessageConverters(), logger);
+				new HttpMessageConverterExtractor<>(responseType, this.messageConverterCache, logger);
 		return execute(url, HttpMethod.PATCH, requestCallback, responseExtractor, uriVariables);
 	}
 
@@ -517,7 +520,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 
 		RequestCallback requestCallback = httpEntityCallback(request, responseType);
 		HttpMessageConverterExtractor<T> responseExtractor =
-				new HttpMessageConverterExtractor<>(responseType, getMessageConverters(), logger);
+				new HttpMessageConverterExtractor<>(responseType, this.messageConverterCache, logger);
 		return execute(url, HttpMethod.PATCH, requestCallback, responseExtractor, uriVariables);
 	}
 
@@ -528,7 +531,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 
 		RequestCallback requestCallback = httpEntityCallback(request, responseType);
 		HttpMessageConverterExtractor<T> responseExtractor =
-				new HttpMessageConverterExtractor<>(responseType, getMessageConverters());
+				new HttpMessageConverterExtractor<>(responseType, this.messageConverterCache, logger);
 		return execute(url, HttpMethod.PATCH, requestCallback, responseExtractor);
 	}
 
@@ -851,9 +854,9 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 		@Override
 		public void doWithRequest(ClientHttpRequest request) throws IOException {
 			if (this.responseType != null) {
-				List<MediaType> allSupportedMediaTypes = getMessageConverters().stream()
-						.filter(converter -> canReadResponse(this.responseType, converter))
-						.flatMap(this::getSupportedMediaTypes)
+				List<MediaType> allSupportedMediaTypes = messageConverterCache.getReadableMediaTypes(this.responseType)
+						.stream()
+						.map(this::removeCharset)
 						.distinct()
 						.sorted(MediaType.SPECIFICITY_COMPARATOR)
 						.collect(Collectors.toList());
@@ -864,27 +867,11 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 			}
 		}
 
-		private boolean canReadResponse(Type responseType, HttpMessageConverter<?> converter) {
-			Class<?> responseClass = (responseType instanceof Class ? (Class<?>) responseType : null);
-			if (responseClass != null) {
-				return converter.canRead(responseClass, null);
-			}
-			else if (converter instanceof GenericHttpMessageConverter) {
-				GenericHttpMessageConverter<?> genericConverter = (GenericHttpMessageConverter<?>) converter;
-				return genericConverter.canRead(responseType, null, null);
+		private MediaType removeCharset(MediaType mediaType) {
+			if (mediaType.getCharset() != null) {
+				return new MediaType(mediaType.getType(), mediaType.getSubtype());
 			}
-			return false;
-		}
-
-		private Stream<MediaType> getSupportedMediaTypes(HttpMessageConverter<?> messageConverter) {
-			return messageConverter.getSupportedMediaTypes()
-					.stream()
-					.map(mediaType -> {
-						if (mediaType.getCharset() != null) {
-							return new MediaType(mediaType.getType(), mediaType.getSubtype());
-						}
-						return mediaType;
-					});
+			return mediaType;
 		}
 	}
 
@@ -935,28 +922,22 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 				HttpHeaders httpHeaders = httpRequest.getHeaders();
 				HttpHeaders requestHeaders = this.requestEntity.getHeaders();
 				MediaType requestContentType = requestHeaders.getContentType();
-				for (HttpMessageConverter<?> messageConverter : getMessageConverters()) {
+				HttpMessageConverter<?> messageConverter =
+						messageConverterCache.getWriter(requestBodyType, requestBodyClass, requestContentType);
+				if (messageConverter != null) {
+					if (!requestHeaders.isEmpty()) {
+						requestHeaders.forEach((key, values) -> httpHeaders.put(key, new LinkedList<>(values)));
+					}
+					logBody(requestBody, requestContentType, messageConverter);
 					if (messageConverter instanceof GenericHttpMessageConverter) {
-						GenericHttpMessageConverter<Object> genericConverter =
-								(GenericHttpMessageConverter<Object>) messageConverter;
-						if (genericConverter.canWrite(requestBodyType, requestBodyClass, requestContentType)) {
-							if (!requestHeaders.isEmpty()) {
-								requestHeaders.forEach((key, values) -> httpHeaders.put(key, new LinkedList<>(values)));
-							}
-							logBody(requestBody, requestContentType, genericConverter);
-							genericConverter.write(requestBody, requestBodyType, requestContentType, httpRequest);
-							return;
-						}
+						((GenericHttpMessageConverter<Object>) messageConverter).write(
+								requestBody, requestBodyType, requestContentType, httpRequest);
 					}
-					else if (messageConverter.canWrite(requestBodyClass, requestContentType)) {
-						if (!requestHeaders.isEmpty()) {
-							requestHeaders.forEach((key, values) -> httpHeaders.put(key, new LinkedList<>(values)));
-						}
-						logBody(requestBody, requestContentType, messageConverter);
+					else {
 						((HttpMessageConverter<Object>) messageConverter).write(
 								requestBody, requestContentType, httpRequest);
-						return;
 					}
+					return;
 				}
 				String message = "No HttpMessageConverter for [" + requestBodyClass.getName() + "]";
 				if (requestContentType != null) {
@@ -990,7 +971,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 
 		public ResponseEntityResponseExtractor(@Nullable Type responseType) {
 			if (responseType != null && Void.class != responseType) {
-				this.delegate = new HttpMessageConverterExtractor<>(responseType, getMessageConverters(), logger);
+				this.delegate = new HttpMessageConverterExtractor<>(responseType, messageConverterCache, logger);
 			}
 			else {
 				this.delegate = null;
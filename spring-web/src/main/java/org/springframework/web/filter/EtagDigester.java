@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental hash over a response body, used to compute shallow ETag values
+ * while the body is being written. Instances are stateful and used for a
+ * single response only.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see ShallowEtagHeaderFilter#setDigesterFactory
+ * @see org.springframework.web.filter.reactive.ShallowEtagHeaderFilter#setDigesterFactory
+ */
+public interface EtagDigester {
+
+	/**
+	 * Update the hash with the given bytes.
+	 * @param bytes the bytes to process
+	 * @param offset the offset into {@code bytes}
+	 * @param length the number of bytes to process
+	 */
+	void update(byte[] bytes, int offset, int length);
+
+	/**
+	 * Update the hash with the remaining bytes of the given buffer, consuming them.
+	 * @param byteBuffer the bytes to process
+	 */
+	default void update(ByteBuffer byteBuffer) {
+		if (byteBuffer.hasArray()) {
+			update(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining());
+			((Buffer) byteBuffer).position(byteBuffer.limit());
+		}
+		else {
+			byte[] bytes = new byte[Math.min(byteBuffer.remaining(), 4096)];
+			while (byteBuffer.hasRemaining()) {
+				int length = Math.min(byteBuffer.remaining(), bytes.length);
+				byteBuffer.get(bytes, 0, length);
+				update(bytes, 0, length);
+			}
+		}
+	}
+
+	/**
+	 * Complete the hash and return it as a hex string.
+	 */
+	String digestAsHex();
+
+
+	/**
+	 * Return a digester computing an MD5 hash, as used by default.
+	 */
+	static EtagDigester md5() {
+		return new MessageDigestEtagDigester("MD5");
+	}
+
+	/**
+	 * Return a digester computing a 64-bit xxHash (XXH64, seed 0). This is
+	 * considerably faster than MD5, and sufficient for ETag values which are
+	 * not expected to be collision resistant against malicious content.
+	 */
+	static EtagDigester xxHash64() {
+		return new XxHash64EtagDigester();
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * {@link EtagDigester} backed by a {@link MessageDigest}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+class MessageDigestEtagDigester implements EtagDigester {
+
+	private static final char[] HEX_CHARS =
+			{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+
+	private final MessageDigest messageDigest;
+
+
+	MessageDigestEtagDigester(String algorithm) {
+		try {
+			this.messageDigest = MessageDigest.getInstance(algorithm);
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("Could not find MessageDigest with algorithm \"" + algorithm + "\"", ex);
+		}
+	}
+
+
+	@Override
+	public void update(byte[] bytes, int offset, int length) {
+		this.messageDigest.update(bytes, offset, length);
+	}
+
+	@Override
+	public void update(ByteBuffer byteBuffer) {
+		this.messageDigest.update(byteBuffer);
+	}
+
+	@Override
+	public String digestAsHex() {
+		byte[] digest = this.messageDigest.digest();
+		char[] chars = new char[digest.length * 2];
+		for (int i = 0; i < digest.length; i++) {
+			chars[2 * i] = HEX_CHARS[(digest[i] >>> 4) & 0xF];
+			chars[2 * i + 1] = HEX_CHARS[digest[i] & 0xF];
+		}
+		return new String(chars);
+	}
+
+}
@@ -16,19 +16,30 @@
 
 package org.springframework.web.filter;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 
 import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
-import org.springframework.util.DigestUtils;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 import org.springframework.web.util.WebUtils;
 
@@ -42,6 +53,12 @@ import org.springframework.web.util.WebUtils;
  * (e.g. a {@link org.springframework.web.servlet.View}) is still rendered.
  * As such, this filter only saves bandwidth, not server performance.
  *
+ * <p>By default, the response body is cached in memory and hashed once complete.
+ * In {@linkplain #setStreaming streaming} mode, the hash is instead updated while
+ * the body is written, and bodies larger than {@link #setMaxInMemorySize} are
+ * spilled to a temporary file. Either way, the body can only be sent once the
+ * ETag is known. The hash algorithm is pluggable through an {@link EtagDigester}.
+ *
  * <p><b>NOTE:</b> As of Spring Framework 5.0, this filter uses request/response
  * decorators built on the Servlet 3.1 API.
  *
@@ -49,6 +66,7 @@ import org.springframework.web.util.WebUtils;
  * @author Rossen Stoyanchev
  * @author Brian Clozel
  * @author Juergen Hoeller
+ * @author Jinwei Sun
  * @since 3.0
  */
 public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
@@ -66,6 +84,12 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	private boolean writeWeakETag = false;
 
+	private Supplier<EtagDigester> digesterFactory = EtagDigester::md5;
+
+	private boolean streaming = false;
+
+	private int maxInMemorySize = 256 * 1024;
+
 
 	/**
 	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
@@ -86,6 +110,50 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return this.writeWeakETag;
 	}
 
+	/**
+	 * Set the factory for the {@link EtagDigester} to hash response bodies with.
+	 * <p>By default this is {@link EtagDigester#md5()}.
+	 * @since 5.2
+	 * @see EtagDigester#xxHash64()
+	 */
+	public void setDigesterFactory(Supplier<EtagDigester> digesterFactory) {
+		Assert.notNull(digesterFactory, "Digester factory must not be null");
+		this.digesterFactory = digesterFactory;
+	}
+
+	/**
+	 * Set whether to hash the response body while it is written, rather than
+	 * caching it in memory and hashing it once complete. This avoids a second
+	 * pass over the body and bounds the memory held per response, see
+	 * {@link #setMaxInMemorySize}.
+	 * <p>Note that {@link #generateETagHeaderValue} is not used in streaming mode.
+	 * <p>By default this is set to {@code false}.
+	 * @since 5.2
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 * Return whether the response body is hashed while it is written.
+	 * @since 5.2
+	 */
+	public boolean isStreaming() {
+		return this.streaming;
+	}
+
+	/**
+	 * Set the maximum number of bytes of a response body to hold in memory in
+	 * {@linkplain #setStreaming streaming} mode. Larger bodies are spilled to
+	 * a temporary file until the ETag is known.
+	 * <p>By default this is set to 256K.
+	 * @since 5.2
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		Assert.isTrue(maxInMemorySize >= 0, "'maxInMemorySize' must not be negative");
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
 
 	/**
 	 * The default value is {@code false} so that the filter may delay the generation
@@ -101,18 +169,40 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 			throws ServletException, IOException {
 
 		HttpServletResponse responseToUse = response;
-		if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
-			responseToUse = new HttpStreamingAwareContentCachingResponseWrapper(response, request);
+		if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper) &&
+				!(response instanceof DigestingResponseWrapper)) {
+			responseToUse = (this.streaming ?
+					new DigestingResponseWrapper(response, request, this.digesterFactory, this.maxInMemorySize) :
+					new HttpStreamingAwareContentCachingResponseWrapper(response, request));
 		}
 
-		filterChain.doFilter(request, responseToUse);
+		try {
+			filterChain.doFilter(request, responseToUse);
 
-		if (!isAsyncStarted(request) && !isContentCachingDisabled(request)) {
-			updateResponse(request, responseToUse);
+			if (!isAsyncStarted(request) && !isContentCachingDisabled(request)) {
+				updateResponse(request, responseToUse);
+			}
+		}
+		finally {
+			if (!isAsyncStarted(request)) {
+				// Release the temporary file of a streaming response, also in case of errors
+				DigestingResponseWrapper digestingWrapper =
+						WebUtils.getNativeResponse(responseToUse, DigestingResponseWrapper.class);
+				if (digestingWrapper != null) {
+					digestingWrapper.discardContent();
+				}
+			}
 		}
 	}
 
 	private void updateResponse(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		DigestingResponseWrapper digestingWrapper =
+				WebUtils.getNativeResponse(response, DigestingResponseWrapper.class);
+		if (digestingWrapper != null) {
+			updateStreamingResponse(request, digestingWrapper);
+			return;
+		}
+
 		ContentCachingResponseWrapper responseWrapper =
 				WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
 		Assert.notNull(responseWrapper, "ContentCachingResponseWrapper not found");
@@ -138,6 +228,25 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		}
 	}
 
+	private void updateStreamingResponse(HttpServletRequest request, DigestingResponseWrapper responseWrapper)
+			throws IOException {
+
+		HttpServletResponse rawResponse = (HttpServletResponse) responseWrapper.getResponse();
+		int statusCode = responseWrapper.getStatusCode();
+		// The body has been digested already: no need to read it again
+		if (!rawResponse.isCommitted() &&
+				isEligibleForEtag(request, responseWrapper, statusCode, StreamUtils.emptyInput())) {
+			String responseETag = formatETagHeaderValue(responseWrapper.getDigestAsHex(), this.writeWeakETag);
+			rawResponse.setHeader(HEADER_ETAG, responseETag);
+			String requestETag = request.getHeader(HEADER_IF_NONE_MATCH);
+			if (requestETag != null && ("*".equals(requestETag) || compareETagHeaderValue(requestETag, responseETag))) {
+				rawResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				return;
+			}
+		}
+		responseWrapper.copyBodyToResponse(true);
+	}
+
 	/**
 	 * Indicates whether the given request and response are eligible for ETag generation.
 	 * <p>The default implementation returns {@code true} if all conditions match:
@@ -149,7 +258,9 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 	 * @param request the HTTP request
 	 * @param response the HTTP response
 	 * @param responseStatusCode the HTTP response status code
-	 * @param inputStream the response body
+	 * @param inputStream the response body, or an empty stream in
+	 * {@linkplain #setStreaming streaming} mode, where the body has been
+	 * digested while being written
 	 * @return {@code true} if eligible for ETag generation, {@code false} otherwise
 	 */
 	protected boolean isEligibleForEtag(HttpServletRequest request, HttpServletResponse response,
@@ -165,20 +276,30 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	/**
 	 * Generate the ETag header value from the given response body byte array.
-	 * <p>The default implementation generates an MD5 hash.
+	 * <p>The default implementation hashes the body with the configured
+	 * {@link #setDigesterFactory digester}, MD5 by default.
 	 * @param inputStream the response body as an InputStream
 	 * @param isWeak whether the generated ETag should be weak
 	 * @return the ETag header value
-	 * @see org.springframework.util.DigestUtils
 	 */
 	protected String generateETagHeaderValue(InputStream inputStream, boolean isWeak) throws IOException {
-		// length of W/ + " + 0 + 32bits md5 hash + "
-		StringBuilder builder = new StringBuilder(37);
+		EtagDigester digester = this.digesterFactory.get();
+		byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+		int bytesRead;
+		while ((bytesRead = inputStream.read(buffer)) != -1) {
+			digester.update(buffer, 0, bytesRead);
+		}
+		return formatETagHeaderValue(digester.digestAsHex(), isWeak);
+	}
+
+	private static String formatETagHeaderValue(String hash, boolean isWeak) {
+		// length of W/ + " + 0 + hash + "
+		StringBuilder builder = new StringBuilder(hash.length() + 5);
 		if (isWeak) {
 			builder.append("W/");
 		}
 		builder.append("\"0");
-		DigestUtils.appendMd5DigestAsHex(inputStream, builder);
+		builder.append(hash);
 		builder.append('"');
 		return builder.toString();
 	}
@@ -235,4 +356,315 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		}
 	}
 
+
+	/**
+	 * Response wrapper for {@linkplain #setStreaming streaming} mode: updates an
+	 * {@link EtagDigester} with all content written, and holds the content in
+	 * memory up to a threshold, or in a temporary file beyond that.
+	 */
+	private static class DigestingResponseWrapper extends HttpServletResponseWrapper {
+
+		private final HttpServletRequest request;
+
+		private final Supplier<EtagDigester> digesterFactory;
+
+		private EtagDigester digester;
+
+		private final SpillingContent content;
+
+		private final OutputStream digestingContent = new DigestingOutputStream();
+
+		@Nullable
+		private ServletOutputStream outputStream;
+
+		@Nullable
+		private PrintWriter writer;
+
+		private int statusCode = HttpServletResponse.SC_OK;
+
+		public DigestingResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+				Supplier<EtagDigester> digesterFactory, int maxInMemorySize) {
+
+			super(response);
+			this.request = request;
+			this.digesterFactory = digesterFactory;
+			this.digester = digesterFactory.get();
+			this.content = new SpillingContent(maxInMemorySize);
+		}
+
+		@Override
+		public void setStatus(int sc) {
+			super.setStatus(sc);
+			this.statusCode = sc;
+		}
+
+		@SuppressWarnings("deprecation")
+		@Override
+		public void setStatus(int sc, String sm) {
+			super.setStatus(sc, sm);
+			this.statusCode = sc;
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			copyBodyToResponse(false);
+			try {
+				super.sendError(sc);
+			}
+			catch (IllegalStateException ex) {
+				// Possibly on Tomcat when called too late: fall back to silent setStatus
+				super.setStatus(sc);
+			}
+			this.statusCode = sc;
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		public void sendError(int sc, String msg) throws IOException {
+			copyBodyToResponse(false);
+			try {
+				super.sendError(sc, msg);
+			}
+			catch (IllegalStateException ex) {
+				// Possibly on Tomcat when called too late: fall back to silent setStatus
+				super.setStatus(sc, msg);
+			}
+			this.statusCode = sc;
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			copyBodyToResponse(false);
+			super.sendRedirect(location);
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (useRawResponse()) {
+				return getResponse().getOutputStream();
+			}
+			if (this.outputStream == null) {
+				this.outputStream = new DigestingServletOutputStream(getResponse().getOutputStream());
+			}
+			return this.outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (useRawResponse()) {
+				return getResponse().getWriter();
+			}
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new DigestingPrintWriter(characterEncoding != null ?
+						characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING);
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			// do not flush the underlying response as the content has not been copied to it yet
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			// the content length is set once the content is copied to the response
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			// the content length is set once the content is copied to the response
+		}
+
+		@Override
+		public void resetBuffer() {
+			this.content.reset();
+			this.digester = this.digesterFactory.get();
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			resetBuffer();
+		}
+
+		public int getStatusCode() {
+			return this.statusCode;
+		}
+
+		public String getDigestAsHex() {
+			return this.digester.digestAsHex();
+		}
+
+		public void copyBodyToResponse(boolean complete) throws IOException {
+			if (this.content.size() > 0) {
+				HttpServletResponse rawResponse = (HttpServletResponse) getResponse();
+				if (complete && !rawResponse.isCommitted()) {
+					rawResponse.setContentLengthLong(this.content.size());
+				}
+				this.content.writeTo(rawResponse.getOutputStream());
+				this.content.reset();
+				if (complete) {
+					super.flushBuffer();
+				}
+			}
+		}
+
+		public void discardContent() {
+			this.content.reset();
+		}
+
+		private boolean useRawResponse() {
+			return isContentCachingDisabled(this.request);
+		}
+
+
+		private class DigestingOutputStream extends OutputStream {
+
+			private final byte[] single = new byte[1];
+
+			@Override
+			public void write(int b) throws IOException {
+				this.single[0] = (byte) b;
+				write(this.single, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				digester.update(b, off, len);
+				content.write(b, off, len);
+			}
+		}
+
+
+		private class DigestingServletOutputStream extends ServletOutputStream {
+
+			private final ServletOutputStream os;
+
+			public DigestingServletOutputStream(ServletOutputStream os) {
+				this.os = os;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				digestingContent.write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				digestingContent.write(b, off, len);
+			}
+
+			@Override
+			public boolean isReady() {
+				return this.os.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				this.os.setWriteListener(writeListener);
+			}
+		}
+
+
+		private class DigestingPrintWriter extends PrintWriter {
+
+			public DigestingPrintWriter(String characterEncoding) throws UnsupportedEncodingException {
+				super(new OutputStreamWriter(digestingContent, characterEncoding));
+			}
+
+			@Override
+			public void write(char[] buf, int off, int len) {
+				super.write(buf, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(String s, int off, int len) {
+				super.write(s, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(int c) {
+				super.write(c);
+				super.flush();
+			}
+		}
+	}
+
+
+	/**
+	 * Response content held in memory up to a threshold, and in a temporary
+	 * file beyond that.
+	 */
+	private static class SpillingContent {
+
+		private final int maxInMemorySize;
+
+		private final FastByteArrayOutputStream memory = new FastByteArrayOutputStream(1024);
+
+		@Nullable
+		private Path file;
+
+		@Nullable
+		private OutputStream fileOutputStream;
+
+		private long size;
+
+		public SpillingContent(int maxInMemorySize) {
+			this.maxInMemorySize = maxInMemorySize;
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (this.fileOutputStream == null && this.size + len > this.maxInMemorySize) {
+				Path file = Files.createTempFile("etag-", ".tmp");
+				this.file = file;
+				this.fileOutputStream = new BufferedOutputStream(Files.newOutputStream(file));
+				this.memory.writeTo(this.fileOutputStream);
+				this.memory.reset();
+			}
+			if (this.fileOutputStream != null) {
+				this.fileOutputStream.write(b, off, len);
+			}
+			else {
+				this.memory.write(b, off, len);
+			}
+			this.size += len;
+		}
+
+		public long size() {
+			return this.size;
+		}
+
+		public void writeTo(OutputStream out) throws IOException {
+			if (this.file != null && this.fileOutputStream != null) {
+				this.fileOutputStream.flush();
+				Files.copy(this.file, out);
+			}
+			else {
+				this.memory.writeTo(out);
+			}
+		}
+
+		public void reset() {
+			this.memory.reset();
+			this.size = 0;
+			if (this.file != null) {
+				try {
+					if (this.fileOutputStream != null) {
+						this.fileOutputStream.close();
+					}
+					Files.deleteIfExists(this.file);
+				}
+				catch (IOException ex) {
+					// ignore, the temporary file is in the default temporary-file directory
+				}
+				this.file = null;
+				this.fileOutputStream = null;
+			}
+		}
+	}
+
 }
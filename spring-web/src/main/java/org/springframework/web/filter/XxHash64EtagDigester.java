@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+/**
+ * Streaming implementation of the 64-bit xxHash algorithm (XXH64) with a
+ * seed of 0, as specified at <a href="https://github.com/Cyan4973/xxHash">
+ * github.com/Cyan4973/xxHash</a>.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+class XxHash64EtagDigester implements EtagDigester {
+
+	private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+
+	private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+
+	private static final long PRIME64_3 = 0x165667B19E3779F9L;
+
+	private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+
+	private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+
+	private long v1 = PRIME64_1 + PRIME64_2;
+
+	private long v2 = PRIME64_2;
+
+	private long v3 = 0;
+
+	private long v4 = -PRIME64_1;
+
+	private long totalLength;
+
+	private final byte[] pending = new byte[32];
+
+	private int pendingLength;
+
+
+	@Override
+	public void update(byte[] bytes, int offset, int length) {
+		this.totalLength += length;
+		int end = offset + length;
+
+		if (this.pendingLength + length < 32) {
+			System.arraycopy(bytes, offset, this.pending, this.pendingLength, length);
+			this.pendingLength += length;
+			return;
+		}
+		if (this.pendingLength > 0) {
+			int fill = 32 - this.pendingLength;
+			System.arraycopy(bytes, offset, this.pending, this.pendingLength, fill);
+			processStripe(this.pending, 0);
+			offset += fill;
+			this.pendingLength = 0;
+		}
+		for (; offset <= end - 32; offset += 32) {
+			processStripe(bytes, offset);
+		}
+		if (offset < end) {
+			this.pendingLength = end - offset;
+			System.arraycopy(bytes, offset, this.pending, 0, this.pendingLength);
+		}
+	}
+
+	private void processStripe(byte[] bytes, int offset) {
+		this.v1 = round(this.v1, readLong(bytes, offset));
+		this.v2 = round(this.v2, readLong(bytes, offset + 8));
+		this.v3 = round(this.v3, readLong(bytes, offset + 16));
+		this.v4 = round(this.v4, readLong(bytes, offset + 24));
+	}
+
+	@Override
+	public String digestAsHex() {
+		long hash;
+		if (this.totalLength >= 32) {
+			hash = Long.rotateLeft(this.v1, 1) + Long.rotateLeft(this.v2, 7) +
+					Long.rotateLeft(this.v3, 12) + Long.rotateLeft(this.v4, 18);
+			hash = mergeRound(hash, this.v1);
+			hash = mergeRound(hash, this.v2);
+			hash = mergeRound(hash, this.v3);
+			hash = mergeRound(hash, this.v4);
+		}
+		else {
+			hash = PRIME64_5;
+		}
+		hash += this.totalLength;
+
+		int offset = 0;
+		for (; offset <= this.pendingLength - 8; offset += 8) {
+			hash ^= round(0, readLong(this.pending, offset));
+			hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+		}
+		if (offset <= this.pendingLength - 4) {
+			hash ^= (readInt(this.pending, offset) & 0xFFFFFFFFL) * PRIME64_1;
+			hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+			offset += 4;
+		}
+		for (; offset < this.pendingLength; offset++) {
+			hash ^= (this.pending[offset] & 0xFFL) * PRIME64_5;
+			hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+		}
+
+		hash ^= hash >>> 33;
+		hash *= PRIME64_2;
+		hash ^= hash >>> 29;
+		hash *= PRIME64_3;
+		hash ^= hash >>> 32;
+
+		String hex = Long.toHexString(hash);
+		return (hex.length() < 16 ? "0000000000000000".substring(hex.length()) + hex : hex);
+	}
+
+
+	private static long round(long acc, long input) {
+		acc += input * PRIME64_2;
+		acc = Long.rotateLeft(acc, 31);
+		return acc * PRIME64_1;
+	}
+
+	private static long mergeRound(long acc, long value) {
+		acc ^= round(0, value);
+		return acc * PRIME64_1 + PRIME64_4;
+	}
+
+	private static long readLong(byte[] bytes, int offset) {
+		return (bytes[offset] & 0xFFL) |
+				(bytes[offset + 1] & 0xFFL) << 8 |
+				(bytes[offset + 2] & 0xFFL) << 16 |
+				(bytes[offset + 3] & 0xFFL) << 24 |
+				(bytes[offset + 4] & 0xFFL) << 32 |
+				(bytes[offset + 5] & 0xFFL) << 40 |
+				(bytes[offset + 6] & 0xFFL) << 48 |
+				(bytes[offset + 7] & 0xFFL) << 56;
+	}
+
+	private static int readInt(byte[] bytes, int offset) {
+		return (bytes[offset] & 0xFF) |
+				(bytes[offset + 1] & 0xFF) << 8 |
+				(bytes[offset + 2] & 0xFF) << 16 |
+				(bytes[offset + 3] & 0xFF) << 24;
+	}
+
+}
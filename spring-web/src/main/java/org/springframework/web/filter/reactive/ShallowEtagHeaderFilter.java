@@ -0,0 +1,278 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import org.springframework.core.io.buffer.CompositeDataBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.EtagDigester;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Reactive {@link WebFilter} that generates an {@code ETag} value based on the
+ * content of the response. This ETag is compared to the {@code If-None-Match}
+ * header of the request. If these headers are equal, the response content is
+ * not sent, but rather a {@code 304 "Not Modified"} status instead.
+ *
+ * <p>The hash is updated as the data buffers of the body are emitted, and the
+ * buffers are held until the body completes, without copying them. Bodies
+ * that exceed the {@linkplain #setMaxInMemorySize maximum in-memory size} are
+ * written without an ETag as soon as the limit is reached, as are bodies
+ * written with {@link ServerHttpResponse#writeAndFlushWith}, e.g. streaming
+ * responses.
+ *
+ * <p>As with the Servlet {@link org.springframework.web.filter.ShallowEtagHeaderFilter},
+ * this filter only saves bandwidth, not server performance.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+public class ShallowEtagHeaderFilter implements WebFilter {
+
+	private boolean writeWeakETag = false;
+
+	private Supplier<EtagDigester> digesterFactory = EtagDigester::md5;
+
+	private int maxInMemorySize = 256 * 1024;
+
+
+	/**
+	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
+	 * @see <a href="https://tools.ietf.org/html/rfc7232#section-2.3">RFC 7232 section 2.3</a>
+	 */
+	public void setWriteWeakETag(boolean writeWeakETag) {
+		this.writeWeakETag = writeWeakETag;
+	}
+
+	/**
+	 * Return whether the ETag value written to the response should be weak, as per RFC 7232.
+	 */
+	public boolean isWriteWeakETag() {
+		return this.writeWeakETag;
+	}
+
+	/**
+	 * Set the factory for the {@link EtagDigester} to hash response bodies with.
+	 * <p>By default this is {@link EtagDigester#md5()}.
+	 * @see EtagDigester#xxHash64()
+	 */
+	public void setDigesterFactory(Supplier<EtagDigester> digesterFactory) {
+		Assert.notNull(digesterFactory, "Digester factory must not be null");
+		this.digesterFactory = digesterFactory;
+	}
+
+	/**
+	 * Set the maximum number of bytes of a response body to hold while computing
+	 * its ETag. Larger bodies are written without an ETag, starting with the
+	 * buffers held so far, as soon as this limit is exceeded.
+	 * <p>By default this is set to 256K.
+	 * @param maxInMemorySize the maximum number of bytes to hold per response
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		Assert.isTrue(maxInMemorySize >= 0, "'maxInMemorySize' must not be negative");
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+			return chain.filter(exchange);
+		}
+		ServerHttpResponse response = new EtagResponseDecorator(exchange);
+		return chain.filter(exchange.mutate().response(response).build());
+	}
+
+	/**
+	 * Indicates whether the given response is eligible for ETag generation.
+	 * <p>The default implementation returns {@code true} if all conditions match:
+	 * <ul>
+	 * <li>response status codes in the {@code 2xx} series</li>
+	 * <li>response ETag header is not set yet</li>
+	 * <li>response Cache-Control header is not set or does not contain a "no-store" directive</li>
+	 * </ul>
+	 * @param exchange the current exchange
+	 * @return {@code true} if eligible for ETag generation, {@code false} otherwise
+	 */
+	protected boolean isEligibleForEtag(ServerWebExchange exchange) {
+		ServerHttpResponse response = exchange.getResponse();
+		HttpStatus status = response.getStatusCode();
+		if (status != null && !status.is2xxSuccessful()) {
+			return false;
+		}
+		HttpHeaders headers = response.getHeaders();
+		String cacheControl = headers.getCacheControl();
+		return (headers.getETag() == null && (cacheControl == null || !cacheControl.contains("no-store")));
+	}
+
+	private String formatETagHeaderValue(String hash) {
+		return (this.writeWeakETag ? "W/\"0" : "\"0") + hash + "\"";
+	}
+
+	private static boolean isNotModified(List<String> requestETags, String responseETag) {
+		String etag = stripWeakPrefix(responseETag);
+		for (String requestETag : requestETags) {
+			if ("*".equals(requestETag) || etag.equals(stripWeakPrefix(requestETag))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String stripWeakPrefix(String etag) {
+		return (etag.startsWith("W/") ? etag.substring(2) : etag);
+	}
+
+
+	private class EtagResponseDecorator extends ServerHttpResponseDecorator {
+
+		private final ServerWebExchange exchange;
+
+		public EtagResponseDecorator(ServerWebExchange exchange) {
+			super(exchange.getResponse());
+			this.exchange = exchange;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			if (!isEligibleForEtag(this.exchange)) {
+				return super.writeWith(body);
+			}
+			return super.writeWith(Flux.defer(() -> {
+				DigestingBody digestingBody = new DigestingBody(this);
+				return Flux.from(body)
+						.flatMapIterable(digestingBody::onNext, 1)
+						.concatWith(Flux.defer(() -> Flux.fromIterable(digestingBody.onComplete())))
+						.doFinally(digestingBody::onFinally);
+			}));
+		}
+	}
+
+
+	/**
+	 * Digests and holds the buffers of a response body, until the end of the
+	 * body or until the {@linkplain #setMaxInMemorySize maximum in-memory size}
+	 * is exceeded. Held buffers are released in case of errors or cancellation.
+	 */
+	private class DigestingBody {
+
+		private final EtagResponseDecorator response;
+
+		private final EtagDigester digester = digesterFactory.get();
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private long size;
+
+		private boolean passThrough;
+
+		private boolean released;
+
+		DigestingBody(EtagResponseDecorator response) {
+			this.response = response;
+		}
+
+		/**
+		 * Return the buffers to write for the given buffer: none while digesting,
+		 * the buffers held so far once the limit is exceeded, or the given buffer.
+		 */
+		synchronized List<DataBuffer> onNext(DataBuffer buffer) {
+			if (this.released) {
+				DataBufferUtils.release(buffer);
+				return Collections.emptyList();
+			}
+			if (this.passThrough) {
+				return Collections.singletonList(buffer);
+			}
+			this.buffers.add(buffer);
+			this.size += buffer.readableByteCount();
+			if (this.size > maxInMemorySize) {
+				this.passThrough = true;
+				return drainBuffers();
+			}
+			if (buffer instanceof CompositeDataBuffer) {
+				for (ByteBuffer byteBuffer : ((CompositeDataBuffer) buffer).asByteBuffers()) {
+					this.digester.update(byteBuffer);
+				}
+			}
+			else {
+				this.digester.update(buffer.asByteBuffer());
+			}
+			return Collections.emptyList();
+		}
+
+		/**
+		 * Set the ETag, and return the buffers held, unless the response is
+		 * not modified.
+		 */
+		synchronized List<DataBuffer> onComplete() {
+			if (this.passThrough || this.released) {
+				return Collections.emptyList();
+			}
+			String etag = formatETagHeaderValue(this.digester.digestAsHex());
+			this.response.getHeaders().setETag(etag);
+			if (isNotModified(this.response.exchange.getRequest().getHeaders().getIfNoneMatch(), etag)) {
+				this.response.setStatusCode(HttpStatus.NOT_MODIFIED);
+				// the body is not written: drop the Content-Length set for it, if any
+				this.response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+				release();
+				return Collections.emptyList();
+			}
+			return drainBuffers();
+		}
+
+		void onFinally(SignalType signalType) {
+			if (signalType != SignalType.ON_COMPLETE) {
+				synchronized (this) {
+					release();
+				}
+			}
+		}
+
+		private List<DataBuffer> drainBuffers() {
+			List<DataBuffer> result = new ArrayList<>(this.buffers);
+			this.buffers.clear();
+			return result;
+		}
+
+		private void release() {
+			this.released = true;
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+		}
+	}
+
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.FastByteArrayOutputStream;
+
+/**
+ * Size-bounded cache of compressed variants of resources, compressed lazily on
+ * first access with a {@link ResourceCompressor}.
+ *
+ * <p>Variants of resources up to {@link #setMaxInMemoryEntrySize
+ * maxInMemoryEntrySize} bytes are held in memory; variants of larger resources
+ * are stored in files, so that they do not take up heap space. Each tier is
+ * bounded in total size, evicting least recently used entries first.
+ *
+ * <p>Entries are keyed by resource URL and content coding, and validated against
+ * the last-modified timestamp and length of the resource, so that a changed
+ * resource is compressed again. Resources that do not get smaller when
+ * compressed are remembered, and not compressed again. Concurrent requests for
+ * the same resource wait for a single compression in progress.
+ *
+ * <p>Files of evicted entries are deleted once all streams and channels opened
+ * through the returned resource have been closed. Such resources are therefore
+ * not exposed as {@link Resource#isFile() files}, which means that they are
+ * streamed rather than written with zero-copy file transfer. Callers should
+ * open the returned resource right away, since a file may be deleted if its
+ * entry is evicted before it has been opened.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+public class CompressedResourceCache {
+
+	private static final Log logger = LogFactory.getLog(CompressedResourceCache.class);
+
+
+	private int maxInMemoryEntrySize = 64 * 1024;
+
+	private long maxMemorySize = 16 * 1024 * 1024;
+
+	private long maxDiskSize = 256 * 1024 * 1024;
+
+	private int maxEntryCount = 1024;
+
+	@Nullable
+	private volatile Path directory;
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+	private final Map<String, CompletableFuture<Entry>> compressions = new HashMap<>();
+
+	private long memorySize;
+
+	private long diskSize;
+
+
+	/**
+	 * Set the maximum size of resources whose compressed variant is held in
+	 * memory; variants of larger resources are stored on disk.
+	 * <p>By default this is set to 64K.
+	 */
+	public void setMaxInMemoryEntrySize(int maxInMemoryEntrySize) {
+		this.maxInMemoryEntrySize = maxInMemoryEntrySize;
+	}
+
+	/**
+	 * Set the maximum total size of the compressed variants held in memory.
+	 * <p>By default this is set to 16M.
+	 */
+	public void setMaxMemorySize(long maxMemorySize) {
+		this.maxMemorySize = maxMemorySize;
+	}
+
+	/**
+	 * Set the maximum total size of the compressed variants stored on disk.
+	 * <p>By default this is set to 256M.
+	 */
+	public void setMaxDiskSize(long maxDiskSize) {
+		this.maxDiskSize = maxDiskSize;
+	}
+
+	/**
+	 * Set the maximum number of entries, including the entries that remember
+	 * resources which do not get smaller when compressed.
+	 * <p>By default this is set to 1024.
+	 */
+	public void setMaxEntryCount(int maxEntryCount) {
+		this.maxEntryCount = maxEntryCount;
+	}
+
+	/**
+	 * Set the directory to store compressed variants in.
+	 * <p>By default a directory is created in the system temporary directory
+	 * when first needed.
+	 */
+	public void setDirectory(Path directory) {
+		Assert.notNull(directory, "Directory must not be null");
+		this.directory = directory;
+	}
+
+	/**
+	 * Return the total size of the compressed variants held in memory.
+	 */
+	public long getMemorySize() {
+		synchronized (this.entries) {
+			return this.memorySize;
+		}
+	}
+
+	/**
+	 * Return the total size of the compressed variants stored on disk.
+	 */
+	public long getDiskSize() {
+		synchronized (this.entries) {
+			return this.diskSize;
+		}
+	}
+
+
+	/**
+	 * Return the compressed variant of the given resource, compressing it if
+	 * not cached yet, or if the resource changed since.
+	 * @param resource the resource to compress
+	 * @param compressor the compressor for the content coding to use
+	 * @return the compressed variant, or {@code null} if the resource does not
+	 * get smaller when compressed
+	 * @throws IOException if the resource could not be read or compressed
+	 */
+	@Nullable
+	public Resource getCompressedResource(Resource resource, ResourceCompressor compressor) throws IOException {
+		String key = compressor.getContentCoding() + ":" + getKey(resource);
+		long lastModified = resource.lastModified();
+		long length = resource.contentLength();
+
+		CompletableFuture<Entry> compression;
+		synchronized (this.entries) {
+			Entry entry = this.entries.get(key);
+			if (entry != null) {
+				if (entry.lastModified == lastModified && entry.length == length) {
+					return entry.compressed;
+				}
+				this.entries.remove(key);
+				removed(entry);
+			}
+			compression = this.compressions.get(key);
+			if (compression == null) {
+				this.compressions.put(key, new CompletableFuture<>());
+			}
+		}
+
+		if (compression != null) {
+			return awaitCompression(compression).compressed;
+		}
+
+		Entry entry;
+		try {
+			entry = compress(resource, compressor, lastModified, length);
+		}
+		catch (IOException | RuntimeException ex) {
+			synchronized (this.entries) {
+				compression = this.compressions.remove(key);
+			}
+			compression.completeExceptionally(ex);
+			throw ex;
+		}
+		synchronized (this.entries) {
+			compression = this.compressions.remove(key);
+			Entry previous = this.entries.put(key, entry);
+			if (previous != null) {
+				removed(previous);
+			}
+			if (entry.file != null) {
+				this.diskSize += entry.size;
+			}
+			else {
+				this.memorySize += entry.size;
+			}
+			evict();
+		}
+		compression.complete(entry);
+		return entry.compressed;
+	}
+
+	/**
+	 * Remove all entries, deleting the files of compressed variants.
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.values().forEach(this::removed);
+			this.entries.clear();
+		}
+	}
+
+	private static Entry awaitCompression(CompletableFuture<Entry> compression) throws IOException {
+		try {
+			return compression.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for compression");
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private static String getKey(Resource resource) {
+		try {
+			return resource.getURL().toExternalForm();
+		}
+		catch (IOException ex) {
+			return resource.getDescription();
+		}
+	}
+
+	private Entry compress(Resource resource, ResourceCompressor compressor, long lastModified, long length)
+			throws IOException {
+
+		if (length <= this.maxInMemoryEntrySize) {
+			FastByteArrayOutputStream output = new FastByteArrayOutputStream((int) Math.max(length / 2, 256));
+			try (InputStream input = resource.getInputStream()) {
+				compressor.compress(input, output);
+			}
+			if (output.size() >= length) {
+				return new Entry(lastModified, length, null, 0);
+			}
+			byte[] bytes = output.toByteArray();
+			Entry entry = new Entry(lastModified, length, null, bytes.length);
+			entry.compressed = new ByteArrayResource(bytes, "compressed [" + resource.getDescription() + "]");
+			return entry;
+		}
+
+		Path file = Files.createTempFile(getDirectory(), "resource-", "." + compressor.getContentCoding());
+		try {
+			try (InputStream input = resource.getInputStream(); OutputStream output = Files.newOutputStream(file)) {
+				compressor.compress(input, output);
+			}
+			long size = Files.size(file);
+			if (size >= length) {
+				Files.deleteIfExists(file);
+				return new Entry(lastModified, length, null, 0);
+			}
+			Entry entry = new Entry(lastModified, length, file, size);
+			entry.compressed = new CachedFileResource(entry, file);
+			return entry;
+		}
+		catch (IOException | RuntimeException ex) {
+			Files.deleteIfExists(file);
+			throw ex;
+		}
+	}
+
+	private Path getDirectory() throws IOException {
+		Path directory = this.directory;
+		if (directory == null) {
+			synchronized (this) {
+				directory = this.directory;
+				if (directory == null) {
+					directory = Files.createTempDirectory("spring-compressed-");
+					this.directory = directory;
+				}
+			}
+		}
+		return directory;
+	}
+
+	private void evict() {
+		Iterator<Entry> iterator = this.entries.values().iterator();
+		while ((this.entries.size() > this.maxEntryCount || this.memorySize > this.maxMemorySize ||
+				this.diskSize > this.maxDiskSize) && iterator.hasNext()) {
+			Entry entry = iterator.next();
+			// Entries without a compressed variant only count toward the entry limit
+			boolean overLimit = (this.entries.size() > this.maxEntryCount || (entry.size > 0 &&
+					(entry.file != null ? this.diskSize > this.maxDiskSize : this.memorySize > this.maxMemorySize)));
+			if (overLimit) {
+				iterator.remove();
+				removed(entry);
+			}
+		}
+	}
+
+	private void removed(Entry entry) {
+		if (entry.file != null) {
+			this.diskSize -= entry.size;
+			entry.remove();
+		}
+		else {
+			this.memorySize -= entry.size;
+		}
+	}
+
+
+	private static final class Entry {
+
+		final long lastModified;
+
+		final long length;
+
+		@Nullable
+		Resource compressed;
+
+		@Nullable
+		final Path file;
+
+		final long size;
+
+		// Guarded by this entry
+		private int readers;
+
+		private boolean removed;
+
+		private boolean deleted;
+
+		Entry(long lastModified, long length, @Nullable Path file, long size) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.file = file;
+			this.size = size;
+		}
+
+		synchronized void acquire() throws IOException {
+			if (this.deleted) {
+				throw new FileNotFoundException("Compressed resource file " + this.file + " has been evicted");
+			}
+			this.readers++;
+		}
+
+		synchronized void release() {
+			this.readers--;
+			deleteIfUnused();
+		}
+
+		synchronized void remove() {
+			this.removed = true;
+			deleteIfUnused();
+		}
+
+		private void deleteIfUnused() {
+			Path file = this.file;
+			if (this.removed && this.readers == 0 && !this.deleted && file != null) {
+				this.deleted = true;
+				try {
+					Files.deleteIfExists(file);
+				}
+				catch (IOException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Failed to delete compressed resource file " + file, ex);
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * {@link FileSystemResource} for the file of an entry, keeping the file
+	 * from being deleted while streams or channels opened through it are in use.
+	 * Not exposed as a {@link #isFile() file}, so that callers read it through
+	 * those streams and channels rather than by opening the file themselves.
+	 */
+	private static final class CachedFileResource extends FileSystemResource {
+
+		private final Entry entry;
+
+		CachedFileResource(Entry entry, Path file) {
+			super(file);
+			this.entry = entry;
+		}
+
+		@Override
+		public boolean isFile() {
+			return false;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			this.entry.acquire();
+			try {
+				return new FilterInputStream(super.getInputStream()) {
+					private boolean closed;
+					@Override
+					public void close() throws IOException {
+						try {
+							super.close();
+						}
+						finally {
+							if (!this.closed) {
+								this.closed = true;
+								entry.release();
+							}
+						}
+					}
+				};
+			}
+			catch (IOException | RuntimeException ex) {
+				this.entry.release();
+				throw ex;
+			}
+		}
+
+		@Override
+		public ReadableByteChannel readableChannel() throws IOException {
+			this.entry.acquire();
+			try {
+				ReadableByteChannel channel = super.readableChannel();
+				return new ReadableByteChannel() {
+					private boolean closed;
+					@Override
+					public int read(ByteBuffer dst) throws IOException {
+						return channel.read(dst);
+					}
+					@Override
+					public boolean isOpen() {
+						return channel.isOpen();
+					}
+					@Override
+					public void close() throws IOException {
+						try {
+							channel.close();
+						}
+						finally {
+							if (!this.closed) {
+								this.closed = true;
+								entry.release();
+							}
+						}
+					}
+				};
+			}
+			catch (IOException | RuntimeException ex) {
+				this.entry.release();
+				throw ex;
+			}
+		}
+	}
+
+}
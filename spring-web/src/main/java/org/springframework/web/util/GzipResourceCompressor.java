@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ResourceCompressor} for the {@code "gzip"} content coding, based on
+ * {@link GZIPOutputStream}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+class GzipResourceCompressor implements ResourceCompressor {
+
+	private final int level;
+
+
+	GzipResourceCompressor(int level) {
+		Assert.isTrue(level == Deflater.DEFAULT_COMPRESSION ||
+				(level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+				() -> "Invalid compression level: " + level);
+		this.level = level;
+	}
+
+
+	@Override
+	public String getContentCoding() {
+		return "gzip";
+	}
+
+	@Override
+	public void compress(InputStream input, OutputStream output) throws IOException {
+		LevelGZIPOutputStream gzip = new LevelGZIPOutputStream(StreamUtils.nonClosing(output), this.level);
+		StreamUtils.copy(input, gzip);
+		gzip.finish();
+		gzip.close();
+	}
+
+
+	private static class LevelGZIPOutputStream extends GZIPOutputStream {
+
+		LevelGZIPOutputStream(OutputStream output, int level) throws IOException {
+			super(output, StreamUtils.BUFFER_SIZE);
+			this.def.setLevel(level);
+		}
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Strategy to compress resource content for a given HTTP content coding,
+ * e.g. {@code "gzip"}, as used by {@link CompressedResourceCache}.
+ *
+ * <p>A gzip implementation is available through {@link #gzip()}; other
+ * codings such as {@code "br"} or {@code "zstd"} can be plugged in through
+ * implementations based on a third-party library.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ */
+public interface ResourceCompressor {
+
+	/**
+	 * Return the content coding produced by this compressor, as used in the
+	 * {@code Accept-Encoding} and {@code Content-Encoding} headers.
+	 */
+	String getContentCoding();
+
+	/**
+	 * Compress the content of the given input stream into the given output
+	 * stream. Neither stream is to be closed.
+	 * @param input the content to compress
+	 * @param output the stream to write the compressed content to
+	 * @throws IOException in case of I/O errors
+	 */
+	void compress(InputStream input, OutputStream output) throws IOException;
+
+
+	/**
+	 * Return a gzip compressor with the default compression level.
+	 */
+	static ResourceCompressor gzip() {
+		return gzip(Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Return a gzip compressor with the given compression level.
+	 * @param level the compression level, from 0 to 9
+	 * @see Deflater#setLevel(int)
+	 */
+	static ResourceCompressor gzip(int level) {
+		return new GzipResourceCompressor(level);
+	}
+
+}
@@ -16,6 +16,10 @@
 
 package org.springframework.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -38,6 +42,9 @@ import java.util.TimeZone;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
 import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.*;
@@ -558,4 +565,40 @@ public class HttpHeadersTests {
 		assertEquals("Bearer foo", authorization);
 	}
 
+	@Test
+	public void readOnlyHttpHeadersCopy() {
+		headers.add("Foo", "bar");
+		HttpHeaders readOnly = HttpHeaders.readOnlyHttpHeaders(headers);
+		headers.add("Bar", "baz");
+		assertEquals(Collections.singletonList("bar"), readOnly.get("foo"));
+		assertFalse(readOnly.containsKey("Bar"));
+	}
+
+	@Test
+	public void readOnlyHttpHeadersView() throws Exception {
+		MultiValueMap<String, String> map = new LinkedMultiValueMap<>();
+		map.add("Foo", "bar");
+		HttpHeaders readOnly = HttpHeaders.readOnlyHttpHeaders(new HttpHeaders(map));
+		map.add("Foo", "baz");
+		assertEquals(Arrays.asList("bar", "baz"), readOnly.get("Foo"));
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+			oos.writeObject(readOnly);
+		}
+		HttpHeaders deserialized;
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+			deserialized = (HttpHeaders) ois.readObject();
+		}
+		assertEquals(readOnly, deserialized);
+		assertEquals(Arrays.asList("bar", "baz"), deserialized.get("foo"));
+		try {
+			deserialized.add("Foo", "qux");
+			fail("Expected UnsupportedOperationException");
+		}
+		catch (UnsupportedOperationException ex) {
+			// expected
+		}
+	}
+
 }
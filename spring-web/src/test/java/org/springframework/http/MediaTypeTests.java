@@ -42,6 +42,15 @@ public class MediaTypeTests {
 		assertEquals("Invalid toString() returned", "text/plain;q=0.7", result);
 	}
 
+	@Test
+	public void parseMediaTypeCached() {
+		MediaType mediaType = MediaType.parseMediaType("application/vnd.test+json;charset=UTF-8");
+		assertSame(mediaType, MediaType.parseMediaType("application/vnd.test+json;charset=UTF-8"));
+
+		String multipart = "multipart/form-data;boundary=abc";
+		assertNotSame(MediaType.parseMediaType(multipart), MediaType.parseMediaType(multipart));
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void slashInType() {
 		new MediaType("text/plain");
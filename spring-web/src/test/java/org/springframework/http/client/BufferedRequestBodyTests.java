@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link BufferedRequestBody}.
+ *
+ * @author Jinwei Sun
+ */
+public class BufferedRequestBodyTests {
+
+	private final byte[] content = createContent(10000);
+
+	private final StreamingHttpOutputMessage.Body body = outputStream -> {
+		for (int i = 0; i < this.content.length; i += 1000) {
+			outputStream.write(this.content, i, 1000);
+		}
+	};
+
+
+	@Test
+	public void bufferInMemory() throws Exception {
+		try (BufferedRequestBody bufferedBody = BufferedRequestBody.of(this.body, this.content.length)) {
+			assertFalse(bufferedBody.isFileBacked());
+			assertEquals(this.content.length, bufferedBody.size());
+			assertContent(bufferedBody);
+		}
+	}
+
+	@Test
+	public void bufferInFile() throws Exception {
+		BufferedRequestBody bufferedBody = BufferedRequestBody.of(this.body, 2500);
+		try {
+			assertTrue(bufferedBody.isFileBacked());
+			assertEquals(this.content.length, bufferedBody.size());
+			assertContent(bufferedBody);
+		}
+		finally {
+			bufferedBody.close();
+		}
+		try {
+			bufferedBody.getInputStream();
+			fail("Expected IOException");
+		}
+		catch (IOException ex) {
+			// expected, since the file has been deleted
+		}
+	}
+
+	@Test
+	public void bodyFailure() throws Exception {
+		IOException failure = new IOException("Serialization failure");
+		try {
+			BufferedRequestBody.of(outputStream -> {
+				outputStream.write(this.content);
+				throw failure;
+			}, 1000);
+			fail("Expected IOException");
+		}
+		catch (IOException ex) {
+			assertSame(failure, ex);
+		}
+	}
+
+
+	private void assertContent(BufferedRequestBody bufferedBody) throws IOException {
+		for (int i = 0; i < 2; i++) {
+			assertTrue(Arrays.equals(this.content, FileCopyUtils.copyToByteArray(bufferedBody.getInputStream())));
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			bufferedBody.writeTo(outputStream);
+			assertTrue(Arrays.equals(this.content, outputStream.toByteArray()));
+		}
+	}
+
+	private static byte[] createContent(int length) {
+		byte[] content = new byte[length];
+		for (int i = 0; i < length; i++) {
+			content[i] = (byte) i;
+		}
+		return content;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.http.client.support.HttpRequestWrapper;
 
 import static org.junit.Assert.*;
@@ -39,6 +40,7 @@ import static org.junit.Assert.*;
 /**
  * @author Arjen Poutsma
  * @author Juergen Hoeller
+ * @author Jinwei Sun
  */
 public class InterceptingClientHttpRequestFactoryTests {
 
@@ -212,6 +214,87 @@ public class InterceptingClientHttpRequestFactoryTests {
 		assertTrue(Arrays.equals(changedBody, requestMock.body.toByteArray()));
 	}
 
+	@Test
+	public void streamingBody() throws Exception {
+		StreamingHttpOutputMessage.Body body = outputStream -> outputStream.write("Foo".getBytes());
+		List<StreamingHttpOutputMessage.Body> interceptedBodies = new ArrayList<>();
+		StreamingClientHttpRequestInterceptor interceptor = (request, interceptedBody, execution) -> {
+			interceptedBodies.add(interceptedBody);
+			return execution.execute(request, interceptedBody);
+		};
+		requestFactory = new InterceptingClientHttpRequestFactory(requestFactoryMock, Arrays.asList(interceptor, interceptor));
+
+		ClientHttpRequest request = requestFactory.createRequest(new URI("http://example.com"), HttpMethod.POST);
+		((StreamingHttpOutputMessage) request).setBody(body);
+		ClientHttpResponse response = request.execute();
+
+		assertEquals(Arrays.asList(body, body), interceptedBodies);
+		assertTrue(requestMock.executed);
+		assertSame(responseMock, response);
+		assertEquals("Foo", new String(requestMock.body.toByteArray()));
+	}
+
+	@Test
+	public void streamingBodyWithNonStreamingInterceptor() throws Exception {
+		List<byte[]> interceptedBodies = new ArrayList<>();
+		ClientHttpRequestInterceptor interceptor = (request, body, execution) -> {
+			interceptedBodies.add(body);
+			return execution.execute(request, body);
+		};
+		StreamingClientHttpRequestInterceptor streamingInterceptor =
+				(request, body, execution) -> execution.execute(request, body);
+		requestFactory = new InterceptingClientHttpRequestFactory(requestFactoryMock,
+				Arrays.asList(streamingInterceptor, interceptor, streamingInterceptor));
+
+		ClientHttpRequest request = requestFactory.createRequest(new URI("http://example.com"), HttpMethod.POST);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> outputStream.write("Foo".getBytes()));
+		request.execute();
+
+		assertEquals(1, interceptedBodies.size());
+		assertEquals("Foo", new String(interceptedBodies.get(0)));
+		assertEquals("Foo", new String(requestMock.body.toByteArray()));
+	}
+
+	@Test
+	public void streamingBodyContentLengthWithNonStreamingInterceptor() throws Exception {
+		List<Long> contentLengths = new ArrayList<>();
+		ClientHttpRequestInterceptor interceptor = (request, body, execution) -> {
+			contentLengths.add(request.getHeaders().getContentLength());
+			return execution.execute(request, body);
+		};
+		StreamingClientHttpRequestInterceptor streamingInterceptor =
+				(request, body, execution) -> execution.execute(request, body);
+		requestFactory = new InterceptingClientHttpRequestFactory(requestFactoryMock,
+				Arrays.asList(streamingInterceptor, interceptor));
+
+		ClientHttpRequest request = requestFactory.createRequest(new URI("http://example.com"), HttpMethod.POST);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> outputStream.write("Foo".getBytes()));
+		request.execute();
+
+		assertEquals(Collections.singletonList(3L), contentLengths);
+		assertEquals(3, requestMock.getHeaders().getContentLength());
+		assertEquals("Foo", new String(requestMock.body.toByteArray()));
+	}
+
+	@Test
+	public void streamingInterceptorWithBufferedBody() throws Exception {
+		StreamingClientHttpRequestInterceptor interceptor = (request, body, execution) -> {
+			request.getHeaders().add("Foo", "Bar");
+			return execution.execute(request, body);
+		};
+		NoOpInterceptor noOpInterceptor = new NoOpInterceptor();
+		requestFactory = new InterceptingClientHttpRequestFactory(requestFactoryMock,
+				Arrays.asList(interceptor, noOpInterceptor));
+
+		ClientHttpRequest request = requestFactory.createRequest(new URI("http://example.com"), HttpMethod.POST);
+		request.getBody().write("Foo".getBytes());
+		request.execute();
+
+		assertTrue(noOpInterceptor.invoked);
+		assertEquals("Bar", requestMock.getHeaders().getFirst("Foo"));
+		assertEquals("Foo", new String(requestMock.body.toByteArray()));
+	}
+
 
 	private static class NoOpInterceptor implements ClientHttpRequestInterceptor {
 
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jinwei Sun
+ */
+public class ReactiveClientHttpRequestFactoryTests extends AbstractHttpRequestFactoryTestCase {
+
+	private static ReactorResourceFactory resourceFactory;
+
+
+	@BeforeClass
+	public static void createResourceFactory() {
+		resourceFactory = new ReactorResourceFactory();
+		resourceFactory.setUseGlobalResources(false);
+		resourceFactory.afterPropertiesSet();
+	}
+
+	@AfterClass
+	public static void destroyResourceFactory() {
+		resourceFactory.destroy();
+	}
+
+	@Override
+	protected ClientHttpRequestFactory createRequestFactory() {
+		ReactiveClientHttpRequestFactory factory = new ReactiveClientHttpRequestFactory(
+				new ReactorClientHttpConnector(resourceFactory, Function.identity()));
+		factory.setChunkSize(1024);
+		return factory;
+	}
+
+	@Override
+	@Test
+	public void httpMethods() throws Exception {
+		super.httpMethods();
+		assertHttpMethod("patch", HttpMethod.PATCH);
+	}
+
+	@Test
+	public void echoLargeStreamingBody() throws Exception {
+		ClientHttpRequest request = this.factory.createRequest(new URI(this.baseUrl + "/echo"), HttpMethod.POST);
+		byte[] body = new byte[1024 * 1024];
+		for (int i = 0; i < body.length; i++) {
+			body[i] = (byte) i;
+		}
+		// The echoed headers must not indicate a chunked response
+		request.getHeaders().setContentLength(body.length);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> {
+			for (int i = 0; i < body.length; i += 1000) {
+				outputStream.write(body, i, Math.min(1000, body.length - i));
+			}
+		});
+
+		ClientHttpResponse response = request.execute();
+		try {
+			assertEquals(HttpStatus.OK, response.getStatusCode());
+			assertEquals(body.length, response.getHeaders().getContentLength());
+			assertTrue("Invalid body", Arrays.equals(body, FileCopyUtils.copyToByteArray(response.getBody())));
+		}
+		finally {
+			response.close();
+		}
+	}
+
+	@Test
+	public void streamingBodyFailure() throws Exception {
+		ClientHttpRequest request = this.factory.createRequest(new URI(this.baseUrl + "/echo"), HttpMethod.POST);
+		IOException failure = new IOException("Serialization failure");
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> {
+			outputStream.write(new byte[4096]);
+			throw failure;
+		});
+
+		try {
+			request.execute();
+			fail("Expected IOException");
+		}
+		catch (IOException ex) {
+			assertSame(failure, ex);
+		}
+	}
+
+	@Test
+	public void connectionFailure() throws Exception {
+		ClientHttpRequest request = this.factory.createRequest(new URI("http://localhost:1/echo"), HttpMethod.POST);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> outputStream.write(new byte[4096]));
+
+		try {
+			request.execute();
+			fail("Expected IOException");
+		}
+		catch (IOException ex) {
+			// expected
+		}
+	}
+
+}
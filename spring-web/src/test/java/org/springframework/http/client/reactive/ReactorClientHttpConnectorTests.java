@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Function;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.SimpleClientHttpMetricsRecorder.HostMetrics;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ReactorClientHttpConnector}.
+ *
+ * @author Jinwei Sun
+ */
+public class ReactorClientHttpConnectorTests {
+
+	private final SimpleClientHttpMetricsRecorder recorder = new SimpleClientHttpMetricsRecorder();
+
+	private final ReactorResourceFactory resourceFactory = new ReactorResourceFactory();
+
+	private DisposableServer server;
+
+
+	@Before
+	public void setup() {
+		this.server = HttpServer.create().host("localhost").port(0)
+				.handle((request, response) -> request.uri().equals("/empty") ?
+						response.status(HttpResponseStatus.NO_CONTENT).send() :
+						response.keepAlive(!request.uri().equals("/close")).sendString(Mono.just("foo")))
+				.bindNow();
+
+		this.resourceFactory.setUseGlobalResources(false);
+		this.resourceFactory.setMetricsRecorder(this.recorder);
+		this.resourceFactory.afterPropertiesSet();
+	}
+
+	@After
+	public void shutdown() {
+		this.server.disposeNow();
+		this.resourceFactory.destroy();
+	}
+
+
+	@Test
+	public void recordMetrics() {
+		ReactorClientHttpConnector connector = new ReactorClientHttpConnector(this.resourceFactory, Function.identity());
+		assertSame(this.recorder, connector.getMetricsRecorder());
+
+		URI uri = URI.create("http://localhost:" + this.server.port() + "/");
+		for (int i = 0; i < 2; i++) {
+			String body = connector.connect(HttpMethod.GET, uri, ClientHttpRequest::setComplete)
+					.flatMap(response -> DataBufferUtils.join(response.getBody()))
+					.map(buffer -> {
+						String value = StandardCharsets.UTF_8.decode(buffer.asByteBuffer()).toString();
+						DataBufferUtils.release(buffer);
+						return value;
+					})
+					.block(Duration.ofSeconds(5));
+			assertEquals("foo", body);
+		}
+
+		HostMetrics metrics = this.recorder.getHostMetrics("localhost:" + this.server.port());
+		assertNotNull(metrics);
+		assertEquals(2, metrics.getAcquisitionCount());
+		assertEquals(0, metrics.getPendingAcquisitions());
+		assertEquals(0, metrics.getFailedAcquisitionCount());
+		assertEquals(2, metrics.getExchangeCount());
+		assertEquals(0, metrics.getFailedExchangeCount());
+		assertEquals(0, metrics.getActiveExchanges());
+		assertTrue(metrics.getAverageTimeToFirstByte().compareTo(metrics.getAverageConnectTime()) >= 0);
+		assertTrue(metrics.getAverageTotalTime().compareTo(metrics.getAverageTimeToFirstByte()) >= 0);
+	}
+
+	@Test
+	public void recordFailedExchange() {
+		ReactorClientHttpConnector connector = new ReactorClientHttpConnector(this.resourceFactory, Function.identity());
+		URI uri = URI.create("http://localhost:" + this.server.port() + "/");
+
+		try {
+			connector.connect(HttpMethod.GET, uri, request -> Mono.error(new IllegalStateException("boom")))
+					.block(Duration.ofSeconds(5));
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+
+		HostMetrics metrics = this.recorder.getHostMetrics("localhost:" + this.server.port());
+		assertNotNull(metrics);
+		assertEquals(1, metrics.getFailedExchangeCount());
+		assertEquals(0, metrics.getExchangeCount());
+		assertEquals(0, metrics.getActiveExchanges());
+	}
+
+	@Test
+	public void recordExchangeWithUnreadBody() throws Exception {
+		ReactorClientHttpConnector connector = new ReactorClientHttpConnector(this.resourceFactory, Function.identity());
+		URI uri = URI.create("http://localhost:" + this.server.port() + "/close");
+
+		ClientHttpResponse response = connector.connect(HttpMethod.GET, uri, ClientHttpRequest::setComplete)
+				.block(Duration.ofSeconds(5));
+		assertNotNull(response);
+
+		HostMetrics metrics = this.recorder.getHostMetrics("localhost:" + this.server.port());
+		assertNotNull(metrics);
+		for (int i = 0; i < 50 && metrics.getActiveExchanges() > 0; i++) {
+			Thread.sleep(100);
+		}
+		assertEquals(1, metrics.getExchangeCount());
+		assertEquals(0, metrics.getActiveExchanges());
+	}
+
+	@Test
+	public void recordExchangesWithUnreadEmptyBodyOnKeepAliveConnection() throws Exception {
+		ReactorClientHttpConnector connector = new ReactorClientHttpConnector(this.resourceFactory, Function.identity());
+		URI uri = URI.create("http://localhost:" + this.server.port() + "/empty");
+
+		HostMetrics metrics = null;
+		for (int i = 1; i <= 2; i++) {
+			ClientHttpResponse response = connector.connect(HttpMethod.GET, uri, ClientHttpRequest::setComplete)
+					.block(Duration.ofSeconds(5));
+			assertNotNull(response);
+
+			metrics = this.recorder.getHostMetrics("localhost:" + this.server.port());
+			assertNotNull(metrics);
+			for (int j = 0; j < 50 && metrics.getActiveExchanges() > 0; j++) {
+				Thread.sleep(100);
+			}
+			assertEquals(i, metrics.getExchangeCount());
+			assertEquals(0, metrics.getActiveExchanges());
+		}
+		assertEquals(2, metrics.getAcquisitionCount());
+		assertEquals(0, metrics.getPendingAcquisitions());
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.SimpleClientHttpMetricsRecorder.HostMetrics;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link SimpleClientHttpMetricsRecorder}.
+ *
+ * @author Jinwei Sun
+ */
+public class SimpleClientHttpMetricsRecorderTests {
+
+	private final SimpleClientHttpMetricsRecorder recorder = new SimpleClientHttpMetricsRecorder();
+
+
+	@Test
+	public void connectionAcquisitions() {
+		this.recorder.connectionAcquisitionStarted("example.org:443");
+		this.recorder.connectionAcquisitionStarted("example.org:443");
+		this.recorder.connectionAcquisitionStarted("example.org:443");
+
+		HostMetrics metrics = this.recorder.getHostMetrics("example.org:443");
+		assertNotNull(metrics);
+		assertEquals(3, metrics.getPendingAcquisitions());
+
+		this.recorder.connectionAcquired("example.org:443", 100);
+		this.recorder.connectionAcquired("example.org:443", 300);
+		this.recorder.connectionAcquisitionFailed("example.org:443", 1000);
+
+		assertEquals(0, metrics.getPendingAcquisitions());
+		assertEquals(2, metrics.getAcquisitionCount());
+		assertEquals(1, metrics.getFailedAcquisitionCount());
+		assertEquals(Duration.ofNanos(200), metrics.getAverageAcquisitionTime());
+		assertEquals(Duration.ofNanos(300), metrics.getMaxAcquisitionTime());
+	}
+
+	@Test
+	public void exchanges() {
+		URI uri = URI.create("https://example.org/path");
+		this.recorder.exchangeStarted(HttpMethod.GET, uri);
+		this.recorder.exchangeStarted(HttpMethod.GET, uri);
+		this.recorder.exchangeStarted(HttpMethod.GET, uri);
+
+		HostMetrics metrics = this.recorder.getHostMetrics("example.org:443");
+		assertNotNull(metrics);
+		assertEquals(3, metrics.getActiveExchanges());
+
+		this.recorder.exchangeCompleted(new ClientHttpExchangeTimings(HttpMethod.GET, uri, 200, 10, 20, 100, 200, null));
+		this.recorder.exchangeCompleted(new ClientHttpExchangeTimings(HttpMethod.GET, uri, 200, 30, 40, 300, 400, null));
+		this.recorder.exchangeCompleted(new ClientHttpExchangeTimings(HttpMethod.GET, uri, -1, 50, -1, -1, 500, null));
+
+		assertEquals(0, metrics.getActiveExchanges());
+		assertEquals(2, metrics.getExchangeCount());
+		assertEquals(1, metrics.getFailedExchangeCount());
+		assertEquals(Duration.ofNanos(20), metrics.getAverageConnectTime());
+		assertEquals(Duration.ofNanos(30), metrics.getAverageRequestTime());
+		assertEquals(Duration.ofNanos(200), metrics.getAverageTimeToFirstByte());
+		assertEquals(Duration.ofNanos(300), metrics.getAverageTotalTime());
+	}
+
+	@Test
+	public void hostWithExplicitPort() {
+		this.recorder.exchangeStarted(HttpMethod.GET, URI.create("http://localhost:8080/path"));
+		this.recorder.exchangeStarted(HttpMethod.GET, URI.create("http://localhost/path"));
+
+		assertEquals(2, this.recorder.getHostMetrics().size());
+		assertNotNull(this.recorder.getHostMetrics("localhost:8080"));
+		assertNotNull(this.recorder.getHostMetrics("localhost:80"));
+
+		this.recorder.clear();
+		assertTrue(this.recorder.getHostMetrics().isEmpty());
+	}
+
+}
@@ -25,6 +25,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import static java.util.Collections.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.springframework.http.MediaType.*;
@@ -36,6 +37,7 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.CodecException;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
@@ -159,6 +161,49 @@ public class Jackson2JsonEncoderTests extends AbstractDataBufferAllocatingTestCa
 				.verifyComplete();
 	}
 
+	@Test
+	public void encodeAsStreamWithPrettyPrint() throws Exception {
+		ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+		Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(mapper);
+		Flux<Pojo> source = Flux.just(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"));
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> output = encoder.encode(source, this.bufferFactory, type, APPLICATION_STREAM_JSON, emptyMap());
+
+		StepVerifier.create(output)
+				.consumeNextWith(stringConsumer("{\n  \"foo\" : \"foo\",\n  \"bar\" : \"bar\"\n}\n"))
+				.consumeNextWith(stringConsumer("{\n  \"foo\" : \"foofoo\",\n  \"bar\" : \"barbar\"\n}\n"))
+				.verifyComplete();
+	}
+
+	@Test
+	public void encodeAsStreamWithJsonView() throws Exception {
+		JacksonViewBean bean = new JacksonViewBean();
+		bean.setWithView1("with");
+		bean.setWithoutView("without");
+
+		ResolvableType type = ResolvableType.forClass(JacksonViewBean.class);
+		Map<String, Object> hints = singletonMap(JSON_VIEW_HINT, MyJacksonView1.class);
+		Flux<DataBuffer> output = this.encoder.encode(Flux.just(bean, bean), this.bufferFactory, type,
+				APPLICATION_STREAM_JSON, hints);
+
+		StepVerifier.create(output)
+				.consumeNextWith(stringConsumer("{\"withView1\":\"with\"}\n"))
+				.consumeNextWith(stringConsumer("{\"withView1\":\"with\"}\n"))
+				.verifyComplete();
+	}
+
+	@Test
+	public void encodeAsStreamWithError() throws Exception {
+		Flux<Object> source = Flux.just(new Pojo("foo", "bar"), new Object(), new Pojo("foofoo", "barbar"));
+		ResolvableType type = ResolvableType.forClass(Object.class);
+		Flux<DataBuffer> output = this.encoder.encode(source, this.bufferFactory, type, APPLICATION_STREAM_JSON, emptyMap());
+
+		StepVerifier.create(output)
+				.consumeNextWith(stringConsumer("{\"foo\":\"foo\",\"bar\":\"bar\"}\n"))
+				.expectError(CodecException.class)
+				.verify();
+	}
+
 	@Test
 	public void fieldLevelJsonView() throws Exception {
 		JacksonViewBean bean = new JacksonViewBean();
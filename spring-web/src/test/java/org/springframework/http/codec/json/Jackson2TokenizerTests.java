@@ -19,6 +19,7 @@ package org.springframework.http.codec.json;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import com.fasterxml.jackson.core.JsonFactory;
@@ -38,6 +39,7 @@ import org.springframework.core.io.buffer.DataBuffer;
 
 import static java.util.Arrays.*;
 import static java.util.Collections.*;
+import static org.junit.Assert.*;
 
 /**
  * @author Arjen Poutsma
@@ -185,6 +187,74 @@ public class Jackson2TokenizerTests extends AbstractDataBufferAllocatingTestCase
 		tokens.blockLast();
 	}
 
+	@Test
+	public void tokenizeElementPath() {
+		testTokenize(
+				asList("{\"total\": 3, \"items\": [{\"id\":1,\"tags\":[\"a\"]},",
+						"{\"id\":2}, 3], \"next\": {\"items\": [4]}}"),
+				asList("{\"id\":1,\"tags\":[\"a\"]}", "{\"id\":2}", "3"), "/items/*");
+
+		testTokenize(
+				singletonList("{\"data\": {\"items\": [[1, 2], [3]]}}"),
+				asList("[1,2]", "[3]"), "/data/items/*");
+
+		testTokenize(
+				singletonList("{\"data\": [{\"items\": [1, 2]}, {\"items\": [3]}]}"),
+				asList("1", "2", "3"), "/data/*/items/*");
+
+		testTokenize(
+				singletonList("{\"a/b\": [{\"id\": 1}], \"a~b\": [{\"id\": 2}]}"),
+				singletonList("{\"id\": 2}"), "/a~0b/*");
+
+		testTokenize(
+				singletonList("{\"a/b\": [{\"id\": 1}, {\"id\": 2}]}"),
+				emptyList(), "/a~1b/1");
+
+		testTokenize(
+				asList("[{\"id\":1},", "{\"id\":2}]"),
+				asList("{\"id\":1}", "{\"id\":2}"), "/*");
+
+		testTokenize(
+				singletonList("{\"items\": {\"id\": 1}}"),
+				emptyList(), "/items/*");
+	}
+
+	@Test
+	public void maxElementSize() {
+		Flux<DataBuffer> source = Flux.just(
+				stringBuffer("[{\"id\":1},"), stringBuffer("{\"id\":2,\"name\":\"too long\"}]"));
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(source, this.jsonFactory, true, null, 10);
+
+		StepVerifier.create(tokens)
+				.expectNextCount(1)
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void backpressure() {
+		AtomicLong requested = new AtomicLong();
+		Flux<DataBuffer> source = Flux.range(0, 100)
+				.map(i -> stringBuffer(i == 0 ? "{\"items\": [" + i : "," + i))
+				.concatWith(Flux.defer(() -> Flux.just(stringBuffer("]}"))))
+				.doOnRequest(requested::addAndGet);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(source, this.jsonFactory, true, "/items/*", -1);
+
+		StepVerifier.create(tokens, 2)
+				.expectNextCount(2)
+				.then(() -> assertTrue("Requested " + requested.get(), requested.get() < 10))
+				.thenRequest(Long.MAX_VALUE)
+				.expectNextCount(98)
+				.verifyComplete();
+	}
+
+
+	private void testTokenize(List<String> source, List<String> expected, String elementPath) {
+		Flux<TokenBuffer> tokenBufferFlux = Jackson2Tokenizer.tokenize(
+				Flux.fromIterable(source).map(this::stringBuffer),
+				this.jsonFactory, true, elementPath, -1);
+		verifyTokens(tokenBufferFlux, expected);
+	}
 
 	private void testTokenize(List<String> source, List<String> expected, boolean tokenizeArrayElements) {
 
@@ -192,6 +262,10 @@ public class Jackson2TokenizerTests extends AbstractDataBufferAllocatingTestCase
 				Flux.fromIterable(source).map(this::stringBuffer),
 				this.jsonFactory,
 				tokenizeArrayElements);
+		verifyTokens(tokenBufferFlux, expected);
+	}
+
+	private void verifyTokens(Flux<TokenBuffer> tokenBufferFlux, List<String> expected) {
 
 		Flux<String> result = tokenBufferFlux
 				.map(tokenBuffer -> {
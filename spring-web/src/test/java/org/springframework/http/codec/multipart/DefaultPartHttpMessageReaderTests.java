@@ -0,0 +1,320 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.test.MockClientHttpRequest;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.MultiValueMap;
+
+import static java.util.Collections.*;
+import static org.junit.Assert.*;
+import static org.springframework.core.ResolvableType.*;
+
+/**
+ * Unit tests for {@link DefaultPartHttpMessageReader}.
+ *
+ * @author Jinwei Sun
+ */
+public class DefaultPartHttpMessageReaderTests {
+
+	private static final ResolvableType MULTIPART_TYPE =
+			forClassWithGenerics(MultiValueMap.class, String.class, Part.class);
+
+	private static final String BOUNDARY = "simple-boundary";
+
+	private static final String BODY = "This is the preamble.\r\n" +
+			"--simple-boundary\r\n" +
+			"Content-Disposition: form-data; name=\"field\"\r\n" +
+			"\r\n" +
+			"value\r\n" +
+			"--simple-boundary  \r\n" +
+			"Content-Disposition: form-data; name=\"file\"; filename=\"file.txt\"\r\n" +
+			"Content-Type: text/plain\r\n" +
+			"\r\n" +
+			"Line 1\r\n" +
+			"--simple-boundar\r\n" +
+			"Line 3\r\n" +
+			"--simple-boundary\r\n" +
+			"Content-Disposition: form-data; name=\"json\"\r\n" +
+			"Content-Type: application/json\r\n" +
+			"\r\n" +
+			"{\"foo\": \"bar\"}\r\n" +
+			"--simple-boundary--\r\n" +
+			"This is the epilogue.";
+
+
+	private final DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+
+	private final MultipartHttpMessageReader reader = new MultipartHttpMessageReader(this.partReader);
+
+	private Path storageDirectory;
+
+
+	@After
+	public void deleteStorageDirectory() throws IOException {
+		if (this.storageDirectory != null) {
+			FileSystemUtils.deleteRecursively(this.storageDirectory);
+		}
+	}
+
+
+	@Test
+	public void canRead() {
+		assertTrue(this.partReader.canRead(forClass(Part.class), MediaType.MULTIPART_FORM_DATA));
+		assertTrue(this.partReader.canRead(forClass(Part.class), null));
+		assertFalse(this.partReader.canRead(forClass(Part.class), MediaType.APPLICATION_FORM_URLENCODED));
+		assertFalse(this.partReader.canRead(forClass(Object.class), MediaType.MULTIPART_FORM_DATA));
+	}
+
+	@Test
+	public void resolveParts() {
+		MultipartBodyBuilder partsBuilder = new MultipartBodyBuilder();
+		partsBuilder.part("fooPart", new ClassPathResource("org/springframework/http/codec/multipart/foo.txt"));
+		partsBuilder.part("barPart", "bar");
+
+		MockClientHttpRequest outputMessage = new MockClientHttpRequest(HttpMethod.POST, "/");
+		new MultipartHttpMessageWriter()
+				.write(Mono.just(partsBuilder.build()), null, MediaType.MULTIPART_FORM_DATA, outputMessage, null)
+				.block(Duration.ofSeconds(5));
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(outputMessage.getHeaders().getContentType())
+				.body(outputMessage.getBody());
+
+		MultiValueMap<String, Part> parts = this.reader.readMono(MULTIPART_TYPE, request, emptyMap()).block();
+		assertNotNull(parts);
+		assertEquals(2, parts.size());
+
+		Part part = parts.getFirst("fooPart");
+		assertTrue(part instanceof FilePart);
+		assertEquals("foo.txt", ((FilePart) part).filename());
+		assertEquals("Lorem Ipsum.", content(part));
+
+		part = parts.getFirst("barPart");
+		assertTrue(part instanceof FormFieldPart);
+		assertEquals("bar", ((FormFieldPart) part).value());
+	}
+
+	@Test
+	public void parseBody() {
+		verifyParts(read(request(BODY, Integer.MAX_VALUE)));
+	}
+
+	@Test
+	public void parseBodyByteByByte() {
+		verifyParts(read(request(BODY, 1)));
+	}
+
+	@Test
+	public void parseBodyInChunks() {
+		for (int chunkSize = 2; chunkSize < 40; chunkSize++) {
+			verifyParts(read(request(BODY, chunkSize)));
+		}
+	}
+
+	@Test
+	public void quotedBoundary() {
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.header("Content-Type", "multipart/form-data; boundary=\"" + BOUNDARY + "\"")
+				.body(chunks(BODY, 7));
+		verifyParts(read(request));
+	}
+
+	@Test
+	public void storeOnDisk() throws IOException {
+		this.storageDirectory = Files.createTempDirectory("DefaultPartHttpMessageReaderTests");
+		this.partReader.setFileStorageDirectory(this.storageDirectory);
+		this.partReader.setMaxInMemorySize(8);
+
+		List<Part> parts = read(request(BODY, 5));
+		verifyParts(parts);
+		assertEquals(2, fileCount());
+
+		FilePart filePart = (FilePart) parts.get(1);
+		Path dest = this.storageDirectory.resolve("dest.txt");
+		filePart.transferTo(dest).block(Duration.ofSeconds(5));
+		assertEquals("Line 1\r\n--simple-boundar\r\nLine 3",
+				new String(Files.readAllBytes(dest), StandardCharsets.UTF_8));
+		Files.delete(dest);
+
+		parts.get(1).delete().block(Duration.ofSeconds(5));
+		parts.get(2).delete().block(Duration.ofSeconds(5));
+		assertEquals(0, fileCount());
+	}
+
+	@Test
+	public void cancelDeletesPartialContent() throws Exception {
+		this.storageDirectory = Files.createTempDirectory("DefaultPartHttpMessageReaderTests");
+		this.partReader.setFileStorageDirectory(this.storageDirectory);
+		this.partReader.setMaxInMemorySize(8);
+		String body = BODY.substring(0, BODY.indexOf("Line 3"));
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+				.body(chunks(body, 5).concatWith(Flux.never()));
+
+		StepVerifier.create(this.partReader.read(forClass(Part.class), request, emptyMap()))
+				.expectNextMatches(part -> part instanceof FormFieldPart)
+				.then(() -> awaitFileCount(1))
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+		awaitFileCount(0);
+	}
+
+	@Test
+	public void maxParts() {
+		this.partReader.setMaxParts(2);
+		StepVerifier.create(this.partReader.read(forClass(Part.class), request(BODY, 10), emptyMap()))
+				.expectNextCount(2)
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void formFieldTooLarge() {
+		this.partReader.setMaxInMemorySize(4);
+		StepVerifier.create(this.partReader.read(forClass(Part.class), request(BODY, 10), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void headersTooLarge() {
+		this.partReader.setMaxHeadersSize(20);
+		StepVerifier.create(this.partReader.read(forClass(Part.class), request(BODY, 10), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void noBoundary() {
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(MediaType.MULTIPART_FORM_DATA)
+				.body(chunks(BODY, 10));
+		StepVerifier.create(this.reader.readMono(MULTIPART_TYPE, request, emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void noEnd() {
+		String body = BODY.substring(0, BODY.indexOf("--simple-boundary--"));
+		StepVerifier.create(this.reader.readMono(MULTIPART_TYPE, request(body, 10), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+
+	private List<Part> read(ServerHttpRequest request) {
+		List<Part> parts = this.partReader.read(forClass(Part.class), request, emptyMap())
+				.collectList().block(Duration.ofSeconds(5));
+		assertNotNull(parts);
+		return parts;
+	}
+
+	private static void verifyParts(List<Part> parts) {
+		assertEquals(3, parts.size());
+
+		Part part = parts.get(0);
+		assertTrue(part instanceof FormFieldPart);
+		assertEquals("field", part.name());
+		assertEquals("value", ((FormFieldPart) part).value());
+
+		part = parts.get(1);
+		assertTrue(part instanceof FilePart);
+		assertEquals("file", part.name());
+		assertEquals("file.txt", ((FilePart) part).filename());
+		assertEquals(MediaType.TEXT_PLAIN, part.headers().getContentType());
+		assertEquals("Line 1\r\n--simple-boundar\r\nLine 3", content(part));
+
+		part = parts.get(2);
+		assertFalse(part instanceof FormFieldPart);
+		assertFalse(part instanceof FilePart);
+		assertEquals("json", part.name());
+		assertEquals("{\"foo\": \"bar\"}", content(part));
+	}
+
+	private static String content(Part part) {
+		DataBuffer buffer = DataBufferUtils.join(part.content()).block(Duration.ofSeconds(5));
+		assertNotNull(buffer);
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		DataBufferUtils.release(buffer);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private long fileCount() throws IOException {
+		try (Stream<Path> files = Files.list(this.storageDirectory)) {
+			return files.count();
+		}
+	}
+
+	private void awaitFileCount(long count) {
+		try {
+			for (int i = 0; i < 100 && fileCount() != count; i++) {
+				Thread.sleep(50);
+			}
+			assertEquals(count, fileCount());
+		}
+		catch (IOException | InterruptedException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static ServerHttpRequest request(String body, int chunkSize) {
+		return MockServerHttpRequest.post("/")
+				.header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+				.body(chunks(body, chunkSize));
+	}
+
+	private static Flux<DataBuffer> chunks(String body, int chunkSize) {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+			int length = Math.min(chunkSize, bytes.length - offset);
+			DataBuffer buffer = new DefaultDataBufferFactory().allocateBuffer(length);
+			buffer.write(bytes, offset, length);
+			buffers.add(buffer);
+		}
+		return Flux.fromIterable(buffers);
+	}
+
+}
@@ -52,6 +52,7 @@ import org.springframework.http.codec.json.Jackson2JsonDecoder;
 import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.http.codec.json.Jackson2SmileDecoder;
 import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
 import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
 import org.springframework.http.codec.multipart.SynchronossPartHttpMessageReader;
 import org.springframework.http.codec.protobuf.ProtobufDecoder;
@@ -67,6 +68,7 @@ import static org.springframework.core.ResolvableType.forClass;
  * Unit tests for {@link ServerCodecConfigurer}.
  *
  * @author Rossen Stoyanchev
+ * @author Jinwei Sun
  */
 public class ServerCodecConfigurerTests {
 
@@ -124,6 +126,18 @@ public class ServerCodecConfigurerTests {
 				.filter(e -> e == encoder).orElse(null));
 	}
 
+	@Test
+	public void partReaderOverride() {
+		DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+		this.configurer.defaultCodecs().partReader(partReader);
+
+		List<HttpMessageReader<?>> readers = this.configurer.getReaders();
+		assertEquals(13, readers.size());
+		assertTrue(readers.contains(partReader));
+		assertFalse(readers.stream().anyMatch(reader -> reader instanceof SynchronossPartHttpMessageReader));
+		assertEquals(1, readers.stream().filter(reader -> reader instanceof MultipartHttpMessageReader).count());
+	}
+
 
 	private Decoder<?> getNextDecoder(List<HttpMessageReader<?>> readers) {
 		HttpMessageReader<?> reader = readers.get(this.index.getAndIncrement());
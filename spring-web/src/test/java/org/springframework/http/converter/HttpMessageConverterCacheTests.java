@@ -0,0 +1,123 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.converter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.http.MediaType;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Unit tests for {@link HttpMessageConverterCache}.
+ *
+ * @author Jinwei Sun
+ */
+public class HttpMessageConverterCacheTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getReader() {
+		HttpMessageConverter<String> converter = mock(HttpMessageConverter.class);
+		given(converter.canRead(String.class, MediaType.TEXT_PLAIN)).willReturn(true);
+		HttpMessageConverterCache cache = new HttpMessageConverterCache(
+				Arrays.asList(new ByteArrayHttpMessageConverter(), converter));
+
+		assertSame(converter, cache.getReader(String.class, null, MediaType.TEXT_PLAIN));
+		assertSame(converter, cache.getReader(String.class, null, MediaType.TEXT_PLAIN));
+		assertNull(cache.getReader(String.class, null, MediaType.APPLICATION_JSON));
+		assertNull(cache.getReader(String.class, null, MediaType.APPLICATION_JSON));
+
+		verify(converter, times(1)).canRead(String.class, MediaType.TEXT_PLAIN);
+		verify(converter, times(1)).canRead(String.class, MediaType.APPLICATION_JSON);
+	}
+
+	@Test
+	public void getWriter() {
+		StringHttpMessageConverter stringConverter = new StringHttpMessageConverter();
+		ByteArrayHttpMessageConverter byteArrayConverter = new ByteArrayHttpMessageConverter();
+		HttpMessageConverterCache cache = new HttpMessageConverterCache(
+				Arrays.asList(byteArrayConverter, stringConverter));
+
+		assertSame(stringConverter, cache.getWriter(String.class, String.class, MediaType.TEXT_PLAIN));
+		assertSame(byteArrayConverter, cache.getWriter(byte[].class, byte[].class, null));
+		assertNull(cache.getWriter(Integer.class, Integer.class, null));
+	}
+
+	@Test
+	public void getMediaTypes() {
+		StringHttpMessageConverter stringConverter = new StringHttpMessageConverter();
+		HttpMessageConverterCache cache = new HttpMessageConverterCache(
+				Arrays.asList(new ByteArrayHttpMessageConverter(), stringConverter));
+
+		assertEquals(stringConverter.getSupportedMediaTypes(), cache.getReadableMediaTypes(String.class));
+		assertEquals(stringConverter.getSupportedMediaTypes(), cache.getWritableMediaTypes(null, String.class));
+		assertTrue(cache.getWritableMediaTypes(null, Integer.class).isEmpty());
+	}
+
+	@Test
+	public void convertersChanged() {
+		List<HttpMessageConverter<?>> converters = new ArrayList<>();
+		converters.add(new ByteArrayHttpMessageConverter());
+		HttpMessageConverterCache cache = new HttpMessageConverterCache(converters);
+		assertNull(cache.getWriter(String.class, String.class, null));
+
+		StringHttpMessageConverter stringConverter = new StringHttpMessageConverter();
+		converters.add(stringConverter);
+		assertSame(stringConverter, cache.getWriter(String.class, String.class, null));
+
+		StringHttpMessageConverter otherConverter = new StringHttpMessageConverter();
+		converters.set(1, otherConverter);
+		assertSame(otherConverter, cache.getWriter(String.class, String.class, null));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cacheBeyondLimit() {
+		HttpMessageConverter<String> converter = mock(HttpMessageConverter.class);
+		HttpMessageConverterCache cache = new HttpMessageConverterCache(Collections.singletonList(converter));
+		for (int i = 0; i < 2000; i++) {
+			cache.getReader(String.class, null, new MediaType("text", "plain", Collections.singletonMap("p", "" + i)));
+		}
+
+		MediaType mediaType = new MediaType("text", "plain", Collections.singletonMap("p", "last"));
+		given(converter.canRead(String.class, mediaType)).willReturn(true);
+		assertSame(converter, cache.getReader(String.class, null, mediaType));
+		assertSame(converter, cache.getReader(String.class, null, mediaType));
+		verify(converter, times(1)).canRead(String.class, mediaType);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void clear() {
+		HttpMessageConverter<String> converter = mock(HttpMessageConverter.class);
+		given(converter.canRead(String.class, MediaType.TEXT_PLAIN)).willReturn(true);
+		HttpMessageConverterCache cache = new HttpMessageConverterCache(Collections.singletonList(converter));
+
+		assertSame(converter, cache.getReader(String.class, null, MediaType.TEXT_PLAIN));
+		cache.clear();
+		assertSame(converter, cache.getReader(String.class, null, MediaType.TEXT_PLAIN));
+		verify(converter, times(2)).canRead(String.class, MediaType.TEXT_PLAIN);
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HttpString;
+import org.eclipse.jetty.http.HttpFields;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link AbstractHeadersAdapter} implementations.
+ *
+ * @author Jinwei Sun
+ */
+@RunWith(Parameterized.class)
+public class HeadersAdaptersTests {
+
+	@Parameters(name = "{0}")
+	public static Object[][] adapters() {
+		return new Object[][] {
+				{"Netty", (Supplier<NativeHeaders>) () -> {
+					DefaultHttpHeaders headers = new DefaultHttpHeaders();
+					headers.add("Content-Type", "text/plain");
+					headers.add("X-Foo", "a");
+					headers.add("X-Foo", "b");
+					return new NativeHeaders(new NettyHeadersAdapter(headers), headers::get);
+				}},
+				{"Undertow", (Supplier<NativeHeaders>) () -> {
+					HeaderMap headers = new HeaderMap();
+					headers.add(HttpString.tryFromString("Content-Type"), "text/plain");
+					headers.add(HttpString.tryFromString("X-Foo"), "a");
+					headers.add(HttpString.tryFromString("X-Foo"), "b");
+					return new NativeHeaders(new UndertowHeadersAdapter(headers), headers::getFirst);
+				}},
+				{"Jetty", (Supplier<NativeHeaders>) () -> {
+					HttpFields headers = new HttpFields();
+					headers.add("Content-Type", "text/plain");
+					headers.add("X-Foo", "a");
+					headers.add("X-Foo", "b");
+					return new NativeHeaders(new JettyHeadersAdapter(headers), headers::get);
+				}}
+		};
+	}
+
+	@Parameterized.Parameter
+	public String server;
+
+	@Parameterized.Parameter(1)
+	public Supplier<NativeHeaders> nativeHeadersSupplier;
+
+	private NativeHeaders nativeHeaders;
+
+	private AbstractHeadersAdapter adapter;
+
+
+	@Before
+	public void setup() {
+		this.nativeHeaders = this.nativeHeadersSupplier.get();
+		this.adapter = this.nativeHeaders.adapter;
+	}
+
+
+	@Test
+	public void readThrough() {
+		assertEquals(2, this.adapter.size());
+		assertFalse(this.adapter.isEmpty());
+		assertTrue(this.adapter.containsKey("x-foo"));
+		assertTrue(this.adapter.keySet().contains("X-FOO"));
+		assertFalse(this.adapter.containsKey("X-Bar"));
+		assertNull(this.adapter.get("X-Bar"));
+		assertNull(this.adapter.getFirst("X-Bar"));
+		assertEquals("a", this.adapter.getFirst("x-foo"));
+		assertEquals(Arrays.asList("a", "b"), this.adapter.get("X-Foo"));
+		assertEquals("text/plain", this.adapter.toSingleValueMap().get("Content-Type"));
+		assertEquals(2, this.adapter.entrySet().size());
+	}
+
+	@Test
+	public void httpHeaders() {
+		HttpHeaders headers = HttpHeaders.readOnlyHttpHeaders(new HttpHeaders(this.adapter));
+		assertEquals(MediaType.TEXT_PLAIN, headers.getContentType());
+		assertEquals(Arrays.asList("a", "b"), headers.get("x-foo"));
+		assertEquals("a", headers.getFirst("X-Foo"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void readOnlyHttpHeaders() {
+		HttpHeaders headers = HttpHeaders.readOnlyHttpHeaders(new HttpHeaders(this.adapter));
+		headers.add("X-Bar", "c");
+	}
+
+	@Test
+	public void copyOnModification() {
+		this.adapter.add("X-Foo", "c");
+		this.adapter.set("X-Bar", "d");
+		this.adapter.remove("Content-Type");
+
+		assertEquals(Arrays.asList("a", "b", "c"), this.adapter.get("x-foo"));
+		assertEquals(Collections.singletonList("d"), this.adapter.get("X-Bar"));
+		assertFalse(this.adapter.containsKey("Content-Type"));
+		assertEquals(2, this.adapter.size());
+
+		assertEquals("text/plain", this.nativeHeaders.reader.apply("Content-Type"));
+		assertNull(this.nativeHeaders.reader.apply("X-Bar"));
+	}
+
+
+	private static class NativeHeaders {
+
+		final AbstractHeadersAdapter adapter;
+
+		final Function<String, String> reader;
+
+		NativeHeaders(AbstractHeadersAdapter adapter, Function<String, String> reader) {
+			this.adapter = adapter;
+			this.reader = reader;
+		}
+	}
+
+}
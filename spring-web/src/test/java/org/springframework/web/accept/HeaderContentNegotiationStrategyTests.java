@@ -68,6 +68,16 @@ public class HeaderContentNegotiationStrategyTests {
 		assertEquals("text/plain;q=0.5", mediaTypes.get(3).toString());
 	}
 
+	@Test
+	public void resolveMediaTypesCached() throws Exception {
+		this.servletRequest.addHeader("Accept", "text/plain; q=0.5, text/html");
+		List<MediaType> mediaTypes = this.strategy.resolveMediaTypes(this.webRequest);
+
+		MockHttpServletRequest otherRequest = new MockHttpServletRequest();
+		otherRequest.addHeader("Accept", "text/plain; q=0.5, text/html");
+		assertSame(mediaTypes, this.strategy.resolveMediaTypes(new ServletWebRequest(otherRequest)));
+	}
+
 	@Test(expected = HttpMediaTypeNotAcceptableException.class)
 	public void resolveMediaTypesParseError() throws Exception {
 		this.servletRequest.addHeader("Accept", "textplain; q=0.5");
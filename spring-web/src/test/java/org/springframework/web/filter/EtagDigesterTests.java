@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import org.springframework.util.DigestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EtagDigester} implementations.
+ *
+ * @author Jinwei Sun
+ */
+public class EtagDigesterTests {
+
+	@Test
+	public void md5() {
+		byte[] bytes = "Hello World".getBytes(StandardCharsets.UTF_8);
+		EtagDigester digester = EtagDigester.md5();
+		digester.update(ByteBuffer.wrap(bytes));
+		assertEquals(DigestUtils.md5DigestAsHex(bytes), digester.digestAsHex());
+	}
+
+	@Test
+	public void xxHash64() {
+		assertEquals("ef46db3751d8e999", xxHash64(""));
+		assertEquals("44bc2cf5ad770999", xxHash64("abc"));
+	}
+
+	@Test
+	public void xxHash64Incremental() {
+		byte[] bytes = new byte[1000];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) (i * 31);
+		}
+		EtagDigester whole = EtagDigester.xxHash64();
+		whole.update(bytes, 0, bytes.length);
+
+		EtagDigester parts = EtagDigester.xxHash64();
+		int offset = 0;
+		for (int length = 1; offset < bytes.length; length = length * 2 + 1) {
+			int count = Math.min(length, bytes.length - offset);
+			ByteBuffer buffer = ByteBuffer.allocateDirect(count);
+			buffer.put(bytes, offset, count);
+			buffer.flip();
+			parts.update(buffer);
+			offset += count;
+		}
+		assertEquals(whole.digestAsHex(), parts.digestAsHex());
+	}
+
+
+	private static String xxHash64(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		EtagDigester digester = EtagDigester.xxHash64();
+		digester.update(bytes, 0, bytes.length);
+		return digester.digestAsHex();
+	}
+
+}
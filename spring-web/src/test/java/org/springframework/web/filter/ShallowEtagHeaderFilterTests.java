@@ -16,7 +16,15 @@
 
 package org.springframework.web.filter;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
 import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Test;
@@ -32,6 +40,7 @@ import static org.junit.Assert.*;
  * @author Arjen Poutsma
  * @author Brian Clozel
  * @author Juergen Hoeller
+ * @author Jinwei Sun
  */
 public class ShallowEtagHeaderFilterTests {
 
@@ -262,4 +271,119 @@ public class ShallowEtagHeaderFilterTests {
 		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
 	}
 
+	@Test
+	public void filterStreamingNoMatch() throws Exception {
+		this.filter.setStreaming(true);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes("UTF-8");
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			assertEquals("Invalid request passed", request, filterRequest);
+			((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_OK);
+			FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+			filterResponse.flushBuffer();
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 200, response.getStatus());
+		assertEquals("Invalid ETag header", "\"0b10a8db164e0754105b7a99be72e3fe5\"", response.getHeader("ETag"));
+		assertEquals("Invalid Content-Length header", responseBody.length, response.getContentLength());
+		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
+	}
+
+	@Test
+	public void filterStreamingMatch() throws Exception {
+		this.filter.setStreaming(true);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		request.addHeader("If-None-Match", "\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.getWriter().write("Hello World");
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 304, response.getStatus());
+		assertEquals("Invalid ETag header", "\"0b10a8db164e0754105b7a99be72e3fe5\"", response.getHeader("ETag"));
+		assertFalse("Response has Content-Length header", response.containsHeader("Content-Length"));
+		assertArrayEquals("Invalid content", new byte[0], response.getContentAsByteArray());
+	}
+
+	@Test
+	public void filterStreamingSpillsToFile() throws Exception {
+		this.filter.setStreaming(true);
+		this.filter.setMaxInMemorySize(4);
+		this.filter.setDigesterFactory(EtagDigester::xxHash64);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.getWriter().write("Hello");
+			filterResponse.getWriter().write(" World");
+		};
+		filter.doFilter(request, response, filterChain);
+
+		EtagDigester digester = EtagDigester.xxHash64();
+		byte[] responseBody = "Hello World".getBytes("UTF-8");
+		digester.update(responseBody, 0, responseBody.length);
+		assertEquals("Invalid status", 200, response.getStatus());
+		assertEquals("Invalid ETag header", "\"0" + digester.digestAsHex() + "\"", response.getHeader("ETag"));
+		assertEquals("Invalid Content-Length header", responseBody.length, response.getContentLength());
+		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
+	}
+
+	@Test
+	public void filterStreamingDeletesFileOnError() throws Exception {
+		this.filter.setStreaming(true);
+		this.filter.setMaxInMemorySize(4);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Set<Path> tempFiles = listTempFiles();
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.getWriter().write("Hello World");
+			assertEquals(tempFiles.size() + 1, listTempFiles().size());
+			throw new ServletException("Rendering failure");
+		};
+		try {
+			filter.doFilter(request, response, filterChain);
+			fail("Expected ServletException");
+		}
+		catch (ServletException ex) {
+			// expected
+		}
+
+		assertEquals(tempFiles, listTempFiles());
+		assertArrayEquals("Invalid content", new byte[0], response.getContentAsByteArray());
+	}
+
+	@Test
+	public void filterStreamingSendError() throws Exception {
+		this.filter.setStreaming(true);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes("UTF-8");
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+			((HttpServletResponse) filterResponse).sendError(HttpServletResponse.SC_FORBIDDEN);
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 403, response.getStatus());
+		assertNull("Invalid ETag header", response.getHeader("ETag"));
+		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
+	}
+
+
+	private static Set<Path> listTempFiles() throws IOException {
+		Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"));
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(tempDir, "etag-*.tmp")) {
+			Set<Path> files = new HashSet<>();
+			stream.forEach(files::add);
+			return files;
+		}
+	}
+
 }
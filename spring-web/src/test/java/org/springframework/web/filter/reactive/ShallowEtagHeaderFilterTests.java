@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.PooledDefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ShallowEtagHeaderFilter}.
+ *
+ * @author Jinwei Sun
+ */
+public class ShallowEtagHeaderFilterTests {
+
+	private static final String ETAG = "\"0b10a8db164e0754105b7a99be72e3fe5\"";
+
+
+	private final ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+
+	private final WebFilterChain chain = exchange -> {
+		exchange.getResponse().getHeaders().setContentLength(11);
+		return exchange.getResponse().writeWith(
+				Flux.just("Hello", " ", "World").map(ShallowEtagHeaderFilterTests::buffer));
+	};
+
+
+	@Test
+	public void filterNoMatch() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+		this.filter.filter(exchange, this.chain).block(Duration.ofSeconds(5));
+
+		assertEquals(ETAG, exchange.getResponse().getHeaders().getETag());
+		assertEquals(11, exchange.getResponse().getHeaders().getContentLength());
+		StepVerifier.create(exchange.getResponse().getBodyAsString())
+				.expectNext("Hello World")
+				.verifyComplete();
+	}
+
+	@Test
+	public void filterNoMatchWeakETag() {
+		this.filter.setWriteWeakETag(true);
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+		this.filter.filter(exchange, this.chain).block(Duration.ofSeconds(5));
+
+		assertEquals("W/" + ETAG, exchange.getResponse().getHeaders().getETag());
+	}
+
+	@Test
+	public void filterMatch() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/hotels").header("If-None-Match", "W/" + ETAG));
+		this.filter.filter(exchange, this.chain).block(Duration.ofSeconds(5));
+
+		assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
+		assertEquals(ETAG, exchange.getResponse().getHeaders().getETag());
+		assertFalse(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+		StepVerifier.create(exchange.getResponse().getBody()).verifyComplete();
+	}
+
+	@Test
+	public void filterMatchAny() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/hotels").header("If-None-Match", "*"));
+		this.filter.filter(exchange, this.chain).block(Duration.ofSeconds(5));
+
+		assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
+		assertFalse(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+		StepVerifier.create(exchange.getResponse().getBody()).verifyComplete();
+	}
+
+	@Test
+	public void filterNotEligible() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/hotels"));
+		this.filter.filter(exchange, this.chain).block(Duration.ofSeconds(5));
+		assertNull(exchange.getResponse().getHeaders().getETag());
+
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+		exchange.getResponse().getHeaders().setCacheControl("no-store");
+		this.filter.filter(exchange, this.chain).block(Duration.ofSeconds(5));
+		assertNull(exchange.getResponse().getHeaders().getETag());
+
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+		exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+		this.filter.filter(exchange, this.chain).block(Duration.ofSeconds(5));
+		assertNull(exchange.getResponse().getHeaders().getETag());
+	}
+
+	@Test
+	public void filterExceedingMaxInMemorySize() {
+		this.filter.setMaxInMemorySize(6);
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+		this.filter.filter(exchange, this.chain).block(Duration.ofSeconds(5));
+
+		assertNull(exchange.getResponse().getHeaders().getETag());
+		StepVerifier.create(exchange.getResponse().getBodyAsString())
+				.expectNext("Hello World")
+				.verifyComplete();
+	}
+
+	@Test
+	public void filterReleasesBuffersOnError() {
+		PooledDefaultDataBufferFactory bufferFactory = new PooledDefaultDataBufferFactory();
+		WebFilterChain chain = exchange -> exchange.getResponse().writeWith(
+				Flux.just("Hello", " ", "World")
+						.map(value -> bufferFactory.allocateBuffer().write(value.getBytes(StandardCharsets.UTF_8)))
+						.concatWith(Flux.error(new IllegalStateException("Rendering failure"))));
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+
+		StepVerifier.create(this.filter.filter(exchange, chain))
+				.expectError(IllegalStateException.class)
+				.verify(Duration.ofSeconds(5));
+		assertNull(exchange.getResponse().getHeaders().getETag());
+		assertEquals(0, bufferFactory.getActiveAllocationCount());
+	}
+
+
+	private static DataBuffer buffer(String value) {
+		return new DefaultDataBufferFactory().wrap(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
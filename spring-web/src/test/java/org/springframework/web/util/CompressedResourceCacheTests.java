@@ -0,0 +1,254 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CompressedResourceCache}.
+ *
+ * @author Jinwei Sun
+ */
+public class CompressedResourceCacheTests {
+
+	private final CompressedResourceCache cache = new CompressedResourceCache();
+
+	private final ResourceCompressor gzip = ResourceCompressor.gzip();
+
+	private Path directory;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.directory = Files.createTempDirectory("CompressedResourceCacheTests");
+		this.cache.setDirectory(this.directory.resolve("cache"));
+		Files.createDirectory(this.directory.resolve("cache"));
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileSystemUtils.deleteRecursively(this.directory);
+	}
+
+
+	@Test
+	public void compressInMemory() throws IOException {
+		Resource resource = createResource("foo.txt", text(1000));
+		Resource compressed = this.cache.getCompressedResource(resource, this.gzip);
+
+		assertNotNull(compressed);
+		assertFalse(compressed.isFile());
+		assertEquals(text(1000), decompress(compressed));
+		assertEquals(compressed.contentLength(), this.cache.getMemorySize());
+		assertSame(compressed, this.cache.getCompressedResource(resource, this.gzip));
+	}
+
+	@Test
+	public void compressOnDisk() throws IOException {
+		this.cache.setMaxInMemoryEntrySize(100);
+		Resource resource = createResource("foo.txt", text(1000));
+		Resource compressed = this.cache.getCompressedResource(resource, this.gzip);
+
+		assertNotNull(compressed);
+		assertFalse(compressed.isFile());
+		assertTrue(compressed.exists());
+		assertEquals(text(1000), decompress(compressed));
+		assertEquals(compressed.contentLength(), this.cache.getDiskSize());
+
+		this.cache.clear();
+		assertFalse(compressed.exists());
+		assertEquals(0, this.cache.getDiskSize());
+	}
+
+	@Test
+	public void recompressWhenModified() throws IOException {
+		Resource resource = createResource("foo.txt", text(1000));
+		Resource compressed = this.cache.getCompressedResource(resource, this.gzip);
+
+		createResource("foo.txt", text(2000));
+		Resource recompressed = this.cache.getCompressedResource(resource, this.gzip);
+		assertNotSame(compressed, recompressed);
+		assertNotNull(recompressed);
+		assertEquals(text(2000), decompress(recompressed));
+		assertEquals(recompressed.contentLength(), this.cache.getMemorySize());
+	}
+
+	@Test
+	public void incompressible() throws IOException {
+		byte[] bytes = new byte[1000];
+		new Random(42).nextBytes(bytes);
+		Path file = this.directory.resolve("foo.bin");
+		Files.write(file, bytes);
+		assertNull(this.cache.getCompressedResource(new FileSystemResource(file), this.gzip));
+		assertEquals(0, this.cache.getMemorySize());
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() throws IOException {
+		Resource foo = createResource("foo.txt", text(1000));
+		Resource bar = createResource("bar.txt", text(1000));
+		Resource baz = createResource("baz.txt", text(1000));
+
+		Resource compressedFoo = this.cache.getCompressedResource(foo, this.gzip);
+		assertNotNull(compressedFoo);
+		this.cache.setMaxMemorySize(compressedFoo.contentLength() * 2);
+		Resource compressedBar = this.cache.getCompressedResource(bar, this.gzip);
+		assertSame(compressedFoo, this.cache.getCompressedResource(foo, this.gzip));
+		this.cache.getCompressedResource(baz, this.gzip);
+
+		assertSame(compressedFoo, this.cache.getCompressedResource(foo, this.gzip));
+		assertNotSame(compressedBar, this.cache.getCompressedResource(bar, this.gzip));
+	}
+
+	@Test
+	public void compressOncePerResource() throws Exception {
+		Resource resource = createResource("foo.txt", text(1000));
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		CountingCompressor compressor = new CountingCompressor() {
+			@Override
+			public void compress(InputStream input, OutputStream output) throws IOException {
+				started.countDown();
+				try {
+					proceed.await();
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+				super.compress(input, output);
+			}
+		};
+
+		CompletableFuture<Resource> first = CompletableFuture.supplyAsync(() -> getCompressed(resource, compressor));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Resource> second = CompletableFuture.supplyAsync(() -> getCompressed(resource, compressor));
+		Thread.sleep(100);
+		proceed.countDown();
+
+		Resource compressed = first.get(5, TimeUnit.SECONDS);
+		assertSame(compressed, second.get(5, TimeUnit.SECONDS));
+		assertEquals(1, compressor.count.get());
+		assertEquals(compressed.contentLength(), this.cache.getMemorySize());
+	}
+
+	@Test
+	public void evictWhileReading() throws IOException {
+		this.cache.setMaxInMemoryEntrySize(100);
+		Resource resource = createResource("foo.txt", text(1000));
+		Resource compressed = this.cache.getCompressedResource(resource, this.gzip);
+		assertNotNull(compressed);
+
+		InputStream input = new GZIPInputStream(compressed.getInputStream());
+		this.cache.clear();
+		assertEquals(0, this.cache.getDiskSize());
+		assertTrue(compressed.exists());
+		assertEquals(text(1000), StreamUtils.copyToString(input, StandardCharsets.UTF_8));
+		input.close();
+		assertFalse(compressed.exists());
+	}
+
+	@Test
+	public void evictIncompressible() throws IOException {
+		byte[] bytes = new byte[1000];
+		new Random(42).nextBytes(bytes);
+		Path file = this.directory.resolve("foo.bin");
+		Files.write(file, bytes);
+		Resource foo = new FileSystemResource(file);
+		Resource bar = createResource("bar.txt", text(1000));
+		CountingCompressor compressor = new CountingCompressor();
+		this.cache.setMaxEntryCount(1);
+
+		assertNull(this.cache.getCompressedResource(foo, compressor));
+		assertNull(this.cache.getCompressedResource(foo, compressor));
+		assertEquals(1, compressor.count.get());
+		assertNotNull(this.cache.getCompressedResource(bar, compressor));
+		assertNull(this.cache.getCompressedResource(foo, compressor));
+		assertEquals(3, compressor.count.get());
+	}
+
+
+	private Resource getCompressed(Resource resource, ResourceCompressor compressor) {
+		try {
+			return this.cache.getCompressedResource(resource, compressor);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private Resource createResource(String filename, String content) throws IOException {
+		Path file = this.directory.resolve(filename);
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return new FileSystemResource(file);
+	}
+
+	private static String text(int lines) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < lines; i++) {
+			builder.append("Line ").append(i % 10).append('\n');
+		}
+		return builder.toString();
+	}
+
+	private static String decompress(Resource resource) throws IOException {
+		try (InputStream input = new GZIPInputStream(resource.getInputStream())) {
+			return StreamUtils.copyToString(input, StandardCharsets.UTF_8);
+		}
+	}
+
+
+	private static class CountingCompressor implements ResourceCompressor {
+
+		private final ResourceCompressor delegate = ResourceCompressor.gzip();
+
+		final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public String getContentCoding() {
+			return this.delegate.getContentCoding();
+		}
+
+		@Override
+		public void compress(InputStream input, OutputStream output) throws IOException {
+			this.count.incrementAndGet();
+			this.delegate.compress(input, output);
+		}
+	}
+
+}
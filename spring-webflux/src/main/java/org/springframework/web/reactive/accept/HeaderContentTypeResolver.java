@@ -16,11 +16,15 @@
 
 package org.springframework.web.reactive.accept;
 
+import java.util.Collections;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.NotAcceptableStatusException;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -32,18 +36,36 @@ import org.springframework.web.server.ServerWebExchange;
  */
 public class HeaderContentTypeResolver implements RequestedContentTypeResolver {
 
+	private final ConcurrentLruCache<String, List<MediaType>> cachedMediaTypes =
+			new ConcurrentLruCache<>(64, HeaderContentTypeResolver::parseMediaTypes);
+
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The sorted media types of recently seen header values are cached.
+	 */
 	@Override
 	public List<MediaType> resolveMediaTypes(ServerWebExchange exchange) throws NotAcceptableStatusException {
+		List<String> headerValues = exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT);
+		if (CollectionUtils.isEmpty(headerValues)) {
+			return MEDIA_TYPE_ALL_LIST;
+		}
+
+		String headerValue = (headerValues.size() == 1 ? headerValues.get(0) :
+				StringUtils.collectionToCommaDelimitedString(headerValues));
 		try {
-			List<MediaType> mediaTypes = exchange.getRequest().getHeaders().getAccept();
-			MediaType.sortBySpecificityAndQuality(mediaTypes);
-			return (!CollectionUtils.isEmpty(mediaTypes) ? mediaTypes : MEDIA_TYPE_ALL_LIST);
+			return this.cachedMediaTypes.get(headerValue);
 		}
 		catch (InvalidMediaTypeException ex) {
-			String value = exchange.getRequest().getHeaders().getFirst("Accept");
 			throw new NotAcceptableStatusException(
-					"Could not parse 'Accept' header [" + value + "]: " + ex.getMessage());
+					"Could not parse 'Accept' header [" + headerValues.get(0) + "]: " + ex.getMessage());
 		}
 	}
 
+	private static List<MediaType> parseMediaTypes(String headerValue) {
+		List<MediaType> mediaTypes = MediaType.parseMediaTypes(headerValue);
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		return (!CollectionUtils.isEmpty(mediaTypes) ? Collections.unmodifiableList(mediaTypes) : MEDIA_TYPE_ALL_LIST);
+	}
+
 }
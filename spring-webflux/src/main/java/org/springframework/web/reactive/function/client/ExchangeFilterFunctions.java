@@ -16,8 +16,13 @@
 
 package org.springframework.web.reactive.function.client;
 
+import java.net.URI;
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -27,9 +32,13 @@ import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.BodyExtractors;
 
 /**
@@ -38,6 +47,7 @@ import org.springframework.web.reactive.function.BodyExtractors;
  *
  * @author Rob Winch
  * @author Arjen Poutsma
+ * @author Jinwei Sun
  * @since 5.0
  */
 public abstract class ExchangeFilterFunctions {
@@ -104,6 +114,66 @@ public abstract class ExchangeFilterFunctions {
 	}
 
 
+	/**
+	 * Return a filter that hedges idempotent {@code GET} and {@code HEAD}
+	 * requests: if no response has been received within the given delay,
+	 * a second, identical request is sent, and the response that arrives
+	 * first is used, cancelling the other request.
+	 * <p>Errors of the original request are propagated right away, whereas
+	 * errors of the hedged request are ignored. Other requests are passed
+	 * through as they are.
+	 * @param delay the delay after which to send a second request
+	 * @return the filter to hedge requests with
+	 * @since 5.2
+	 * @see #hedge(double, Duration)
+	 */
+	public static ExchangeFilterFunction hedge(Duration delay) {
+		Assert.notNull(delay, "Delay must not be null");
+		return new HedgingExchangeFilterFunction(delay, null);
+	}
+
+	/**
+	 * Variant of {@link #hedge(Duration)} that sends a second request once
+	 * the time waiting for a response exceeds the given percentile of recent
+	 * response times, e.g. the 95th percentile, which limits the additional
+	 * load to the given share of requests while cutting the tail latency.
+	 * <p>Response times are tracked per filter instance, so a separate filter
+	 * should be used for each remote service with distinct response times.
+	 * @param percentile the percentile of response times, between 0 and 100
+	 * @param initialDelay the delay to use until enough response times have
+	 * been recorded
+	 * @return the filter to hedge requests with
+	 * @since 5.2
+	 */
+	public static ExchangeFilterFunction hedge(double percentile, Duration initialDelay) {
+		Assert.isTrue(percentile > 0 && percentile < 100, "Percentile must be between 0 and 100");
+		Assert.notNull(initialDelay, "Initial delay must not be null");
+		return new HedgingExchangeFilterFunction(initialDelay, new LatencyTracker(percentile));
+	}
+
+	/**
+	 * Return a filter that coalesces identical {@code GET} requests that are
+	 * in flight at the same time, i.e. with the same URL, headers, cookies and
+	 * {@link ClientRequest#attributes() attributes}: only the first of them is
+	 * actually sent, and its response body is buffered in memory and replayed
+	 * as the response to all of them.
+	 * <p>Since requests are compared as they reach this filter, any filter that
+	 * adds credentials or other per-user state to a request must either run
+	 * before this filter, or take that state from a request attribute that is
+	 * set while building the request, e.g. through
+	 * {@link ClientRequest.Builder#attribute(String, Object)}.
+	 * <p>Other requests, and requests made after the response for an identical
+	 * request has been received, are passed through as they are. If all
+	 * coalesced requests are cancelled before the response has been received,
+	 * the request that has actually been sent is cancelled as well. The response
+	 * bodies of coalesced requests must fit into memory.
+	 * @return the filter to coalesce requests with
+	 * @since 5.2
+	 */
+	public static ExchangeFilterFunction coalesceRequests() {
+		return new CoalescingExchangeFilterFunction();
+	}
+
 	/**
 	 * Variant of {@link #basicAuthentication(String, String)} that looks up
 	 * the {@link Credentials Credentials} in a
@@ -190,4 +260,223 @@ public abstract class ExchangeFilterFunctions {
 		}
 	}
 
+
+	/**
+	 * Filter for {@link #hedge(Duration)} and {@link #hedge(double, Duration)}.
+	 */
+	private static final class HedgingExchangeFilterFunction implements ExchangeFilterFunction {
+
+		private final Duration delay;
+
+		@Nullable
+		private final LatencyTracker latencyTracker;
+
+		HedgingExchangeFilterFunction(Duration delay, @Nullable LatencyTracker latencyTracker) {
+			this.delay = delay;
+			this.latencyTracker = latencyTracker;
+		}
+
+		@Override
+		public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+			if (!HttpMethod.GET.equals(request.method()) && !HttpMethod.HEAD.equals(request.method())) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				long start = System.nanoTime();
+				Duration delay = getDelay();
+				AtomicBoolean decided = new AtomicBoolean();
+				Mono<ClientResponse> original = select(next.exchange(request), decided);
+				Mono<ClientResponse> hedged = select(Mono.delay(delay).flatMap(tick -> next.exchange(request)), decided)
+						.onErrorResume(ex -> Mono.empty());
+				return Flux.merge(original, hedged)
+						.next()
+						.doOnNext(response -> {
+							if (this.latencyTracker != null) {
+								this.latencyTracker.record(System.nanoTime() - start);
+							}
+						});
+			});
+		}
+
+		private Duration getDelay() {
+			long threshold = (this.latencyTracker != null ? this.latencyTracker.getThreshold() : -1);
+			return (threshold != -1 ? Duration.ofNanos(threshold) : this.delay);
+		}
+
+		/**
+		 * Pass on the response of the exchange if it is the first one, or else
+		 * release it, since it has lost the race against the other exchange.
+		 */
+		private static Mono<ClientResponse> select(Mono<ClientResponse> exchange, AtomicBoolean decided) {
+			return exchange.handle((response, sink) -> {
+				if (decided.compareAndSet(false, true)) {
+					sink.next(response);
+				}
+				else {
+					response.bodyToMono(Void.class).onErrorResume(ex -> Mono.empty()).subscribe();
+				}
+			});
+		}
+	}
+
+
+	/**
+	 * Tracks recent response times for computing a percentile of them.
+	 */
+	private static final class LatencyTracker {
+
+		private static final int SAMPLE_SIZE = 1024;
+
+		private static final int UPDATE_INTERVAL = 64;
+
+		private final double percentile;
+
+		private final long[] samples = new long[SAMPLE_SIZE];
+
+		private long count;
+
+		private volatile long threshold = -1;
+
+		LatencyTracker(double percentile) {
+			this.percentile = percentile;
+		}
+
+		/**
+		 * Return the percentile of recent response times in nanoseconds,
+		 * or -1 if not enough response times have been recorded yet.
+		 */
+		public long getThreshold() {
+			return this.threshold;
+		}
+
+		public synchronized void record(long latency) {
+			this.samples[(int) (this.count % SAMPLE_SIZE)] = latency;
+			this.count++;
+			// Only sort the samples once in a while, instead of for every response
+			if (this.count % UPDATE_INTERVAL == 0) {
+				long[] sorted = Arrays.copyOf(this.samples, (int) Math.min(this.count, SAMPLE_SIZE));
+				Arrays.sort(sorted);
+				int index = (int) Math.ceil(this.percentile / 100 * sorted.length) - 1;
+				this.threshold = sorted[Math.max(index, 0)];
+			}
+		}
+	}
+
+
+	/**
+	 * Filter for {@link #coalesceRequests()}.
+	 */
+	private static final class CoalescingExchangeFilterFunction implements ExchangeFilterFunction {
+
+		private final Map<RequestKey, InFlightExchange> inFlightExchanges = new ConcurrentHashMap<>();
+
+		@Override
+		public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+			if (!HttpMethod.GET.equals(request.method())) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				RequestKey key = new RequestKey(request);
+				InFlightExchange exchange =
+						this.inFlightExchanges.computeIfAbsent(key, k -> new InFlightExchange(k, request, next));
+				return exchange.getResponse().map(BufferedResponse::createResponse);
+			});
+		}
+
+
+		/**
+		 * An exchange shared by coalesced requests, which is cancelled once all
+		 * of them have been cancelled.
+		 */
+		private final class InFlightExchange {
+
+			private final Mono<BufferedResponse> response;
+
+			InFlightExchange(RequestKey key, ClientRequest request, ExchangeFunction next) {
+				this.response = next.exchange(request)
+						.flatMap(clientResponse -> DataBufferUtils.join(clientResponse.body(BodyExtractors.toDataBuffers()))
+								.map(buffer -> {
+									byte[] bytes = new byte[buffer.readableByteCount()];
+									buffer.read(bytes);
+									DataBufferUtils.release(buffer);
+									return new BufferedResponse(clientResponse, bytes);
+								})
+								.switchIfEmpty(Mono.fromSupplier(() -> new BufferedResponse(clientResponse, new byte[0]))))
+						.doFinally(signal -> inFlightExchanges.remove(key, this))
+						.flux()
+						.publish()
+						.refCount()
+						.next();
+			}
+
+			public Mono<BufferedResponse> getResponse() {
+				return this.response;
+			}
+		}
+	}
+
+
+	/**
+	 * Key of a request to coalesce identical requests by.
+	 */
+	private static final class RequestKey {
+
+		private final URI url;
+
+		private final HttpHeaders headers;
+
+		private final MultiValueMap<String, String> cookies;
+
+		private final Map<String, Object> attributes;
+
+		RequestKey(ClientRequest request) {
+			this.url = request.url();
+			this.headers = request.headers();
+			this.cookies = request.cookies();
+			this.attributes = request.attributes();
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof RequestKey)) {
+				return false;
+			}
+			RequestKey otherKey = (RequestKey) other;
+			return (this.url.equals(otherKey.url) && this.headers.equals(otherKey.headers) &&
+					this.cookies.equals(otherKey.cookies) && this.attributes.equals(otherKey.attributes));
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * this.url.hashCode() + this.headers.hashCode();
+		}
+	}
+
+
+	/**
+	 * A response with its body buffered, for replaying it to coalesced requests.
+	 */
+	private static final class BufferedResponse {
+
+		private static final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		private final ClientResponse response;
+
+		private final byte[] body;
+
+		BufferedResponse(ClientResponse response, byte[] body) {
+			this.response = response;
+			this.body = body;
+		}
+
+		public ClientResponse createResponse() {
+			return ClientResponse.from(this.response)
+					.body(Flux.defer(() -> Flux.just(bufferFactory.wrap(this.body))))
+					.build();
+		}
+	}
+
 }
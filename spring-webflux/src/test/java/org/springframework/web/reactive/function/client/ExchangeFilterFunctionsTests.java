@@ -18,8 +18,12 @@ package org.springframework.web.reactive.function.client;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -212,6 +216,180 @@ public class ExchangeFilterFunctionsTests {
 
 	}
 
+	@Test
+	public void hedge() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		AtomicInteger exchanges = new AtomicInteger();
+		AtomicBoolean cancelled = new AtomicBoolean();
+		ExchangeFunction exchange = r -> (exchanges.incrementAndGet() == 1 ?
+				Mono.<ClientResponse>never().doOnCancel(() -> cancelled.set(true)) : Mono.just(response));
+
+		StepVerifier.withVirtualTime(() -> ExchangeFilterFunctions.hedge(Duration.ofMillis(100)).filter(request, exchange))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(99))
+				.thenAwait(Duration.ofMillis(1))
+				.expectNext(response)
+				.verifyComplete();
+
+		assertEquals(2, exchanges.get());
+		assertTrue(cancelled.get());
+	}
+
+	@Test
+	public void hedgeNotNeeded() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return Mono.just(response);
+		};
+
+		StepVerifier.withVirtualTime(() -> ExchangeFilterFunctions.hedge(Duration.ofMillis(100)).filter(request, exchange))
+				.expectNext(response)
+				.verifyComplete();
+
+		assertEquals(1, exchanges.get());
+	}
+
+	@Test
+	public void hedgeWithOtherMethod() {
+		ClientRequest request = ClientRequest.create(HttpMethod.POST, DEFAULT_URL).build();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return Mono.never();
+		};
+
+		StepVerifier.withVirtualTime(() -> ExchangeFilterFunctions.hedge(Duration.ofMillis(100)).filter(request, exchange))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofSeconds(1))
+				.thenCancel()
+				.verify();
+
+		assertEquals(1, exchanges.get());
+	}
+
+	@Test
+	public void hedgeWithPercentile() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.hedge(50, Duration.ofHours(1));
+		for (int i = 0; i < 64; i++) {
+			assertSame(response, filter.filter(request, r -> Mono.just(response)).block());
+		}
+
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = r -> (exchanges.incrementAndGet() == 1 ? Mono.never() : Mono.just(response));
+		assertSame(response, filter.filter(request, exchange).block(Duration.ofSeconds(5)));
+		assertEquals(2, exchanges.get());
+	}
+
+	@Test
+	public void coalesceRequests() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(50))
+					.map(tick -> ClientResponse.create(HttpStatus.OK).header("X-Foo", "bar").body("foo").build());
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests();
+
+		Mono<ClientResponse> result1 = filter.filter(request, exchange);
+		Mono<ClientResponse> result2 = filter.filter(request, exchange);
+		StepVerifier.create(Mono.zip(result1.flatMap(res -> res.bodyToMono(String.class)),
+						result2.flatMap(res -> res.bodyToMono(String.class))))
+				.consumeNextWith(bodies -> {
+					assertEquals("foo", bodies.getT1());
+					assertEquals("foo", bodies.getT2());
+				})
+				.verifyComplete();
+		assertEquals(1, exchanges.get());
+
+		ClientResponse response = filter.filter(request, exchange).block(Duration.ofSeconds(5));
+		assertNotNull(response);
+		assertEquals(HttpStatus.OK, response.statusCode());
+		assertEquals("bar", response.headers().asHttpHeaders().getFirst("X-Foo"));
+		assertEquals("foo", response.bodyToMono(String.class).block(Duration.ofSeconds(5)));
+		assertEquals(2, exchanges.get());
+	}
+
+	@Test
+	public void coalesceRequestsCancelled() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		AtomicInteger exchanges = new AtomicInteger();
+		AtomicInteger cancellations = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return Mono.<ClientResponse>never().doOnCancel(cancellations::incrementAndGet);
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests();
+
+		Disposable subscription1 = filter.filter(request, exchange).subscribe();
+		Disposable subscription2 = filter.filter(request, exchange).subscribe();
+		assertEquals(1, exchanges.get());
+
+		subscription1.dispose();
+		assertEquals(0, cancellations.get());
+		subscription2.dispose();
+		assertEquals(1, cancellations.get());
+
+		filter.filter(request, exchange).subscribe().dispose();
+		assertEquals(2, exchanges.get());
+		assertEquals(2, cancellations.get());
+	}
+
+	@Test
+	public void coalesceRequestsWithDifferentHeaders() {
+		ClientRequest request1 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).header("X-Foo", "1").build();
+		ClientRequest request2 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).header("X-Foo", "2").build();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(50))
+					.map(tick -> ClientResponse.create(HttpStatus.OK).body(r.headers().getFirst("X-Foo")).build());
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests();
+
+		StepVerifier.create(Mono.zip(filter.filter(request1, exchange).flatMap(res -> res.bodyToMono(String.class)),
+						filter.filter(request2, exchange).flatMap(res -> res.bodyToMono(String.class))))
+				.consumeNextWith(bodies -> {
+					assertEquals("1", bodies.getT1());
+					assertEquals("2", bodies.getT2());
+				})
+				.verifyComplete();
+		assertEquals(2, exchanges.get());
+	}
+
+	@Test
+	public void coalesceRequestsWithDifferentCredentials() {
+		ClientRequest request1 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL)
+				.attributes(ExchangeFilterFunctions.Credentials.basicAuthenticationCredentials("foo", "bar"))
+				.build();
+		ClientRequest request2 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL)
+				.attributes(ExchangeFilterFunctions.Credentials.basicAuthenticationCredentials("baz", "qux"))
+				.build();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(50)).map(tick -> ClientResponse.create(HttpStatus.OK)
+					.body(r.headers().getFirst(HttpHeaders.AUTHORIZATION)).build());
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests()
+				.andThen(ExchangeFilterFunctions.basicAuthentication());
+
+		StepVerifier.create(Mono.zip(filter.filter(request1, exchange).flatMap(res -> res.bodyToMono(String.class)),
+						filter.filter(request2, exchange).flatMap(res -> res.bodyToMono(String.class))))
+				.consumeNextWith(bodies -> {
+					assertEquals("Basic Zm9vOmJhcg==", bodies.getT1());
+					assertEquals("Basic YmF6OnF1eA==", bodies.getT2());
+				})
+				.verifyComplete();
+		assertEquals(2, exchanges.get());
+	}
+
 	private String string(DataBuffer buffer) {
 		String value = DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8);
 		DataBufferUtils.release(buffer);
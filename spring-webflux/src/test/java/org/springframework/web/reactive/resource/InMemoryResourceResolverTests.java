@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.io.ByteBufferResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link InMemoryResourceResolver}.
+ *
+ * @author Jinwei Sun
+ */
+public class InMemoryResourceResolverTests {
+
+	private final InMemoryResourceResolver inMemoryResolver = new InMemoryResourceResolver();
+
+	private ResourceResolverChain resolver;
+
+	private List<Resource> locations;
+
+	private Path directory;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.directory = Files.createTempDirectory("InMemoryResourceResolverTests");
+		write("foo.js", "var foo;");
+		write("bar.js", "var bar;");
+
+		List<ResourceResolver> resolvers = new ArrayList<>();
+		resolvers.add(this.inMemoryResolver);
+		resolvers.add(new PathResourceResolver());
+		this.resolver = new DefaultResourceResolverChain(resolvers);
+		this.locations = Collections.singletonList(new FileSystemResource(this.directory.toFile().getPath() + "/"));
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileSystemUtils.deleteRecursively(this.directory);
+	}
+
+
+	@Test
+	public void resolveInMemory() throws IOException {
+		Resource resource = resolve("foo.js");
+
+		assertTrue(resource instanceof ByteBufferResource);
+		assertFalse(resource.isFile());
+		assertEquals("foo.js", resource.getFilename());
+		assertEquals(8, resource.contentLength());
+		assertEquals("var foo;", StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8));
+		assertNotNull(((HttpResource) resource).getResponseHeaders().getETag());
+		assertEquals(8, this.inMemoryResolver.getTotalSize());
+
+		Files.delete(this.directory.resolve("foo.js"));
+		assertSame(resource, resolve("foo.js"));
+	}
+
+	@Test
+	public void resolveMemoryMapped() throws IOException {
+		this.inMemoryResolver.setMemoryMapped(true);
+		Resource resource = resolve("foo.js");
+
+		assertTrue(resource instanceof ByteBufferResource);
+		assertEquals("var foo;", StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void reloadWhenModified() throws IOException {
+		this.inMemoryResolver.setCheckInterval(Duration.ZERO);
+		Resource resource = resolve("foo.js");
+		String eTag = ((HttpResource) resource).getResponseHeaders().getETag();
+
+		write("foo.js", "var foo = 1;");
+		FileTime lastModified = FileTime.fromMillis(resource.lastModified() + 10000);
+		Files.setLastModifiedTime(this.directory.resolve("foo.js"), lastModified);
+
+		Resource reloaded = resolve("foo.js");
+		assertNotSame(resource, reloaded);
+		assertEquals(12, reloaded.contentLength());
+		assertNotEquals(eTag, ((HttpResource) reloaded).getResponseHeaders().getETag());
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() {
+		this.inMemoryResolver.setMaxTotalSize(10);
+		Resource foo = resolve("foo.js");
+		Resource bar = resolve("bar.js");
+
+		assertNotSame(foo, resolve("foo.js"));
+		assertEquals(8, this.inMemoryResolver.getTotalSize());
+		assertNotSame(bar, resolve("bar.js"));
+	}
+
+	@Test
+	public void readSlices() {
+		Resource resource = resolve("foo.js");
+		DataBuffer buffer = DataBufferUtils.join(DataBufferUtils.read(resource, 4, new DefaultDataBufferFactory(), 2))
+				.block(Duration.ofSeconds(5));
+		assertNotNull(buffer);
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		assertEquals("foo;", new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void maxResourceSize() {
+		this.inMemoryResolver.setMaxResourceSize(4);
+		assertFalse(resolve("foo.js") instanceof ByteBufferResource);
+	}
+
+
+	private Resource resolve(String path) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(""));
+		return this.resolver.resolveResource(exchange, path, this.locations).block(Duration.ofSeconds(5));
+	}
+
+	private void write(String filename, String content) throws IOException {
+		Files.write(this.directory.resolve(filename), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
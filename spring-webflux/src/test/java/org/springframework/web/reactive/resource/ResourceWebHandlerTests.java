@@ -399,6 +399,20 @@ public class ResourceWebHandlerTests {
 		assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
 	}
 
+	@Test
+	public void notModifiedETag() throws Exception {
+		VersionResourceResolver versionResolver = new VersionResourceResolver();
+		versionResolver.addFixedVersionStrategy("versionString", "/**");
+		this.handler.setResourceResolvers(Arrays.asList(versionResolver, new PathResourceResolver()));
+		this.handler.afterPropertiesSet();
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("").ifNoneMatch("\"versionString\""));
+		setPathWithinHandlerMapping(exchange, "versionString/foo.css");
+		this.handler.handle(exchange).block(TIMEOUT);
+		assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
+	}
+
 	@Test
 	public void modified() throws Exception {
 		long timestamp = resourceLastModified("test/foo.css") / 1000 * 1000 - 1;
@@ -44,6 +44,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverterCache;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.http.server.ServletServerHttpResponse;
@@ -104,6 +105,8 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 
 	private final Set<String> safeExtensions = new HashSet<>();
 
+	private final HttpMessageConverterCache converterCache;
+
 
 	/**
 	 * Constructor with list of converters only.
@@ -134,6 +137,7 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 		this.pathStrategy = initPathStrategy(this.contentNegotiationManager);
 		this.safeExtensions.addAll(this.contentNegotiationManager.getAllFileExtensions());
 		this.safeExtensions.addAll(WHITELISTED_EXTENSIONS);
+		this.converterCache = new HttpMessageConverterCache(this.messageConverters);
 	}
 
 	private static PathExtensionContentNegotiationStrategy initPathStrategy(ContentNegotiationManager manager) {
@@ -271,34 +275,32 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 
 		if (selectedMediaType != null) {
 			selectedMediaType = selectedMediaType.removeQualityValue();
-			for (HttpMessageConverter<?> converter : this.messageConverters) {
+			HttpMessageConverter<?> converter =
+					this.converterCache.getWriter(targetType, valueType, selectedMediaType);
+			if (converter != null) {
 				GenericHttpMessageConverter genericConverter = (converter instanceof GenericHttpMessageConverter ?
 						(GenericHttpMessageConverter<?>) converter : null);
-				if (genericConverter != null ?
-						((GenericHttpMessageConverter) converter).canWrite(targetType, valueType, selectedMediaType) :
-						converter.canWrite(valueType, selectedMediaType)) {
-					body = getAdvice().beforeBodyWrite(body, returnType, selectedMediaType,
-							(Class<? extends HttpMessageConverter<?>>) converter.getClass(),
-							inputMessage, outputMessage);
-					if (body != null) {
-						Object theBody = body;
-						LogFormatUtils.traceDebug(logger, traceOn ->
-								"Writing [" + LogFormatUtils.formatValue(theBody, traceOn) + "]");
-						addContentDispositionHeader(inputMessage, outputMessage);
-						if (genericConverter != null) {
-							genericConverter.write(body, targetType, selectedMediaType, outputMessage);
-						}
-						else {
-							((HttpMessageConverter) converter).write(body, selectedMediaType, outputMessage);
-						}
+				body = getAdvice().beforeBodyWrite(body, returnType, selectedMediaType,
+						(Class<? extends HttpMessageConverter<?>>) converter.getClass(),
+						inputMessage, outputMessage);
+				if (body != null) {
+					Object theBody = body;
+					LogFormatUtils.traceDebug(logger, traceOn ->
+							"Writing [" + LogFormatUtils.formatValue(theBody, traceOn) + "]");
+					addContentDispositionHeader(inputMessage, outputMessage);
+					if (genericConverter != null) {
+						genericConverter.write(body, targetType, selectedMediaType, outputMessage);
 					}
 					else {
-						if (logger.isDebugEnabled()) {
-							logger.debug("Nothing to write: null body");
-						}
+						((HttpMessageConverter) converter).write(body, selectedMediaType, outputMessage);
 					}
-					return;
 				}
+				else {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Nothing to write: null body");
+					}
+				}
+				return;
 			}
 		}
 
@@ -366,18 +368,7 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 			return new ArrayList<>(mediaTypes);
 		}
 		else if (!this.allSupportedMediaTypes.isEmpty()) {
-			List<MediaType> result = new ArrayList<>();
-			for (HttpMessageConverter<?> converter : this.messageConverters) {
-				if (converter instanceof GenericHttpMessageConverter && targetType != null) {
-					if (((GenericHttpMessageConverter<?>) converter).canWrite(targetType, valueClass, null)) {
-						result.addAll(converter.getSupportedMediaTypes());
-					}
-				}
-				else if (converter.canWrite(valueClass, null)) {
-					result.addAll(converter.getSupportedMediaTypes());
-				}
-			}
-			return result;
+			return new ArrayList<>(this.converterCache.getWritableMediaTypes(targetType, valueClass));
 		}
 		else {
 			return Collections.singletonList(MediaType.ALL);
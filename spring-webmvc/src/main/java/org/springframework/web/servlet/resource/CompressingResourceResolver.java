@@ -0,0 +1,306 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.util.CompressedResourceCache;
+import org.springframework.web.util.ResourceCompressor;
+
+/**
+ * Resolver that delegates to the chain, and if a resource is found, compresses
+ * it with a content coding that is acceptable based on the "Accept-Encoding"
+ * request header, keeping the compressed variant in a
+ * {@link CompressedResourceCache}.
+ *
+ * <p>Unlike {@link EncodedResourceResolver}, which serves variants that were
+ * compressed ahead of time, this resolver compresses on first request. Only
+ * resources with a {@link #setMediaTypes compressible media type} and at least
+ * {@link #setMinResourceSize minResourceSize} bytes are compressed.
+ *
+ * <p>Large variants are stored in files, which the
+ * {@link ResourceHttpRequestHandler} streams like any other resource.
+ *
+ * <p>Note that this resolver must be ordered ahead of a
+ * {@link VersionResourceResolver} with a content-based, version strategy to
+ * ensure the version calculation is not impacted by the encoding.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see EncodedResourceResolver
+ */
+public class CompressingResourceResolver extends AbstractResourceResolver {
+
+	/**
+	 * The default compressible media types.
+	 */
+	public static final List<MediaType> DEFAULT_MEDIA_TYPES = Arrays.asList(
+			MediaType.parseMediaType("text/*"), MediaType.parseMediaType("application/javascript"),
+			MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MediaType.parseMediaType("image/svg+xml"));
+
+
+	private final List<ResourceCompressor> compressors = new ArrayList<>();
+
+	private final List<MediaType> mediaTypes = new ArrayList<>(DEFAULT_MEDIA_TYPES);
+
+	private long minResourceSize = 1024;
+
+	private final CompressedResourceCache cache;
+
+
+	/**
+	 * Create a resolver with a default {@link CompressedResourceCache}.
+	 */
+	public CompressingResourceResolver() {
+		this(new CompressedResourceCache());
+	}
+
+	/**
+	 * Create a resolver with the given {@link CompressedResourceCache}.
+	 */
+	public CompressingResourceResolver(CompressedResourceCache cache) {
+		Assert.notNull(cache, "CompressedResourceCache is required");
+		this.cache = cache;
+		this.compressors.add(ResourceCompressor.gzip());
+	}
+
+
+	/**
+	 * Configure the compressors to use, in order of preference. The first
+	 * compressor whose content coding is present in the
+	 * {@literal "Accept-Encoding"} header for a given request is used.
+	 * <p>By default only a gzip compressor is configured.
+	 * @param compressors one or more compressors
+	 */
+	public void setCompressors(List<ResourceCompressor> compressors) {
+		Assert.notEmpty(compressors, "At least one compressor expected");
+		this.compressors.clear();
+		this.compressors.addAll(compressors);
+	}
+
+	/**
+	 * Return a read-only list with the configured compressors.
+	 */
+	public List<ResourceCompressor> getCompressors() {
+		return Collections.unmodifiableList(this.compressors);
+	}
+
+	/**
+	 * Configure the media types of resources to compress.
+	 * <p>By default this is set to {@link #DEFAULT_MEDIA_TYPES}.
+	 */
+	public void setMediaTypes(List<MediaType> mediaTypes) {
+		this.mediaTypes.clear();
+		this.mediaTypes.addAll(mediaTypes);
+	}
+
+	/**
+	 * Return a read-only list with the media types of resources to compress.
+	 */
+	public List<MediaType> getMediaTypes() {
+		return Collections.unmodifiableList(this.mediaTypes);
+	}
+
+	/**
+	 * Configure the minimum size of resources to compress, in bytes.
+	 * <p>By default this is set to 1024.
+	 */
+	public void setMinResourceSize(long minResourceSize) {
+		this.minResourceSize = minResourceSize;
+	}
+
+	/**
+	 * Return the configured {@link CompressedResourceCache}.
+	 */
+	public CompressedResourceCache getCache() {
+		return this.cache;
+	}
+
+
+	@Override
+	protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		Resource resource = chain.resolveResource(request, requestPath, locations);
+		if (resource == null || request == null || isEncoded(resource) || !isCompressible(resource)) {
+			return resource;
+		}
+
+		String acceptEncoding = getAcceptEncoding(request);
+		if (acceptEncoding == null) {
+			return resource;
+		}
+
+		for (ResourceCompressor compressor : this.compressors) {
+			if (acceptEncoding.contains(compressor.getContentCoding())) {
+				try {
+					Resource compressed = this.cache.getCompressedResource(resource, compressor);
+					return (compressed != null ?
+							new CompressedResource(resource, compressor.getContentCoding(), compressed) : resource);
+				}
+				catch (IOException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Failed to compress [" + resource.getFilename() + "]", ex);
+					}
+					return resource;
+				}
+			}
+		}
+
+		return resource;
+	}
+
+	private static boolean isEncoded(Resource resource) {
+		return (resource instanceof HttpResource &&
+				((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	private boolean isCompressible(Resource resource) {
+		Optional<MediaType> mediaType = MediaTypeFactory.getMediaType(resource);
+		if (!mediaType.isPresent() || this.mediaTypes.stream().noneMatch(type -> type.includes(mediaType.get()))) {
+			return false;
+		}
+		try {
+			return (resource.contentLength() >= this.minResourceSize);
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	@Nullable
+	private String getAcceptEncoding(HttpServletRequest request) {
+		String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+		return (header != null ? header.toLowerCase() : null);
+	}
+
+	@Override
+	protected String resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+
+	/**
+	 * A compressed {@link HttpResource}, with the last-modified timestamp and
+	 * filename of the original resource.
+	 */
+	static final class CompressedResource extends AbstractResource implements HttpResource {
+
+		private final Resource original;
+
+		private final String coding;
+
+		private final Resource compressed;
+
+		CompressedResource(Resource original, String coding, Resource compressed) {
+			this.original = original;
+			this.coding = coding;
+			this.compressed = compressed;
+		}
+
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return this.compressed.getInputStream();
+		}
+
+		@Override
+		public boolean exists() {
+			return this.compressed.exists();
+		}
+
+		@Override
+		public boolean isFile() {
+			return this.compressed.isFile();
+		}
+
+		@Override
+		public URL getURL() throws IOException {
+			return this.original.getURL();
+		}
+
+		@Override
+		public URI getURI() throws IOException {
+			return this.original.getURI();
+		}
+
+		@Override
+		public File getFile() throws IOException {
+			return this.compressed.getFile();
+		}
+
+		@Override
+		public long contentLength() throws IOException {
+			return this.compressed.contentLength();
+		}
+
+		@Override
+		public long lastModified() throws IOException {
+			return this.original.lastModified();
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return "compressed [" + this.original.getDescription() + "]";
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers;
+			if (this.original instanceof HttpResource) {
+				headers = ((HttpResource) this.original).getResponseHeaders();
+			}
+			else {
+				headers = new HttpHeaders();
+			}
+			headers.add(HttpHeaders.CONTENT_ENCODING, this.coding);
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			return headers;
+		}
+	}
+
+}
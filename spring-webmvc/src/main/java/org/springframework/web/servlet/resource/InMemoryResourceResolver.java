@@ -0,0 +1,312 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.ByteBufferResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Resolver that delegates to the chain, and keeps the content of resolved file
+ * resources in memory, so that subsequent requests for the same path are served
+ * without accessing the file system.
+ *
+ * <p>Content is loaded on first request, or memory-mapped if
+ * {@link #setMemoryMapped memoryMapped} is set, for resources of up to
+ * {@link #setMaxResourceSize maxResourceSize} bytes, and at most
+ * {@link #setMaxTotalSize maxTotalSize} bytes in total, evicting least recently
+ * used resources first. An {@literal "ETag"} is computed from the content when
+ * loaded. Resources are not checked for modification, unless a
+ * {@link #setCheckInterval checkInterval} is configured.
+ *
+ * <p>This resolver should be ordered after resolvers that wrap the resolved
+ * resource, such as {@link EncodedResourceResolver}, and ahead of the
+ * {@link VersionResourceResolver} and {@link PathResourceResolver}.
+ *
+ * @author Jinwei Sun
+ * @since 5.2
+ * @see CachingResourceResolver
+ */
+public class InMemoryResourceResolver extends AbstractResourceResolver {
+
+	private long maxResourceSize = 1024 * 1024;
+
+	private long maxTotalSize = 64 * 1024 * 1024;
+
+	private boolean memoryMapped;
+
+	@Nullable
+	private Duration checkInterval;
+
+	private final Map<String, InMemoryResource> resources = new LinkedHashMap<>(64, 0.75f, true);
+
+	private long totalSize;
+
+
+	/**
+	 * Configure the maximum size of a resource to keep in memory.
+	 * <p>By default this is set to 1M.
+	 */
+	public void setMaxResourceSize(long maxResourceSize) {
+		this.maxResourceSize = maxResourceSize;
+	}
+
+	/**
+	 * Configure the maximum total size of resources to keep in memory.
+	 * <p>By default this is set to 64M.
+	 */
+	public void setMaxTotalSize(long maxTotalSize) {
+		this.maxTotalSize = maxTotalSize;
+	}
+
+	/**
+	 * Whether to memory-map files rather than loading them onto the heap.
+	 * Mapped content lives outside of the heap and is paged in by the
+	 * operating system, but note that some operating systems do not allow
+	 * files to be modified or deleted while they are mapped, and that a
+	 * mapping is only released once garbage collected.
+	 * <p>By default this is set to {@code false}.
+	 */
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
+
+	/**
+	 * Configure the interval at which to check whether a resource kept in
+	 * memory was modified, in which case it is loaded again.
+	 * <p>By default this is not set, and resources are not checked.
+	 */
+	public void setCheckInterval(@Nullable Duration checkInterval) {
+		this.checkInterval = checkInterval;
+	}
+
+	/**
+	 * Return the total size of the resources kept in memory.
+	 */
+	public long getTotalSize() {
+		synchronized (this.resources) {
+			return this.totalSize;
+		}
+	}
+
+
+	@Override
+	protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		InMemoryResource cached = getCachedResource(requestPath);
+		if (cached != null) {
+			return cached;
+		}
+
+		Resource resource = chain.resolveResource(request, requestPath, locations);
+		if (resource == null || !isLoadable(resource)) {
+			return resource;
+		}
+
+		try {
+			InMemoryResource loaded = load(resource);
+			cacheResource(requestPath, loaded);
+			return loaded;
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to load [" + resource.getFilename() + "] into memory", ex);
+			}
+			return resource;
+		}
+	}
+
+	@Nullable
+	private InMemoryResource getCachedResource(String requestPath) {
+		InMemoryResource resource;
+		synchronized (this.resources) {
+			resource = this.resources.get(requestPath);
+		}
+		if (resource != null && this.checkInterval != null &&
+				resource.checkModified(this.checkInterval.toNanos())) {
+			synchronized (this.resources) {
+				if (this.resources.remove(requestPath, resource)) {
+					this.totalSize -= resource.contentLength();
+				}
+			}
+			return null;
+		}
+		return resource;
+	}
+
+	private boolean isLoadable(Resource resource) {
+		try {
+			return (resource.isFile() && resource.contentLength() <= this.maxResourceSize);
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	private InMemoryResource load(Resource resource) throws IOException {
+		long lastModified = resource.lastModified();
+		ByteBuffer content;
+		try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+			if (this.memoryMapped) {
+				content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			else {
+				content = ByteBuffer.allocate((int) channel.size());
+				int read;
+				do {
+					read = channel.read(content);
+				}
+				while (read >= 0 && content.hasRemaining());
+				((Buffer) content).flip();
+			}
+		}
+		return new InMemoryResource(resource, content, lastModified);
+	}
+
+	private void cacheResource(String requestPath, InMemoryResource resource) {
+		synchronized (this.resources) {
+			InMemoryResource previous = this.resources.put(requestPath, resource);
+			if (previous != null) {
+				this.totalSize -= previous.contentLength();
+			}
+			this.totalSize += resource.contentLength();
+			Iterator<InMemoryResource> iterator = this.resources.values().iterator();
+			while (this.totalSize > this.maxTotalSize && iterator.hasNext()) {
+				this.totalSize -= iterator.next().contentLength();
+				iterator.remove();
+			}
+		}
+	}
+
+	@Override
+	protected String resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+
+	/**
+	 * An {@link HttpResource} with content held in memory, and the filename
+	 * and location of the original resource.
+	 */
+	static final class InMemoryResource extends ByteBufferResource implements HttpResource {
+
+		private final Resource original;
+
+		private final long lastModified;
+
+		private final String eTag;
+
+		private volatile long lastChecked = System.nanoTime();
+
+		InMemoryResource(Resource original, ByteBuffer content, long lastModified) throws IOException {
+			super(content, original.getDescription());
+			this.original = original;
+			this.lastModified = lastModified;
+			this.eTag = "\"" + DigestUtils.md5DigestAsHex(getInputStream()) + "\"";
+		}
+
+		boolean checkModified(long checkIntervalNanos) {
+			long now = System.nanoTime();
+			if (now - this.lastChecked < checkIntervalNanos) {
+				return false;
+			}
+			this.lastChecked = now;
+			try {
+				return (this.original.lastModified() != this.lastModified);
+			}
+			catch (IOException ex) {
+				return true;
+			}
+		}
+
+		@Override
+		public URL getURL() throws IOException {
+			return this.original.getURL();
+		}
+
+		@Override
+		public URI getURI() throws IOException {
+			return this.original.getURI();
+		}
+
+		@Override
+		public long lastModified() {
+			return this.lastModified;
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return "in-memory [" + this.original.getDescription() + "]";
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers;
+			if (this.original instanceof HttpResource) {
+				headers = ((HttpResource) this.original).getResponseHeaders();
+			}
+			else {
+				headers = new HttpHeaders();
+			}
+			if (headers.getETag() == null) {
+				headers.setETag(this.eTag);
+			}
+			return headers;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this);
+		}
+	}
+
+}
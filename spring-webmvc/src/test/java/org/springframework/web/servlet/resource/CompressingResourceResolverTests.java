@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CompressingResourceResolver}.
+ *
+ * @author Jinwei Sun
+ */
+public class CompressingResourceResolverTests {
+
+	private static final String CONTENT = String.join("\n", Collections.nCopies(200, "var foo = 'bar';"));
+
+
+	private final CompressingResourceResolver compressingResolver = new CompressingResourceResolver();
+
+	private ResourceResolverChain resolver;
+
+	private List<Resource> locations;
+
+	private Path directory;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.directory = Files.createTempDirectory("CompressingResourceResolverTests");
+		Files.write(this.directory.resolve("foo.js"), CONTENT.getBytes(StandardCharsets.UTF_8));
+		Files.write(this.directory.resolve("small.js"), "var foo;".getBytes(StandardCharsets.UTF_8));
+		Files.write(this.directory.resolve("foo.png"), CONTENT.getBytes(StandardCharsets.UTF_8));
+
+		List<ResourceResolver> resolvers = new ArrayList<>();
+		resolvers.add(this.compressingResolver);
+		resolvers.add(new PathResourceResolver());
+		this.resolver = new DefaultResourceResolverChain(resolvers);
+		this.locations = Collections.singletonList(new FileSystemResource(this.directory.toFile().getPath() + "/"));
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		this.compressingResolver.getCache().clear();
+		FileSystemUtils.deleteRecursively(this.directory);
+	}
+
+
+	@Test
+	public void resolveCompressed() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip, deflate");
+		Resource actual = this.resolver.resolveResource(request, "foo.js", this.locations);
+
+		assertTrue(actual instanceof HttpResource);
+		assertEquals("foo.js", actual.getFilename());
+		assertTrue(actual.contentLength() < CONTENT.length());
+		HttpHeaders headers = ((HttpResource) actual).getResponseHeaders();
+		assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("Accept-Encoding", headers.getFirst(HttpHeaders.VARY));
+
+		try (InputStream input = new GZIPInputStream(actual.getInputStream())) {
+			assertEquals(CONTENT, StreamUtils.copyToString(input, StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void resolveUncompressed() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip");
+
+		assertFalse(this.resolver.resolveResource(request, "small.js", this.locations) instanceof HttpResource);
+		assertFalse(this.resolver.resolveResource(request, "foo.png", this.locations) instanceof HttpResource);
+		assertFalse(this.resolver.resolveResource(
+				new MockHttpServletRequest(), "foo.js", this.locations) instanceof HttpResource);
+	}
+
+}
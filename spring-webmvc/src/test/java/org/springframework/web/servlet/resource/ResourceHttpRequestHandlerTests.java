@@ -474,6 +474,19 @@ public class ResourceHttpRequestHandlerTests {
 		assertEquals(HttpServletResponse.SC_NOT_MODIFIED, this.response.getStatus());
 	}
 
+	@Test
+	public void notModifiedETag() throws Exception {
+		VersionResourceResolver versionResolver = new VersionResourceResolver()
+				.addFixedVersionStrategy("versionString", "/**");
+		this.handler.setResourceResolvers(Arrays.asList(versionResolver, new PathResourceResolver()));
+		this.handler.afterPropertiesSet();
+
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "versionString/foo.css");
+		this.request.addHeader("If-None-Match", "\"versionString\"");
+		this.handler.handleRequest(this.request, this.response);
+		assertEquals(HttpServletResponse.SC_NOT_MODIFIED, this.response.getStatus());
+	}
+
 	@Test
 	public void modified() throws Exception {
 		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
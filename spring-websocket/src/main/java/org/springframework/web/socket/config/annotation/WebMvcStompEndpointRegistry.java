@@ -77,6 +77,12 @@ public class WebMvcStompEndpointRegistry implements StompEndpointRegistry {
 		if (transportRegistration.getSendBufferSizeLimit() != null) {
 			this.subProtocolWebSocketHandler.setSendBufferSizeLimit(transportRegistration.getSendBufferSizeLimit());
 		}
+		if (transportRegistration.getSendBatchSize() != null) {
+			this.subProtocolWebSocketHandler.setSendBatchSize(transportRegistration.getSendBatchSize());
+		}
+		if (transportRegistration.getSendBatchLinger() != null) {
+			this.subProtocolWebSocketHandler.setSendBatchLinger(transportRegistration.getSendBatchLinger());
+		}
 		if (transportRegistration.getTimeToFirstMessage() != null) {
 			this.subProtocolWebSocketHandler.setTimeToFirstMessage(transportRegistration.getTimeToFirstMessage());
 		}
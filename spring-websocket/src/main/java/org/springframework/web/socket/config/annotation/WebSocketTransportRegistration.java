@@ -40,6 +40,12 @@ public class WebSocketTransportRegistration {
 	@Nullable
 	private Integer sendBufferSizeLimit;
 
+	@Nullable
+	private Integer sendBatchSize;
+
+	@Nullable
+	private Integer sendBatchLinger;
+
 	@Nullable
 	private Integer timeToFirstMessage;
 
@@ -154,6 +160,51 @@ public class WebSocketTransportRegistration {
 		return this.sendBufferSizeLimit;
 	}
 
+	/**
+	 * Configure the maximum number of buffered messages to send to a WebSocket
+	 * session as a batch. When message sending is slower than the rate of
+	 * messages, the thread that sends drains up to this many buffered messages
+	 * at a time and, with JSR-356 containers, lets the container gather them
+	 * into fewer network writes.
+	 * <p>The default value is 1, i.e. messages are sent one at a time.
+	 * @param sendBatchSize the maximum number of messages per batch
+	 * @since 5.2
+	 */
+	public WebSocketTransportRegistration setSendBatchSize(int sendBatchSize) {
+		this.sendBatchSize = sendBatchSize;
+		return this;
+	}
+
+	/**
+	 * Protected accessor for internal use.
+	 */
+	@Nullable
+	protected Integer getSendBatchSize() {
+		return this.sendBatchSize;
+	}
+
+	/**
+	 * Configure how long to wait for more messages before sending a batch
+	 * that is not full yet. This only applies when the
+	 * {@link #setSendBatchSize sendBatchSize} is greater than 1.
+	 * <p>The default value is 0, i.e. batches are sent with the messages
+	 * already buffered.
+	 * @param sendBatchLinger the time to wait, in milliseconds
+	 * @since 5.2
+	 */
+	public WebSocketTransportRegistration setSendBatchLinger(int sendBatchLinger) {
+		this.sendBatchLinger = sendBatchLinger;
+		return this;
+	}
+
+	/**
+	 * Protected accessor for internal use.
+	 */
+	@Nullable
+	protected Integer getSendBatchLinger() {
+		return this.sendBatchLinger;
+	}
+
 	/**
 	 * Set the maximum time allowed in milliseconds after the WebSocket connection
 	 * is established and before the first sub-protocol message is received.
@@ -17,18 +17,28 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
+import javax.websocket.RemoteEndpoint;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
 
 /**
  * Wrap a {@link org.springframework.web.socket.WebSocketSession WebSocketSession}
@@ -39,6 +49,15 @@ import org.springframework.web.socket.WebSocketSession;
  * At that time, the specified buffer-size limit and send-time limit will be checked
  * and the session will be closed if the limits are exceeded.
  *
+ * <p>If a {@link #setBatchSize batch size} greater than 1 is configured, the
+ * thread that holds the flush lock drains up to that many buffered messages
+ * at a time, optionally waiting for the {@link #setBatchLinger batch linger}
+ * time for more messages to arrive, and writes them as a batch. For JSR-356
+ * sessions, the batch is written with batching enabled on the remote
+ * endpoint, so the container can gather the frames into fewer writes.
+ * The time taken by each send, or batch send, is recorded in a
+ * {@link #getSendTimeHistogram() histogram}.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 4.0.3
@@ -47,6 +66,9 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private static final Log logger = LogFactory.getLog(ConcurrentWebSocketSessionDecorator.class);
 
+	private static final boolean jsr356Present = ClassUtils.isPresent(
+			"javax.websocket.Session", ConcurrentWebSocketSessionDecorator.class.getClassLoader());
+
 
 	private final int sendTimeLimit;
 
@@ -54,7 +76,7 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private final OverflowStrategy overflowStrategy;
 
-	private final Queue<WebSocketMessage<?>> buffer = new LinkedBlockingQueue<>();
+	private final Queue<WebSocketMessage<?>> buffer = new ConcurrentLinkedQueue<>();
 
 	private final AtomicInteger bufferSize = new AtomicInteger();
 
@@ -68,6 +90,12 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private final Lock closeLock = new ReentrantLock();
 
+	private int batchSize = 1;
+
+	private long batchLingerNanos;
+
+	private final SendTimeHistogram sendTimeHistogram = new SendTimeHistogram();
+
 
 	/**
 	 * Basic constructor.
@@ -98,6 +126,56 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 	}
 
 
+	/**
+	 * Configure the maximum number of buffered messages to send as a batch.
+	 * <p>By default this is set to 1, i.e. messages are sent one at a time.
+	 * @since 5.2
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the configured maximum number of messages to send as a batch.
+	 * @since 5.2
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Configure how long to wait for more messages to arrive before sending
+	 * a batch that is not full yet. This only applies if the
+	 * {@link #setBatchSize batch size} is greater than 1, and delays the
+	 * thread that sends, but not threads that only buffer messages.
+	 * <p>By default this is not set, and a batch is sent with the messages
+	 * that are already buffered.
+	 * @since 5.2
+	 */
+	public void setBatchLinger(Duration batchLinger) {
+		Assert.notNull(batchLinger, "Batch linger must not be null");
+		Assert.isTrue(!batchLinger.isNegative(), "Batch linger must not be negative");
+		this.batchLingerNanos = batchLinger.toNanos();
+	}
+
+	/**
+	 * Return the configured batch linger time.
+	 * @since 5.2
+	 */
+	public Duration getBatchLinger() {
+		return Duration.ofNanos(this.batchLingerNanos);
+	}
+
+	/**
+	 * Return the histogram of the time taken by sends, or batch sends, on
+	 * this session.
+	 * @since 5.2
+	 */
+	public SendTimeHistogram getSendTimeHistogram() {
+		return this.sendTimeHistogram;
+	}
+
 	/**
 	 * Return the configured send-time limit (milliseconds).
 	 * @since 4.3.13
@@ -166,10 +244,17 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 					if (message == null || shouldNotSend()) {
 						break;
 					}
-					this.bufferSize.addAndGet(-message.getPayloadLength());
-					this.sendStartTime = System.currentTimeMillis();
-					getDelegate().sendMessage(message);
-					this.sendStartTime = 0;
+					if (this.batchSize > 1) {
+						sendBatch(message);
+					}
+					else {
+						this.bufferSize.addAndGet(-message.getPayloadLength());
+						this.sendStartTime = System.currentTimeMillis();
+						long start = System.nanoTime();
+						getDelegate().sendMessage(message);
+						this.sendTimeHistogram.record(System.nanoTime() - start);
+						this.sendStartTime = 0;
+					}
 				}
 			}
 			finally {
@@ -181,6 +266,43 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return false;
 	}
 
+	private void sendBatch(WebSocketMessage<?> first) throws IOException {
+		List<WebSocketMessage<?>> batch = new ArrayList<>(Math.min(this.batchSize, 16));
+		batch.add(first);
+		long deadline = System.nanoTime() + this.batchLingerNanos;
+		while (batch.size() < this.batchSize) {
+			WebSocketMessage<?> message = this.buffer.poll();
+			if (message != null) {
+				batch.add(message);
+				continue;
+			}
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0 || shouldNotSend()) {
+				break;
+			}
+			LockSupport.parkNanos(Math.min(remaining, TimeUnit.MICROSECONDS.toNanos(100)));
+		}
+
+		int length = 0;
+		for (WebSocketMessage<?> message : batch) {
+			length += message.getPayloadLength();
+		}
+		this.bufferSize.addAndGet(-length);
+		this.sendStartTime = System.currentTimeMillis();
+		long start = System.nanoTime();
+		WebSocketSession session = getLastSession();
+		if (jsr356Present && StandardBatchWriter.supports(session)) {
+			StandardBatchWriter.write(getDelegate(), session, batch);
+		}
+		else {
+			for (WebSocketMessage<?> message : batch) {
+				getDelegate().sendMessage(message);
+			}
+		}
+		this.sendTimeHistogram.record(System.nanoTime() - start);
+		this.sendStartTime = 0;
+	}
+
 	private void checkSessionLimits() {
 		if (!shouldNotSend() && this.closeLock.tryLock()) {
 			try {
@@ -263,6 +385,106 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 	}
 
 
+	/**
+	 * Histogram of send times, with buckets bounded by
+	 * {@link #getBucketLimits() limits} from 1 millisecond to 5 seconds,
+	 * and a last bucket for longer send times.
+	 * @since 5.2
+	 */
+	public static final class SendTimeHistogram {
+
+		private static final long[] BUCKET_LIMITS =
+				{1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+		private final AtomicLongArray counts = new AtomicLongArray(BUCKET_LIMITS.length + 1);
+
+		SendTimeHistogram() {
+		}
+
+		void record(long nanos) {
+			long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+			int bucket = 0;
+			while (bucket < BUCKET_LIMITS.length && millis >= BUCKET_LIMITS[bucket]) {
+				bucket++;
+			}
+			this.counts.incrementAndGet(bucket);
+		}
+
+		/**
+		 * Return the exclusive upper limits of the buckets, in milliseconds;
+		 * the last bucket has no limit.
+		 */
+		public long[] getBucketLimits() {
+			return BUCKET_LIMITS.clone();
+		}
+
+		/**
+		 * Return the number of sends per bucket, with one more element than
+		 * the {@link #getBucketLimits() bucket limits}.
+		 */
+		public long[] getCounts() {
+			long[] result = new long[this.counts.length()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = this.counts.get(i);
+			}
+			return result;
+		}
+
+		/**
+		 * Return the total number of sends.
+		 */
+		public long getTotalCount() {
+			long total = 0;
+			for (int i = 0; i < this.counts.length(); i++) {
+				total += this.counts.get(i);
+			}
+			return total;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder("[");
+			for (int i = 0; i < this.counts.length(); i++) {
+				if (i > 0) {
+					sb.append(", ");
+				}
+				String bucket = (i < BUCKET_LIMITS.length ?
+						"<" + BUCKET_LIMITS[i] : ">=" + BUCKET_LIMITS[BUCKET_LIMITS.length - 1]);
+				sb.append(bucket).append("ms=").append(this.counts.get(i));
+			}
+			return sb.append(']').toString();
+		}
+	}
+
+
+	/**
+	 * Writes a batch with batching enabled on a JSR-356 remote endpoint,
+	 * and flushes the batch when done.
+	 */
+	private static class StandardBatchWriter {
+
+		static boolean supports(WebSocketSession session) {
+			return (session instanceof StandardWebSocketSession);
+		}
+
+		static void write(WebSocketSession delegate, WebSocketSession session,
+				List<WebSocketMessage<?>> batch) throws IOException {
+
+			RemoteEndpoint.Basic remote = ((StandardWebSocketSession) session).getNativeSession().getBasicRemote();
+			remote.setBatchingAllowed(true);
+			try {
+				for (WebSocketMessage<?> message : batch) {
+					delegate.sendMessage(message);
+				}
+				remote.flushBatch();
+			}
+			finally {
+				remote.setBatchingAllowed(false);
+			}
+		}
+	}
+
+
 	/**
 	 * Enum for options of what to do when the buffer fills up.
 	 * @since 5.1
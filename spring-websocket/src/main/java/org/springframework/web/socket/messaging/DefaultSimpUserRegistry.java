@@ -17,6 +17,7 @@
 package org.springframework.web.socket.messaging;
 
 import java.security.Principal;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -42,6 +43,11 @@ import org.springframework.util.Assert;
  * {@link AbstractSubProtocolEvent} application context events to keep
  * track of connected users and their subscriptions.
  *
+ * <p>Users, sessions and subscriptions are updated without a registry-wide
+ * lock, relying on the per-key atomicity of {@link ConcurrentHashMap} instead,
+ * and subscriptions are also indexed by destination for
+ * {@link #findSubscriptionsForDestination}.
+ *
  * @author Rossen Stoyanchev
  * @since 4.2
  */
@@ -55,7 +61,8 @@ public class DefaultSimpUserRegistry implements SimpUserRegistry, SmartApplicati
 	/* Secondary lookup across all sessions by id */
 	private final Map<String, LocalSimpSession> sessions = new ConcurrentHashMap<>();
 
-	private final Object sessionLock = new Object();
+	/* Secondary lookup across all subscriptions by destination */
+	private final Map<String, Set<SimpSubscription>> subscriptionsByDestination = new ConcurrentHashMap<>();
 
 
 	/**
@@ -98,7 +105,16 @@ public class DefaultSimpUserRegistry implements SimpUserRegistry, SmartApplicati
 				String id = accessor.getSubscriptionId();
 				String destination = accessor.getDestination();
 				if (id != null && destination != null) {
-					session.addSubscription(id, destination);
+					LocalSimpSubscription subscription = new LocalSimpSubscription(id, destination, session);
+					SimpSubscription previous = session.addSubscription(subscription);
+					if (previous != null) {
+						removeFromDestinationIndex(previous);
+					}
+					addToDestinationIndex(subscription);
+					if (this.sessions.get(sessionId) != session) {
+						// Disconnected concurrently, possibly before the subscription was indexed
+						removeFromDestinationIndex(subscription);
+					}
 				}
 			}
 		}
@@ -111,27 +127,26 @@ public class DefaultSimpUserRegistry implements SimpUserRegistry, SmartApplicati
 			if (user instanceof DestinationUserNameProvider) {
 				name = ((DestinationUserNameProvider) user).getDestinationUserName();
 			}
-			synchronized (this.sessionLock) {
-				LocalSimpUser simpUser = this.users.get(name);
+			this.users.compute(name, (key, simpUser) -> {
 				if (simpUser == null) {
-					simpUser = new LocalSimpUser(name);
-					this.users.put(name, simpUser);
+					simpUser = new LocalSimpUser(key);
 				}
 				LocalSimpSession session = new LocalSimpSession(sessionId, simpUser);
 				simpUser.addSession(session);
 				this.sessions.put(sessionId, session);
-			}
+				return simpUser;
+			});
 		}
 		else if (event instanceof SessionDisconnectEvent) {
-			synchronized (this.sessionLock) {
-				LocalSimpSession session = this.sessions.remove(sessionId);
-				if (session != null) {
-					LocalSimpUser user = session.getUser();
-					user.removeSession(sessionId);
-					if (!user.hasSessions()) {
-						this.users.remove(user.getName());
-					}
+			LocalSimpSession session = this.sessions.remove(sessionId);
+			if (session != null) {
+				for (SimpSubscription subscription : session.subscriptions.values()) {
+					removeFromDestinationIndex(subscription);
 				}
+				this.users.computeIfPresent(session.getUser().getName(), (key, simpUser) -> {
+					simpUser.removeSession(sessionId);
+					return (simpUser.hasSessions() ? simpUser : null);
+				});
 			}
 		}
 		else if (event instanceof SessionUnsubscribeEvent) {
@@ -139,12 +154,32 @@ public class DefaultSimpUserRegistry implements SimpUserRegistry, SmartApplicati
 			if (session != null) {
 				String subscriptionId = accessor.getSubscriptionId();
 				if (subscriptionId != null) {
-					session.removeSubscription(subscriptionId);
+					SimpSubscription subscription = session.removeSubscription(subscriptionId);
+					if (subscription != null) {
+						removeFromDestinationIndex(subscription);
+					}
 				}
 			}
 		}
 	}
 
+	private void addToDestinationIndex(SimpSubscription subscription) {
+		this.subscriptionsByDestination.compute(subscription.getDestination(), (key, subscriptions) -> {
+			if (subscriptions == null) {
+				subscriptions = ConcurrentHashMap.newKeySet();
+			}
+			subscriptions.add(subscription);
+			return subscriptions;
+		});
+	}
+
+	private void removeFromDestinationIndex(SimpSubscription subscription) {
+		this.subscriptionsByDestination.computeIfPresent(subscription.getDestination(), (key, subscriptions) -> {
+			subscriptions.remove(subscription);
+			return (subscriptions.isEmpty() ? null : subscriptions);
+		});
+	}
+
 	@Override
 	public boolean supportsSourceType(@Nullable Class<?> sourceType) {
 		return true;
@@ -181,6 +216,12 @@ public class DefaultSimpUserRegistry implements SimpUserRegistry, SmartApplicati
 		return result;
 	}
 
+	@Override
+	public Set<SimpSubscription> findSubscriptionsForDestination(String destination) {
+		Set<SimpSubscription> subscriptions = this.subscriptionsByDestination.get(destination);
+		return (subscriptions != null ? new HashSet<>(subscriptions) : Collections.emptySet());
+	}
+
 
 	@Override
 	public String toString() {
@@ -276,12 +317,14 @@ public class DefaultSimpUserRegistry implements SimpUserRegistry, SmartApplicati
 			return new HashSet<>(this.subscriptions.values());
 		}
 
-		void addSubscription(String id, String destination) {
-			this.subscriptions.put(id, new LocalSimpSubscription(id, destination, this));
+		@Nullable
+		SimpSubscription addSubscription(LocalSimpSubscription subscription) {
+			return this.subscriptions.put(subscription.getId(), subscription);
 		}
 
-		void removeSubscription(String id) {
-			this.subscriptions.remove(id);
+		@Nullable
+		SimpSubscription removeSubscription(String id) {
+			return this.subscriptions.remove(id);
 		}
 
 		@Override
@@ -445,7 +445,12 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 	private void sendToClient(WebSocketSession session, StompHeaderAccessor stompAccessor, byte[] payload) {
 		StompCommand command = stompAccessor.getCommand();
 		try {
-			byte[] bytes = this.stompEncoder.encode(stompAccessor.getMessageHeaders(), payload);
+			// Share the encoding of a payload that a broker sends to several subscriptions
+			boolean broadcastCopy = (StompCommand.MESSAGE.equals(command) &&
+					stompAccessor.getHeader(SimpMessageHeaderAccessor.BROADCAST_COPY) != null);
+			byte[] bytes = (broadcastCopy ?
+					this.stompEncoder.encodeBroadcast(stompAccessor.getMessageHeaders(), payload) :
+					this.stompEncoder.encode(stompAccessor.getMessageHeaders(), payload));
 			boolean useBinary = (payload.length > 0 && !(session instanceof SockJsSession) &&
 					MimeTypeUtils.APPLICATION_OCTET_STREAM.isCompatibleWith(stompAccessor.getContentType()));
 			if (useBinary) {
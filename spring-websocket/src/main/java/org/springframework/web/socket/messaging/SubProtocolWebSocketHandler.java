@@ -16,6 +16,7 @@
 
 package org.springframework.web.socket.messaging;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -93,6 +94,10 @@ public class SubProtocolWebSocketHandler
 
 	private int sendBufferSizeLimit = 512 * 1024;
 
+	private int sendBatchSize = 1;
+
+	private int sendBatchLinger;
+
 	private int timeToFirstMessage = DEFAULT_TIME_TO_FIRST_MESSAGE;
 
 	private volatile long lastSessionCheckTime = System.currentTimeMillis();
@@ -221,6 +226,45 @@ public class SubProtocolWebSocketHandler
 		return this.sendBufferSizeLimit;
 	}
 
+	/**
+	 * Specify the maximum number of buffered messages to send to a session
+	 * as a batch.
+	 * <p>By default this is set to 1, i.e. messages are sent one at a time.
+	 * @since 5.2
+	 * @see ConcurrentWebSocketSessionDecorator#setBatchSize(int)
+	 */
+	public void setSendBatchSize(int sendBatchSize) {
+		this.sendBatchSize = sendBatchSize;
+	}
+
+	/**
+	 * Return the maximum number of messages to send as a batch.
+	 * @since 5.2
+	 */
+	public int getSendBatchSize() {
+		return this.sendBatchSize;
+	}
+
+	/**
+	 * Specify how long to wait for more messages before sending a batch that
+	 * is not full yet (milliseconds).
+	 * <p>By default this is set to 0.
+	 * @since 5.2
+	 * @see ConcurrentWebSocketSessionDecorator#setBatchLinger(Duration)
+	 */
+	public void setSendBatchLinger(int sendBatchLinger) {
+		this.sendBatchLinger = sendBatchLinger;
+	}
+
+	/**
+	 * Return the time to wait for more messages before sending a batch
+	 * (milliseconds).
+	 * @since 5.2
+	 */
+	public int getSendBatchLinger() {
+		return this.sendBatchLinger;
+	}
+
 	/**
 	 * Set the maximum time allowed in milliseconds after the WebSocket connection
 	 * is established and before the first sub-protocol message is received.
@@ -394,14 +438,19 @@ public class SubProtocolWebSocketHandler
 	/**
 	 * Decorate the given {@link WebSocketSession}, if desired.
 	 * <p>The default implementation builds a {@link ConcurrentWebSocketSessionDecorator}
-	 * with the configured {@link #getSendTimeLimit() send-time limit} and
-	 * {@link #getSendBufferSizeLimit() buffer-size limit}.
+	 * with the configured {@link #getSendTimeLimit() send-time limit},
+	 * {@link #getSendBufferSizeLimit() buffer-size limit}, and
+	 * {@link #getSendBatchSize() batch settings}.
 	 * @param session the original {@code WebSocketSession}
 	 * @return the decorated {@code WebSocketSession}, or potentially the given session as-is
 	 * @since 4.3.13
 	 */
 	protected WebSocketSession decorateSession(WebSocketSession session) {
-		return new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit());
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit());
+		decorator.setBatchSize(getSendBatchSize());
+		decorator.setBatchLinger(Duration.ofMillis(getSendBatchLinger()));
+		return decorator;
 	}
 
 	/**
@@ -140,6 +140,8 @@ public class WebSocketMessageBrokerConfigurationSupportTests {
 		assertEquals(1024 * 1024, subWsHandler.getSendBufferSizeLimit());
 		assertEquals(25 * 1000, subWsHandler.getSendTimeLimit());
 		assertEquals(30 * 1000, subWsHandler.getTimeToFirstMessage());
+		assertEquals(16, subWsHandler.getSendBatchSize());
+		assertEquals(5, subWsHandler.getSendBatchLinger());
 
 		Map<String, SubProtocolHandler> handlerMap = subWsHandler.getProtocolHandlerMap();
 		StompSubProtocolHandler protocolHandler = (StompSubProtocolHandler) handlerMap.get("v12.stomp");
@@ -236,6 +238,8 @@ public class WebSocketMessageBrokerConfigurationSupportTests {
 			registration.setSendTimeLimit(25 * 1000);
 			registration.setSendBufferSizeLimit(1024 * 1024);
 			registration.setTimeToFirstMessage(30 * 1000);
+			registration.setSendBatchSize(16);
+			registration.setSendBatchLinger(5);
 		}
 
 		@Override
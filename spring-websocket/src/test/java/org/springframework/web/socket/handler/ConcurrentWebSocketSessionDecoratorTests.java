@@ -17,6 +17,7 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -173,6 +174,55 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 
 	}
 
+	@Test
+	public void sendBatch() throws Exception {
+
+		TestWebSocketSession session = new TestWebSocketSession();
+		session.setOpen(true);
+
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 10 * 1000, 1024);
+		decorator.setBatchSize(3);
+		decorator.setBatchLinger(Duration.ofSeconds(5));
+
+		CountDownLatch sentLatch = new CountDownLatch(1);
+		Executors.newSingleThreadExecutor().submit(() -> {
+			try {
+				decorator.sendMessage(new TextMessage("first"));
+				sentLatch.countDown();
+			}
+			catch (IOException ex) {
+				ex.printStackTrace();
+			}
+		});
+
+		// The first sender lingers for more messages while holding the flush lock
+		Thread.sleep(100);
+		decorator.sendMessage(new TextMessage("second"));
+		decorator.sendMessage(new TextMessage("third"));
+
+		assertTrue(sentLatch.await(2, TimeUnit.SECONDS));
+		assertEquals(3, session.getSentMessages().size());
+		assertEquals(0, decorator.getBufferSize());
+		assertEquals(1, decorator.getSendTimeHistogram().getTotalCount());
+	}
+
+	@Test
+	public void sendTimeHistogram() throws IOException {
+
+		TestWebSocketSession session = new TestWebSocketSession();
+		session.setOpen(true);
+
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 1000, 1024);
+		decorator.sendMessage(new TextMessage("first"));
+		decorator.sendMessage(new TextMessage("second"));
+
+		long[] counts = decorator.getSendTimeHistogram().getCounts();
+		assertEquals(decorator.getSendTimeHistogram().getBucketLimits().length + 1, counts.length);
+		assertEquals(2, decorator.getSendTimeHistogram().getTotalCount());
+	}
+
 	@Test
 	public void closeStatusNormal() throws Exception {
 
@@ -159,6 +159,71 @@ public class DefaultSimpUserRegistryTests {
 		assertEquals(new HashSet<>(Arrays.asList("sub1", "sub2")), sessionIds);
 	}
 
+	@Test
+	public void findSubscriptionsForDestination() throws Exception {
+		DefaultSimpUserRegistry registry = new DefaultSimpUserRegistry();
+
+		TestPrincipal user = new TestPrincipal("joe");
+		Message<byte[]> message = createMessage(SimpMessageType.CONNECT_ACK, "123");
+		registry.onApplicationEvent(new SessionConnectedEvent(this, message, user));
+
+		message = createMessage(SimpMessageType.SUBSCRIBE, "123", "sub1", "/match");
+		registry.onApplicationEvent(new SessionSubscribeEvent(this, message, user));
+
+		message = createMessage(SimpMessageType.SUBSCRIBE, "123", "sub2", "/match");
+		registry.onApplicationEvent(new SessionSubscribeEvent(this, message, user));
+
+		message = createMessage(SimpMessageType.SUBSCRIBE, "123", "sub3", "/not-a-match");
+		registry.onApplicationEvent(new SessionSubscribeEvent(this, message, user));
+
+		assertEquals(2, registry.findSubscriptionsForDestination("/match").size());
+		assertEquals(1, registry.findSubscriptionsForDestination("/not-a-match").size());
+		assertTrue(registry.findSubscriptionsForDestination("/other").isEmpty());
+
+		message = createMessage(SimpMessageType.UNSUBSCRIBE, "123", "sub1", null);
+		registry.onApplicationEvent(new SessionUnsubscribeEvent(this, message, user));
+
+		Set<SimpSubscription> matches = registry.findSubscriptionsForDestination("/match");
+		assertEquals(1, matches.size());
+		assertEquals("sub2", matches.iterator().next().getId());
+
+		message = createMessage(SimpMessageType.DISCONNECT, "123");
+		registry.onApplicationEvent(new SessionDisconnectEvent(this, message, "123", CloseStatus.NORMAL, user));
+
+		assertTrue(registry.findSubscriptionsForDestination("/match").isEmpty());
+		assertTrue(registry.findSubscriptionsForDestination("/not-a-match").isEmpty());
+		assertEquals(0, registry.getUserCount());
+	}
+
+	@Test
+	public void subscribeWhileDisconnecting() throws Exception {
+		DefaultSimpUserRegistry registry = new DefaultSimpUserRegistry();
+
+		TestPrincipal user = new TestPrincipal("joe");
+		Message<byte[]> message = createMessage(SimpMessageType.CONNECT_ACK, "123");
+		registry.onApplicationEvent(new SessionConnectedEvent(this, message, user));
+
+		// Disconnect once the subscribe event has looked up the session
+		Message<byte[]> disconnect = createMessage(SimpMessageType.DISCONNECT, "123");
+		SimpMessageHeaderAccessor accessor = new SimpMessageHeaderAccessor(SimpMessageType.SUBSCRIBE, null) {
+			@Override
+			public String getDestination() {
+				registry.onApplicationEvent(
+						new SessionDisconnectEvent(this, disconnect, "123", CloseStatus.NORMAL, user));
+				return super.getDestination();
+			}
+		};
+		accessor.setSessionId("123");
+		accessor.setSubscriptionId("sub1");
+		accessor.setDestination("/match");
+		accessor.setLeaveMutable(true);
+		message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+		registry.onApplicationEvent(new SessionSubscribeEvent(this, message, user));
+
+		assertTrue(registry.findSubscriptionsForDestination("/match").isEmpty());
+		assertEquals(0, registry.getUserCount());
+	}
+
 	@Test
 	public void nullSessionId() throws Exception {
 		DefaultSimpUserRegistry registry = new DefaultSimpUserRegistry();
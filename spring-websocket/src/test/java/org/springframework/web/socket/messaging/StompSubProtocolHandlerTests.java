@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.web.socket.messaging;
 
 import java.io.IOException;
 import java.security.Principal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -254,6 +255,28 @@ public class StompSubProtocolHandlerTests {
 		assertFalse(((String) textMessage.getPayload()).contains(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION));
 	}
 
+	@Test
+	public void handleMessageToClientWithBroadcastCopies() {
+		byte[] payload = "payload".getBytes(StandardCharsets.UTF_8);
+		List<Message<byte[]>> messages = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+			headers.setMessageId("mess" + i);
+			headers.setSubscriptionId("sub" + i);
+			headers.setDestination("/topic/foo");
+			headers.setHeader(SimpMessageHeaderAccessor.BROADCAST_COPY, Boolean.TRUE);
+			messages.add(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+			this.protocolHandler.handleMessageToClient(this.session, messages.get(i));
+		}
+
+		assertEquals(2, this.session.getSentMessages().size());
+		StompEncoder encoder = new StompEncoder();
+		for (int i = 0; i < 2; i++) {
+			String frame = (String) this.session.getSentMessages().get(i).getPayload();
+			assertEquals(new String(encoder.encode(messages.get(i)), StandardCharsets.UTF_8), frame);
+		}
+	}
+
 	// SPR-12475
 
 	@Test